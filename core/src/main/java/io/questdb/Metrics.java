@@ -25,6 +25,7 @@
 package io.questdb;
 
 import io.questdb.cairo.TableWriterMetrics;
+import io.questdb.cairo.sql.QueryCacheMetrics;
 import io.questdb.cutlass.http.processors.JsonQueryMetrics;
 import io.questdb.cutlass.pgwire.PGWireMetrics;
 import io.questdb.metrics.*;
@@ -39,6 +40,7 @@ public class Metrics implements Scrapable {
     private final JsonQueryMetrics jsonQuery;
     private final MetricsRegistry metricsRegistry;
     private final PGWireMetrics pgWire;
+    private final QueryCacheMetrics queryCache;
     private final Runtime runtime = Runtime.getRuntime();
     private final VirtualGauge.StatProvider jvmFreeMemRef = runtime::freeMemory;
     private final VirtualGauge.StatProvider jvmTotalMemRef = runtime::totalMemory;
@@ -50,6 +52,7 @@ public class Metrics implements Scrapable {
         this.gcMetrics = new GCMetrics();
         this.jsonQuery = new JsonQueryMetrics(metricsRegistry);
         this.pgWire = new PGWireMetrics(metricsRegistry);
+        this.queryCache = new QueryCacheMetrics(metricsRegistry);
         this.healthCheck = new HealthMetricsImpl(metricsRegistry);
         this.tableWriter = new TableWriterMetrics(metricsRegistry);
         createMemoryGauges(metricsRegistry);
@@ -80,6 +83,10 @@ public class Metrics implements Scrapable {
         return pgWire;
     }
 
+    public QueryCacheMetrics queryCache() {
+        return queryCache;
+    }
+
     @Override
     public void scrapeIntoPrometheus(CharSink sink) {
         metricsRegistry.scrapeIntoPrometheus(sink);
@@ -101,6 +108,8 @@ public class Metrics implements Scrapable {
         metricsRegistry.newVirtualGauge("memory_mem_used", Unsafe::getMemUsed);
         metricsRegistry.newVirtualGauge("memory_malloc_count", Unsafe::getMallocCount);
         metricsRegistry.newVirtualGauge("memory_realloc_count", Unsafe::getReallocCount);
+        metricsRegistry.newVirtualGauge("memory_huge_page_advise_count", Unsafe::getHugePageAdviseCount);
+        metricsRegistry.newVirtualGauge("memory_huge_page_advised_mem", Unsafe::getHugePageAdvisedMem);
         metricsRegistry.newVirtualGauge("memory_jvm_free", jvmFreeMemRef);
         metricsRegistry.newVirtualGauge("memory_jvm_total", jvmTotalMemRef);
         metricsRegistry.newVirtualGauge("memory_jvm_max", jvmMaxMemRef);
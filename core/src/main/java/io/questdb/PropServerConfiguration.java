@@ -91,6 +91,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final PropSqlExecutionCircuitBreakerConfiguration circuitBreakerConfiguration = new PropSqlExecutionCircuitBreakerConfiguration();
     private final int circuitBreakerThrottle;
     private final long circuitBreakerTimeout;
+    private final long queryMemoryLimit;
     private final int columnIndexerQueueCapacity;
     private final int columnPurgeQueueCapacity;
     private final long columnPurgeRetryDelay;
@@ -117,6 +118,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final boolean httpSqlCacheEnabled;
     private final int httpSqlCacheRowCount;
     private final WaitProcessorConfiguration httpWaitProcessorConfiguration = new PropWaitProcessorConfiguration();
+    private final IntList hugePageMemoryTags = new IntList();
     private final long idleCheckInterval;
     private final boolean ilpAutoCreateNewColumns;
     private final boolean ilpAutoCreateNewTables;
@@ -239,10 +241,15 @@ public class PropServerConfiguration implements ServerConfiguration {
     private final int sqlMaxSymbolNotEqualsCount;
     private final int sqlModelPoolCapacity;
     private final int sqlPageFrameMaxRows;
+    private final int sqlQueryCacheCapacity;
     private final int sqlPageFrameMinRows;
     private final boolean sqlParallelFilterEnabled;
     private final boolean sqlParallelFilterPreTouchEnabled;
+    private final boolean sqlParallelLatestByEnabled;
     private final int sqlRenameTableModelPoolCapacity;
+    private final boolean sqlResultCacheEnabled;
+    private final long sqlResultCacheMemoryLimit;
+    private final int sqlResultCachePageSize;
     private final int sqlSmallMapKeyCapacity;
     private final int sqlSortKeyMaxPages;
     private final long sqlSortKeyPageSize;
@@ -299,6 +306,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int httpNetBindPort;
     private boolean httpNetConnectionHint;
     private int httpNetConnectionLimit;
+    private int httpNetDispatcherCount;
+    private boolean httpNetIOURingEnabled;
     private long httpNetConnectionQueueTimeout;
     private int httpNetConnectionRcvBuf;
     private int httpNetConnectionSndBuf;
@@ -319,6 +328,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int jsonCacheLimit;
     private int jsonCacheSize;
     private int jsonQueryConnectionCheckFrequency;
+    private long jsonQueryCursorIdleTimeout;
+    private int jsonQueryCursorMaxCount;
     private int jsonQueryDoubleScale;
     private int jsonQueryFloatScale;
     private String keepAliveHeader;
@@ -340,6 +351,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int lineTcpNetBindPort;
     private boolean lineTcpNetConnectionHint;
     private int lineTcpNetConnectionLimit;
+    private int lineTcpNetDispatcherCount;
+    private boolean lineTcpNetIOURingEnabled;
     private long lineTcpNetConnectionQueueTimeout;
     private int lineTcpNetConnectionRcvBuf;
     private long lineTcpNetConnectionTimeout;
@@ -371,6 +384,7 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int pgInsertCacheBlockCount;
     private boolean pgInsertCacheEnabled;
     private int pgInsertCacheRowCount;
+    private boolean pgInsertPipelineEnabled;
     private int pgInsertPoolCapacity;
     private int pgMaxBlobSizeOnQuery;
     private int pgNamedStatementCacheCapacity;
@@ -379,6 +393,8 @@ public class PropServerConfiguration implements ServerConfiguration {
     private int pgNetBindPort;
     private boolean pgNetConnectionHint;
     private int pgNetConnectionLimit;
+    private int pgNetDispatcherCount;
+    private boolean pgNetIOURingEnabled;
     private long pgNetConnectionQueueTimeout;
     private int pgNetConnectionRcvBuf;
     private int pgNetConnectionSndBuf;
@@ -565,6 +581,8 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.httpNetConnectionLimit = getInt(properties, env, PropertyKey.HTTP_NET_ACTIVE_CONNECTION_LIMIT, 64);
                 this.httpNetConnectionLimit = getInt(properties, env, PropertyKey.HTTP_NET_CONNECTION_LIMIT, this.httpNetConnectionLimit);
                 this.httpNetConnectionHint = getBoolean(properties, env, PropertyKey.HTTP_NET_CONNECTION_HINT, false);
+                this.httpNetDispatcherCount = getInt(properties, env, PropertyKey.HTTP_NET_DISPATCHER_COUNT, 1);
+                this.httpNetIOURingEnabled = getBoolean(properties, env, PropertyKey.HTTP_NET_IOURING_ENABLED, false);
                 // deprecated
                 this.httpNetConnectionTimeout = getLong(properties, env, PropertyKey.HTTP_NET_IDLE_CONNECTION_TIMEOUT, 5 * 60 * 1000L);
                 this.httpNetConnectionTimeout = getLong(properties, env, PropertyKey.HTTP_NET_CONNECTION_TIMEOUT, this.httpNetConnectionTimeout);
@@ -598,6 +616,8 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.jsonQueryConnectionCheckFrequency = getInt(properties, env, PropertyKey.HTTP_JSON_QUERY_CONNECTION_CHECK_FREQUENCY, 1_000_000);
                 this.jsonQueryFloatScale = getInt(properties, env, PropertyKey.HTTP_JSON_QUERY_FLOAT_SCALE, 4);
                 this.jsonQueryDoubleScale = getInt(properties, env, PropertyKey.HTTP_JSON_QUERY_DOUBLE_SCALE, 12);
+                this.jsonQueryCursorMaxCount = getInt(properties, env, PropertyKey.HTTP_JSON_QUERY_CURSOR_MAX_COUNT, 4);
+                this.jsonQueryCursorIdleTimeout = getLong(properties, env, PropertyKey.HTTP_JSON_QUERY_CURSOR_IDLE_TIMEOUT, 60_000);
                 this.httpReadOnlySecurityContext = getBoolean(properties, env, PropertyKey.HTTP_SECURITY_READONLY, false);
                 this.maxHttpQueryResponseRowLimit = getLong(properties, env, PropertyKey.HTTP_SECURITY_MAX_RESPONSE_ROWS, Long.MAX_VALUE);
                 this.interruptOnClosedConnection = getBoolean(properties, env, PropertyKey.HTTP_SECURITY_INTERRUPT_ON_CLOSED_CONNECTION, true);
@@ -621,6 +641,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.circuitBreakerThrottle = getInt(properties, env, PropertyKey.CIRCUIT_BREAKER_THROTTLE, 2_000_000);
             this.circuitBreakerBufferSize = getInt(properties, env, PropertyKey.CIRCUIT_BREAKER_BUFFER_SIZE, 64);
             this.circuitBreakerTimeout = (long) (getDouble(properties, env, PropertyKey.QUERY_TIMEOUT_SEC, 60) * Timestamps.SECOND_MILLIS);
+            this.queryMemoryLimit = getLongSize(properties, env, PropertyKey.QUERY_MEMORY_LIMIT, 0);
 
             this.pgEnabled = getBoolean(properties, env, PropertyKey.PG_ENABLED, true);
             if (pgEnabled) {
@@ -628,6 +649,8 @@ public class PropServerConfiguration implements ServerConfiguration {
                 pgNetConnectionLimit = getInt(properties, env, PropertyKey.PG_NET_ACTIVE_CONNECTION_LIMIT, 64);
                 pgNetConnectionLimit = getInt(properties, env, PropertyKey.PG_NET_CONNECTION_LIMIT, pgNetConnectionLimit);
                 pgNetConnectionHint = getBoolean(properties, env, PropertyKey.PG_NET_CONNECTION_HINT, false);
+                pgNetDispatcherCount = getInt(properties, env, PropertyKey.PG_NET_DISPATCHER_COUNT, 1);
+                pgNetIOURingEnabled = getBoolean(properties, env, PropertyKey.PG_NET_IOURING_ENABLED, false);
                 parseBindTo(properties, env, PropertyKey.PG_NET_BIND_TO, "0.0.0.0:8812", (a, p) -> {
                     pgNetBindIPv4Address = a;
                     pgNetBindPort = p;
@@ -675,6 +698,7 @@ public class PropServerConfiguration implements ServerConfiguration {
                 this.pgInsertCacheBlockCount = getInt(properties, env, PropertyKey.PG_INSERT_CACHE_BLOCK_COUNT, 4);
                 this.pgInsertCacheRowCount = getInt(properties, env, PropertyKey.PG_INSERT_CACHE_ROW_COUNT, 4);
                 this.pgInsertPoolCapacity = getInt(properties, env, PropertyKey.PG_INSERT_POOL_CAPACITY, 16);
+                this.pgInsertPipelineEnabled = getBoolean(properties, env, PropertyKey.PG_INSERT_PIPELINE_ENABLED, false);
                 this.pgUpdateCacheEnabled = getBoolean(properties, env, PropertyKey.PG_UPDATE_CACHE_ENABLED, true);
                 this.pgUpdateCacheBlockCount = getInt(properties, env, PropertyKey.PG_UPDATE_CACHE_BLOCK_COUNT, 4);
                 this.pgUpdateCacheRowCount = getInt(properties, env, PropertyKey.PG_UPDATE_CACHE_ROW_COUNT, 4);
@@ -750,6 +774,7 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.cairoPageFrameReduceColumnListCapacity = Numbers.ceilPow2(getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_COLUMN_LIST_CAPACITY, 16));
             this.sqlParallelFilterEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_ENABLED, true);
             this.sqlParallelFilterPreTouchEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_FILTER_PRETOUCH_ENABLED, true);
+            this.sqlParallelLatestByEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_PARALLEL_LATEST_BY_ENABLED, true);
             this.cairoPageFrameReduceShardCount = getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_SHARD_COUNT, 4);
             this.cairoPageFrameReduceTaskPoolCapacity = getInt(properties, env, PropertyKey.CAIRO_PAGE_FRAME_TASK_POOL_CAPACITY, 4);
 
@@ -775,6 +800,10 @@ public class PropServerConfiguration implements ServerConfiguration {
             this.sqlDistinctTimestampLoadFactor = getDouble(properties, env, PropertyKey.CAIRO_SQL_DISTINCT_TIMESTAMP_LOAD_FACTOR, 0.5);
             this.sqlPageFrameMinRows = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_MIN_ROWS, 1_000);
             this.sqlPageFrameMaxRows = getInt(properties, env, PropertyKey.CAIRO_SQL_PAGE_FRAME_MAX_ROWS, 1_000_000);
+            this.sqlQueryCacheCapacity = getInt(properties, env, PropertyKey.CAIRO_SQL_QUERY_CACHE_CAPACITY, 256);
+            this.sqlResultCacheEnabled = getBoolean(properties, env, PropertyKey.CAIRO_SQL_RESULT_CACHE_ENABLED, false);
+            this.sqlResultCacheMemoryLimit = getLongSize(properties, env, PropertyKey.CAIRO_SQL_RESULT_CACHE_MEMORY_LIMIT, 64 * Numbers.SIZE_1MB);
+            this.sqlResultCachePageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_RESULT_CACHE_PAGE_SIZE, 64 * 1024);
 
             this.sqlJitMode = getSqlJitMode(properties, env);
             this.sqlJitIRMemoryPageSize = getIntSize(properties, env, PropertyKey.CAIRO_SQL_JIT_IR_MEMORY_PAGE_SIZE, 8 * 1024);
@@ -796,6 +825,8 @@ public class PropServerConfiguration implements ServerConfiguration {
             }
             writerFileOpenOpts = lopts;
 
+            parseHugePageMemoryTags(getString(properties, env, PropertyKey.CAIRO_HUGE_PAGE_MEMORY_TAGS, null));
+
             this.inputFormatConfiguration = new InputFormatConfiguration(
                     new DateFormatFactory(),
                     DateLocaleFactory.INSTANCE,
@@ -894,6 +925,8 @@ public class PropServerConfiguration implements ServerConfiguration {
                 lineTcpNetConnectionLimit = getInt(properties, env, PropertyKey.LINE_TCP_NET_ACTIVE_CONNECTION_LIMIT, 256);
                 lineTcpNetConnectionLimit = getInt(properties, env, PropertyKey.LINE_TCP_NET_CONNECTION_LIMIT, lineTcpNetConnectionLimit);
                 lineTcpNetConnectionHint = getBoolean(properties, env, PropertyKey.LINE_TCP_NET_CONNECTION_HINT, false);
+                lineTcpNetDispatcherCount = getInt(properties, env, PropertyKey.LINE_TCP_NET_DISPATCHER_COUNT, 1);
+                lineTcpNetIOURingEnabled = getBoolean(properties, env, PropertyKey.LINE_TCP_NET_IOURING_ENABLED, false);
                 parseBindTo(properties, env, PropertyKey.LINE_TCP_NET_BIND_TO, "0.0.0.0:9009", (a, p) -> {
                     lineTcpNetBindIPv4Address = a;
                     lineTcpNetBindPort = p;
@@ -1116,6 +1149,21 @@ public class PropServerConfiguration implements ServerConfiguration {
         return result;
     }
 
+    private void parseHugePageMemoryTags(String value) throws ServerConfigurationException {
+        if (value != null) {
+            for (String name : value.split(",")) {
+                final String tagName = name.trim();
+                if (tagName.length() > 0) {
+                    final int tag = MemoryTag.tagOf(tagName);
+                    if (tag < 0) {
+                        throw ServerConfigurationException.forInvalidKey(PropertyKey.CAIRO_HUGE_PAGE_MEMORY_TAGS.getPropertyPath(), "unknown memory tag: " + tagName);
+                    }
+                    hugePageMemoryTags.add(tag);
+                }
+            }
+        }
+    }
+
     private int getCommitMode(Properties properties, @Nullable Map<String, String> env, PropertyKey key) {
         final String commitMode = overrideWithEnv(properties, env, key);
 
@@ -1634,6 +1682,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlGroupByPoolCapacity;
         }
 
+        @Override
+        public IntList getHugePageMemoryTags() {
+            return hugePageMemoryTags;
+        }
+
         @Override
         public long getIdleCheckInterval() {
             return idleCheckInterval;
@@ -2049,6 +2102,21 @@ public class PropServerConfiguration implements ServerConfiguration {
             return sqlPageFrameMinRows;
         }
 
+        @Override
+        public int getSqlQueryCacheCapacity() {
+            return sqlQueryCacheCapacity;
+        }
+
+        @Override
+        public long getSqlResultCacheMemoryLimit() {
+            return sqlResultCacheMemoryLimit;
+        }
+
+        @Override
+        public int getSqlResultCachePageSize() {
+            return sqlResultCachePageSize;
+        }
+
         @Override
         public int getSqlSmallMapKeyCapacity() {
             return sqlSmallMapKeyCapacity;
@@ -2192,6 +2260,16 @@ public class PropServerConfiguration implements ServerConfiguration {
         public boolean isSqlParallelFilterPreTouchEnabled() {
             return sqlParallelFilterPreTouchEnabled;
         }
+
+        @Override
+        public boolean isSqlParallelLatestByEnabled() {
+            return sqlParallelLatestByEnabled;
+        }
+
+        @Override
+        public boolean isSqlResultCacheEnabled() {
+            return sqlResultCacheEnabled;
+        }
     }
 
     private class PropHttpContextConfiguration implements HttpContextConfiguration {
@@ -2283,6 +2361,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return MillisecondClockImpl.INSTANCE;
         }
 
+        @Override
+        public int getDispatcherCount() {
+            return httpNetDispatcherCount;
+        }
+
         @Override
         public String getDispatcherLogName() {
             return "http-server";
@@ -2337,6 +2420,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         public long getTimeout() {
             return httpNetConnectionTimeout;
         }
+
+        @Override
+        public boolean isIOURingEnabled() {
+            return httpNetIOURingEnabled;
+        }
     }
 
     private class PropHttpMinIODispatcherConfiguration implements IODispatcherConfiguration {
@@ -2558,6 +2646,16 @@ public class PropServerConfiguration implements ServerConfiguration {
             return jsonQueryConnectionCheckFrequency;
         }
 
+        @Override
+        public long getCursorIdleTimeout() {
+            return jsonQueryCursorIdleTimeout;
+        }
+
+        @Override
+        public int getCursorMaxCount() {
+            return jsonQueryCursorMaxCount;
+        }
+
         @Override
         public int getDoubleScale() {
             return jsonQueryDoubleScale;
@@ -2582,6 +2680,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         public long getMaxQueryResponseRowLimit() {
             return maxHttpQueryResponseRowLimit;
         }
+
+        @Override
+        public boolean isQueryCacheEnabled() {
+            return httpSqlCacheEnabled;
+        }
     }
 
     private class PropLineTcpIOWorkerPoolConfiguration implements WorkerPoolConfiguration {
@@ -2781,6 +2884,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return MillisecondClockImpl.INSTANCE;
         }
 
+        @Override
+        public int getDispatcherCount() {
+            return lineTcpNetDispatcherCount;
+        }
+
         @Override
         public String getDispatcherLogName() {
             return "tcp-line-server";
@@ -2834,6 +2942,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         public long getTimeout() {
             return lineTcpNetConnectionTimeout;
         }
+
+        @Override
+        public boolean isIOURingEnabled() {
+            return lineTcpNetIOURingEnabled;
+        }
     }
 
     private class PropLineTcpWriterWorkerPoolConfiguration implements WorkerPoolConfiguration {
@@ -3149,6 +3262,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return pgInsertCacheEnabled;
         }
 
+        @Override
+        public boolean isInsertPipelineEnabled() {
+            return pgInsertPipelineEnabled;
+        }
+
         @Override
         public boolean isSelectCacheEnabled() {
             return pgSelectCacheEnabled;
@@ -3182,6 +3300,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return MillisecondClockImpl.INSTANCE;
         }
 
+        @Override
+        public int getDispatcherCount() {
+            return pgNetDispatcherCount;
+        }
+
         @Override
         public String getDispatcherLogName() {
             return "pg-server";
@@ -3235,6 +3358,11 @@ public class PropServerConfiguration implements ServerConfiguration {
         public long getTimeout() {
             return pgNetIdleConnectionTimeout;
         }
+
+        @Override
+        public boolean isIOURingEnabled() {
+            return pgNetIOURingEnabled;
+        }
     }
 
     private class PropSqlExecutionCircuitBreakerConfiguration implements SqlExecutionCircuitBreakerConfiguration {
@@ -3258,6 +3386,11 @@ public class PropServerConfiguration implements ServerConfiguration {
             return NetworkFacadeImpl.INSTANCE;
         }
 
+        @Override
+        public long getQueryMemoryLimit() {
+            return queryMemoryLimit;
+        }
+
         @Override
         public long getTimeout() {
             return circuitBreakerTimeout;
@@ -3537,6 +3670,18 @@ public class PropServerConfiguration implements ServerConfiguration {
         registerDeprecated(
                 PropertyKey.CAIRO_REPLACE_BUFFER_MAX_SIZE,
                 PropertyKey.CAIRO_SQL_STR_FUNCTION_BUFFER_MAX_SIZE);
+        registerDeprecated(
+                PropertyKey.HTTP_QUERY_CACHE_BLOCK_COUNT,
+                PropertyKey.CAIRO_SQL_QUERY_CACHE_CAPACITY);
+        registerDeprecated(
+                PropertyKey.HTTP_QUERY_CACHE_ROW_COUNT,
+                PropertyKey.CAIRO_SQL_QUERY_CACHE_CAPACITY);
+        registerDeprecated(
+                PropertyKey.PG_SELECT_CACHE_BLOCK_COUNT,
+                PropertyKey.CAIRO_SQL_QUERY_CACHE_CAPACITY);
+        registerDeprecated(
+                PropertyKey.PG_SELECT_CACHE_ROW_COUNT,
+                PropertyKey.CAIRO_SQL_QUERY_CACHE_CAPACITY);
     }
 }
 
@@ -47,6 +47,7 @@ public enum PropertyKey {
     CAIRO_DEFAULT_SYMBOL_CACHE_FLAG("cairo.default.symbol.cache.flag"),
     CAIRO_DEFAULT_SYMBOL_CAPACITY("cairo.default.symbol.capacity"),
     CAIRO_FILE_OPERATION_RETRY_COUNT("cairo.file.operation.retry.count"),
+    CAIRO_HUGE_PAGE_MEMORY_TAGS("cairo.huge.page.memory.tags"),
     CAIRO_IDLE_CHECK_INTERVAL("cairo.idle.check.interval"),
     CAIRO_INACTIVE_READER_TTL("cairo.inactive.reader.ttl"),
     CAIRO_INACTIVE_WRITER_TTL("cairo.inactive.writer.ttl"),
@@ -88,6 +89,7 @@ public enum PropertyKey {
     CAIRO_PAGE_FRAME_COLUMN_LIST_CAPACITY("cairo.page.frame.column.list.capacity"),
     CAIRO_SQL_PARALLEL_FILTER_ENABLED("cairo.sql.parallel.filter.enabled"),
     CAIRO_SQL_PARALLEL_FILTER_PRETOUCH_ENABLED("cairo.sql.parallel.filter.pretouch.enabled"),
+    CAIRO_SQL_PARALLEL_LATEST_BY_ENABLED("cairo.sql.parallel.latest.by.enabled"),
     CAIRO_PAGE_FRAME_SHARD_COUNT("cairo.page.frame.shard.count"),
     CAIRO_PAGE_FRAME_TASK_POOL_CAPACITY("cairo.page.frame.task.pool.capacity"),
     CAIRO_SQL_JOIN_METADATA_PAGE_SIZE("cairo.sql.join.metadata.page.size"),
@@ -115,6 +117,10 @@ public enum PropertyKey {
     CAIRO_SQL_DISTINCT_TIMESTAMP_LOAD_FACTOR("cairo.sql.distinct.timestamp.load.factor"),
     CAIRO_SQL_PAGE_FRAME_MIN_ROWS("cairo.sql.page.frame.min.rows"),
     CAIRO_SQL_PAGE_FRAME_MAX_ROWS("cairo.sql.page.frame.max.rows"),
+    CAIRO_SQL_QUERY_CACHE_CAPACITY("cairo.sql.query.cache.capacity"),
+    CAIRO_SQL_RESULT_CACHE_ENABLED("cairo.sql.result.cache.enabled"),
+    CAIRO_SQL_RESULT_CACHE_MEMORY_LIMIT("cairo.sql.result.cache.memory.limit"),
+    CAIRO_SQL_RESULT_CACHE_PAGE_SIZE("cairo.sql.result.cache.page.size"),
     CAIRO_SQL_JIT_IR_MEMORY_PAGE_SIZE("cairo.sql.jit.ir.memory.page.size"),
     CAIRO_SQL_JIT_IR_MEMORY_MAX_PAGES("cairo.sql.jit.ir.memory.max.pages"),
     CAIRO_SQL_JIT_BIND_VARS_MEMORY_PAGE_SIZE("cairo.sql.jit.bind.vars.memory.page.size"),
@@ -234,6 +240,8 @@ public enum PropertyKey {
     HTTP_KEEP_ALIVE_MAX("http.keep-alive.max"),
     HTTP_NET_ACTIVE_CONNECTION_LIMIT("http.net.active.connection.limit"),
     HTTP_NET_CONNECTION_LIMIT("http.net.connection.limit"),
+    HTTP_NET_DISPATCHER_COUNT("http.net.dispatcher.count"),
+    HTTP_NET_IOURING_ENABLED("http.net.iouring.enabled"),
     HTTP_TEXT_DATE_ADAPTER_POOL_CAPACITY("http.text.date.adapter.pool.capacity"),
     HTTP_TEXT_METADATA_STRING_POOL_CAPACITY("http.text.metadata.string.pool.capacity"),
     HTTP_TEXT_ANALYSIS_MAX_LINES("http.text.analysis.max.lines"),
@@ -242,6 +250,8 @@ public enum PropertyKey {
     HTTP_JSON_QUERY_CONNECTION_CHECK_FREQUENCY("http.json.query.connection.check.frequency"),
     HTTP_JSON_QUERY_FLOAT_SCALE("http.json.query.float.scale"),
     HTTP_JSON_QUERY_DOUBLE_SCALE("http.json.query.double.scale"),
+    HTTP_JSON_QUERY_CURSOR_MAX_COUNT("http.json.query.cursor.max.count"),
+    HTTP_JSON_QUERY_CURSOR_IDLE_TIMEOUT("http.json.query.cursor.idle.timeout"),
     HTTP_TEXT_ADAPTER_SET_CONFIG("http.text.adapter.set.config"),
     HTTP_QUERY_CACHE_ENABLED("http.query.cache.enabled"),
     HTTP_QUERY_CACHE_BLOCK_COUNT("http.query.cache.block.count"),
@@ -262,6 +272,8 @@ public enum PropertyKey {
     LINE_TCP_ENABLED("line.tcp.enabled"),
     LINE_TCP_NET_ACTIVE_CONNECTION_LIMIT("line.tcp.net.active.connection.limit"),
     LINE_TCP_NET_CONNECTION_LIMIT("line.tcp.net.connection.limit"),
+    LINE_TCP_NET_DISPATCHER_COUNT("line.tcp.net.dispatcher.count"),
+    LINE_TCP_NET_IOURING_ENABLED("line.tcp.net.iouring.enabled"),
     LINE_TCP_NET_CONNECTION_HINT("line.tcp.net.connection.hint"),
     LINE_TCP_NET_BIND_TO("line.tcp.net.bind.to"),
     LINE_TCP_NET_IDLE_TIMEOUT("line.tcp.net.idle.timeout"),
@@ -326,6 +338,8 @@ public enum PropertyKey {
     PG_SELECT_CACHE_ENABLED("pg.select.cache.enabled"),
     PG_NET_ACTIVE_CONNECTION_LIMIT("pg.net.active.connection.limit"),
     PG_NET_CONNECTION_LIMIT("pg.net.connection.limit"),
+    PG_NET_DISPATCHER_COUNT("pg.net.dispatcher.count"),
+    PG_NET_IOURING_ENABLED("pg.net.iouring.enabled"),
     PG_CHARACTER_STORE_CAPACITY("pg.character.store.capacity"),
     PG_BINARY_PARAM_COUNT_CAPACITY("pg.binary.param.count.capacity"),
     PG_CHARACTER_STORE_POOL_CAPACITY("pg.character.store.pool.capacity"),
@@ -337,10 +351,12 @@ public enum PropertyKey {
     PG_INSERT_CACHE_BLOCK_COUNT("pg.insert.cache.block.count"),
     PG_INSERT_CACHE_ROW_COUNT("pg.insert.cache.row.count"),
     PG_INSERT_POOL_CAPACITY("pg.insert.pool.capacity"),
+    PG_INSERT_PIPELINE_ENABLED("pg.insert.pipeline.enabled"),
     PG_NAMED_STATEMENT_CACHE_CAPACITY("pg.named.statement.cache.capacity"),
     PG_NAMED_STATEMENT_POOL_CAPACITY("pg.named.statement.pool.capacity"),
     PG_PENDING_WRITERS_CACHE_CAPACITY("pg.pending.writers.cache.capacity"),
     PG_NET_CONNECTION_SNDBUF("pg.net.connection.sndbuf"),
+    QUERY_MEMORY_LIMIT("query.memory.limit"),
     QUERY_TIMEOUT_SEC("query.timeout.sec"),
     SHARED_WORKER_COUNT("shared.worker.count"),
     SHARED_WORKER_AFFINITY("shared.worker.affinity"),
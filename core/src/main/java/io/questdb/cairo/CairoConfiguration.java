@@ -138,6 +138,11 @@ public interface CairoConfiguration {
 
     int getGroupByPoolCapacity();
 
+    /**
+     * @return memory tags, which large native allocations are advised to be backed by huge pages
+     */
+    IntList getHugePageMemoryTags();
+
     default IOURingFacade getIOURingFacade() {
         return IOURingFacadeImpl.INSTANCE;
     }
@@ -345,6 +350,18 @@ public interface CairoConfiguration {
 
     int getSqlPageFrameMinRows();
 
+    /**
+     * @return max number of compiled query factories kept by the engine for reuse across connections
+     */
+    int getSqlQueryCacheCapacity();
+
+    /**
+     * @return max native memory, in bytes, held by cached query results across all queries
+     */
+    long getSqlResultCacheMemoryLimit();
+
+    int getSqlResultCachePageSize();
+
     int getSqlSmallMapKeyCapacity();
 
     int getSqlSortKeyMaxPages();
@@ -407,4 +424,8 @@ public interface CairoConfiguration {
     boolean isSqlParallelFilterEnabled();
 
     boolean isSqlParallelFilterPreTouchEnabled();
+
+    boolean isSqlParallelLatestByEnabled();
+
+    boolean isSqlResultCacheEnabled();
 }
@@ -30,7 +30,10 @@ import io.questdb.Metrics;
 import io.questdb.cairo.mig.EngineMigration;
 import io.questdb.cairo.pool.*;
 import io.questdb.cairo.sql.AsyncWriterCommand;
+import io.questdb.cairo.sql.QueryFactoryCache;
+import io.questdb.cairo.sql.QueryResultCache;
 import io.questdb.cairo.sql.ReaderOutOfDateException;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
 import io.questdb.cairo.vm.api.MemoryMARW;
 import io.questdb.cutlass.text.TextImportExecutionContext;
 import io.questdb.griffin.DatabaseSnapshotAgent;
@@ -42,6 +45,8 @@ import io.questdb.std.Files;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.Misc;
 import io.questdb.std.Transient;
+import io.questdb.std.Unsafe;
+import io.questdb.std.WeakClosableObjectPool;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
 import io.questdb.std.str.Path;
 import io.questdb.tasks.TelemetryTask;
@@ -63,7 +68,11 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
     private final EngineMaintenanceJob engineMaintenanceJob;
     private final MessageBus messageBus;
     private final Metrics metrics;
+    private final QueryFactoryCache queryFactoryCache;
+    private final QueryResultCache queryResultCache;
     private final ReaderPool readerPool;
+    // local reduce tasks of page frame sequences, factories using them are shared between threads
+    private final WeakClosableObjectPool<PageFrameReduceTask> reduceTaskPool;
     private final IDGenerator tableIdGenerator;
     private final TableRegistry tableRegistry;
     private final MPSequence telemetryPubSeq;
@@ -82,6 +91,13 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
         this.configuration = configuration;
         this.textImportExecutionContext = new TextImportExecutionContext(configuration);
         this.metrics = metrics;
+        Unsafe.setHugePageMemoryTags(configuration.getHugePageMemoryTags());
+        this.queryFactoryCache = new QueryFactoryCache(configuration.getSqlQueryCacheCapacity(), metrics.queryCache());
+        this.queryResultCache = new QueryResultCache(configuration.getSqlResultCacheMemoryLimit());
+        this.reduceTaskPool = new WeakClosableObjectPool<>(
+                () -> new PageFrameReduceTask(configuration),
+                configuration.getPageFrameReduceTaskPoolCapacity()
+        );
         this.tableRegistry = new TableRegistry(this);
         this.messageBus = new MessageBusImpl(configuration);
         this.writerPool = new WriterPool(configuration, messageBus, metrics);
@@ -122,6 +138,8 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
 
     @TestOnly
     public boolean clear() {
+        queryFactoryCache.clear();
+        queryResultCache.clear();
         tableRegistry.clear();
         boolean b1 = readerPool.releaseAll();
         boolean b2 = writerPool.releaseAll();
@@ -130,6 +148,10 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
 
     @Override
     public void close() {
+        Misc.free(queryFactoryCache);
+        Misc.free(queryResultCache);
+        // cached factories return their reduce tasks on close, the pool goes after them
+        Misc.free(reduceTaskPool);
         Misc.free(writerPool);
         Misc.free(readerPool);
         Misc.free(tableIdGenerator);
@@ -243,6 +265,14 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
         return this.writerPool.getPoolListener();
     }
 
+    public QueryFactoryCache getQueryFactoryCache() {
+        return queryFactoryCache;
+    }
+
+    public QueryResultCache getQueryResultCache() {
+        return queryResultCache;
+    }
+
     public TableReader getReader(
             CairoSecurityContext securityContext,
             CharSequence tableName
@@ -297,6 +327,14 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
         return readerPool.entries();
     }
 
+    /**
+     * Pool of local reduce tasks for page frame sequences. Factories compiled by different
+     * threads share it, so it has to be accessed under its own lock.
+     */
+    public WeakClosableObjectPool<PageFrameReduceTask> getReduceTaskPool() {
+        return reduceTaskPool;
+    }
+
     public int getStatus(
             CairoSecurityContext securityContext,
             Path path,
@@ -439,6 +477,8 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
                     LOG.error().$("remove failed [tableName='").utf8(tableName).$("', error=").$(errno).$(']').$();
                     throw CairoException.critical(errno).put("Table remove failed");
                 }
+                // cached results are keyed by txn file versions, a table re-created under the same name may repeat them
+                queryResultCache.clear();
                 return;
             } finally {
                 unlock(securityContext, tableName, null, false);
@@ -469,6 +509,7 @@ public class CairoEngine implements Closeable, WriterSource, WalWriterSource {
         if (null == lockedReason) {
             try {
                 rename0(path, tableName, otherPath, newName);
+                queryResultCache.clear();
             } finally {
                 unlock(securityContext, tableName, null, false);
             }
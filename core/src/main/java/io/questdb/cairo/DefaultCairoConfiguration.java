@@ -45,6 +45,7 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
     private final CharSequence confRoot;
     private final long databaseIdHi;
     private final long databaseIdLo;
+    private final IntList hugePageMemoryTags = new IntList();
     private final CharSequence root;
     private final CharSequence snapshotRoot;
     private final DefaultTelemetryConfiguration telemetryConfiguration = new DefaultTelemetryConfiguration();
@@ -265,6 +266,11 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1024;
     }
 
+    @Override
+    public IntList getHugePageMemoryTags() {
+        return hugePageMemoryTags;
+    }
+
     @Override
     public long getIdleCheckInterval() {
         return 100;
@@ -682,6 +688,21 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
         return 1_000;
     }
 
+    @Override
+    public int getSqlQueryCacheCapacity() {
+        return 256;
+    }
+
+    @Override
+    public long getSqlResultCacheMemoryLimit() {
+        return 64 * Numbers.SIZE_1MB;
+    }
+
+    @Override
+    public int getSqlResultCachePageSize() {
+        return 64 * 1024;
+    }
+
     @Override
     public int getSqlSmallMapKeyCapacity() {
         return 64;
@@ -830,4 +851,14 @@ public class DefaultCairoConfiguration implements CairoConfiguration {
     public boolean isSqlParallelFilterPreTouchEnabled() {
         return true;
     }
+
+    @Override
+    public boolean isSqlParallelLatestByEnabled() {
+        return true;
+    }
+
+    @Override
+    public boolean isSqlResultCacheEnabled() {
+        return false;
+    }
 }
@@ -107,11 +107,31 @@ public class RecordChain implements Closeable, RecordCursor, Mutable, RecordSink
         symbolTableResolver = null;
     }
 
+    /**
+     * Copies records appended so far to contiguous memory. Record offsets are kept, so the copy
+     * can be read by {@link RecordChainView} of the same column types.
+     *
+     * @param address destination, at least {@link #getMemUsed()} bytes long
+     */
+    public void copyTo(long address) {
+        if (varAppendOffset > 0) {
+            // chain memory is contiguous
+            Vect.memcpy(address, mem.addressOf(0), varAppendOffset);
+        }
+    }
+
     @Override
     public long getAddress(long recordOffset, int columnIndex) {
         return addressOf(getOffsetOfColumn(recordOffset, columnIndex));
     }
 
+    /**
+     * @return number of bytes taken by the records appended so far
+     */
+    public long getMemUsed() {
+        return varAppendOffset;
+    }
+
     public long getOffsetOfColumn(long recordOffset, int columnIndex) {
         return rowToDataOffset(recordOffset) + varOffset + columnOffsets[columnIndex];
     }
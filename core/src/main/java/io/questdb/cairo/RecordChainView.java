@@ -0,0 +1,281 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cairo;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.cairo.vm.MemoryFCRImpl;
+import io.questdb.std.BinarySequence;
+import io.questdb.std.Long256;
+import io.questdb.std.Transient;
+import io.questdb.std.str.CharSink;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Read-only cursor over records copied out of {@link RecordChain} by {@link RecordChain#copyTo(long)}.
+ * The view does not own the memory, so any number of views can read the same copy concurrently,
+ * each with its own position.
+ */
+public class RecordChainView implements RecordCursor {
+    private final long[] columnOffsets;
+    private final MemoryFCRImpl mem = new MemoryFCRImpl();
+    private final RecordChainViewRecord recordA = new RecordChainViewRecord();
+    private final RecordChainViewRecord recordB = new RecordChainViewRecord();
+    private final long varOffset;
+    private long nextRecordOffset = -1L;
+    private SymbolTableSource symbolTableResolver;
+
+    public RecordChainView(@Transient @NotNull ColumnTypes columnTypes) {
+        // same layout as RecordChain: slots of variable length columns first, then fixed size values
+        final int count = columnTypes.getColumnCount();
+        long varOffset = 0L;
+        long fixOffset = 0L;
+        this.columnOffsets = new long[count];
+        for (int i = 0; i < count; i++) {
+            int type = columnTypes.getColumnType(i);
+            if (ColumnType.isVariableLength(type)) {
+                columnOffsets[i] = varOffset;
+                varOffset += 8;
+            } else {
+                columnOffsets[i] = fixOffset;
+                fixOffset += ColumnType.sizeOf(type);
+            }
+        }
+        this.varOffset = varOffset;
+    }
+
+    @Override
+    public void close() {
+        mem.close();
+        nextRecordOffset = -1L;
+        symbolTableResolver = null;
+    }
+
+    @Override
+    public Record getRecord() {
+        return recordA;
+    }
+
+    @Override
+    public Record getRecordB() {
+        return recordB;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextRecordOffset != -1) {
+            final long offset = nextRecordOffset;
+            nextRecordOffset = mem.getLong(nextRecordOffset);
+            recordA.of(rowToDataOffset(offset));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param address start of the records copied out of the chain
+     * @param size    number of bytes copied
+     */
+    public void of(long address, long size) {
+        mem.of(address, size);
+        toTop();
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        ((RecordChainViewRecord) record).of(rowToDataOffset(atRowId));
+    }
+
+    public void setSymbolTableResolver(SymbolTableSource resolver) {
+        this.symbolTableResolver = resolver;
+    }
+
+    @Override
+    public long size() {
+        return -1;
+    }
+
+    @Override
+    public void toTop() {
+        nextRecordOffset = mem.size() == 0 ? -1L : 0L;
+    }
+
+    private static long rowToDataOffset(long row) {
+        return row + 8;
+    }
+
+    private class RecordChainViewRecord implements Record {
+        private long baseOffset;
+        private long fixedOffset;
+
+        @Override
+        public BinarySequence getBin(int col) {
+            long offset = varWidthColumnOffset(col);
+            return offset == -1 ? null : mem.getBin(offset);
+        }
+
+        @Override
+        public long getBinLen(int col) {
+            long offset = varWidthColumnOffset(col);
+            return offset == -1 ? TableUtils.NULL_LEN : mem.getLong(offset);
+        }
+
+        @Override
+        public boolean getBool(int col) {
+            return mem.getBool(fixedWithColumnOffset(col));
+        }
+
+        @Override
+        public byte getByte(int col) {
+            return mem.getByte(fixedWithColumnOffset(col));
+        }
+
+        @Override
+        public char getChar(int col) {
+            return mem.getChar(fixedWithColumnOffset(col));
+        }
+
+        @Override
+        public double getDouble(int col) {
+            return mem.getDouble(fixedWithColumnOffset(col));
+        }
+
+        @Override
+        public float getFloat(int col) {
+            return mem.getFloat(fixedWithColumnOffset(col));
+        }
+
+        @Override
+        public byte getGeoByte(int col) {
+            return mem.getByte(fixedWithColumnOffset(col));
+        }
+
+        @Override
+        public int getGeoInt(int col) {
+            return mem.getInt(fixedWithColumnOffset(col));
+        }
+
+        @Override
+        public long getGeoLong(int col) {
+            return mem.getLong(fixedWithColumnOffset(col));
+        }
+
+        @Override
+        public short getGeoShort(int col) {
+            return mem.getShort(fixedWithColumnOffset(col));
+        }
+
+        @Override
+        public int getInt(int col) {
+            return mem.getInt(fixedWithColumnOffset(col));
+        }
+
+        @Override
+        public long getLong(int col) {
+            return mem.getLong(fixedWithColumnOffset(col));
+        }
+
+        @Override
+        public long getLong128Hi(int col) {
+            return mem.getLong(fixedWithColumnOffset(col) + 8);
+        }
+
+        @Override
+        public long getLong128Lo(int col) {
+            return mem.getLong(fixedWithColumnOffset(col));
+        }
+
+        @Override
+        public void getLong256(int col, CharSink sink) {
+            mem.getLong256(fixedWithColumnOffset(col), sink);
+        }
+
+        @Override
+        public Long256 getLong256A(int col) {
+            return mem.getLong256A(fixedWithColumnOffset(col));
+        }
+
+        @Override
+        public Long256 getLong256B(int col) {
+            return mem.getLong256B(fixedWithColumnOffset(col));
+        }
+
+        @Override
+        public long getRowId() {
+            return baseOffset - 8;
+        }
+
+        @Override
+        public short getShort(int col) {
+            return mem.getShort(fixedWithColumnOffset(col));
+        }
+
+        @Override
+        public CharSequence getStr(int col) {
+            long offset = varWidthColumnOffset(col);
+            return offset == -1 ? null : mem.getStr(offset);
+        }
+
+        @Override
+        public CharSequence getStrB(int col) {
+            long offset = varWidthColumnOffset(col);
+            return offset == -1 ? null : mem.getStr2(offset);
+        }
+
+        @Override
+        public int getStrLen(int col) {
+            final long offset = varWidthColumnOffset(col);
+            if (offset > -1) {
+                return mem.getInt(offset);
+            }
+            return TableUtils.NULL_LEN;
+        }
+
+        @Override
+        public CharSequence getSym(int col) {
+            return symbolTableResolver.getSymbolTable(col).valueOf(getInt(col));
+        }
+
+        @Override
+        public CharSequence getSymB(int col) {
+            return symbolTableResolver.getSymbolTable(col).valueBOf(getInt(col));
+        }
+
+        private long fixedWithColumnOffset(int index) {
+            return fixedOffset + columnOffsets[index];
+        }
+
+        private void of(long offset) {
+            this.baseOffset = offset;
+            this.fixedOffset = offset + varOffset;
+        }
+
+        private long varWidthColumnOffset(int index) {
+            return mem.getLong(baseOffset + columnOffsets[index]);
+        }
+    }
+}
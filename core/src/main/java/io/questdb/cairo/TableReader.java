@@ -283,7 +283,11 @@ public class TableReader implements Closeable, SymbolTableSource {
     }
 
     public SymbolMapReader getSymbolMapReader(int columnIndex) {
-        return symbolMapReaders.getQuick(columnIndex);
+        final SymbolMapReader reader = symbolMapReaders.getQuick(columnIndex);
+        if (reader == null && ColumnType.isSymbol(metadata.getColumnType(columnIndex))) {
+            return openSymbolMapReader(columnIndex);
+        }
+        return reader;
     }
 
     @Override
@@ -845,16 +849,24 @@ public class TableReader implements Closeable, SymbolTableSource {
         }
     }
 
-    private void openSymbolMaps() {
+    private SymbolMapReader openSymbolMapReader(int columnIndex) {
+        // symbol maps are opened on first access, queries that do not
+        // touch symbol columns should not pay for mapping their files
         int symbolColumnIndex = 0;
-        final int columnCount = metadata.getColumnCount();
-        symbolMapReaders.setPos(columnCount);
-        for (int i = 0; i < columnCount; i++) {
+        for (int i = 0; i < columnIndex; i++) {
             if (ColumnType.isSymbol(metadata.getColumnType(i))) {
-                // symbol map index array is sparse
-                symbolMapReaders.extendAndSet(i, newSymbolMapReader(symbolColumnIndex++, i));
+                symbolColumnIndex++;
             }
         }
+        path.trimTo(rootLen);
+        final SymbolMapReader reader = newSymbolMapReader(symbolColumnIndex, columnIndex);
+        symbolMapReaders.setQuick(columnIndex, reader);
+        return reader;
+    }
+
+    private void openSymbolMaps() {
+        // symbol map index array is sparse, readers are created lazily
+        symbolMapReaders.setPos(metadata.getColumnCount());
     }
 
     private Path pathGenPartitioned(int partitionIndex) {
@@ -955,10 +967,10 @@ public class TableReader implements Closeable, SymbolTableSource {
         for (int columnIndex = 0; columnIndex < columnCount; columnIndex++) {
             if (ColumnType.isSymbol(metadata.getColumnType(columnIndex))) {
                 SymbolMapReader symbolMapReader = symbolMapReaders.getQuick(columnIndex);
+                int symbolCount = txFile.getSymbolValueCount(symbolMapIndex++);
                 if (symbolMapReader instanceof SymbolMapReaderImpl) {
                     final int writerColumnIndex = metadata.getWriterIndex(columnIndex);
                     final long columnNameTxn = columnVersionReader.getDefaultColumnNameTxn(writerColumnIndex);
-                    int symbolCount = txFile.getSymbolValueCount(symbolMapIndex++);
                     ((SymbolMapReaderImpl) symbolMapReader).of(configuration, path, metadata.getColumnName(columnIndex), columnNameTxn, symbolCount);
                 }
             }
@@ -1145,11 +1157,14 @@ public class TableReader implements Closeable, SymbolTableSource {
                 }
 
                 // reload symbol map
-                SymbolMapReader reader = symbolMapReaders.getQuick(i);
-                if (reader == null) {
+                if (!ColumnType.isSymbol(metadata.getColumnType(i))) {
                     continue;
                 }
-                reader.updateSymbolCount(txFile.getSymbolValueCount(symbolMapIndex++));
+                SymbolMapReader reader = symbolMapReaders.getQuick(i);
+                final int symbolCount = txFile.getSymbolValueCount(symbolMapIndex++);
+                if (reader != null) {
+                    reader.updateSymbolCount(symbolCount);
+                }
             }
         } finally {
             path.trimTo(rootLen);
@@ -1176,7 +1191,11 @@ public class TableReader implements Closeable, SymbolTableSource {
             if (!ColumnType.isSymbol(metadata.getColumnType(i))) {
                 continue;
             }
-            symbolMapReaders.getQuick(i).updateSymbolCount(txFile.getSymbolValueCount(symbolMapIndex++));
+            final SymbolMapReader reader = symbolMapReaders.getQuick(i);
+            final int symbolCount = txFile.getSymbolValueCount(symbolMapIndex++);
+            if (reader != null) {
+                reader.updateSymbolCount(symbolCount);
+            }
         }
     }
 
@@ -1281,8 +1300,8 @@ public class TableReader implements Closeable, SymbolTableSource {
                 SymbolMapReader tmp = symbolMapReaders.getQuick(copyFrom);
                 copyOrRenewSymbolMapReader(tmp, i);
             } else if (copyFrom != Integer.MIN_VALUE) {
-                // New instance
-                symbolMapReaders.getAndSetQuick(i, reloadSymbolMapReader(i, null));
+                // New instance, symbol map will be opened on first access
+                symbolMapReaders.setQuick(i, null);
             }
         }
     }
@@ -1304,6 +1323,6 @@ public class TableReader implements Closeable, SymbolTableSource {
     }
 
     boolean isColumnCached(int columnIndex) {
-        return symbolMapReaders.getQuick(columnIndex).isCached();
+        return getSymbolMapReader(columnIndex).isCached();
     }
 }
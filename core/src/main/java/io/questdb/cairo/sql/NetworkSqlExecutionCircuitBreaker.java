@@ -26,8 +26,10 @@ package io.questdb.cairo.sql;
 
 import io.questdb.cairo.CairoException;
 import io.questdb.network.NetworkFacade;
+import io.questdb.std.MemoryTracker;
 import io.questdb.std.Unsafe;
 import io.questdb.std.datetime.millitime.MillisecondClock;
+import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
 
@@ -36,11 +38,14 @@ public class NetworkSqlExecutionCircuitBreaker implements SqlExecutionCircuitBre
     private final MillisecondClock clock;
     private final SqlExecutionCircuitBreakerConfiguration configuration;
     private final long defaultMaxTime;
+    private final long memoryLimit;
     private final int memoryTag;
     private final NetworkFacade nf;
+    private final MemoryTracker ownMemoryTracker = new MemoryTracker();
     private final int throttle;
     private long buffer;
     private long fd = -1;
+    private MemoryTracker memoryTracker = ownMemoryTracker;
     private long powerUpTime = Long.MAX_VALUE;
     private int testCount;
     private long timeout;
@@ -62,6 +67,22 @@ public class NetworkSqlExecutionCircuitBreaker implements SqlExecutionCircuitBre
             this.timeout = Long.MAX_VALUE;
         }
         this.defaultMaxTime = this.timeout;
+        final long memoryLimit = configuration.getQueryMemoryLimit();
+        this.memoryLimit = memoryLimit > 0 ? memoryLimit : Long.MAX_VALUE;
+    }
+
+    /**
+     * Binds memory tracker to this circuit breaker and to the current thread. Query execution can
+     * be resumed on any network thread, and the tracker of the query must be re-bound every time.
+     * Each bind must be paired with {@link #unbindMemoryTracker()} in a finally block, so that the
+     * thread doesn't charge memory of whatever it executes next to this query.
+     *
+     * @param tracker memory tracker of the query or null to use tracker owned by this circuit breaker
+     */
+    public void bindMemoryTracker(@Nullable MemoryTracker tracker) {
+        this.memoryTracker = tracker != null ? tracker : ownMemoryTracker;
+        memoryTracker.setLimit(memoryLimit);
+        Unsafe.setThreadMemoryTracker(memoryTracker);
     }
 
     @Override
@@ -94,6 +115,18 @@ public class NetworkSqlExecutionCircuitBreaker implements SqlExecutionCircuitBre
         return fd;
     }
 
+    @Override
+    public MemoryTracker getMemoryTracker() {
+        return memoryTracker;
+    }
+
+    /**
+     * @return peak memory allocated by the current query for maps, record chains and sort trees
+     */
+    public long getPeakMemoryUsage() {
+        return memoryTracker.getPeak();
+    }
+
     @Override
     public boolean isTimerSet() {
         return powerUpTime < Long.MAX_VALUE;
@@ -126,6 +159,7 @@ public class NetworkSqlExecutionCircuitBreaker implements SqlExecutionCircuitBre
 
     @Override
     public void statefulThrowExceptionIfTripped() {
+        testMemory();
         if (testCount < throttle) {
             testCount++;
         } else {
@@ -136,17 +170,35 @@ public class NetworkSqlExecutionCircuitBreaker implements SqlExecutionCircuitBre
     @Override
     public void statefulThrowExceptionIfTrippedNoThrottle() {
         testCount = 0;
+        testMemory();
         testTimeout();
         if (testConnection(this.fd)) {
             throw CairoException.nonCritical().put("remote disconnected, query aborted [fd=").put(fd).put(']').setInterruption(true);
         }
     }
 
+    /**
+     * Stops tracking memory allocated by the current thread, called once the thread stops executing the query.
+     */
+    public void unbindMemoryTracker() {
+        Unsafe.setThreadMemoryTracker(null);
+    }
+
     @Override
     public void unsetTimer() {
         powerUpTime = Long.MAX_VALUE;
     }
 
+    // allocations made by native code are accounted after the fact, so the limit is checked here too
+    private void testMemory() {
+        if (memoryTracker.getUsed() > memoryLimit) {
+            throw CairoException.nonCritical().put("query memory limit exceeded [fd=").put(fd)
+                    .put(", limit=").put(memoryLimit)
+                    .put(", used=").put(memoryTracker.getUsed())
+                    .put(']');
+        }
+    }
+
     private void testTimeout() {
         if (clock.getTicks() - timeout > powerUpTime) {
             throw CairoException.nonCritical().put("timeout, query aborted [fd=").put(fd).put(']').setInterruption(true);
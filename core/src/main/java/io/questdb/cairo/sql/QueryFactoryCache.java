@@ -0,0 +1,380 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.sql;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.metrics.Gauge;
+import io.questdb.std.*;
+import io.questdb.std.ThreadLocal;
+import io.questdb.std.str.StringSink;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.annotations.TestOnly;
+
+import java.io.Closeable;
+
+/**
+ * Engine-wide cache of compiled {@link RecordCursorFactory} instances shared by all
+ * connections, regardless of the protocol they arrive on.
+ * <p>
+ * A factory is not thread-safe, so it is checked out of the cache for the duration of
+ * query execution and checked back in once the cursor is closed. The same query text may
+ * have several idle factories cached at a time, one per connection that executed it
+ * concurrently. Entries are keyed by the normalized query text and remember the types of
+ * bind variables the factory was compiled with. Least recently checked in entries are
+ * evicted once the cache reaches its capacity.
+ * <p>
+ * The cache is split into stripes by key hash, each with its own lock, LRU list and share
+ * of the capacity, so that connections running different queries do not contend. Query
+ * text is normalized into a thread local sink before any lock is taken. Small caches use a
+ * single stripe and therefore evict in strict LRU order.
+ * <p>
+ * Factories are not invalidated eagerly when table structure changes. Instead, a stale
+ * factory fails with {@link io.questdb.cairo.sql.ReaderOutOfDateException} on the next
+ * {@link RecordCursorFactory#getCursor(io.questdb.griffin.SqlExecutionContext)} call and
+ * the caller is expected to free it and recompile the query. The whole cache is also
+ * cleared on the "flush_query_cache()" command.
+ */
+public class QueryFactoryCache implements Closeable, Mutable {
+    private static final Log LOG = LogFactory.getLog(QueryFactoryCache.class);
+    private static final int MAX_STRIPE_COUNT = 16;
+    private static final int MIN_STRIPE_CAPACITY = 16;
+    private static final ThreadLocal<StringSink> tlKeySink = new ThreadLocal<>(StringSink::new);
+    private final QueryCacheMetrics metrics;
+    private final int stripeMask;
+    private final Stripe[] stripes;
+
+    public QueryFactoryCache(int capacity, QueryCacheMetrics metrics) {
+        this.metrics = metrics;
+        capacity = Math.max(capacity, 0);
+        int stripeCount = 1;
+        while (stripeCount < MAX_STRIPE_COUNT && 2 * stripeCount * MIN_STRIPE_CAPACITY <= capacity) {
+            stripeCount *= 2;
+        }
+        this.stripeMask = stripeCount - 1;
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            // spread remainder over the first stripes
+            stripes[i] = new Stripe(capacity / stripeCount + (i < capacity % stripeCount ? 1 : 0));
+        }
+    }
+
+    /**
+     * Appends query text to the sink with insignificant whitespace collapsed and
+     * trailing semicolons removed. Quoted literals and comments are copied as is.
+     */
+    public static void normalize(CharSequence sql, StringSink sink) {
+        int hi = sql.length();
+        while (hi > 0 && (Character.isWhitespace(sql.charAt(hi - 1)) || sql.charAt(hi - 1) == ';')) {
+            hi--;
+        }
+        final int start = sink.length();
+        boolean whitespace = false;
+        int i = 0;
+        while (i < hi) {
+            final char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                whitespace = true;
+                i++;
+                continue;
+            }
+            if (whitespace && sink.length() > start) {
+                sink.put(' ');
+            }
+            whitespace = false;
+            int end;
+            if (c == '\'' || c == '"') {
+                end = i + 1;
+                while (end < hi && sql.charAt(end) != c) {
+                    end++;
+                }
+                end = Math.min(end + 1, hi);
+            } else if (c == '-' && i + 1 < hi && sql.charAt(i + 1) == '-') {
+                // keep line break, otherwise the rest of the query becomes a comment
+                end = i + 2;
+                while (end < hi && sql.charAt(end) != '\n') {
+                    end++;
+                }
+                end = Math.min(end + 1, hi);
+            } else if (c == '/' && i + 1 < hi && sql.charAt(i + 1) == '*') {
+                end = Chars.indexOf(sql, i + 2, hi, "*/");
+                end = end < 0 ? hi : end + 2;
+            } else {
+                end = i + 1;
+            }
+            sink.put(sql, i, end);
+            i = end;
+        }
+    }
+
+    /**
+     * Hands idle factory back to the cache. The factory is freed when the cache is disabled.
+     *
+     * @param sql                query text the factory was compiled from
+     * @param factory            factory to cache, the cache takes ownership of it
+     * @param bindVariableTypes  types of bind variables defined at compilation time, null when there are none
+     * @param cachedQueriesGauge protocol specific gauge of cached factories, it is decremented once the
+     *                           factory leaves the cache; null when there is none
+     */
+    public void checkIn(
+            CharSequence sql,
+            RecordCursorFactory factory,
+            @Nullable IntList bindVariableTypes,
+            @Nullable Gauge cachedQueriesGauge
+    ) {
+        if (factory == null) {
+            return;
+        }
+        final StringSink keySink = tlKeySink.get();
+        keySink.clear();
+        normalize(sql, keySink);
+        final Stripe stripe = stripeOf(keySink);
+        if (stripe.capacity < 1) {
+            factory.close();
+            return;
+        }
+        final int size;
+        synchronized (stripe) {
+            size = stripe.checkIn(keySink, factory, bindVariableTypes, cachedQueriesGauge);
+        }
+        LOG.debug().$("check in [sql=").utf8(sql).$(", stripeSize=").$(size).I$();
+    }
+
+    /**
+     * Takes idle factory out of the cache. The caller owns the factory until it is checked back in.
+     *
+     * @param sql               query text
+     * @param bindVariableTypes null to match factories compiled without bind variables only,
+     *                          otherwise the list is populated with types of bind variables the
+     *                          returned factory was compiled with
+     * @return cached factory or null on cache miss
+     */
+    public RecordCursorFactory checkOut(CharSequence sql, @Nullable IntList bindVariableTypes) {
+        final StringSink keySink = tlKeySink.get();
+        keySink.clear();
+        normalize(sql, keySink);
+        final Stripe stripe = stripeOf(keySink);
+        final RecordCursorFactory factory;
+        synchronized (stripe) {
+            factory = stripe.checkOut(keySink, bindVariableTypes);
+        }
+        if (factory != null) {
+            metrics.markHit();
+            LOG.debug().$("hit [sql=").utf8(sql).I$();
+        } else {
+            metrics.markMiss();
+            LOG.debug().$("miss [sql=").utf8(sql).I$();
+        }
+        return factory;
+    }
+
+    @Override
+    public void clear() {
+        for (int i = 0, n = stripes.length; i < n; i++) {
+            final Stripe stripe = stripes[i];
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+        LOG.info().$("cleared").$();
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    @TestOnly
+    public int size() {
+        int size = 0;
+        for (int i = 0, n = stripes.length; i < n; i++) {
+            final Stripe stripe = stripes[i];
+            synchronized (stripe) {
+                size += stripe.size;
+            }
+        }
+        return size;
+    }
+
+    @TestOnly
+    int getStripeCount() {
+        return stripes.length;
+    }
+
+    private Stripe stripeOf(CharSequence key) {
+        return stripes[Hash.spread(Chars.hashCode(key)) & stripeMask];
+    }
+
+    private static class Entry implements Mutable {
+        private final IntList types = new IntList();
+        private Gauge cachedQueriesGauge;
+        private RecordCursorFactory factory;
+        private CharSequence key;
+        private Entry next;
+        private Entry prev;
+
+        @Override
+        public void clear() {
+            cachedQueriesGauge = null;
+            factory = null;
+            key = null;
+            next = prev = null;
+            types.clear();
+        }
+    }
+
+    // all methods are called under the stripe lock
+    private class Stripe {
+        private final int capacity;
+        private final ObjList<Entry> entryPool = new ObjList<>();
+        private final CharSequenceObjHashMap<ObjList<Entry>> entries = new CharSequenceObjHashMap<>();
+        // least recently checked in entry, evicted first
+        private Entry head;
+        private int size;
+        private Entry tail;
+
+        private Stripe(int capacity) {
+            this.capacity = capacity;
+        }
+
+        private int checkIn(
+                CharSequence normalizedSql,
+                RecordCursorFactory factory,
+                @Nullable IntList bindVariableTypes,
+                @Nullable Gauge cachedQueriesGauge
+        ) {
+            if (size == capacity) {
+                evict(head);
+            }
+
+            final ObjList<Entry> chain;
+            final CharSequence key;
+            final int keyIndex = entries.keyIndex(normalizedSql);
+            if (keyIndex > -1) {
+                key = Chars.toString(normalizedSql);
+                chain = new ObjList<>();
+                entries.putAt(keyIndex, key, chain);
+            } else {
+                chain = entries.valueAt(keyIndex);
+                // chains are removed once empty
+                key = chain.getQuick(0).key;
+            }
+
+            final Entry e;
+            final int pooled = entryPool.size();
+            if (pooled > 0) {
+                e = entryPool.getQuick(pooled - 1);
+                entryPool.setPos(pooled - 1);
+            } else {
+                e = new Entry();
+            }
+            e.key = key;
+            e.factory = factory;
+            e.cachedQueriesGauge = cachedQueriesGauge;
+            if (bindVariableTypes != null) {
+                e.types.addAll(bindVariableTypes);
+            }
+            chain.add(e);
+            link(e);
+            size++;
+            metrics.cachedQueriesGauge().inc();
+            if (cachedQueriesGauge != null) {
+                cachedQueriesGauge.inc();
+            }
+            return size;
+        }
+
+        private RecordCursorFactory checkOut(CharSequence normalizedSql, @Nullable IntList bindVariableTypes) {
+            final int keyIndex = entries.keyIndex(normalizedSql);
+            if (keyIndex < 0) {
+                final ObjList<Entry> chain = entries.valueAt(keyIndex);
+                // most recently checked in entries are at the end
+                for (int i = chain.size() - 1; i > -1; i--) {
+                    final Entry e = chain.getQuick(i);
+                    if (bindVariableTypes == null && e.types.size() > 0) {
+                        continue;
+                    }
+                    final RecordCursorFactory factory = e.factory;
+                    if (bindVariableTypes != null) {
+                        bindVariableTypes.clear();
+                        bindVariableTypes.addAll(e.types);
+                    }
+                    remove(e, chain, i, keyIndex);
+                    return factory;
+                }
+            }
+            return null;
+        }
+
+        private void clear() {
+            while (head != null) {
+                evict(head);
+            }
+        }
+
+        private void evict(Entry e) {
+            final int keyIndex = entries.keyIndex(e.key);
+            final ObjList<Entry> chain = entries.valueAt(keyIndex);
+            final RecordCursorFactory factory = e.factory;
+            remove(e, chain, chain.indexOf(e), keyIndex);
+            Misc.free(factory);
+        }
+
+        private void link(Entry e) {
+            e.prev = tail;
+            e.next = null;
+            if (tail != null) {
+                tail.next = e;
+            } else {
+                head = e;
+            }
+            tail = e;
+        }
+
+        private void remove(Entry e, ObjList<Entry> chain, int chainIndex, int keyIndex) {
+            chain.remove(chainIndex);
+            if (chain.size() == 0) {
+                entries.removeAt(keyIndex);
+            }
+            if (e.prev != null) {
+                e.prev.next = e.next;
+            } else {
+                head = e.next;
+            }
+            if (e.next != null) {
+                e.next.prev = e.prev;
+            } else {
+                tail = e.prev;
+            }
+            if (e.cachedQueriesGauge != null) {
+                e.cachedQueriesGauge.dec();
+            }
+            e.clear();
+            entryPool.add(e);
+            size--;
+            metrics.cachedQueriesGauge().dec();
+        }
+    }
+}
@@ -0,0 +1,235 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.sql;
+
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import org.jetbrains.annotations.TestOnly;
+
+import java.io.Closeable;
+
+/**
+ * Engine-wide cache of materialized query results.
+ * <p>
+ * A result is keyed by query text and bind variable values and is stamped with the
+ * transaction numbers of the tables the query read. It is only served while all of
+ * those tables remain at the same transaction, so a commit to any of them invalidates
+ * the result. Stale results are freed lazily, either when they are looked up or when
+ * they are evicted.
+ * <p>
+ * Cached results are read-only. A lookup acquires a reference to the result, so any
+ * number of cursors can read it at the same time, each through its own view. An evicted
+ * or replaced result is freed once the last reference to it is released, its memory
+ * counts against the limit until then. Least recently used results are evicted once
+ * the memory held exceeds the limit.
+ */
+public class QueryResultCache implements Closeable, Mutable {
+    private static final Log LOG = LogFactory.getLog(QueryResultCache.class);
+    private final CharSequenceObjHashMap<Entry> entries = new CharSequenceObjHashMap<>();
+    private final long memoryLimit;
+    // least recently used entry, evicted first
+    private Entry head;
+    private long memoryUsed;
+    private Entry tail;
+
+    public QueryResultCache(long memoryLimit) {
+        this.memoryLimit = memoryLimit;
+    }
+
+    /**
+     * Acquires reference to a cached result. The reference must be released once the caller
+     * is done reading the result.
+     *
+     * @param key       query text and bind variable values
+     * @param tableTxns current transaction numbers of the tables the query reads
+     * @return cached result or null when there is none or when any of the tables has
+     * committed since the result was cached
+     */
+    public synchronized Entry acquire(CharSequence key, LongList tableTxns) {
+        final int keyIndex = entries.keyIndex(key);
+        if (keyIndex > -1) {
+            return null;
+        }
+        final Entry entry = entries.valueAt(keyIndex);
+        if (entry.tableTxns.equals(tableTxns)) {
+            LOG.debug().$("hit [key=").utf8(key).I$();
+            // move to the back of the eviction queue
+            unlink(entry);
+            link(entry);
+            entry.refCount++;
+            return entry;
+        }
+        LOG.debug().$("stale [key=").utf8(key).I$();
+        evict(entry);
+        return null;
+    }
+
+    @Override
+    public synchronized void clear() {
+        while (head != null) {
+            evict(head);
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    @TestOnly
+    public synchronized long getMemoryUsed() {
+        return memoryUsed;
+    }
+
+    /**
+     * Caches result. A result for the same key that is already cached is replaced, the result
+     * is freed when it is larger than the memory limit.
+     *
+     * @param entry result to cache, the cache takes ownership of it
+     */
+    public synchronized void put(Entry entry) {
+        if (entry.size > memoryLimit) {
+            entry.close();
+            return;
+        }
+
+        final int keyIndex = entries.keyIndex(entry.key);
+        if (keyIndex < 0) {
+            evict(entries.valueAt(keyIndex));
+        }
+        entries.put(entry.key, entry);
+        link(entry);
+        memoryUsed += entry.size;
+
+        while (memoryUsed > memoryLimit && head != entry) {
+            evict(head);
+        }
+        LOG.debug().$("put [key=").utf8(entry.key).$(", rows=").$(entry.rowCount).$(", memoryUsed=").$(memoryUsed).I$();
+    }
+
+    /**
+     * Releases reference acquired by {@link #acquire(CharSequence, LongList)}.
+     */
+    public synchronized void release(Entry entry) {
+        assert entry.refCount > 0;
+        if (--entry.refCount == 0 && entry.evicted) {
+            free(entry);
+        }
+    }
+
+    @TestOnly
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evict(Entry entry) {
+        unlink(entry);
+        entries.remove(entry.key);
+        entry.evicted = true;
+        if (entry.refCount == 0) {
+            free(entry);
+        }
+    }
+
+    private void free(Entry entry) {
+        memoryUsed -= entry.size;
+        entry.close();
+    }
+
+    private void link(Entry entry) {
+        entry.prev = tail;
+        entry.next = null;
+        if (tail != null) {
+            tail.next = entry;
+        } else {
+            head = entry;
+        }
+        tail = entry;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev != null) {
+            entry.prev.next = entry.next;
+        } else {
+            head = entry.next;
+        }
+        if (entry.next != null) {
+            entry.next.prev = entry.prev;
+        } else {
+            tail = entry.prev;
+        }
+        entry.next = entry.prev = null;
+    }
+
+    /**
+     * Materialized result of a single query, records copied out of a {@link io.questdb.cairo.RecordChain}
+     * to contiguous memory.
+     */
+    public static class Entry implements Closeable {
+        private final String key;
+        private final long rowCount;
+        private final long size;
+        private final LongList tableTxns = new LongList();
+        private long address;
+        private boolean evicted;
+        private Entry next;
+        private Entry prev;
+        // number of readers, guarded by the cache
+        private int refCount;
+
+        /**
+         * @param key       query text and bind variable values
+         * @param tableTxns versions of transaction files of the tables read by the query before it was executed
+         * @param address   records of the result, the entry takes ownership of the memory
+         * @param size      size of the records, in bytes
+         * @param rowCount  number of records
+         */
+        public Entry(String key, LongList tableTxns, long address, long size, long rowCount) {
+            this.key = key;
+            this.tableTxns.add(tableTxns);
+            this.address = address;
+            this.size = size;
+            this.rowCount = rowCount;
+        }
+
+        @Override
+        public void close() {
+            address = Unsafe.free(address, size, MemoryTag.NATIVE_QUERY_CACHE);
+        }
+
+        public long getAddress() {
+            return address;
+        }
+
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        public long getSize() {
+            return size;
+        }
+    }
+}
@@ -65,6 +65,15 @@ public interface RecordCursorFactory extends Closeable, Sinkable, Plannable {
         return null;
     }
 
+    /**
+     * True if the cursor reduces page frames on worker threads ahead of the reader. Frames
+     * dispatched by such cursor hold reduce queue slots until they are collected or the
+     * cursor is closed, so the cursor should not be kept open while it is not read.
+     */
+    default boolean dispatchesPageFrames() {
+        return false;
+    }
+
     default PageFrameSequence<?> execute(SqlExecutionContext executionContext, Sequence collectSubSeq, int order) throws SqlException {
         return null;
     }
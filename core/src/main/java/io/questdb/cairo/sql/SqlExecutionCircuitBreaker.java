@@ -24,6 +24,8 @@
 
 package io.questdb.cairo.sql;
 
+import io.questdb.std.MemoryTracker;
+
 public interface SqlExecutionCircuitBreaker extends ExecutionCircuitBreaker {
 
     SqlExecutionCircuitBreaker NOOP_CIRCUIT_BREAKER = new SqlExecutionCircuitBreaker() {
@@ -83,6 +85,13 @@ public interface SqlExecutionCircuitBreaker extends ExecutionCircuitBreaker {
 
     long getFd();
 
+    /**
+     * @return tracker of native memory allocated by the current query, null when memory is not tracked
+     */
+    default MemoryTracker getMemoryTracker() {
+        return null;
+    }
+
     /* Returns true if time was reset/powered up (for current sql command) and false otherwise . */
     boolean isTimerSet();
 
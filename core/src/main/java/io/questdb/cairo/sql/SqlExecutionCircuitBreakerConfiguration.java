@@ -36,6 +36,9 @@ public interface SqlExecutionCircuitBreakerConfiguration {
 
     NetworkFacade getNetworkFacade();
 
+    // maximum memory a query can allocate for maps, record chains and sort trees in bytes, 0 means no limit
+    long getQueryMemoryLimit();
+
     // maximum SQL execution time in micros
     long getTimeout();
 
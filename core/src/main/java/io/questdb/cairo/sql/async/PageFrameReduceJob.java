@@ -35,9 +35,11 @@ import io.questdb.mp.Job;
 import io.questdb.mp.MCSequence;
 import io.questdb.mp.RingQueue;
 import io.questdb.std.MemoryTag;
+import io.questdb.std.MemoryTracker;
 import io.questdb.std.Misc;
 import io.questdb.std.Os;
 import io.questdb.std.Rnd;
+import io.questdb.std.Unsafe;
 import org.jetbrains.annotations.Nullable;
 
 import java.io.Closeable;
@@ -220,7 +222,15 @@ public class PageFrameReduceJob implements Job, Closeable {
             record.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
             record.setFrameIndex(task.getFrameIndex());
             assert frameSequence.doneLatch.getCount() == 0;
-            frameSequence.getReducer().reduce(workerId, record, task, circuitBreaker, stealingFrameSequence);
+            // charge memory allocated by the reducer to the query owning the frame, work
+            // stealing thread may be in the middle of executing another query
+            final MemoryTracker threadMemoryTracker = Unsafe.getThreadMemoryTracker();
+            Unsafe.setThreadMemoryTracker(frameSequence.getMemoryTracker());
+            try {
+                frameSequence.getReducer().reduce(workerId, record, task, circuitBreaker, stealingFrameSequence);
+            } finally {
+                Unsafe.setThreadMemoryTracker(threadMemoryTracker);
+            }
         } else {
             frameSequence.cancel();
         }
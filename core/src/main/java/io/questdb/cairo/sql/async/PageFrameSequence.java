@@ -64,6 +64,8 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
     private long id;
     // Local reduce task used when there is no slots in the queue to dispatch tasks.
     private PageFrameReduceTask localTask;
+    // tracker of the query owning this sequence, bound to the threads reducing its frames
+    private MemoryTracker memoryTracker;
     private PageAddressCacheRecord record;
     private RingQueue<PageFrameReduceTask> reduceQueue;
     private int shard;
@@ -149,6 +151,7 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         dispatchStartFrameIndex = 0;
         collectedFrameIndex = -1;
         pageAddressCache.clear();
+        memoryTracker = null;
         symbolTableSource = Misc.freeIfCloseable(symbolTableSource);
         // collect sequence may not be set here when
         // factory is closed without using cursor
@@ -159,7 +162,10 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         }
         if (localTask != null) {
             localTask.resetCapacities();
-            localTaskPool.push(localTask);
+            // the pool is shared by all factories of the engine
+            synchronized (localTaskPool) {
+                localTaskPool.push(localTask);
+            }
             localTask = null;
         }
     }
@@ -204,6 +210,10 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         return id;
     }
 
+    public MemoryTracker getMemoryTracker() {
+        return memoryTracker;
+    }
+
     public PageAddressCache getPageAddressCache() {
         return pageAddressCache;
     }
@@ -299,12 +309,14 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         this.sqlExecutionContext = executionContext;
         this.startTime = clock.getTicks();
         this.circuitBreakerFd = executionContext.getCircuitBreaker().getFd();
+        this.memoryTracker = executionContext.getCircuitBreaker().getMemoryTracker();
 
         initRecord(executionContext.getCircuitBreaker());
 
         final Rnd rnd = executionContext.getAsyncRandom();
+        PageFrameCursor pageFrameCursor = null;
         try {
-            final PageFrameCursor pageFrameCursor = base.getPageFrameCursor(executionContext, order);
+            pageFrameCursor = base.getPageFrameCursor(executionContext, order);
             final int frameCount = setupAddressCache(base, pageFrameCursor);
 
             // this method sets a lot of state of the page sequence
@@ -328,6 +340,10 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
                         .I$();
             }
         } catch (Throwable e) {
+            // the cursor is not owned by the sequence yet when we fail to set up address cache
+            if (pageFrameCursor != symbolTableSource) {
+                Misc.free(pageFrameCursor);
+            }
             this.symbolTableSource = Misc.freeIfCloseable(this.symbolTableSource);
             throw e;
         }
@@ -505,7 +521,9 @@ public class PageFrameSequence<T extends StatefulAtom> implements Closeable {
         assert dispatchStartFrameIndex < frameCount;
 
         if (localTask == null) {
-            localTask = localTaskPool.pop();
+            synchronized (localTaskPool) {
+                localTask = localTaskPool.pop();
+            }
         }
         localTask.of(this, dispatchStartFrameIndex++);
 
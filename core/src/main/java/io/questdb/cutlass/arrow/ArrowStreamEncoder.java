@@ -0,0 +1,837 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.arrow;
+
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.GeoHashes;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.std.*;
+
+import java.io.Closeable;
+
+/**
+ * Encodes query results as Arrow IPC stream: schema message, dictionary batch for each
+ * symbol column, record batches and end-of-stream marker. Encoded bytes accumulate in
+ * native memory until the caller reports them sent, so that network code can write the
+ * stream out in chunks of any size and resume when peer is slow to read.
+ * <p>
+ * Rows are appended either one record at a time or as row ranges of a page frame. In
+ * the latter case fixed-width columns are copied straight from the frame memory.
+ * Symbols from static symbol tables are dictionary-encoded, dictionary id is column
+ * index. QuestDB null sentinels are translated to validity bitmaps.
+ */
+public class ArrowStreamEncoder implements Mutable, Closeable {
+    private static final int CONTINUATION_MARKER = -1;
+    private static final byte HEADER_DICTIONARY_BATCH = 2;
+    private static final byte HEADER_RECORD_BATCH = 3;
+    private static final byte HEADER_SCHEMA = 1;
+    // layout of column values in record batch
+    private static final int LAYOUT_BOOL = 1;
+    private static final int LAYOUT_FIXED = 0;
+    private static final int LAYOUT_VAR = 2;
+    private static final long MEMORY_PAGE_SIZE = 64 * 1024;
+    private static final short METADATA_VERSION_V5 = 4;
+    // null sentinels of fixed width columns
+    private static final int NULL_DOUBLE = 4;
+    private static final int NULL_FLOAT = 3;
+    private static final int NULL_GEO = 5;
+    private static final int NULL_INT = 1;
+    private static final int NULL_LONG = 2;
+    private static final int NULL_LONG128 = 6;
+    private static final int NULL_LONG256 = 7;
+    private static final int NULL_NONE = 0;
+    private static final short PRECISION_DOUBLE = 2;
+    private static final short PRECISION_SINGLE = 1;
+    private static final short TIME_UNIT_MICROSECOND = 2;
+    // members of Arrow Type union
+    private static final byte TYPE_BINARY = 4;
+    private static final byte TYPE_BOOL = 6;
+    private static final byte TYPE_DATE = 8;
+    private static final byte TYPE_FIXED_SIZE_BINARY = 15;
+    private static final byte TYPE_FLOATING_POINT = 3;
+    private static final byte TYPE_INT = 2;
+    private static final byte TYPE_TIMESTAMP = 10;
+    private static final byte TYPE_UTF8 = 5;
+    private final IntList arrowTypes = new IntList();
+    // offsets for variable width columns, packed bits for booleans
+    private final ObjList<MemoryCARW> auxMems = new ObjList<>();
+    private final LongList bufferAddresses = new LongList();
+    private final LongList bufferLengths = new LongList();
+    private final LongList bufferOffsets = new LongList();
+    private final IntList columnTypes = new IntList();
+    private final ObjList<MemoryCARW> dataMems = new ObjList<>();
+    private final MemoryCARW dictionaryData;
+    private final MemoryCARW dictionaryOffsets;
+    private final ObjList<StaticSymbolTable> dictionaries = new ObjList<>();
+    private final FlatBufferBuilder fb;
+    private final IntList fieldOffsets = new IntList();
+    private final PageAddressCacheRecord frameRecord = new PageAddressCacheRecord();
+    private final IntList layouts = new IntList();
+    private final int memoryTag;
+    // pairs of length and null count
+    private final LongList nodes = new LongList();
+    private final IntList nullKinds = new IntList();
+    private final LongList nullCounts = new LongList();
+    private final MemoryCARW out;
+    private final PageAddressCache pageAddressCache;
+    private final MemoryCARW scratch;
+    private final ObjList<MemoryCARW> validityMems = new ObjList<>();
+    private final IntList widths = new IntList();
+    private long bodyLength;
+    private int columnCount;
+    private PageFrame frame;
+    private RecordMetadata metadata;
+    private long rowCount;
+    private long sendOffset;
+
+    public ArrowStreamEncoder(CairoConfiguration configuration, int memoryTag) {
+        this.memoryTag = memoryTag;
+        this.pageAddressCache = new PageAddressCache(configuration);
+        this.fb = new FlatBufferBuilder(memoryTag);
+        this.out = newMemory();
+        this.scratch = newMemory();
+        this.dictionaryData = newMemory();
+        this.dictionaryOffsets = newMemory();
+    }
+
+    /**
+     * Appends rows of the current page frame, see {@link #ofFrame(PageFrame)}.
+     *
+     * @param lo first row of the range, relative to the frame
+     * @param hi row after the last row of the range
+     */
+    public void appendFrameRows(long lo, long hi) {
+        final long count = hi - lo;
+        for (int i = 0; i < columnCount; i++) {
+            if (layouts.getQuick(i) == LAYOUT_VAR) {
+                for (long r = lo; r < hi; r++) {
+                    frameRecord.setRowIndex(r);
+                    appendValue(frameRecord, i, rowCount + r - lo);
+                }
+            } else {
+                final long pageAddress = frame.getPageAddress(i);
+                final int width = widths.getQuick(i);
+                if (pageAddress != 0) {
+                    dataMems.getQuick(i).putBlockOfBytes(pageAddress + lo * width, count * width);
+                } else {
+                    // column top
+                    appendNulls(i, count);
+                }
+            }
+        }
+        rowCount += count;
+    }
+
+    public void appendRecord(Record record) {
+        for (int i = 0; i < columnCount; i++) {
+            appendValue(record, i, rowCount);
+        }
+        rowCount++;
+    }
+
+    @Override
+    public void clear() {
+        metadata = null;
+        frame = null;
+        columnCount = 0;
+        rowCount = 0;
+        sendOffset = 0;
+        columnTypes.clear();
+        arrowTypes.clear();
+        layouts.clear();
+        widths.clear();
+        nullKinds.clear();
+        nullCounts.clear();
+        dictionaries.clear();
+        pageAddressCache.clear();
+        // release memory between queries, it is allocated again on first write
+        Misc.free(out);
+        Misc.free(scratch);
+        Misc.free(dictionaryData);
+        Misc.free(dictionaryOffsets);
+        for (int i = 0, n = dataMems.size(); i < n; i++) {
+            Misc.free(dataMems.getQuick(i));
+            Misc.free(auxMems.getQuick(i));
+            Misc.free(validityMems.getQuick(i));
+        }
+    }
+
+    @Override
+    public void close() {
+        clear();
+        Misc.free(fb);
+        Misc.free(frameRecord);
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * @return address after the last encoded byte
+     */
+    public long getSendHi() {
+        return out.getAddress() + out.getAppendOffset();
+    }
+
+    /**
+     * @return address of the first encoded byte not yet sent
+     */
+    public long getSendLo() {
+        return out.getAddress() + sendOffset;
+    }
+
+    public void of(RecordMetadata metadata, SymbolTableSource symbolTableSource) {
+        clear();
+        this.metadata = metadata;
+        this.columnCount = metadata.getColumnCount();
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = metadata.getColumnType(i);
+            StaticSymbolTable dictionary = null;
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.BOOLEAN:
+                    addColumn(columnType, TYPE_BOOL, LAYOUT_BOOL, Byte.BYTES, NULL_NONE);
+                    break;
+                case ColumnType.BYTE:
+                case ColumnType.SHORT:
+                    addColumn(columnType, TYPE_INT, LAYOUT_FIXED, ColumnType.sizeOf(columnType), NULL_NONE);
+                    break;
+                case ColumnType.INT:
+                    addColumn(columnType, TYPE_INT, LAYOUT_FIXED, Integer.BYTES, NULL_INT);
+                    break;
+                case ColumnType.LONG:
+                    addColumn(columnType, TYPE_INT, LAYOUT_FIXED, Long.BYTES, NULL_LONG);
+                    break;
+                case ColumnType.DATE:
+                    addColumn(columnType, TYPE_DATE, LAYOUT_FIXED, Long.BYTES, NULL_LONG);
+                    break;
+                case ColumnType.TIMESTAMP:
+                    addColumn(columnType, TYPE_TIMESTAMP, LAYOUT_FIXED, Long.BYTES, NULL_LONG);
+                    break;
+                case ColumnType.FLOAT:
+                    addColumn(columnType, TYPE_FLOATING_POINT, LAYOUT_FIXED, Float.BYTES, NULL_FLOAT);
+                    break;
+                case ColumnType.DOUBLE:
+                    addColumn(columnType, TYPE_FLOATING_POINT, LAYOUT_FIXED, Double.BYTES, NULL_DOUBLE);
+                    break;
+                case ColumnType.GEOBYTE:
+                case ColumnType.GEOSHORT:
+                case ColumnType.GEOINT:
+                case ColumnType.GEOLONG:
+                    addColumn(columnType, TYPE_INT, LAYOUT_FIXED, ColumnType.sizeOf(columnType), NULL_GEO);
+                    break;
+                case ColumnType.LONG128:
+                    addColumn(columnType, TYPE_FIXED_SIZE_BINARY, LAYOUT_FIXED, 2 * Long.BYTES, NULL_LONG128);
+                    break;
+                case ColumnType.LONG256:
+                    addColumn(columnType, TYPE_FIXED_SIZE_BINARY, LAYOUT_FIXED, Long256.BYTES, NULL_LONG256);
+                    break;
+                case ColumnType.SYMBOL:
+                    if (metadata.isSymbolTableStatic(i)) {
+                        final SymbolTable symbolTable = symbolTableSource.getSymbolTable(i);
+                        if (symbolTable instanceof StaticSymbolTable) {
+                            dictionary = (StaticSymbolTable) symbolTable;
+                        }
+                    }
+                    if (dictionary != null) {
+                        // values are symbol keys, which index into dictionary batch
+                        addColumn(columnType, TYPE_UTF8, LAYOUT_FIXED, Integer.BYTES, NULL_INT);
+                    } else {
+                        addColumn(columnType, TYPE_UTF8, LAYOUT_VAR, 0, NULL_NONE);
+                    }
+                    break;
+                case ColumnType.BINARY:
+                    addColumn(columnType, TYPE_BINARY, LAYOUT_VAR, 0, NULL_NONE);
+                    break;
+                default:
+                    // string, char and null
+                    addColumn(columnType, TYPE_UTF8, LAYOUT_VAR, 0, NULL_NONE);
+                    break;
+            }
+            dictionaries.add(dictionary);
+        }
+        frameRecord.of(symbolTableSource, pageAddressCache);
+        resetBatch();
+    }
+
+    public void ofFrame(PageFrame frame) {
+        this.frame = frame;
+        pageAddressCache.clear();
+        pageAddressCache.of(metadata);
+        pageAddressCache.add(0, frame);
+        frameRecord.setFrameIndex(0);
+    }
+
+    /**
+     * Marks encoded bytes as sent. Once everything is sent the memory is reused.
+     *
+     * @param len number of bytes sent from {@link #getSendLo()}
+     */
+    public void onSent(long len) {
+        sendOffset += len;
+        if (sendOffset == out.getAppendOffset()) {
+            out.jumpTo(0);
+            sendOffset = 0;
+        }
+    }
+
+    /**
+     * Encodes dictionary batch for every dictionary-encoded symbol column. Dictionary
+     * holds all values of the symbol table, so that batches need no further updates.
+     */
+    public void putDictionaries() {
+        for (int i = 0; i < columnCount; i++) {
+            final StaticSymbolTable dictionary = dictionaries.getQuick(i);
+            if (dictionary != null) {
+                final int symbolCount = dictionary.getSymbolCount();
+                dictionaryData.jumpTo(0);
+                dictionaryOffsets.jumpTo(0);
+                dictionaryOffsets.putInt(0);
+                for (int key = 0; key < symbolCount; key++) {
+                    putUtf8(dictionaryData, dictionary.valueOf(key));
+                    dictionaryOffsets.putInt((int) dictionaryData.getAppendOffset());
+                }
+                beginBody();
+                addNode(symbolCount, 0);
+                addBuffer(0, 0);
+                addBuffer(dictionaryOffsets.getAddress(), dictionaryOffsets.getAppendOffset());
+                addBuffer(dictionaryData.getAddress(), dictionaryData.getAppendOffset());
+                putBatch(HEADER_DICTIONARY_BATCH, i, symbolCount);
+            }
+        }
+    }
+
+    public void putEndOfStream() {
+        out.putInt(CONTINUATION_MARKER);
+        out.putInt(0);
+    }
+
+    /**
+     * Encodes appended rows as record batch and starts new batch.
+     */
+    public void putRecordBatch() {
+        beginBody();
+        for (int i = 0; i < columnCount; i++) {
+            final MemoryCARW data = dataMems.getQuick(i);
+            final MemoryCARW aux = auxMems.getQuick(i);
+            final long nullCount;
+            switch (layouts.getQuick(i)) {
+                case LAYOUT_FIXED:
+                    nullCount = buildValidity(i);
+                    addNode(rowCount, nullCount);
+                    addValidityBuffer(i, nullCount);
+                    addBuffer(data.getAddress(), data.getAppendOffset());
+                    break;
+                case LAYOUT_BOOL:
+                    packBits(data, aux);
+                    addNode(rowCount, 0);
+                    addBuffer(0, 0);
+                    addBuffer(aux.getAddress(), aux.getAppendOffset());
+                    break;
+                default:
+                    nullCount = nullCounts.getQuick(i);
+                    addNode(rowCount, nullCount);
+                    addValidityBuffer(i, nullCount);
+                    addBuffer(aux.getAddress(), aux.getAppendOffset());
+                    addBuffer(data.getAddress(), data.getAppendOffset());
+                    break;
+            }
+        }
+        putBatch(HEADER_RECORD_BATCH, 0, rowCount);
+        resetBatch();
+    }
+
+    public void putSchema() {
+        fb.clear();
+        fieldOffsets.clear();
+        for (int i = 0; i < columnCount; i++) {
+            fieldOffsets.add(createField(i));
+        }
+        fb.startVector(Integer.BYTES, columnCount, Integer.BYTES);
+        for (int i = columnCount - 1; i > -1; i--) {
+            fb.addOffset(fieldOffsets.getQuick(i));
+        }
+        final int fields = fb.endVector();
+        fb.startTable(4);
+        fb.addOffset(1, fields);
+        putMessage(HEADER_SCHEMA, fb.endTable(), 0);
+    }
+
+    private static long align8(long value) {
+        return (value + 7) & ~7L;
+    }
+
+    private static boolean isNull(long p, int nullKind, int width) {
+        switch (nullKind) {
+            case NULL_INT:
+                return Unsafe.getUnsafe().getInt(p) == Numbers.INT_NaN;
+            case NULL_LONG:
+                return Unsafe.getUnsafe().getLong(p) == Numbers.LONG_NaN;
+            case NULL_FLOAT:
+                final float f = Unsafe.getUnsafe().getFloat(p);
+                return f != f;
+            case NULL_DOUBLE:
+                final double d = Unsafe.getUnsafe().getDouble(p);
+                return d != d;
+            case NULL_GEO:
+                switch (width) {
+                    case Byte.BYTES:
+                        return Unsafe.getUnsafe().getByte(p) == GeoHashes.BYTE_NULL;
+                    case Short.BYTES:
+                        return Unsafe.getUnsafe().getShort(p) == GeoHashes.SHORT_NULL;
+                    case Integer.BYTES:
+                        return Unsafe.getUnsafe().getInt(p) == GeoHashes.INT_NULL;
+                    default:
+                        return Unsafe.getUnsafe().getLong(p) == GeoHashes.NULL;
+                }
+            case NULL_LONG128:
+                return Unsafe.getUnsafe().getLong(p) == Numbers.LONG_NaN
+                        && Unsafe.getUnsafe().getLong(p + Long.BYTES) == Numbers.LONG_NaN;
+            case NULL_LONG256:
+                return Unsafe.getUnsafe().getLong(p) == Numbers.LONG_NaN
+                        && Unsafe.getUnsafe().getLong(p + Long.BYTES) == Numbers.LONG_NaN
+                        && Unsafe.getUnsafe().getLong(p + 2 * Long.BYTES) == Numbers.LONG_NaN
+                        && Unsafe.getUnsafe().getLong(p + 3 * Long.BYTES) == Numbers.LONG_NaN;
+            default:
+                return false;
+        }
+    }
+
+    private static void packBits(MemoryCARW bytes, MemoryCARW bits) {
+        final long count = bytes.getAppendOffset();
+        final long lo = bytes.getAddress();
+        bits.jumpTo(0);
+        int b = 0;
+        for (long r = 0; r < count; r++) {
+            if (Unsafe.getUnsafe().getByte(lo + r) != 0) {
+                b |= 1 << (r & 7);
+            }
+            if ((r & 7) == 7) {
+                bits.putByte((byte) b);
+                b = 0;
+            }
+        }
+        if ((count & 7) != 0) {
+            bits.putByte((byte) b);
+        }
+    }
+
+    private static void putUtf8(MemoryCARW mem, CharSequence value) {
+        if (value == null) {
+            return;
+        }
+        for (int i = 0, n = value.length(); i < n; i++) {
+            final char c = value.charAt(i);
+            if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    final int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                    mem.putByte((byte) (0xf0 | codePoint >> 18));
+                    mem.putByte((byte) (0x80 | (codePoint >> 12) & 0x3f));
+                    mem.putByte((byte) (0x80 | (codePoint >> 6) & 0x3f));
+                    mem.putByte((byte) (0x80 | codePoint & 0x3f));
+                } else {
+                    mem.putByte((byte) '?');
+                }
+            } else {
+                putUtf8(mem, c);
+            }
+        }
+    }
+
+    private static void putUtf8(MemoryCARW mem, char c) {
+        if (c < 0x80) {
+            mem.putByte((byte) c);
+        } else if (c < 0x800) {
+            mem.putByte((byte) (0xc0 | c >> 6));
+            mem.putByte((byte) (0x80 | c & 0x3f));
+        } else {
+            mem.putByte((byte) (0xe0 | c >> 12));
+            mem.putByte((byte) (0x80 | (c >> 6) & 0x3f));
+            mem.putByte((byte) (0x80 | c & 0x3f));
+        }
+    }
+
+    private void addBuffer(long address, long length) {
+        bufferAddresses.add(address);
+        bufferOffsets.add(bodyLength);
+        bufferLengths.add(length);
+        bodyLength += align8(length);
+    }
+
+    private void addColumn(int columnType, byte arrowType, int layout, int width, int nullKind) {
+        final int columnIndex = columnTypes.size();
+        columnTypes.add(columnType);
+        arrowTypes.add(arrowType);
+        layouts.add(layout);
+        widths.add(width);
+        nullKinds.add(nullKind);
+        nullCounts.add(0);
+        if (dataMems.size() == columnIndex) {
+            dataMems.add(newMemory());
+            auxMems.add(newMemory());
+            validityMems.add(newMemory());
+        }
+    }
+
+    private void addNode(long length, long nullCount) {
+        nodes.add(length);
+        nodes.add(nullCount);
+    }
+
+    private void addValidityBuffer(int columnIndex, long nullCount) {
+        if (nullCount > 0) {
+            final MemoryCARW validity = validityMems.getQuick(columnIndex);
+            addBuffer(validity.getAddress(), validity.getAppendOffset());
+        } else {
+            // all values are valid, bitmap can be omitted
+            addBuffer(0, 0);
+        }
+    }
+
+    private void appendNulls(int columnIndex, long count) {
+        final MemoryCARW data = dataMems.getQuick(columnIndex);
+        final int width = widths.getQuick(columnIndex);
+        switch (nullKinds.getQuick(columnIndex)) {
+            case NULL_INT:
+                for (long r = 0; r < count; r++) {
+                    data.putInt(Numbers.INT_NaN);
+                }
+                break;
+            case NULL_LONG:
+            case NULL_LONG128:
+            case NULL_LONG256:
+                for (long r = 0, n = count * width / Long.BYTES; r < n; r++) {
+                    data.putLong(Numbers.LONG_NaN);
+                }
+                break;
+            case NULL_FLOAT:
+                for (long r = 0; r < count; r++) {
+                    data.putFloat(Float.NaN);
+                }
+                break;
+            case NULL_DOUBLE:
+                for (long r = 0; r < count; r++) {
+                    data.putDouble(Double.NaN);
+                }
+                break;
+            case NULL_GEO:
+                // geohash null has all bits set
+                Vect.memset(data.appendAddressFor(count * width), count * width, -1);
+                break;
+            default:
+                Vect.memset(data.appendAddressFor(count * width), count * width, 0);
+                break;
+        }
+    }
+
+    private void appendValue(Record record, int columnIndex, long row) {
+        final MemoryCARW data = dataMems.getQuick(columnIndex);
+        final int columnType = columnTypes.getQuick(columnIndex);
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                data.putBool(record.getBool(columnIndex));
+                break;
+            case ColumnType.BYTE:
+                data.putByte(record.getByte(columnIndex));
+                break;
+            case ColumnType.SHORT:
+                data.putShort(record.getShort(columnIndex));
+                break;
+            case ColumnType.INT:
+                data.putInt(record.getInt(columnIndex));
+                break;
+            case ColumnType.LONG:
+                data.putLong(record.getLong(columnIndex));
+                break;
+            case ColumnType.DATE:
+                data.putLong(record.getDate(columnIndex));
+                break;
+            case ColumnType.TIMESTAMP:
+                data.putLong(record.getTimestamp(columnIndex));
+                break;
+            case ColumnType.FLOAT:
+                data.putFloat(record.getFloat(columnIndex));
+                break;
+            case ColumnType.DOUBLE:
+                data.putDouble(record.getDouble(columnIndex));
+                break;
+            case ColumnType.GEOBYTE:
+                data.putByte(record.getGeoByte(columnIndex));
+                break;
+            case ColumnType.GEOSHORT:
+                data.putShort(record.getGeoShort(columnIndex));
+                break;
+            case ColumnType.GEOINT:
+                data.putInt(record.getGeoInt(columnIndex));
+                break;
+            case ColumnType.GEOLONG:
+                data.putLong(record.getGeoLong(columnIndex));
+                break;
+            case ColumnType.LONG128:
+                data.putLong(record.getLong128Lo(columnIndex));
+                data.putLong(record.getLong128Hi(columnIndex));
+                break;
+            case ColumnType.LONG256:
+                data.putLong256(record.getLong256A(columnIndex));
+                break;
+            case ColumnType.SYMBOL:
+                if (dictionaries.getQuick(columnIndex) != null) {
+                    data.putInt(record.getInt(columnIndex));
+                } else {
+                    appendStr(columnIndex, row, record.getSym(columnIndex));
+                }
+                break;
+            case ColumnType.STRING:
+                appendStr(columnIndex, row, record.getStr(columnIndex));
+                break;
+            case ColumnType.CHAR:
+                final char c = record.getChar(columnIndex);
+                setValid(columnIndex, row, c != 0);
+                if (c != 0) {
+                    putUtf8(data, c);
+                }
+                auxMems.getQuick(columnIndex).putInt((int) data.getAppendOffset());
+                break;
+            case ColumnType.BINARY:
+                final BinarySequence bin = record.getBin(columnIndex);
+                setValid(columnIndex, row, bin != null);
+                if (bin != null) {
+                    final long len = bin.length();
+                    bin.copyTo(data.appendAddressFor(len), 0, len);
+                }
+                auxMems.getQuick(columnIndex).putInt((int) data.getAppendOffset());
+                break;
+            default:
+                appendStr(columnIndex, row, null);
+                break;
+        }
+    }
+
+    private void appendStr(int columnIndex, long row, CharSequence value) {
+        final MemoryCARW data = dataMems.getQuick(columnIndex);
+        setValid(columnIndex, row, value != null);
+        putUtf8(data, value);
+        auxMems.getQuick(columnIndex).putInt((int) data.getAppendOffset());
+    }
+
+    private void beginBody() {
+        nodes.clear();
+        bufferAddresses.clear();
+        bufferOffsets.clear();
+        bufferLengths.clear();
+        bodyLength = 0;
+    }
+
+    private long buildValidity(int columnIndex) {
+        final int nullKind = nullKinds.getQuick(columnIndex);
+        if (nullKind == NULL_NONE) {
+            return 0;
+        }
+        final MemoryCARW data = dataMems.getQuick(columnIndex);
+        final MemoryCARW validity = validityMems.getQuick(columnIndex);
+        final int width = widths.getQuick(columnIndex);
+        validity.jumpTo(0);
+        long nullCount = 0;
+        long p = data.getAddress();
+        int b = 0;
+        for (long r = 0; r < rowCount; r++, p += width) {
+            if (isNull(p, nullKind, width)) {
+                nullCount++;
+            } else {
+                b |= 1 << (r & 7);
+            }
+            if ((r & 7) == 7) {
+                validity.putByte((byte) b);
+                b = 0;
+            }
+        }
+        if ((rowCount & 7) != 0) {
+            validity.putByte((byte) b);
+        }
+        return nullCount;
+    }
+
+    private int createField(int columnIndex) {
+        final byte arrowType = (byte) arrowTypes.getQuick(columnIndex);
+        final int name = createString(metadata.getColumnName(columnIndex));
+        final int type = createType(columnIndex, arrowType);
+        int dictionary = 0;
+        if (dictionaries.getQuick(columnIndex) != null) {
+            final int indexType = createIntType(Integer.SIZE);
+            fb.startTable(4);
+            fb.addLong(0, columnIndex);
+            fb.addOffset(1, indexType);
+            dictionary = fb.endTable();
+        }
+        fb.startVector(Integer.BYTES, 0, Integer.BYTES);
+        final int children = fb.endVector();
+        fb.startTable(7);
+        fb.addOffset(0, name);
+        fb.addBool(1, true);
+        fb.addByte(2, arrowType);
+        fb.addOffset(3, type);
+        fb.addOffset(4, dictionary);
+        fb.addOffset(5, children);
+        return fb.endTable();
+    }
+
+    private int createIntType(int bitWidth) {
+        fb.startTable(2);
+        fb.addInt(0, bitWidth);
+        fb.addBool(1, true);
+        return fb.endTable();
+    }
+
+    private int createString(CharSequence value) {
+        scratch.jumpTo(0);
+        putUtf8(scratch, value);
+        return fb.createString(scratch.getAddress(), (int) scratch.getAppendOffset());
+    }
+
+    private int createType(int columnIndex, byte arrowType) {
+        final int width = widths.getQuick(columnIndex);
+        switch (arrowType) {
+            case TYPE_INT:
+                return createIntType(width * Byte.SIZE);
+            case TYPE_FLOATING_POINT:
+                fb.startTable(1);
+                fb.addShort(0, width == Float.BYTES ? PRECISION_SINGLE : PRECISION_DOUBLE);
+                return fb.endTable();
+            case TYPE_TIMESTAMP:
+                final int timezone = createString("UTC");
+                fb.startTable(2);
+                fb.addShort(0, TIME_UNIT_MICROSECOND);
+                fb.addOffset(1, timezone);
+                return fb.endTable();
+            case TYPE_FIXED_SIZE_BINARY:
+                fb.startTable(1);
+                fb.addInt(0, width);
+                return fb.endTable();
+            default:
+                // utf8, binary and bool have no parameters, date unit defaults to milliseconds
+                fb.startTable(0);
+                return fb.endTable();
+        }
+    }
+
+    private MemoryCARW newMemory() {
+        return Vm.getCARWInstance(MEMORY_PAGE_SIZE, Integer.MAX_VALUE, memoryTag);
+    }
+
+    private void putBatch(byte headerType, long dictionaryId, long length) {
+        fb.clear();
+        final int bufferCount = bufferLengths.size();
+        fb.startVector(2 * Long.BYTES, bufferCount, Long.BYTES);
+        for (int i = bufferCount - 1; i > -1; i--) {
+            // struct Buffer { offset: long; length: long; }
+            fb.prep(Long.BYTES, 2 * Long.BYTES);
+            fb.putLong(bufferLengths.getQuick(i));
+            fb.putLong(bufferOffsets.getQuick(i));
+        }
+        final int buffers = fb.endVector();
+        final int nodeCount = nodes.size() / 2;
+        fb.startVector(2 * Long.BYTES, nodeCount, Long.BYTES);
+        for (int i = nodeCount - 1; i > -1; i--) {
+            // struct FieldNode { length: long; null_count: long; }
+            fb.prep(Long.BYTES, 2 * Long.BYTES);
+            fb.putLong(nodes.getQuick(2 * i + 1));
+            fb.putLong(nodes.getQuick(2 * i));
+        }
+        final int fieldNodes = fb.endVector();
+        fb.startTable(3);
+        fb.addLong(0, length);
+        fb.addOffset(1, fieldNodes);
+        fb.addOffset(2, buffers);
+        int header = fb.endTable();
+        if (headerType == HEADER_DICTIONARY_BATCH) {
+            fb.startTable(2);
+            fb.addLong(0, dictionaryId);
+            fb.addOffset(1, header);
+            header = fb.endTable();
+        }
+        putMessage(headerType, header, bodyLength);
+
+        for (int i = 0; i < bufferCount; i++) {
+            final long len = bufferLengths.getQuick(i);
+            if (len > 0) {
+                out.putBlockOfBytes(bufferAddresses.getQuick(i), len);
+            }
+            putPadding(align8(len) - len);
+        }
+    }
+
+    private void putMessage(byte headerType, int header, long bodyLength) {
+        fb.startTable(4);
+        fb.addLong(3, bodyLength);
+        fb.addOffset(2, header);
+        fb.addShort(0, METADATA_VERSION_V5);
+        fb.addByte(1, headerType);
+        fb.finish(fb.endTable());
+        final int size = fb.getBufferSize();
+        // metadata is padded for the message body to start at 8-byte boundary
+        final int paddedSize = (int) align8(size + 2 * Integer.BYTES) - 2 * Integer.BYTES;
+        out.putInt(CONTINUATION_MARKER);
+        out.putInt(paddedSize);
+        out.putBlockOfBytes(fb.getBufferAddress(), size);
+        putPadding(paddedSize - size);
+    }
+
+    private void putPadding(long len) {
+        for (long i = 0; i < len; i++) {
+            out.putByte((byte) 0);
+        }
+    }
+
+    private void resetBatch() {
+        rowCount = 0;
+        for (int i = 0; i < columnCount; i++) {
+            dataMems.getQuick(i).jumpTo(0);
+            auxMems.getQuick(i).jumpTo(0);
+            validityMems.getQuick(i).jumpTo(0);
+            nullCounts.setQuick(i, 0);
+            if (layouts.getQuick(i) == LAYOUT_VAR) {
+                auxMems.getQuick(i).putInt(0);
+            }
+        }
+    }
+
+    private void setValid(int columnIndex, long row, boolean valid) {
+        final MemoryCARW validity = validityMems.getQuick(columnIndex);
+        if ((row & 7) == 0) {
+            validity.putByte((byte) 0);
+        }
+        if (valid) {
+            final long p = validity.getAddress() + (row >>> 3);
+            Unsafe.getUnsafe().putByte(p, (byte) (Unsafe.getUnsafe().getByte(p) | 1 << (row & 7)));
+        } else {
+            nullCounts.increment(columnIndex);
+        }
+    }
+}
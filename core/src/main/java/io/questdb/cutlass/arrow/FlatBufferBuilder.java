@@ -0,0 +1,239 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.arrow;
+
+import io.questdb.std.*;
+
+import java.io.Closeable;
+
+/**
+ * Minimal FlatBuffers builder over native memory, enough to write Arrow IPC message
+ * metadata. Like the reference implementation it fills the buffer back to front, so
+ * child objects must be created before the table that refers to them. Scalar fields
+ * equal to zero are not written, which matches the defaults of every field Arrow
+ * encoder uses.
+ */
+class FlatBufferBuilder implements Mutable, Closeable {
+    private static final int INITIAL_CAPACITY = 1024;
+    private final int memoryTag;
+    private final IntList vtable = new IntList();
+    private long address;
+    private int capacity;
+    private int minAlign;
+    private int objectStart;
+    private int space;
+    private int vectorElementCount;
+
+    FlatBufferBuilder(int memoryTag) {
+        this.memoryTag = memoryTag;
+        this.capacity = INITIAL_CAPACITY;
+        this.address = Unsafe.malloc(capacity, memoryTag);
+        clear();
+    }
+
+    @Override
+    public void clear() {
+        space = capacity;
+        minAlign = 1;
+        vtable.clear();
+    }
+
+    @Override
+    public void close() {
+        if (address != 0) {
+            Unsafe.free(address, capacity, memoryTag);
+            address = 0;
+        }
+    }
+
+    void addBool(int field, boolean value) {
+        if (value) {
+            addByte(field, (byte) 1);
+        }
+    }
+
+    void addByte(int field, byte value) {
+        if (value != 0) {
+            prep(Byte.BYTES, 0);
+            putByte(value);
+            slot(field);
+        }
+    }
+
+    void addInt(int field, int value) {
+        if (value != 0) {
+            prep(Integer.BYTES, 0);
+            putInt(value);
+            slot(field);
+        }
+    }
+
+    void addLong(int field, long value) {
+        if (value != 0) {
+            prep(Long.BYTES, 0);
+            putLong(value);
+            slot(field);
+        }
+    }
+
+    void addOffset(int offset) {
+        prep(Integer.BYTES, 0);
+        putInt(offset() - offset + Integer.BYTES);
+    }
+
+    void addOffset(int field, int offset) {
+        if (offset != 0) {
+            addOffset(offset);
+            slot(field);
+        }
+    }
+
+    void addShort(int field, short value) {
+        if (value != 0) {
+            prep(Short.BYTES, 0);
+            putShort(value);
+            slot(field);
+        }
+    }
+
+    int createString(long lo, int len) {
+        prep(Byte.BYTES, 0);
+        putByte((byte) 0);
+        startVector(Byte.BYTES, len, Byte.BYTES);
+        space -= len;
+        Vect.memcpy(address + space, lo, len);
+        return endVector();
+    }
+
+    int endTable() {
+        addInt0();
+        final int vtableOffset = offset();
+        int i = vtable.size() - 1;
+        while (i > -1 && vtable.getQuick(i) == 0) {
+            i--;
+        }
+        final int fieldCount = i + 1;
+        for (; i > -1; i--) {
+            final int fieldOffset = vtable.getQuick(i);
+            prep(Short.BYTES, 0);
+            putShort((short) (fieldOffset != 0 ? vtableOffset - fieldOffset : 0));
+        }
+        prep(Short.BYTES, 0);
+        putShort((short) (vtableOffset - objectStart));
+        prep(Short.BYTES, 0);
+        putShort((short) ((fieldCount + 2) * Short.BYTES));
+        // table starts with signed offset to its vtable, which we have just written
+        Unsafe.getUnsafe().putInt(address + capacity - vtableOffset, offset() - vtableOffset);
+        vtable.clear();
+        return vtableOffset;
+    }
+
+    int endVector() {
+        putInt(vectorElementCount);
+        return offset();
+    }
+
+    void finish(int root) {
+        prep(minAlign, Integer.BYTES);
+        addOffset(root);
+    }
+
+    long getBufferAddress() {
+        return address + space;
+    }
+
+    int getBufferSize() {
+        return capacity - space;
+    }
+
+    int offset() {
+        return capacity - space;
+    }
+
+    void prep(int size, int additionalBytes) {
+        if (size > minAlign) {
+            minAlign = size;
+        }
+        final int alignSize = (~(capacity - space + additionalBytes) + 1) & (size - 1);
+        while (space < alignSize + size + additionalBytes) {
+            grow();
+        }
+        for (int i = 0; i < alignSize; i++) {
+            putByte((byte) 0);
+        }
+    }
+
+    void putLong(long value) {
+        space -= Long.BYTES;
+        Unsafe.getUnsafe().putLong(address + space, value);
+    }
+
+    void startTable(int fieldCount) {
+        vtable.setAll(fieldCount, 0);
+        objectStart = offset();
+    }
+
+    void startVector(int elementSize, int elementCount, int alignment) {
+        vectorElementCount = elementCount;
+        prep(Integer.BYTES, elementSize * elementCount);
+        prep(alignment, elementSize * elementCount);
+    }
+
+    private void addInt0() {
+        prep(Integer.BYTES, 0);
+        putInt(0);
+    }
+
+    private void grow() {
+        final int newCapacity = capacity << 1;
+        final long newAddress = Unsafe.malloc(newCapacity, memoryTag);
+        final int used = capacity - space;
+        Vect.memcpy(newAddress + newCapacity - used, address + space, used);
+        Unsafe.free(address, capacity, memoryTag);
+        space += newCapacity - capacity;
+        address = newAddress;
+        capacity = newCapacity;
+    }
+
+    private void putByte(byte value) {
+        space -= Byte.BYTES;
+        Unsafe.getUnsafe().putByte(address + space, value);
+    }
+
+    private void putInt(int value) {
+        space -= Integer.BYTES;
+        Unsafe.getUnsafe().putInt(address + space, value);
+    }
+
+    private void putShort(short value) {
+        space -= Short.BYTES;
+        Unsafe.getUnsafe().putShort(address + space, value);
+    }
+
+    private void slot(int field) {
+        vtable.setQuick(field, offset());
+    }
+}
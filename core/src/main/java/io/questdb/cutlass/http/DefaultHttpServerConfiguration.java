@@ -51,6 +51,16 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
             return 1_000_000;
         }
 
+        @Override
+        public long getCursorIdleTimeout() {
+            return 60_000;
+        }
+
+        @Override
+        public int getCursorMaxCount() {
+            return 4;
+        }
+
         @Override
         public int getDoubleScale() {
             return Numbers.MAX_SCALE;
@@ -75,6 +85,11 @@ public class DefaultHttpServerConfiguration implements HttpServerConfiguration {
         public long getMaxQueryResponseRowLimit() {
             return Long.MAX_VALUE;
         }
+
+        @Override
+        public boolean isQueryCacheEnabled() {
+            return true;
+        }
     };
     private final StaticContentProcessorConfiguration staticContentProcessorConfiguration = new StaticContentProcessorConfiguration() {
         @Override
@@ -35,6 +35,15 @@ public interface HttpChunkedResponseSocket extends CharSink {
 
     HttpResponseHeader headers();
 
+    /**
+     * Copies as many bytes of the given range as there is room for in the response buffer.
+     *
+     * @param lo address of the first byte
+     * @param hi address after the last byte
+     * @return number of bytes copied
+     */
+    int putBytes(long lo, long hi);
+
     boolean resetToBookmark();
 
     void sendChunk(boolean done) throws PeerDisconnectedException, PeerIsSlowToReadException;
@@ -234,6 +234,11 @@ public class HttpConnectionContext extends AbstractMutableIOContext<HttpConnecti
         return r;
     }
 
+    @Override
+    public void onIdle() {
+        localValueMap.onIdle();
+    }
+
     public void scheduleRetry(HttpRequestProcessor processor, RescheduleContext rescheduleContext) {
         try {
             pendingRetry = true;
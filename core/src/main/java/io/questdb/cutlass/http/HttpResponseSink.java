@@ -428,6 +428,14 @@ public class HttpResponseSink implements Closeable, Mutable {
             return headerImpl;
         }
 
+        @Override
+        public int putBytes(long lo, long hi) {
+            final int len = (int) Math.min(hi - lo, buffer.getWriteNAvailable());
+            Vect.memcpy(buffer._wptr, lo, len);
+            buffer.onWrite(len);
+            return len;
+        }
+
         @Override
         public boolean resetToBookmark() {
             buffer._wptr = bookmark;
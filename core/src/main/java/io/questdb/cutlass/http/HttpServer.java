@@ -32,9 +32,7 @@ import io.questdb.griffin.DatabaseSnapshotAgent;
 import io.questdb.griffin.FunctionFactoryCache;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
-import io.questdb.mp.FanOut;
 import io.questdb.mp.Job;
-import io.questdb.mp.SCSequence;
 import io.questdb.mp.WorkerPool;
 import io.questdb.network.IODispatcher;
 import io.questdb.network.IODispatchers;
@@ -49,12 +47,18 @@ import java.io.Closeable;
 public class HttpServer implements Closeable {
 
     private static final Log LOG = LogFactory.getLog(HttpServer.class);
-    private final IODispatcher<HttpConnectionContext> dispatcher;
+    private final ObjList<IODispatcher<HttpConnectionContext>> dispatchers;
     private final HttpContextFactory httpContextFactory;
     private final WaitProcessor rescheduleContext;
     private final ObjList<HttpRequestProcessorSelectorImpl> selectors;
     private final int workerCount;
 
+    /**
+     * @param messageBus not used by the server itself: query factories are cached engine-wide
+     *                   and "flush_query_cache()" clears them synchronously, so HTTP workers no
+     *                   longer subscribe to the flush event. Kept to preserve the constructor
+     *                   signature for embedders.
+     */
     public HttpServer(HttpMinServerConfiguration configuration, MessageBus messageBus, Metrics metrics, WorkerPool pool) {
         this.workerCount = pool.getWorkerCount();
         this.selectors = new ObjList<>(workerCount);
@@ -64,36 +68,25 @@ public class HttpServer implements Closeable {
         }
 
         this.httpContextFactory = new HttpContextFactory(configuration.getHttpContextConfiguration(), metrics);
-        this.dispatcher = IODispatchers.create(
+        this.dispatchers = IODispatchers.create(
                 configuration.getDispatcherConfiguration(),
-                httpContextFactory
+                httpContextFactory,
+                pool
         );
-        pool.assign(dispatcher);
         this.rescheduleContext = new WaitProcessor(configuration.getWaitProcessorConfiguration());
         pool.assign(this.rescheduleContext);
 
         for (int i = 0; i < workerCount; i++) {
             final int index = i;
 
-            final SCSequence queryCacheEventSubSeq = new SCSequence();
-            final FanOut queryCacheEventFanOut = messageBus.getQueryCacheEventFanOut();
-            queryCacheEventFanOut.and(queryCacheEventSubSeq);
-
             pool.assign(i, new Job() {
+                private final IODispatcher<HttpConnectionContext> dispatcher = IODispatchers.forWorker(dispatchers, index);
                 private final HttpRequestProcessorSelector selector = selectors.getQuick(index);
                 private final IORequestProcessor<HttpConnectionContext> processor =
                         (operation, context) -> context.handleClientOperation(operation, selector, rescheduleContext);
 
                 @Override
                 public boolean run(int workerId) {
-                    long seq = queryCacheEventSubSeq.next();
-                    if (seq > -1) {
-                        // Queue is not empty, so flush query cache.
-                        LOG.info().$("flushing HTTP server query cache [worker=").$(workerId).$(']').$();
-                        QueryCache.getThreadLocalInstance().clear();
-                        queryCacheEventSubSeq.done(seq);
-                    }
-
                     boolean useful = dispatcher.processIOQueue(processor);
                     useful |= rescheduleContext.runReruns(selector);
 
@@ -103,15 +96,7 @@ public class HttpServer implements Closeable {
 
             // http context factory has thread local pools
             // therefore we need each thread to clean their thread locals individually
-            pool.assignThreadLocalCleaner(i, () -> {
-                httpContextFactory.freeThreadLocal();
-                Misc.free(QueryCache.getThreadLocalInstance());
-            });
-
-            pool.freeOnExit(() -> {
-                messageBus.getQueryCacheEventFanOut().remove(queryCacheEventSubSeq);
-                queryCacheEventSubSeq.clear();
-            });
+            pool.assignThreadLocalCleaner(i, httpContextFactory::freeThreadLocal);
         }
     }
 
@@ -216,7 +201,7 @@ public class HttpServer implements Closeable {
 
     @Override
     public void close() {
-        Misc.free(dispatcher);
+        Misc.freeObjList(dispatchers);
         Misc.free(rescheduleContext);
         Misc.freeObjListAndClear(selectors);
     }
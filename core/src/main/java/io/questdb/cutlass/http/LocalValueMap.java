@@ -71,6 +71,15 @@ public class LocalValueMap implements Closeable, Mutable {
         return e != null && e.k == key ? (T) e.value : get0(key, i, e);
     }
 
+    public void onIdle() {
+        for (int i = 0, n = table.length; i < n; i++) {
+            Entry e = table[i];
+            if (e != null && e.value instanceof IdleListener) {
+                ((IdleListener) e.value).onIdle();
+            }
+        }
+    }
+
     public <T> void set(LocalValue<T> key, T value) {
         Entry[] tab = table;
         int len = tab.length;
@@ -63,6 +63,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
     private final Metrics metrics;
     private final NanosecondClock nanosecondClock;
     private final Path path = new Path();
+    private final QueryCache queryCache;
     private final SqlExecutionContextImpl sqlExecutionContext;
 
     @TestOnly
@@ -127,6 +128,7 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         this.nanosecondClock = engine.getConfiguration().getNanosecondClock();
         this.circuitBreaker = new NetworkSqlExecutionCircuitBreaker(engine.getConfiguration().getCircuitBreakerConfiguration(), MemoryTag.NATIVE_CB3);
         this.metrics = engine.getMetrics();
+        this.queryCache = new QueryCache(engine, configuration);
         this.asyncWriterStartTimeout = engine.getConfiguration().getWriterAsyncCommandBusyWaitTimeout();
         this.asyncCommandTimeout = engine.getConfiguration().getWriterAsyncCommandMaxTimeout();
     }
@@ -141,29 +143,35 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
     public void execute0(JsonQueryProcessorState state) throws PeerDisconnectedException, PeerIsSlowToReadException, ServerDisconnectException {
         OperationFuture fut = state.getOperationFuture();
         final HttpConnectionContext context = state.getHttpConnectionContext();
-        circuitBreaker.resetTimer();
-
-        if (fut == null) {
-            metrics.jsonQuery().markStart();
-            state.startExecutionTimer();
-            // do not set random for new request to avoid copying random from previous request into next one
-            // the only time we need to copy random from state is when we resume request execution
-            sqlExecutionContext.with(context.getCairoSecurityContext(), null, null, context.getFd(), circuitBreaker.of(context.getFd()));
-            if (state.getStatementTimeout() > 0L) {
-                circuitBreaker.setTimeout(state.getStatementTimeout());
-            } else {
-                circuitBreaker.resetMaxTimeToDefault();
+        circuitBreaker.bindMemoryTracker(state.getMemoryTracker());
+        try {
+            circuitBreaker.resetTimer();
+
+            if (fut == null) {
+                metrics.jsonQuery().markStart();
+                state.startExecutionTimer();
+                state.getMemoryTracker().reset();
+                // do not set random for new request to avoid copying random from previous request into next one
+                // the only time we need to copy random from state is when we resume request execution
+                sqlExecutionContext.with(context.getCairoSecurityContext(), null, null, context.getFd(), circuitBreaker.of(context.getFd()));
+                if (state.getStatementTimeout() > 0L) {
+                    circuitBreaker.setTimeout(state.getStatementTimeout());
+                } else {
+                    circuitBreaker.resetMaxTimeToDefault();
+                }
+                state.info().$("exec [q='").utf8(state.getQuery()).$("']").$();
             }
-            state.info().$("exec [q='").utf8(state.getQuery()).$("']").$();
-        }
 
-        try {
             if (fut != null) {
                 retryQueryExecution(state, fut);
                 return;
             }
 
-            final RecordCursorFactory factory = QueryCache.getThreadLocalInstance().poll(state.getQuery());
+            if (state.getCursorId() > -1 && executeRetainedSelect(state, configuration.getKeepAliveHeader())) {
+                return;
+            }
+
+            final RecordCursorFactory factory = queryCache.poll(state.getQuery());
             if (factory != null) {
                 try {
                     sqlExecutionContext.storeTelemetry(CompiledQuery.SELECT, Telemetry.ORIGIN_HTTP_JSON);
@@ -195,6 +203,8 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         } catch (Throwable e) {
             state.critical().$("Uh-oh. Error!").$(e).$();
             throw ServerDisconnectException.INSTANCE;
+        } finally {
+            circuitBreaker.unbindMemoryTracker();
         }
     }
 
@@ -217,9 +227,14 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
                     context,
                     nanosecondClock,
                     configuration.getFloatScale(),
-                    configuration.getDoubleScale()
+                    configuration.getDoubleScale(),
+                    configuration.getClock(),
+                    configuration.getCursorMaxCount(),
+                    configuration.getCursorIdleTimeout(),
+                    queryCache
             ));
         }
+        state.expireCursors();
 
         // clear random for new request to avoid reusing random between requests
         state.setRnd(null);
@@ -256,7 +271,13 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
         if (state != null) {
             // we are resuming request execution, we need to copy random to execution context
             sqlExecutionContext.with(context.getCairoSecurityContext(), null, state.getRnd(), context.getFd(), circuitBreaker.of(context.getFd()));
-            doResumeSend(state, context);
+            // the request may be resumed by a different worker, memory must be charged to the same query
+            circuitBreaker.bindMemoryTracker(state.getMemoryTracker());
+            try {
+                doResumeSend(state, context);
+            } finally {
+                circuitBreaker.unbindMemoryTracker();
+            }
         }
     }
 
@@ -265,7 +286,8 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
             CompiledQuery cc,
             CharSequence keepAliveHeader
     ) throws SqlException {
-        throw SqlException.$(0, "copy from STDIN is not supported over REST");
+        Misc.free(cc.getRecordCursorFactory());
+        throw SqlException.$(0, "copy from STDIN and to STDOUT is not supported over REST");
     }
 
     private static void doResumeSend(
@@ -443,6 +465,27 @@ public class JsonQueryProcessor implements HttpRequestProcessor, Closeable {
                 keepAliveHeader);
     }
 
+    private boolean executeRetainedSelect(
+            JsonQueryProcessorState state,
+            CharSequence keepAliveHeader
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        if (!state.ofRetainedCursor()) {
+            return false;
+        }
+        sqlExecutionContext.storeTelemetry(CompiledQuery.SELECT, Telemetry.ORIGIN_HTTP_JSON);
+        state.setCompilerNanos(0);
+        state.logExecuteRetained();
+        final HttpConnectionContext context = state.getHttpConnectionContext();
+        if (state.ofColumns()) {
+            header(context.getChunkedResponseSocket(), keepAliveHeader, 200);
+            doResumeSend(state, context);
+            metrics.jsonQuery().markComplete();
+        } else {
+            readyForNextRequest(context);
+        }
+        return true;
+    }
+
     private void executeSelect(
             JsonQueryProcessorState state,
             RecordCursorFactory factory,
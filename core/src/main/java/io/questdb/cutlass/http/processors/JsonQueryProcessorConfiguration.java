@@ -33,6 +33,16 @@ public interface JsonQueryProcessorConfiguration {
 
     int getConnectionCheckFrequency();
 
+    /**
+     * @return time in milliseconds after which an unused retained cursor is closed
+     */
+    long getCursorIdleTimeout();
+
+    /**
+     * @return max number of cursors a connection may retain between requests, 0 disables retention
+     */
+    int getCursorMaxCount();
+
     int getDoubleScale();
 
     FilesFacade getFilesFacade();
@@ -42,4 +52,6 @@ public interface JsonQueryProcessorConfiguration {
     CharSequence getKeepAliveHeader();
 
     long getMaxQueryResponseRowLimit();
+
+    boolean isQueryCacheEnabled();
 }
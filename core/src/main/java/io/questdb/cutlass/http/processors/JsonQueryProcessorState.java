@@ -31,6 +31,7 @@ import io.questdb.cairo.sql.*;
 import io.questdb.cutlass.http.HttpChunkedResponseSocket;
 import io.questdb.cutlass.http.HttpConnectionContext;
 import io.questdb.cutlass.http.HttpRequestHeader;
+import io.questdb.cutlass.http.IdleListener;
 import io.questdb.cutlass.text.TextUtil;
 import io.questdb.cutlass.text.Utf8Exception;
 import io.questdb.griffin.SqlException;
@@ -42,13 +43,14 @@ import io.questdb.mp.SCSequence;
 import io.questdb.network.PeerDisconnectedException;
 import io.questdb.network.PeerIsSlowToReadException;
 import io.questdb.std.*;
+import io.questdb.std.datetime.millitime.MillisecondClock;
 import io.questdb.std.str.CharSink;
 import io.questdb.std.str.DirectByteCharSequence;
 import io.questdb.std.str.StringSink;
 
 import java.io.Closeable;
 
-public class JsonQueryProcessorState implements Mutable, Closeable {
+public class JsonQueryProcessorState implements Mutable, Closeable, IdleListener {
     static final int QUERY_METADATA = 2;
     static final int QUERY_METADATA_SUFFIX = 3;
     static final int QUERY_PREFIX = 1;
@@ -63,12 +65,15 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     private final IntList columnSkewList = new IntList();
     private final IntList columnTypesAndFlags = new IntList();
     private final StringSink columnsQueryParameter = new StringSink();
+    private final QueryCursorCache cursorCache;
     private final int doubleScale;
     private final SCSequence eventSubSequence = new SCSequence();
     private final int floatScale;
     private final HttpConnectionContext httpConnectionContext;
+    private final MemoryTracker memoryTracker = new MemoryTracker();
     private final NanosecondClock nanosecondClock;
     private final StringSink query = new StringSink();
+    private final QueryCache queryCache;
     private final ObjList<StateResumeAction> resumeActions = new ObjList<>();
     private final long statementTimeout;
     private QuietCloseable asyncOperation;
@@ -78,8 +83,14 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     private long count;
     private boolean countRows = false;
     private RecordCursor cursor;
+    // id of the retained cursor requested by the client, or -1
+    private long cursorId = -1;
+    // index of the row the cursor is positioned on
+    private long cursorRow;
+    private boolean cursorRowPending;
     private long executeStartNanos;
     private boolean explain = false;
+    private boolean keepCursor = false;
     private boolean noMeta = false;
     private OperationFuture operationFuture;
     private boolean queryCacheable = false;
@@ -90,6 +101,9 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     private Record record;
     private long recordCountNanos;
     private RecordCursorFactory recordCursorFactory;
+    private long resumedCursorId = -1;
+    // id under which the cursor is kept open after the response is sent, or -1
+    private long retainedCursorId = -1;
     private Rnd rnd;
     private long skip;
     private long stop;
@@ -99,9 +113,15 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
             HttpConnectionContext httpConnectionContext,
             NanosecondClock nanosecondClock,
             int floatScale,
-            int doubleScale
+            int doubleScale,
+            MillisecondClock clock,
+            int cursorMaxCount,
+            long cursorIdleTimeout,
+            QueryCache queryCache
     ) {
         this.httpConnectionContext = httpConnectionContext;
+        this.queryCache = queryCache;
+        this.cursorCache = new QueryCursorCache(clock, cursorMaxCount, cursorIdleTimeout, queryCache);
         resumeActions.extendAndSet(QUERY_PREFIX, this::onQueryPrefix);
         resumeActions.extendAndSet(QUERY_METADATA, this::onQueryMetadata);
         resumeActions.extendAndSet(QUERY_METADATA_SUFFIX, this::onQueryMetadataSuffix);
@@ -123,11 +143,18 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         columnSkewList.clear();
         columnTypesAndFlags.clear();
         columnNames.clear();
+        if (retainedCursorId > -1) {
+            cursorCache.put(retainedCursorId, query, recordCursorFactory, cursor, queryCacheable, cursorRow);
+            cursor = null;
+            recordCursorFactory = null;
+            retainedCursorId = -1;
+        }
+        resumedCursorId = -1;
         cursor = Misc.free(cursor);
         record = null;
         if (null != recordCursorFactory) {
             if (queryCacheable) {
-                QueryCache.getThreadLocalInstance().push(query, recordCursorFactory);
+                queryCache.push(query, recordCursorFactory);
             } else {
                 recordCursorFactory.close();
             }
@@ -147,6 +174,7 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     public void close() {
         cursor = Misc.free(cursor);
         recordCursorFactory = Misc.free(recordCursorFactory);
+        Misc.free(cursorCache);
         freeAsyncOperation();
     }
 
@@ -165,6 +193,18 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         this.countRows = Chars.equalsNc("true", request.getUrlParam("count"));
         this.timings = Chars.equalsNc("true", request.getUrlParam("timings"));
         this.explain = Chars.equalsNc("true", request.getUrlParam("explain"));
+        this.cursorId = -1;
+        this.cursorRow = 0;
+        this.cursorRowPending = false;
+        final CharSequence cursorId = request.getUrlParam("cursorId");
+        if (cursorId != null) {
+            try {
+                this.cursorId = Numbers.parseLong(cursorId);
+            } catch (NumericException ignore) {
+                // unknown cursor, query is executed from the start
+            }
+        }
+        this.keepCursor = this.cursorId > -1 || Chars.equalsNc("true", request.getUrlParam("keepCursor"));
         this.quoteLargeNum = Chars.equalsNc("true", request.getUrlParam("quoteLargeNum"))
                 || Chars.equalsNc("con", request.getUrlParam("src"));
     }
@@ -177,11 +217,19 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         return LOG.error().$('[').$(getFd()).$("] ");
     }
 
+    public void expireCursors() {
+        cursorCache.expire();
+    }
+
     public void freeAsyncOperation() {
         asyncOperation = Misc.free(asyncOperation);
         operationFuture = Misc.free(operationFuture);
     }
 
+    public long getCursorId() {
+        return cursorId;
+    }
+
     public SCSequence getEventSubSequence() {
         return eventSubSequence;
     }
@@ -194,6 +242,10 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         return httpConnectionContext;
     }
 
+    public MemoryTracker getMemoryTracker() {
+        return memoryTracker;
+    }
+
     public OperationFuture getOperationFuture() {
         return operationFuture;
     }
@@ -233,6 +285,15 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
                 $(']').$();
     }
 
+    public void logExecuteRetained() {
+        info().$("execute-retained ").
+                $("[id: ").$(cursorId).
+                $(", row: ").$(cursorRow).
+                $(", skip: ").$(skip).
+                $(", stop: ").$(stop).
+                $(']').$();
+    }
+
     public void logSqlError(FlyweightMessageContainer container) {
         info().$("sql error [q=`").utf8(query).$("`, at=").$(container.getPosition()).$(", message=`").utf8(container.getFlyweightMessage()).$('`').$(']').$();
     }
@@ -242,10 +303,16 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
                 $("[compiler: ").$(compilerNanos).
                 $(", count: ").$(recordCountNanos).
                 $(", execute: ").$(nanosecondClock.getTicks() - executeStartNanos).
+                $(", peakMem: ").$(memoryTracker.getPeak()).
                 $(", q=`").utf8(query).
                 $("`]").$();
     }
 
+    @Override
+    public void onIdle() {
+        cursorCache.expire();
+    }
+
     public void setCompilerNanos(long compilerNanos) {
         this.compilerNanos = compilerNanos;
     }
@@ -602,6 +669,9 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
             socket.bookmark();
             socket.put(']');
             socket.put(',').putQuoted("count").put(':').put(count);
+            if (retainedCursorId > -1) {
+                socket.put(',').putQuoted("cursorId").put(':').put(retainedCursorId);
+            }
             if (timings) {
                 socket.put(',').putQuoted("timings").put(':').put('{');
                 socket.putQuoted("compiler").put(':').put(compilerNanos).put(',');
@@ -640,6 +710,14 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
 
     private void onNoMoreData() {
         long nanos = nanosecondClock.getTicks();
+        // the cursor is positioned on the first row of the next page, keep it open for the next
+        // request unless the rest of the cursor has to be read to count rows, or it holds
+        // page frames dispatched to the reduce queue
+        if (keepCursor && cursorCache.isEnabled() && (!countRows || cursor.size() > -1)
+                && !recordCursorFactory.dispatchesPageFrames()) {
+            retainedCursorId = resumedCursorId > -1 ? resumedCursorId : cursorCache.nextId();
+            cursorRow = count;
+        }
         if (countRows) {
             // this is the tail end of the cursor
             // we don't need to read records, just round up record count
@@ -705,21 +783,16 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
     }
 
     private boolean onQuerySetupFirstRecord() {
-        if (skip > 0) {
-            final RecordCursor cursor = this.cursor;
-            long target = skip + 1;
-            while (target > 0 && cursor.hasNext()) {
-                target--;
-            }
-            if (target > 0) {
-                return false;
-            }
-            count = skip;
-        } else {
-            if (!cursor.hasNext()) {
-                return false;
-            }
+        // retained cursor is already positioned on a record, which has not been sent yet
+        final RecordCursor cursor = this.cursor;
+        long target = skip - cursorRow + (cursorRowPending ? 0 : 1);
+        while (target > 0 && cursor.hasNext()) {
+            target--;
         }
+        if (target > 0) {
+            return false;
+        }
+        count = skip;
 
         columnIndex = 0;
         record = cursor.getRecord();
@@ -763,7 +836,11 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         this.queryCacheable = queryCacheable;
         this.queryJitCompiled = factory.usesCompiledFilter();
         this.cursor = factory.getCursor(sqlExecutionContext);
-        final RecordMetadata metadata = factory.getMetadata();
+        return ofColumns();
+    }
+
+    boolean ofColumns() throws PeerDisconnectedException, PeerIsSlowToReadException {
+        final RecordMetadata metadata = recordCursorFactory.getMetadata();
         HttpRequestHeader header = httpConnectionContext.getRequestHeader();
         DirectByteCharSequence columnNames = header.getUrlParam("cols");
         int columnCount;
@@ -811,6 +888,28 @@ public class JsonQueryProcessorState implements Mutable, Closeable {
         return true;
     }
 
+    /**
+     * Takes the cursor retained by a previous request of this connection, if it can serve the
+     * requested rows. The cursor is positioned on the first row that has not been sent yet.
+     *
+     * @return true when the retained cursor is taken, false when the query has to be executed
+     */
+    boolean ofRetainedCursor() {
+        final QueryCursorCache.Entry entry = cursorCache.take(cursorId, query, skip);
+        if (entry == null) {
+            return false;
+        }
+        this.recordCursorFactory = entry.factory;
+        this.cursor = entry.cursor;
+        this.queryCacheable = entry.queryCacheable;
+        this.queryJitCompiled = recordCursorFactory.usesCompiledFilter();
+        this.cursorRow = entry.row;
+        this.cursorRowPending = true;
+        this.resumedCursorId = cursorId;
+        cursorCache.release(entry);
+        return true;
+    }
+
     void resume(HttpChunkedResponseSocket socket) throws PeerDisconnectedException, PeerIsSlowToReadException {
         resumeActions.getQuick(queryState).onResume(socket, columnCount);
     }
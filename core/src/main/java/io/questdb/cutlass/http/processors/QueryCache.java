@@ -24,61 +24,48 @@
 
 package io.questdb.cutlass.http.processors;
 
-import io.questdb.Metrics;
+import io.questdb.cairo.CairoEngine;
+import io.questdb.cairo.sql.QueryFactoryCache;
 import io.questdb.cairo.sql.RecordCursorFactory;
-import io.questdb.cutlass.http.HttpServerConfiguration;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.metrics.Gauge;
-import io.questdb.std.AssociativeCache;
-import io.questdb.std.ThreadLocal;
 
-import java.io.Closeable;
-
-public final class QueryCache implements Closeable {
+/**
+ * HTTP view of the engine-wide {@link QueryFactoryCache}. Factories compiled by one
+ * connection are reused by all others, including PostgreSQL wire connections.
+ */
+public final class QueryCache {
 
     private static final Log LOG = LogFactory.getLog(QueryCache.class);
-    private static ThreadLocal<QueryCache> TL_QUERY_CACHE;
-    private final AssociativeCache<RecordCursorFactory> cache;
-
-    public QueryCache(int blocks, int rows, Gauge cachedQueriesGauge) {
-        this.cache = new AssociativeCache<>(blocks, rows, cachedQueriesGauge);
-    }
-
-    public static void configure(HttpServerConfiguration configuration, Metrics metrics) {
-        final boolean enableQueryCache = configuration.isQueryCacheEnabled();
-        final int blockCount = enableQueryCache ? configuration.getQueryCacheBlockCount() : 1;
-        final int rowCount = enableQueryCache ? configuration.getQueryCacheRowCount() : 1;
-        TL_QUERY_CACHE = new ThreadLocal<>(
-                () -> new QueryCache(blockCount, rowCount, metrics.jsonQuery().cachedQueriesGauge())
-        );
-    }
+    private final QueryFactoryCache cache;
+    private final Gauge cachedQueriesGauge;
+    private final boolean enabled;
 
-    public static QueryCache getThreadLocalInstance() {
-        return TL_QUERY_CACHE.get();
-    }
-
-    public void clear() {
-        cache.clear();
-        LOG.info().$("cleared").$();
-    }
-
-    @Override
-    public void close() {
-        cache.close();
-        LOG.info().$("closed").$();
+    public QueryCache(CairoEngine engine, JsonQueryProcessorConfiguration configuration) {
+        this.cache = engine.getQueryFactoryCache();
+        this.cachedQueriesGauge = engine.getMetrics().jsonQuery().cachedQueriesGauge();
+        this.enabled = configuration.isQueryCacheEnabled();
     }
 
     public RecordCursorFactory poll(CharSequence sql) {
-        final RecordCursorFactory factory = cache.poll(sql);
+        if (!enabled) {
+            return null;
+        }
+        // HTTP queries do not have bind variables
+        final RecordCursorFactory factory = cache.checkOut(sql, null);
         log(factory == null ? "miss" : "hit", sql);
         return factory;
     }
 
     public void push(CharSequence sql, RecordCursorFactory factory) {
         if (factory != null) {
-            cache.put(sql, factory);
-            log("push", sql);
+            if (enabled) {
+                cache.checkIn(sql, factory, null, cachedQueriesGauge);
+                log("push", sql);
+            } else {
+                factory.close();
+            }
         }
     }
 
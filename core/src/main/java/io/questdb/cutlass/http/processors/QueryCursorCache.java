@@ -0,0 +1,182 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.http.processors;
+
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.Chars;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
+import io.questdb.std.datetime.millitime.MillisecondClock;
+import io.questdb.std.str.StringSink;
+
+import java.io.Closeable;
+
+/**
+ * Query cursors kept open between /exec requests of a single connection. A client paging through
+ * a large result set reads the next page from the open cursor instead of re-executing the query
+ * and skipping all rows of the previous pages.
+ * <p>
+ * Each retained cursor is positioned on the first record, which has not been sent yet. Cursors
+ * are closed when unused for longer than the idle timeout, which is checked on each request and
+ * periodically by the dispatcher while the connection is idle. The least recently used cursor
+ * is closed when the connection tries to retain more than the max count.
+ */
+final class QueryCursorCache implements Closeable {
+    private static final Log LOG = LogFactory.getLog(QueryCursorCache.class);
+    private final MillisecondClock clock;
+    // ordered by last access, the least recently used entry is first
+    private final ObjList<Entry> entries = new ObjList<>();
+    private final ObjList<Entry> freeEntries = new ObjList<>();
+    private final long idleTimeout;
+    private final int maxCount;
+    private final QueryCache queryCache;
+    private long nextId = 1;
+
+    QueryCursorCache(MillisecondClock clock, int maxCount, long idleTimeout, QueryCache queryCache) {
+        this.clock = clock;
+        this.maxCount = maxCount;
+        this.idleTimeout = idleTimeout;
+        this.queryCache = queryCache;
+    }
+
+    @Override
+    public void close() {
+        for (int i = 0, n = entries.size(); i < n; i++) {
+            entries.getQuick(i).close();
+        }
+        entries.clear();
+        freeEntries.clear();
+    }
+
+    public void expire() {
+        final long now = clock.getTicks();
+        for (int i = entries.size() - 1; i > -1; i--) {
+            final Entry entry = entries.getQuick(i);
+            if (now - entry.lastAccess >= idleTimeout) {
+                LOG.info().$("expired [id=").$(entry.id).I$();
+                entries.remove(i);
+                free(entry);
+            }
+        }
+    }
+
+    public boolean isEnabled() {
+        return maxCount > 0;
+    }
+
+    public long nextId() {
+        return nextId++;
+    }
+
+    public void put(long id, CharSequence query, RecordCursorFactory factory, RecordCursor cursor, boolean queryCacheable, long row) {
+        if (entries.size() >= maxCount) {
+            final Entry lru = entries.getQuick(0);
+            LOG.info().$("evicted [id=").$(lru.id).I$();
+            entries.remove(0);
+            free(lru);
+        }
+        final Entry entry;
+        final int freeCount = freeEntries.size();
+        if (freeCount > 0) {
+            entry = freeEntries.getQuick(freeCount - 1);
+            freeEntries.setPos(freeCount - 1);
+        } else {
+            entry = new Entry();
+        }
+        entry.id = id;
+        entry.query.clear();
+        entry.query.put(query);
+        entry.factory = factory;
+        entry.cursor = cursor;
+        entry.queryCacheable = queryCacheable;
+        entry.row = row;
+        entry.lastAccess = clock.getTicks();
+        entries.add(entry);
+    }
+
+    /**
+     * Removes cursor from the cache and passes its ownership to the caller. Cursor is closed when it
+     * was retained for a different query, or when it is already past the requested row.
+     *
+     * @param id    cursor id returned to the client
+     * @param query query text of the request
+     * @param skip  index of the first row requested by the client
+     * @return cache entry, which has to be returned via {@link #release(Entry)} once its cursor and
+     * factory are taken, or null when there is no suitable cursor
+     */
+    public Entry take(long id, CharSequence query, long skip) {
+        for (int i = 0, n = entries.size(); i < n; i++) {
+            final Entry entry = entries.getQuick(i);
+            if (entry.id == id) {
+                entries.remove(i);
+                if (skip < entry.row || !Chars.equals(query, entry.query)) {
+                    LOG.info().$("mismatch [id=").$(id).$(", row=").$(entry.row).$(", skip=").$(skip).I$();
+                    free(entry);
+                    return null;
+                }
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    public void release(Entry entry) {
+        entry.cursor = null;
+        entry.factory = null;
+        freeEntries.add(entry);
+    }
+
+    private void free(Entry entry) {
+        entry.cursor = Misc.free(entry.cursor);
+        if (entry.queryCacheable) {
+            queryCache.push(entry.query, entry.factory);
+            entry.factory = null;
+        } else {
+            entry.factory = Misc.free(entry.factory);
+        }
+        freeEntries.add(entry);
+    }
+
+    static class Entry implements Closeable {
+        private final StringSink query = new StringSink();
+        RecordCursor cursor;
+        RecordCursorFactory factory;
+        long id;
+        boolean queryCacheable;
+        // index of the row the cursor is positioned on
+        long row;
+        private long lastAccess;
+
+        @Override
+        public void close() {
+            cursor = Misc.free(cursor);
+            factory = Misc.free(factory);
+        }
+    }
+}
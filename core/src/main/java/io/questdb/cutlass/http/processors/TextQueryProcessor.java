@@ -27,9 +27,9 @@ package io.questdb.cutlass.http.processors;
 import io.questdb.Metrics;
 import io.questdb.Telemetry;
 import io.questdb.cairo.*;
-import io.questdb.cairo.sql.NetworkSqlExecutionCircuitBreaker;
-import io.questdb.cairo.sql.ReaderOutOfDateException;
 import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cutlass.arrow.ArrowStreamEncoder;
 import io.questdb.cutlass.http.*;
 import io.questdb.cutlass.text.TextUtil;
 import io.questdb.cutlass.text.Utf8Exception;
@@ -49,14 +49,17 @@ import org.jetbrains.annotations.TestOnly;
 
 import java.io.Closeable;
 
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
 public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
 
+    private static final int ARROW_BATCH_ROW_COUNT = 64 * 1024;
     private static final Log LOG = LogFactory.getLog(TextQueryProcessor.class);
-    // Factory cache is thread local due to possibility of factory being
-    // closed by another thread. Peer disconnect is a typical example of this.
-    // Being asynchronous we may need to be able to return factory to the cache
-    // by the same thread that executes the dispatcher.
+    // Factories are checked out of the engine-wide cache for the duration of the
+    // query, so a factory is never shared with another thread while in use.
+    // Per-connection state is kept in a local value to survive peer disconnects.
     private static final LocalValue<TextQueryProcessorState> LV = new LocalValue<>();
+    private final CairoConfiguration cairoConfiguration;
     private final NetworkSqlExecutionCircuitBreaker circuitBreaker;
     private final MillisecondClock clock;
     private final SqlCompiler compiler;
@@ -64,6 +67,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
     private final int doubleScale;
     private final int floatScale;
     private final Metrics metrics;
+    private final QueryCache queryCache;
     private final SqlExecutionContextImpl sqlExecutionContext;
 
     @TestOnly
@@ -84,6 +88,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
             @Nullable DatabaseSnapshotAgent snapshotAgent
     ) {
         this.configuration = configuration;
+        this.cairoConfiguration = engine.getConfiguration();
         this.compiler = new SqlCompiler(engine, functionFactoryCache, snapshotAgent);
         this.floatScale = configuration.getFloatScale();
         this.clock = configuration.getClock();
@@ -91,6 +96,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         this.doubleScale = configuration.getDoubleScale();
         this.circuitBreaker = new NetworkSqlExecutionCircuitBreaker(engine.getConfiguration().getCircuitBreakerConfiguration(), MemoryTag.NATIVE_CB4);
         this.metrics = engine.getMetrics();
+        this.queryCache = new QueryCache(engine, configuration);
     }
 
     @Override
@@ -106,7 +112,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         try {
             boolean isExpRequest = isExpUrl(context.getRequestHeader().getUrl());
 
-            state.recordCursorFactory = QueryCache.getThreadLocalInstance().poll(state.query);
+            state.recordCursorFactory = queryCache.poll(state.query);
             state.setQueryCacheable(true);
             sqlExecutionContext.with(
                     context.getCairoSecurityContext(),
@@ -115,6 +121,8 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
                     context.getFd(),
                     circuitBreaker.of(context.getFd())
             );
+            state.memoryTracker.reset();
+            circuitBreaker.bindMemoryTracker(state.memoryTracker);
             if (state.recordCursorFactory == null) {
                 final CompiledQuery cc = compiler.compile(state.query, sqlExecutionContext);
                 if (cc.getType() == CompiledQuery.SELECT) {
@@ -140,7 +148,11 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
                     boolean runQuery = true;
                     for (int retries = 0; runQuery; retries++) {
                         try {
-                            state.cursor = state.recordCursorFactory.getCursor(sqlExecutionContext);
+                            if (isArrowFrameScan(state)) {
+                                state.pageFrameCursor = state.recordCursorFactory.getPageFrameCursor(sqlExecutionContext, ORDER_ASC);
+                            } else {
+                                state.cursor = state.recordCursorFactory.getCursor(sqlExecutionContext);
+                            }
                             runQuery = false;
                         } catch (ReaderOutOfDateException e) {
                             if (retries == ReaderOutOfDateException.MAX_RETRY_ATTEMPS) {
@@ -176,6 +188,8 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         } catch (CairoException | CairoError e) {
             internalError(context.getChunkedResponseSocket(), e, state);
             readyForNextRequest(context);
+        } finally {
+            circuitBreaker.unbindMemoryTracker();
         }
     }
 
@@ -185,7 +199,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         TextQueryProcessorState state = LV.get(context);
         if (state == null) {
-            LV.set(context, state = new TextQueryProcessorState(context));
+            LV.set(context, state = new TextQueryProcessorState(context, queryCache));
         }
         // new request clears random
         state.rnd = null;
@@ -211,7 +225,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
             HttpConnectionContext context
     ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         TextQueryProcessorState state = LV.get(context);
-        if (state == null || state.cursor == null) {
+        if (state == null || (state.cursor == null && state.pageFrameCursor == null)) {
             return;
         }
 
@@ -219,7 +233,120 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         sqlExecutionContext.with(context.getCairoSecurityContext(), null, state.rnd, context.getFd(), circuitBreaker.of(context.getFd()));
         LOG.debug().$("resume [fd=").$(context.getFd()).$(']').$();
 
+        // the request may be resumed by a different worker, memory must be charged to the same query
+        circuitBreaker.bindMemoryTracker(state.memoryTracker);
+        try {
+            doResumeSend(context, state);
+        } finally {
+            circuitBreaker.unbindMemoryTracker();
+        }
+    }
+
+    private static void appendArrowFrameRows(TextQueryProcessorState state, ArrowStreamEncoder encoder) {
+        while (encoder.getRowCount() < ARROW_BATCH_ROW_COUNT) {
+            if (state.pageFrame == null) {
+                state.pageFrame = state.pageFrameCursor.next();
+                if (state.pageFrame == null) {
+                    return;
+                }
+                state.pageFrameRowLo = 0;
+                encoder.ofFrame(state.pageFrame);
+            }
+            final long frameRowCount = state.pageFrame.getPartitionHi() - state.pageFrame.getPartitionLo();
+            final long hi = Math.min(frameRowCount, state.pageFrameRowLo + ARROW_BATCH_ROW_COUNT - encoder.getRowCount());
+            encoder.appendFrameRows(state.pageFrameRowLo, hi);
+            state.pageFrameRowLo = hi;
+            if (hi == frameRowCount) {
+                state.pageFrame = null;
+            }
+        }
+    }
+
+    private static void appendArrowRecords(TextQueryProcessorState state, ArrowStreamEncoder encoder) {
+        final Record record = state.cursor.getRecord();
+        while (encoder.getRowCount() < ARROW_BATCH_ROW_COUNT && state.count < state.stop && state.cursor.hasNext()) {
+            state.count++;
+            if (state.count > state.skip) {
+                encoder.appendRecord(record);
+            }
+        }
+    }
+
+    private static boolean isArrowFrameScan(TextQueryProcessorState state) {
+        // page frames are copied as they are, which is only possible for
+        // forward table scans without row limits
+        return state.arrowFormat
+                && state.skip == 0
+                && state.stop == Long.MAX_VALUE
+                && state.recordCursorFactory.supportPageFrameCursor()
+                && !state.recordCursorFactory.hasDescendingOrder();
+    }
+
+    private static boolean isExpUrl(CharSequence tok) {
+        if (tok.length() != 4) {
+            return false;
+        }
+
+        int i = 0;
+        return (tok.charAt(i++) | 32) == '/'
+                && (tok.charAt(i++) | 32) == 'e'
+                && (tok.charAt(i++) | 32) == 'x'
+                && (tok.charAt(i) | 32) == 'p';
+    }
+
+    private static void putGeoHashStringValue(HttpChunkedResponseSocket socket, long value, int type) {
+        if (value == GeoHashes.NULL) {
+            socket.put("null");
+        } else {
+            int bitFlags = GeoHashes.getBitFlags(type);
+            socket.put('\"');
+            if (bitFlags < 0) {
+                GeoHashes.appendCharsUnsafe(value, -bitFlags, socket);
+            } else {
+                GeoHashes.appendBinaryStringUnsafe(value, bitFlags, socket);
+            }
+            socket.put('\"');
+        }
+    }
+
+    private static void putStringOrNull(CharSink r, CharSequence str) {
+        if (str != null) {
+            r.encodeUtf8AndQuote(str);
+        }
+    }
+
+    private static void sendArrow(
+            HttpChunkedResponseSocket socket,
+            ArrowStreamEncoder encoder
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        long lo;
+        while ((lo = encoder.getSendLo()) < encoder.getSendHi()) {
+            encoder.onSent(socket.putBytes(lo, encoder.getSendHi()));
+            if (encoder.getSendLo() < encoder.getSendHi()) {
+                socket.sendChunk(false);
+            }
+        }
+    }
+
+    private static void readyForNextRequest(HttpConnectionContext context) {
+        LOG.info().$("all sent [fd=").$(context.getFd()).$(", lastRequestBytesSent=").$(context.getLastRequestBytesSent()).$(", nCompletedRequests=").$(context.getNCompletedRequests() + 1)
+                .$(", totalBytesSent=").$(context.getTotalBytesSent()).$(']').$();
+    }
+
+    private LogRecord critical(TextQueryProcessorState state) {
+        return LOG.critical().$('[').$(state.getFd()).$("] ");
+    }
+
+    private void doResumeSend(
+            HttpConnectionContext context,
+            TextQueryProcessorState state
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
         final HttpChunkedResponseSocket socket = context.getChunkedResponseSocket();
+        if (state.arrowFormat) {
+            resumeSendArrow(socket, state);
+            readyForNextRequest(context);
+            return;
+        }
         final int columnCount = state.metadata.getColumnCount();
 
         OUT:
@@ -315,48 +442,6 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         readyForNextRequest(context);
     }
 
-    private static boolean isExpUrl(CharSequence tok) {
-        if (tok.length() != 4) {
-            return false;
-        }
-
-        int i = 0;
-        return (tok.charAt(i++) | 32) == '/'
-                && (tok.charAt(i++) | 32) == 'e'
-                && (tok.charAt(i++) | 32) == 'x'
-                && (tok.charAt(i) | 32) == 'p';
-    }
-
-    private static void putGeoHashStringValue(HttpChunkedResponseSocket socket, long value, int type) {
-        if (value == GeoHashes.NULL) {
-            socket.put("null");
-        } else {
-            int bitFlags = GeoHashes.getBitFlags(type);
-            socket.put('\"');
-            if (bitFlags < 0) {
-                GeoHashes.appendCharsUnsafe(value, -bitFlags, socket);
-            } else {
-                GeoHashes.appendBinaryStringUnsafe(value, bitFlags, socket);
-            }
-            socket.put('\"');
-        }
-    }
-
-    private static void putStringOrNull(CharSink r, CharSequence str) {
-        if (str != null) {
-            r.encodeUtf8AndQuote(str);
-        }
-    }
-
-    private static void readyForNextRequest(HttpConnectionContext context) {
-        LOG.info().$("all sent [fd=").$(context.getFd()).$(", lastRequestBytesSent=").$(context.getLastRequestBytesSent()).$(", nCompletedRequests=").$(context.getNCompletedRequests() + 1)
-                .$(", totalBytesSent=").$(context.getTotalBytesSent()).$(']').$();
-    }
-
-    private LogRecord critical(TextQueryProcessorState state) {
-        return LOG.critical().$('[').$(state.getFd()).$("] ");
-    }
-
     private LogRecord info(TextQueryProcessorState state) {
         return LOG.info().$('[').$(state.getFd()).$("] ");
     }
@@ -434,6 +519,7 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         state.count = 0L;
         state.stop = stop;
         state.noMeta = Chars.equalsNc("true", request.getUrlParam("nm"));
+        state.arrowFormat = Chars.equalsNc("arrow", request.getUrlParam("fmt"));
         state.countRows = Chars.equalsNc("true", request.getUrlParam("count"));
         return true;
     }
@@ -523,6 +609,57 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
         }
     }
 
+    private void resumeSendArrow(
+            HttpChunkedResponseSocket socket,
+            TextQueryProcessorState state
+    ) throws PeerDisconnectedException, PeerIsSlowToReadException {
+        if (state.arrowEncoder == null) {
+            state.arrowEncoder = new ArrowStreamEncoder(cairoConfiguration, MemoryTag.NATIVE_HTTP_CONN);
+        }
+        final ArrowStreamEncoder encoder = state.arrowEncoder;
+
+        // encoded stream is buffered by the encoder, states alternate between
+        // encoding next part of the stream and sending it, which may be resumed
+        while (true) {
+            switch (state.queryState) {
+                case JsonQueryProcessorState.QUERY_PREFIX:
+                    encoder.of(state.metadata, state.cursor != null ? state.cursor : state.pageFrameCursor);
+                    encoder.putSchema();
+                    encoder.putDictionaries();
+                    state.queryState = JsonQueryProcessorState.QUERY_METADATA;
+                    // fall through
+                case JsonQueryProcessorState.QUERY_METADATA:
+                    sendArrow(socket, encoder);
+                    state.queryState = JsonQueryProcessorState.QUERY_RECORD_START;
+                    // fall through
+                case JsonQueryProcessorState.QUERY_RECORD_START:
+                    if (state.pageFrameCursor != null) {
+                        appendArrowFrameRows(state, encoder);
+                    } else {
+                        appendArrowRecords(state, encoder);
+                    }
+                    if (encoder.getRowCount() > 0) {
+                        encoder.putRecordBatch();
+                        state.queryState = JsonQueryProcessorState.QUERY_RECORD;
+                    } else {
+                        encoder.putEndOfStream();
+                        state.queryState = JsonQueryProcessorState.QUERY_SUFFIX;
+                    }
+                    break;
+                case JsonQueryProcessorState.QUERY_RECORD:
+                    sendArrow(socket, encoder);
+                    state.queryState = JsonQueryProcessorState.QUERY_RECORD_START;
+                    break;
+                case JsonQueryProcessorState.QUERY_SUFFIX:
+                    sendArrow(socket, encoder);
+                    sendDone(socket, state);
+                    return;
+                default:
+                    return;
+            }
+        }
+    }
+
     private void sendConfirmation(HttpChunkedResponseSocket socket) throws PeerDisconnectedException, PeerIsSlowToReadException {
         socket.put("DDL Success\n");
         socket.sendChunk(true);
@@ -564,11 +701,14 @@ public class TextQueryProcessor implements HttpRequestProcessor, Closeable {
     }
 
     protected void header(HttpChunkedResponseSocket socket, TextQueryProcessorState state, int status_code) throws PeerDisconnectedException, PeerIsSlowToReadException {
-        socket.status(status_code, "text/csv; charset=utf-8");
+        // errors are reported as JSON regardless of the requested format
+        final boolean arrow = state.arrowFormat && status_code == 200;
+        final String extension = arrow ? ".arrows\"" : ".csv\"";
+        socket.status(status_code, arrow ? "application/vnd.apache.arrow.stream" : "text/csv; charset=utf-8");
         if (state.fileName != null && state.fileName.length() > 0) {
-            socket.headers().put("Content-Disposition: attachment; filename=\"").put(state.fileName).put(".csv\"").put(Misc.EOL);
+            socket.headers().put("Content-Disposition: attachment; filename=\"").put(state.fileName).put(extension).put(Misc.EOL);
         } else {
-            socket.headers().put("Content-Disposition: attachment; filename=\"questdb-query-").put(clock.getTicks()).put(".csv\"").put(Misc.EOL);
+            socket.headers().put("Content-Disposition: attachment; filename=\"questdb-query-").put(clock.getTicks()).put(extension).put(Misc.EOL);
         }
 
         socket.headers().setKeepAlive(configuration.getKeepAliveHeader());
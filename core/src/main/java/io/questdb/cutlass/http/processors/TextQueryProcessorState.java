@@ -25,10 +25,10 @@
 package io.questdb.cutlass.http.processors;
 
 import io.questdb.cairo.sql.Record;
-import io.questdb.cairo.sql.RecordCursor;
-import io.questdb.cairo.sql.RecordCursorFactory;
-import io.questdb.cairo.sql.RecordMetadata;
+import io.questdb.cairo.sql.*;
+import io.questdb.cutlass.arrow.ArrowStreamEncoder;
 import io.questdb.cutlass.http.HttpConnectionContext;
+import io.questdb.std.MemoryTracker;
 import io.questdb.std.Misc;
 import io.questdb.std.Mutable;
 import io.questdb.std.Rnd;
@@ -37,8 +37,12 @@ import io.questdb.std.str.StringSink;
 import java.io.Closeable;
 
 public class TextQueryProcessorState implements Mutable, Closeable {
+    final MemoryTracker memoryTracker = new MemoryTracker();
     final StringSink query = new StringSink();
     private final HttpConnectionContext httpConnectionContext;
+    private final QueryCache queryCache;
+    ArrowStreamEncoder arrowEncoder;
+    boolean arrowFormat = false;
     int columnIndex;
     long count;
     boolean countRows = false;
@@ -46,6 +50,9 @@ public class TextQueryProcessorState implements Mutable, Closeable {
     String fileName;
     RecordMetadata metadata;
     boolean noMeta = false;
+    PageFrame pageFrame;
+    PageFrameCursor pageFrameCursor;
+    long pageFrameRowLo;
     int queryState = JsonQueryProcessorState.QUERY_PREFIX;
     Record record;
     RecordCursorFactory recordCursorFactory;
@@ -54,18 +61,24 @@ public class TextQueryProcessorState implements Mutable, Closeable {
     long stop;
     private boolean queryCacheable = false;
 
-    public TextQueryProcessorState(HttpConnectionContext httpConnectionContext) {
+    public TextQueryProcessorState(HttpConnectionContext httpConnectionContext, QueryCache queryCache) {
         this.httpConnectionContext = httpConnectionContext;
+        this.queryCache = queryCache;
     }
 
     @Override
     public void clear() {
         metadata = null;
         cursor = Misc.free(cursor);
+        pageFrameCursor = Misc.free(pageFrameCursor);
+        pageFrame = null;
         record = null;
+        if (arrowEncoder != null) {
+            arrowEncoder.clear();
+        }
         if (null != recordCursorFactory) {
             if (queryCacheable) {
-                QueryCache.getThreadLocalInstance().push(query, recordCursorFactory);
+                queryCache.push(query, recordCursorFactory);
             } else {
                 recordCursorFactory.close();
             }
@@ -81,6 +94,8 @@ public class TextQueryProcessorState implements Mutable, Closeable {
     @Override
     public void close() {
         cursor = Misc.free(cursor);
+        pageFrameCursor = Misc.free(pageFrameCursor);
+        arrowEncoder = Misc.free(arrowEncoder);
         recordCursorFactory = Misc.free(recordCursorFactory);
     }
 
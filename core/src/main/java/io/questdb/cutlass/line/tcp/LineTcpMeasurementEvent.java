@@ -175,7 +175,9 @@ class LineTcpMeasurementEvent implements Closeable {
                 switch (entityType) {
                     case LineTcpParser.ENTITY_TYPE_TAG:
                         cs = buffer.readUtf16Chars(offset);
-                        row.putSym(colIndex, cs);
+                        final int symbolKey = writer.getSymbolMapWriter(colIndex).put(cs);
+                        row.putSymIndex(colIndex, symbolKey);
+                        tableUpdateDetails.getSharedSymbolKeys().stage(colIndex, cs, symbolKey);
                         offset += cs.length() * 2L + Integer.BYTES;
                         break;
                     case LineTcpParser.ENTITY_TYPE_CACHED_TAG:
@@ -35,6 +35,7 @@ import io.questdb.mp.RingQueue;
 import io.questdb.mp.SCSequence;
 import io.questdb.mp.WorkerPool;
 import io.questdb.network.IODispatcher;
+import io.questdb.network.IODispatchers;
 import io.questdb.std.*;
 import io.questdb.std.datetime.millitime.MillisecondClock;
 import io.questdb.std.str.DirectByteCharSequence;
@@ -74,7 +75,7 @@ class LineTcpMeasurementScheduler implements Closeable {
             LineTcpReceiverConfiguration lineConfiguration,
             CairoEngine engine,
             WorkerPool ioWorkerPool,
-            IODispatcher<LineTcpConnectionContext> dispatcher,
+            ObjList<IODispatcher<LineTcpConnectionContext>> dispatchers,
             WorkerPool writerWorkerPool
     ) {
         this.engine = engine;
@@ -88,7 +89,7 @@ class LineTcpMeasurementScheduler implements Closeable {
         this.tableNameSinks = new StringSink[n];
         for (int i = 0; i < n; i++) {
             tableNameSinks[i] = new StringSink();
-            NetworkIOJob netIoJob = createNetworkIOJob(dispatcher, i);
+            NetworkIOJob netIoJob = createNetworkIOJob(IODispatchers.forWorker(dispatchers, i), i);
             netIoJobs[i] = netIoJob;
             ioWorkerPool.assign(i, netIoJob);
         }
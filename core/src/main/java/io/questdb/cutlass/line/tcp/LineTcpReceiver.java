@@ -33,6 +33,7 @@ import io.questdb.network.IODispatcher;
 import io.questdb.network.IODispatchers;
 import io.questdb.network.MutableIOContextFactory;
 import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
 import io.questdb.std.ObjectFactory;
 import org.jetbrains.annotations.TestOnly;
 
@@ -42,7 +43,7 @@ import java.io.Closeable;
 public class LineTcpReceiver implements Closeable {
     private static final Log LOG = LogFactory.getLog(LineTcpReceiver.class);
     private final MutableIOContextFactory<LineTcpConnectionContext> contextFactory;
-    private final IODispatcher<LineTcpConnectionContext> dispatcher;
+    private final ObjList<IODispatcher<LineTcpConnectionContext>> dispatchers;
     private final Metrics metrics;
     private LineTcpMeasurementScheduler scheduler;
 
@@ -68,12 +69,12 @@ public class LineTcpReceiver implements Closeable {
                 factory,
                 configuration.getConnectionPoolInitialCapacity()
         );
-        this.dispatcher = IODispatchers.create(
+        this.dispatchers = IODispatchers.create(
                 configuration.getDispatcherConfiguration(),
-                contextFactory
+                contextFactory,
+                ioWorkerPool
         );
-        ioWorkerPool.assign(dispatcher);
-        this.scheduler = new LineTcpMeasurementScheduler(configuration, engine, ioWorkerPool, dispatcher, writerWorkerPool);
+        this.scheduler = new LineTcpMeasurementScheduler(configuration, engine, ioWorkerPool, dispatchers, writerWorkerPool);
 
         for (int i = 0, n = ioWorkerPool.getWorkerCount(); i < n; i++) {
             // http context factory has thread local pools
@@ -85,7 +86,7 @@ public class LineTcpReceiver implements Closeable {
     @Override
     public void close() {
         Misc.free(scheduler);
-        Misc.free(dispatcher);
+        Misc.freeObjList(dispatchers);
     }
 
     @TestOnly
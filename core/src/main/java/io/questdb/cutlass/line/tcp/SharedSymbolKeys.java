@@ -0,0 +1,100 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.line.tcp;
+
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.std.CharSequenceIntHashMap;
+import io.questdb.std.ConcurrentHashMap;
+import io.questdb.std.ObjList;
+
+/**
+ * Table-wide symbol value to key maps, one per symbol column, shared by all network IO
+ * threads. Keys are assigned by the writer thread and staged until the writer commits,
+ * only committed keys are visible to the network IO threads. Committed keys never change,
+ * so the shared maps survive rollbacks. Network IO threads also cache keys they resolve
+ * from the symbol map files, which can include uncommitted keys. Every rollback bumps the
+ * epoch, and thread-local caches are dropped as soon as they see a new epoch.
+ * <p>
+ * Maps live on heap, there is no off-heap concurrent map in the tree to back them.
+ * Entries are added once per distinct symbol value and lookups do not allocate.
+ */
+class SharedSymbolKeys {
+    private final ObjList<ConcurrentHashMap<Integer>> committedKeys = new ObjList<>();
+    // accessed by the writer thread only
+    private final ObjList<CharSequenceIntHashMap> pendingKeys = new ObjList<>();
+    private volatile long epoch;
+
+    void addColumn(int colWriterIndex) {
+        committedKeys.extendAndSet(colWriterIndex, new ConcurrentHashMap<>());
+        pendingKeys.extendAndSet(colWriterIndex, new CharSequenceIntHashMap(16, 0.5, SymbolTable.VALUE_NOT_FOUND));
+    }
+
+    ConcurrentHashMap<Integer> getCommittedKeys(int colWriterIndex) {
+        return committedKeys.getQuiet(colWriterIndex);
+    }
+
+    long getEpoch() {
+        return epoch;
+    }
+
+    // writer thread, after a successful commit
+    void onCommit() {
+        for (int i = 0, n = pendingKeys.size(); i < n; i++) {
+            final CharSequenceIntHashMap pending = pendingKeys.getQuick(i);
+            if (pending != null && pending.size() > 0) {
+                final ConcurrentHashMap<Integer> committed = committedKeys.getQuick(i);
+                final ObjList<CharSequence> values = pending.keys();
+                for (int j = 0, m = values.size(); j < m; j++) {
+                    final CharSequence value = values.getQuick(j);
+                    committed.putIfAbsent(value, pending.get(value));
+                }
+                pending.clear();
+            }
+        }
+    }
+
+    // writer thread, after a rollback or when the writer is in error
+    void onRollback() {
+        for (int i = 0, n = pendingKeys.size(); i < n; i++) {
+            final CharSequenceIntHashMap pending = pendingKeys.getQuick(i);
+            if (pending != null) {
+                pending.clear();
+            }
+        }
+        epoch++;
+    }
+
+    // writer thread, when a symbol value is written
+    void stage(int colWriterIndex, CharSequence value, int symbolKey) {
+        final CharSequenceIntHashMap pending = pendingKeys.getQuiet(colWriterIndex);
+        if (pending != null && symbolKey > -1) {
+            final int index = pending.keyIndex(value);
+            if (index > -1 && committedKeys.getQuick(colWriterIndex).get(value) == null) {
+                pending.putAt(index, value, symbolKey);
+            }
+        }
+    }
+}
@@ -30,11 +30,14 @@ import io.questdb.cairo.TxReader;
 import io.questdb.cairo.sql.SymbolLookup;
 import io.questdb.cairo.sql.SymbolTable;
 import io.questdb.std.Chars;
+import io.questdb.std.ConcurrentHashMap;
 import io.questdb.std.ObjIntHashMap;
 import io.questdb.std.Unsafe;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
 import io.questdb.std.str.Path;
 
+import org.jetbrains.annotations.Nullable;
+
 import java.io.Closeable;
 
 class SymbolCache implements Closeable, SymbolLookup {
@@ -47,6 +50,10 @@ class SymbolCache implements Closeable, SymbolLookup {
     );
     private final long waitUsBeforeReload;
     private long lastSymbolReaderReloadTimestamp;
+    // table-wide committed keys shared with other network IO threads and the writer thread
+    private ConcurrentHashMap<Integer> sharedValueToKeyMap;
+    private SharedSymbolKeys sharedSymbolKeys;
+    private long sharedSymbolKeysEpoch;
     private int symbolIndexInTxFile;
     private TxReader txReader;
 
@@ -58,17 +65,39 @@ class SymbolCache implements Closeable, SymbolLookup {
     @Override
     public void close() {
         txReader = null;
+        sharedValueToKeyMap = null;
+        sharedSymbolKeys = null;
         symbolMapReader.close();
         symbolValueToKeyMap.reset();
     }
 
     @Override
     public int keyOf(CharSequence value) {
+        if (sharedSymbolKeys != null) {
+            final long epoch = sharedSymbolKeys.getEpoch();
+            if (epoch != sharedSymbolKeysEpoch) {
+                // writer rolled back, keys cached from the symbol map files
+                // may have been uncommitted and can be reassigned
+                sharedSymbolKeysEpoch = epoch;
+                symbolValueToKeyMap.clear();
+                symbolMapReader.updateSymbolCount(safeReadUncommittedSymbolCount(symbolIndexInTxFile, true));
+                lastSymbolReaderReloadTimestamp = clock.getTicks();
+            }
+        }
+
         final int index = symbolValueToKeyMap.keyIndex(value);
         if (index < 0) {
             return symbolValueToKeyMap.valueAt(index);
         }
 
+        if (sharedValueToKeyMap != null) {
+            final Integer sharedKey = sharedValueToKeyMap.get(value);
+            if (sharedKey != null) {
+                symbolValueToKeyMap.putAt(index, Chars.toString(value), sharedKey);
+                return sharedKey;
+            }
+        }
+
         final long ticks = clock.getTicks();
         int symbolValueCount;
 
@@ -119,8 +148,27 @@ class SymbolCache implements Closeable, SymbolLookup {
             int symbolIndexInTxFile,
             TxReader txReader,
             long columnNameTxn
+    ) {
+        of(configuration, path, columnName, symbolIndexInTxFile, txReader, columnNameTxn, null, -1);
+    }
+
+    void of(CairoConfiguration configuration,
+            Path path,
+            CharSequence columnName,
+            int symbolIndexInTxFile,
+            TxReader txReader,
+            long columnNameTxn,
+            @Nullable SharedSymbolKeys sharedSymbolKeys,
+            int colWriterIndex
     ) {
         this.symbolIndexInTxFile = symbolIndexInTxFile;
+        this.sharedSymbolKeys = sharedSymbolKeys;
+        if (sharedSymbolKeys != null) {
+            this.sharedValueToKeyMap = sharedSymbolKeys.getCommittedKeys(colWriterIndex);
+            this.sharedSymbolKeysEpoch = sharedSymbolKeys.getEpoch();
+        } else {
+            this.sharedValueToKeyMap = null;
+        }
         final int plen = path.length();
         this.txReader = txReader;
         int symCount = safeReadUncommittedSymbolCount(symbolIndexInTxFile, false);
@@ -49,6 +49,9 @@ public class TableUpdateDetails implements Closeable {
     private final CairoEngine engine;
     private final ThreadLocalDetails[] localDetailsArray;
     private final MillisecondClock millisecondClock;
+    // Committed symbol keys shared by all network IO threads, so that a symbol value
+    // resolved once for the table is sent to the writer as int key by every connection.
+    private final SharedSymbolKeys sharedSymbolKeys = new SharedSymbolKeys();
     private final String tableNameUtf16;
     private final int timestampIndex;
     private final long writerTickRowsCountMod;
@@ -87,6 +90,11 @@ public class TableUpdateDetails implements Closeable {
         this.writer = writer;
         this.timestampIndex = metadata.getTimestampIndex();
         this.tableNameUtf16 = writer.getTableName();
+        for (int i = 0, columnCount = metadata.getColumnCount(); i < columnCount; i++) {
+            if (ColumnType.isSymbol(metadata.getColumnType(i))) {
+                sharedSymbolKeys.addColumn(i);
+            }
+        }
         writer.updateCommitInterval(configuration.getCommitIntervalFraction(), configuration.getCommitIntervalDefault());
         this.nextCommitTime = millisecondClock.getTicks() + writer.getCommitInterval();
     }
@@ -123,6 +131,7 @@ public class TableUpdateDetails implements Closeable {
                 try {
                     if (!writerInError) {
                         writer.commit();
+                        sharedSymbolKeys.onCommit();
                     }
                 } catch (Throwable ex) {
                     LOG.error().$("cannot commit writer transaction, rolling back before releasing it [table=").$(tableNameUtf16).$(",ex=").$(ex).I$();
@@ -183,6 +192,7 @@ public class TableUpdateDetails implements Closeable {
 
     public void setWriterInError() {
         writerInError = true;
+        sharedSymbolKeys.onRollback();
     }
 
     public void tick() {
@@ -200,11 +210,13 @@ public class TableUpdateDetails implements Closeable {
                 } else {
                     writer.commit();
                 }
+                sharedSymbolKeys.onCommit();
             } catch (Throwable ex) {
                 setWriterInError();
                 LOG.error().$("could not commit [table=").$(tableNameUtf16).$(", e=").$(ex).I$();
                 try {
                     writer.rollback();
+                    sharedSymbolKeys.onRollback();
                 } catch (Throwable th) {
                     LOG.error().$("could not perform emergency rollback [table=").$(tableNameUtf16).$(", e=").$(th).I$();
                 }
@@ -242,6 +254,7 @@ public class TableUpdateDetails implements Closeable {
 
         try {
             writer.commitWithLag();
+            sharedSymbolKeys.onCommit();
         } catch (Throwable th) {
             LOG.error()
                     .$("could not commit line protocol measurement [tableName=").$(writer.getTableName())
@@ -249,6 +262,7 @@ public class TableUpdateDetails implements Closeable {
                     .$(th)
                     .I$();
             writer.rollback();
+            sharedSymbolKeys.onRollback();
             throw CommitFailedException.instance(th);
         }
 
@@ -256,6 +270,10 @@ public class TableUpdateDetails implements Closeable {
         writer.tick();
     }
 
+    SharedSymbolKeys getSharedSymbolKeys() {
+        return sharedSymbolKeys;
+    }
+
     ThreadLocalDetails getThreadLocalDetails(int workerId) {
         lastMeasurementMillis = millisecondClock.getTicks();
         return localDetailsArray[workerId];
@@ -275,6 +293,7 @@ public class TableUpdateDetails implements Closeable {
                 if (commit) {
                     LOG.debug().$("release commit [table=").$(tableNameUtf16).I$();
                     writer.commit();
+                    sharedSymbolKeys.onCommit();
                 }
             } catch (Throwable ex) {
                 LOG.error().$("writer commit fails, force closing it [table=").$(tableNameUtf16).$(",ex=").$(ex).I$();
@@ -360,7 +379,16 @@ public class TableUpdateDetails implements Closeable {
 
                 long columnNameTxn = reader.getColumnVersionReader().getDefaultColumnNameTxn(colWriterIndex);
                 assert symIndex <= colWriterIndex;
-                symCache.of(engine.getConfiguration(), path, symbolNameTemp, symIndex, txReader, columnNameTxn);
+                symCache.of(
+                        engine.getConfiguration(),
+                        path,
+                        symbolNameTemp,
+                        symIndex,
+                        txReader,
+                        columnNameTxn,
+                        sharedSymbolKeys,
+                        colWriterIndex
+                );
                 symbolCacheByColumnIndex.extendAndSet(colWriterIndex, symCache);
                 return symCache;
             }
@@ -30,14 +30,15 @@ import io.questdb.cairo.pool.WriterSource;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
-import io.questdb.cutlass.text.TextLoader;
 import io.questdb.cutlass.text.types.TypeManager;
 import io.questdb.griffin.*;
 import io.questdb.griffin.engine.functions.bind.BindVariableServiceImpl;
 import io.questdb.griffin.engine.ops.AbstractOperation;
 import io.questdb.griffin.engine.ops.UpdateOperation;
+import io.questdb.griffin.model.CopyModel;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
+import io.questdb.metrics.Gauge;
 import io.questdb.mp.SCSequence;
 import io.questdb.network.*;
 import io.questdb.std.*;
@@ -72,7 +73,10 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     public static final String TAG_SET = "SET";
     public static final String TAG_UPDATE = "UPDATE";
     private static final int COMMIT_TRANSACTION = 2;
+    private static final int COPY_OUT_NONE = -1;
     private static final int ERROR_TRANSACTION = 3;
+    // inserts of the pipeline are batched in pendingWriters and committed on sync
+    private static final int IMPLICIT_TRANSACTION = 5;
     private static final int INIT_CANCEL_REQUEST = 80877102;
     private static final int INIT_SSL_REQUEST = 80877103;
     private static final int INIT_STARTUP_MESSAGE = 196608;
@@ -83,7 +87,10 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     private static final byte MESSAGE_TYPE_BIND_COMPLETE = '2';
     private static final byte MESSAGE_TYPE_CLOSE_COMPLETE = '3';
     private static final byte MESSAGE_TYPE_COMMAND_COMPLETE = 'C';
+    private static final byte MESSAGE_TYPE_COPY_DATA = 'd';
+    private static final byte MESSAGE_TYPE_COPY_DONE = 'c';
     private static final byte MESSAGE_TYPE_COPY_IN_RESPONSE = 'G';
+    private static final byte MESSAGE_TYPE_COPY_OUT_RESPONSE = 'H';
     private static final byte MESSAGE_TYPE_DATA_ROW = 'D';
     private static final byte MESSAGE_TYPE_EMPTY_QUERY = 'I';
     private static final byte MESSAGE_TYPE_ERROR_RESPONSE = 'E';
@@ -112,11 +119,17 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     //pg clients (like asyncpg) fail when format sent by server is not the same as requested in bind message
     private final IntList bindSelectColumnFormats;
     private final IntList bindVariableTypes = new IntList();
+    // bind variable types of the select factory checked out of the engine query cache
+    private final IntList cachedSelectTypes = new IntList();
+    private final Gauge cachedSelectsGauge;
     private final CharacterStore characterStore;
     private final NetworkSqlExecutionCircuitBreaker circuitBreaker;
+    private final PGCopyInProcessor copyInProcessor;
+    private final StringSink copyOutCharSink = new StringSink();
     private final DirectByteCharSequence dbcs = new DirectByteCharSequence();
     private final boolean dumpNetworkTraffic;
     private final CairoEngine engine;
+    private final boolean insertPipelineEnabled;
     private final int maxBlobSizeOnQuery;
     private final CharSequenceObjHashMap<Portal> namedPortalMap;
     private final WeakMutableObjectPool<Portal> namedPortalPool;
@@ -125,8 +138,10 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     private final NetworkFacade nf;
     private final Path path = new Path();
     private final CharSequenceObjHashMap<TableWriter> pendingWriters;
+    private final QueryFactoryCache queryFactoryCache;
     private final int recvBufferSize;
     private final ResponseAsciiSink responseAsciiSink = new ResponseAsciiSink();
+    private final boolean selectCacheEnabled;
     private final IntList selectColumnTypes = new IntList();
     private final int sendBufferSize;
     private final String serverVersion;
@@ -145,6 +160,17 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     private int bufferRemainingOffset = 0;
     private int bufferRemainingSize = 0;
     private boolean completed = true;
+    // COPY FROM STDIN is streaming data into copyInProcessor
+    private boolean copyInActive;
+    // COPY FROM STDIN is compiled and waits for execute message
+    private boolean copyInPending;
+    private boolean copyInSimpleQuery;
+    // writer belongs to a transaction and is owned by pendingWriters
+    private boolean copyInWriterPending;
+    private byte copyOutDelimiter;
+    // format of COPY TO STDOUT, rows are sent as CopyData messages instead of DataRow
+    private int copyOutFormat = COPY_OUT_NONE;
+    private boolean copyOutHeader;
     private RecordCursor currentCursor = null;
     private RecordCursorFactory currentFactory = null;
     private boolean isEmptyQuery;
@@ -167,6 +193,8 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     private final PGResumeProcessor resumeCommandCompleteRef = this::resumeCommandComplete;
     private boolean sendParameterDescription;
     private boolean sendRNQ = true;
+    // a message of the pipelined insert batch failed, the rest of the batch is discarded until sync
+    private boolean skipUntilSync;
     private SqlExecutionContextImpl sqlExecutionContext;
     private long statementTimeout = -1L;
     private long totalReceived = 0;
@@ -176,11 +204,10 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     private TypesAndInsert typesAndInsert = null;
     // these references are held by context only for a period of processing single request
     // in PF world this request can span multiple messages, but still, only for one request
-    // the rationale is to be able to return "selectAndTypes" instance to thread-local
-    // cache, which is "typesAndSelectCache". We typically do this after query results are
+    // the rationale is to be able to return factory of "selectAndTypes" instance to the engine
+    // query cache, which is shared by all connections. We typically do this after query results are
     // served to client or query errored out due to network issues
     private TypesAndSelect typesAndSelect = null;
-    private AssociativeCache<TypesAndSelect> typesAndSelectCache;
     private boolean typesAndSelectIsCached = true;
     private WeakSelfReturningObjectPool<TypesAndSelect> typesAndSelectPool;
     private TypesAndUpdate typesAndUpdate = null;
@@ -195,6 +222,7 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         this.engine = engine;
         this.utf8Sink = new DirectCharSink(engine.getConfiguration().getTextConfiguration().getUtf8SinkSize());
         this.typeManager = new TypeManager(engine.getConfiguration().getTextConfiguration(), utf8Sink);
+        this.copyInProcessor = new PGCopyInProcessor(engine.getConfiguration().getTextConfiguration(), typeManager, utf8Sink);
         this.nf = configuration.getNetworkFacade();
         this.bindVariableService = new BindVariableServiceImpl(engine.getConfiguration());
         this.recvBufferSize = Numbers.ceilPow2(configuration.getRecvBufferSize());
@@ -221,6 +249,10 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         final int insertBlockCount = enableInsertCache ? configuration.getInsertCacheBlockCount() : 1; // 8
         final int insertRowCount = enableInsertCache ? configuration.getInsertCacheRowCount() : 1; // 8
         this.typesAndInsertCache = new AssociativeCache<>(insertBlockCount, insertRowCount);
+        this.queryFactoryCache = engine.getQueryFactoryCache();
+        this.cachedSelectsGauge = engine.getMetrics().pgWire().cachedSelectsGauge();
+        this.selectCacheEnabled = configuration.isSelectCacheEnabled();
+        this.insertPipelineEnabled = configuration.isInsertPipelineEnabled();
         this.batchCallback = new PGConnectionBatchCallback();
         this.bindSelectColumnFormats = new IntList();
         this.queryTag = TAG_OK;
@@ -293,7 +325,12 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         authenticationRequired = true;
         username = null;
         typeManager.clear();
+        abortCopyIn();
+        copyInPending = false;
+        copyOutFormat = COPY_OUT_NONE;
         clearWriters();
+        transactionState = NO_TRANSACTION;
+        skipUntilSync = false;
         clearRecvBuffer();
         typesAndInsertCache.clear();
         evictNamedStatementWrappersAndClear();
@@ -328,6 +365,7 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         this.fd = -1;
         sqlExecutionContext.with(AllowAllCairoSecurityContext.INSTANCE, null, null, -1, null);
         Misc.free(path);
+        Misc.free(copyInProcessor);
         Misc.free(utf8Sink);
         Misc.free(circuitBreaker);
         freeBuffers();
@@ -344,18 +382,18 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
 
     public void handleClientOperation(
             @Transient SqlCompiler compiler,
-            @Transient AssociativeCache<TypesAndSelect> selectAndTypesCache,
             @Transient WeakSelfReturningObjectPool<TypesAndSelect> selectAndTypesPool,
             @Transient AssociativeCache<TypesAndUpdate> typesAndUpdateCache,
             @Transient WeakSelfReturningObjectPool<TypesAndUpdate> typesAndUpdatePool,
             int operation
     ) throws PeerDisconnectedException, PeerIsSlowToReadException, PeerIsSlowToWriteException, BadProtocolException {
 
-        this.typesAndSelectCache = selectAndTypesCache;
         this.typesAndSelectPool = selectAndTypesPool;
         this.typesAndUpdateCache = typesAndUpdateCache;
         this.typesAndUpdatePool = typesAndUpdatePool;
 
+        // queries of this connection may be resumed by any network thread
+        circuitBreaker.bindMemoryTracker(null);
         try {
             if (bufferRemainingSize > 0) {
                 doSend(bufferRemainingOffset, bufferRemainingSize);
@@ -415,6 +453,8 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
             prepareNonCriticalError(-1, e.getMessage());
             sendAndReset();
             clearRecvBuffer();
+        } finally {
+            circuitBreaker.unbindMemoryTracker();
         }
     }
 
@@ -566,6 +606,25 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         }
     }
 
+    private void abortCopyIn() {
+        if (copyInActive) {
+            copyInActive = false;
+            final TableWriter writer = copyInProcessor.getWriter();
+            copyInProcessor.clear();
+            if (transactionState == IN_TRANSACTION) {
+                transactionState = ERROR_TRANSACTION;
+            }
+            if (!copyInWriterPending) {
+                // batches committed before the failure are kept
+                try {
+                    writer.rollback();
+                } finally {
+                    Misc.free(writer);
+                }
+            }
+        }
+    }
+
     private void appendBinColumn(Record record, int i) throws SqlException {
         BinarySequence sequence = record.getBin(i);
         if (sequence == null) {
@@ -618,6 +677,134 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         }
     }
 
+    private void appendCopyTextRecord(Record record, int columnCount) throws SqlException {
+        responseAsciiSink.put(MESSAGE_TYPE_COPY_DATA);
+        final long offset = responseAsciiSink.skip();
+        for (int i = 0; i < columnCount; i++) {
+            if (i > 0) {
+                responseAsciiSink.put((char) copyOutDelimiter);
+            }
+            appendCopyTextValue(record, i);
+        }
+        responseAsciiSink.put('\n');
+        responseAsciiSink.putLen(offset);
+        rowCount += 1;
+    }
+
+    private void appendCopyTextValue(Record record, int columnIndex) throws SqlException {
+        final int type = activeSelectColumnTypes.getQuick(2 * columnIndex);
+        switch (ColumnType.tagOf(type)) {
+            case ColumnType.BOOLEAN:
+                responseAsciiSink.put(record.getBool(columnIndex) ? 't' : 'f');
+                break;
+            case ColumnType.BYTE:
+                responseAsciiSink.put((int) record.getByte(columnIndex));
+                break;
+            case ColumnType.SHORT:
+                responseAsciiSink.put(record.getShort(columnIndex));
+                break;
+            case ColumnType.CHAR:
+                final char charValue = record.getChar(columnIndex);
+                if (charValue == 0) {
+                    putCopyNull();
+                } else {
+                    copyOutCharSink.clear();
+                    copyOutCharSink.put(charValue);
+                    putCopyText(copyOutCharSink);
+                }
+                break;
+            case ColumnType.INT:
+                final int intValue = record.getInt(columnIndex);
+                if (intValue != Numbers.INT_NaN) {
+                    responseAsciiSink.put(intValue);
+                } else {
+                    putCopyNull();
+                }
+                break;
+            case ColumnType.LONG:
+                final long longValue = record.getLong(columnIndex);
+                if (longValue != Numbers.LONG_NaN) {
+                    responseAsciiSink.put(longValue);
+                } else {
+                    putCopyNull();
+                }
+                break;
+            case ColumnType.FLOAT:
+                final float floatValue = record.getFloat(columnIndex);
+                if (floatValue == floatValue) {
+                    responseAsciiSink.put(floatValue, 3);
+                } else {
+                    putCopyNull();
+                }
+                break;
+            case ColumnType.DOUBLE:
+                final double doubleValue = record.getDouble(columnIndex);
+                if (doubleValue == doubleValue) {
+                    responseAsciiSink.put(doubleValue);
+                } else {
+                    putCopyNull();
+                }
+                break;
+            case ColumnType.DATE:
+                final long dateValue = record.getDate(columnIndex);
+                if (dateValue != Numbers.LONG_NaN) {
+                    PG_DATE_MILLI_TIME_Z_PRINT_FORMAT.format(dateValue, null, null, responseAsciiSink);
+                } else {
+                    putCopyNull();
+                }
+                break;
+            case ColumnType.TIMESTAMP:
+                final long timestampValue = record.getTimestamp(columnIndex);
+                if (timestampValue != Numbers.LONG_NaN) {
+                    TimestampFormatUtils.PG_TIMESTAMP_FORMAT.format(timestampValue, null, null, responseAsciiSink);
+                } else {
+                    putCopyNull();
+                }
+                break;
+            case ColumnType.STRING:
+                putCopyText(record.getStr(columnIndex));
+                break;
+            case ColumnType.SYMBOL:
+                putCopyText(record.getSym(columnIndex));
+                break;
+            case ColumnType.LONG256:
+                final Long256 long256Value = record.getLong256A(columnIndex);
+                if (long256Value.getLong0() == Numbers.LONG_NaN &&
+                        long256Value.getLong1() == Numbers.LONG_NaN &&
+                        long256Value.getLong2() == Numbers.LONG_NaN &&
+                        long256Value.getLong3() == Numbers.LONG_NaN) {
+                    putCopyNull();
+                } else {
+                    Numbers.appendLong256(
+                            long256Value.getLong0(),
+                            long256Value.getLong1(),
+                            long256Value.getLong2(),
+                            long256Value.getLong3(),
+                            responseAsciiSink
+                    );
+                }
+                break;
+            case ColumnType.GEOBYTE:
+                putCopyGeoHash(record.getGeoByte(columnIndex), activeSelectColumnTypes.getQuick(2 * columnIndex + 1));
+                break;
+            case ColumnType.GEOSHORT:
+                putCopyGeoHash(record.getGeoShort(columnIndex), activeSelectColumnTypes.getQuick(2 * columnIndex + 1));
+                break;
+            case ColumnType.GEOINT:
+                putCopyGeoHash(record.getGeoInt(columnIndex), activeSelectColumnTypes.getQuick(2 * columnIndex + 1));
+                break;
+            case ColumnType.GEOLONG:
+                putCopyGeoHash(record.getGeoLong(columnIndex), activeSelectColumnTypes.getQuick(2 * columnIndex + 1));
+                break;
+            case ColumnType.BINARY:
+                putCopyBin(record.getBin(columnIndex), columnIndex);
+                break;
+            default:
+                putCopyNull();
+                break;
+        }
+    }
+
     private void appendDateColumn(Record record, int columnIndex) {
         final long longValue = record.getDate(columnIndex);
         if (longValue != Numbers.LONG_NaN) {
@@ -746,7 +933,12 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     }
 
     private void appendRecord(Record record, int columnCount) throws SqlException {
-        responseAsciiSink.put(MESSAGE_TYPE_DATA_ROW); // data
+        if (copyOutFormat == CopyModel.FORMAT_TEXT || copyOutFormat == CopyModel.FORMAT_CSV) {
+            appendCopyTextRecord(record, columnCount);
+            return;
+        }
+        // binary COPY tuple has the same layout as DataRow, all columns are in binary format
+        responseAsciiSink.put(copyOutFormat == CopyModel.FORMAT_BINARY ? MESSAGE_TYPE_COPY_DATA : MESSAGE_TYPE_DATA_ROW);
         final long offset = responseAsciiSink.skip();
         responseAsciiSink.putNetworkShort((short) columnCount);
         for (int i = 0; i < columnCount; i++) {
@@ -830,19 +1022,25 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                 case BINARY_TYPE_LONG256:
                     appendLong256Column(record, i);
                     break;
+                // geohash is sent as varchar, binary varchar is the same as text
                 case ColumnType.GEOBYTE:
+                case BINARY_TYPE_GEOBYTE:
                     putGeoHashStringByteValue(record, i, activeSelectColumnTypes.getQuick(2 * i + 1));
                     break;
                 case ColumnType.GEOSHORT:
+                case BINARY_TYPE_GEOSHORT:
                     putGeoHashStringShortValue(record, i, activeSelectColumnTypes.getQuick(2 * i + 1));
                     break;
                 case ColumnType.GEOINT:
+                case BINARY_TYPE_GEOINT:
                     putGeoHashStringIntValue(record, i, activeSelectColumnTypes.getQuick(2 * i + 1));
                     break;
                 case ColumnType.GEOLONG:
+                case BINARY_TYPE_GEOLONG:
                     putGeoHashStringLongValue(record, i, activeSelectColumnTypes.getQuick(2 * i + 1));
                     break;
                 case ColumnType.NULL:
+                case BINARY_TYPE_NULL:
                     responseAsciiSink.setNullValue();
                     break;
                 default:
@@ -1044,14 +1242,13 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         // we do not want to overwrite cache entries and potentially
         // leak memory
         if (typesAndSelect != null) {
-            if (typesAndSelectIsCached) {
-                typesAndSelectCache.put(queryText, typesAndSelect);
-                // clear selectAndTypes so that context doesn't accidentally
-                // free the factory when context finishes abnormally
-                this.typesAndSelect = null;
-            } else {
-                this.typesAndSelect = Misc.free(this.typesAndSelect);
+            // COPY TO STDOUT is compiled into a regular factory, but it is not a SELECT
+            if (selectCacheEnabled && typesAndSelectIsCached && copyOutFormat == COPY_OUT_NONE) {
+                // take the factory out of selectAndTypes so that context doesn't
+                // accidentally free it when context finishes abnormally
+                queryFactoryCache.checkIn(queryText, typesAndSelect.takeFactory(), typesAndSelect.getTypes(), cachedSelectsGauge);
             }
+            this.typesAndSelect = Misc.free(this.typesAndSelect);
         }
 
         if (typesAndUpdate != null) {
@@ -1073,8 +1270,8 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
             typesAndInsert = typesAndInsertCache.peek(queryText);
 
             // not found or not insert, try select
-            // poll this cache because it is shared and we do not want
-            // select factory to be used by another thread concurrently
+            // check factory out of the engine cache because it is shared and we do not
+            // want select factory to be used by another thread concurrently
             if (typesAndInsert != null) {
                 typesAndInsert.defineBindVariables(bindVariableService);
                 queryTag = TAG_INSERT;
@@ -1090,10 +1287,12 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                 return false;
             }
 
-            typesAndSelect = typesAndSelectCache.poll(queryText);
+            final RecordCursorFactory factory = selectCacheEnabled ? queryFactoryCache.checkOut(queryText, cachedSelectTypes) : null;
 
-            if (typesAndSelect != null) {
+            if (factory != null) {
                 LOG.info().$("query cache used [fd=").$(fd).I$();
+                typesAndSelect = typesAndSelectPool.pop();
+                typesAndSelect.of(factory, cachedSelectTypes);
                 // cache hit, define bind variables
                 bindVariableService.clear();
                 typesAndSelect.defineBindVariables(bindVariableService);
@@ -1101,7 +1300,9 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                 return false;
             }
 
-            // not cached - compile to see what it is
+            // not cached - compile to see what it is, compilation may need the writers
+            // held by the pipelined inserts
+            commitPipelinedInserts();
             final CompiledQuery cc = compiler.compile(queryText, sqlExecutionContext); //here
             processCompiledQuery(cc);
         } else {
@@ -1159,7 +1360,7 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
             wrapper.queryText = Chars.toString(queryText);
             // COPY 'id' CANCEL; queries shouldn't be compiled multiple times, but it's fine to compile
             // COPY 'x' FROM ...; queries multiple times since the import is executed lazily
-            wrapper.alreadyExecuted = (queryTag == TAG_OK || queryTag == TAG_CTAS || (queryTag == TAG_COPY && typesAndSelect == null));
+            wrapper.alreadyExecuted = (queryTag == TAG_OK || queryTag == TAG_CTAS || (queryTag == TAG_COPY && typesAndSelect == null && !copyInPending));
             namedStatementMap.putAt(index, Chars.toString(statementName), wrapper);
             this.activeBindVariableTypes = wrapper.bindVariableTypes;
             this.activeSelectColumnTypes = wrapper.selectColumnTypes;
@@ -1235,7 +1436,27 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         }
     }
 
-    private void executeInsert() throws SqlException {
+    private void commitInsert() throws SqlException {
+        try (final InsertMethod m = typesAndInsert.getInsert().createMethod(sqlExecutionContext, this)) {
+            rowCount = m.execute();
+            m.commit();
+        }
+    }
+
+    private void commitPipelinedInserts() {
+        if (transactionState == IMPLICIT_TRANSACTION) {
+            try {
+                for (int i = 0, n = pendingWriters.size(); i < n; i++) {
+                    pendingWriters.valueQuick(i).commit();
+                }
+            } finally {
+                clearWriters();
+                transactionState = NO_TRANSACTION;
+            }
+        }
+    }
+
+    private void executeInsert(boolean pipelined) throws SqlException {
         final TableWriter writer;
         try {
             switch (transactionState) {
@@ -1253,12 +1474,26 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                 case ERROR_TRANSACTION:
                     // when transaction is in error state, skip execution
                     break;
+                case NO_TRANSACTION:
+                    if (!pipelined) {
+                        commitInsert();
+                        break;
+                    }
+                    transactionState = IMPLICIT_TRANSACTION;
+                    // fall thru
+                case IMPLICIT_TRANSACTION:
+                    // rows are committed together with the rest of the pipeline on sync
+                    final InsertMethod m1 = typesAndInsert.getInsert().createMethod(sqlExecutionContext, this);
+                    try {
+                        rowCount = m1.execute();
+                    } finally {
+                        final TableWriter pipelineWriter = m1.popWriter();
+                        pendingWriters.put(pipelineWriter.getTableName(), pipelineWriter);
+                    }
+                    break;
                 default:
                     // in any other case we will commit in place
-                    try (final InsertMethod m2 = typesAndInsert.getInsert().createMethod(sqlExecutionContext, this)) {
-                        rowCount = m2.execute();
-                        m2.commit();
-                    }
+                    commitInsert();
                     break;
             }
             prepareCommandComplete(true);
@@ -1266,6 +1501,7 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
             if (transactionState == IN_TRANSACTION) {
                 transactionState = ERROR_TRANSACTION;
             }
+            // pipelined rows, including those of the preceding statements, are rolled back by parse()
             throw e;
         }
     }
@@ -1509,6 +1745,68 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
             doAuthentication(msgLo, msgLimit);
             return;
         }
+
+        if (copyInActive) {
+            switch (type) {
+                case 'd': // COPY data
+                    processCopyData(msgLo, msgLimit);
+                    return;
+                case 'c': // COPY done
+                    processCopyDone();
+                    return;
+                case 'f': // COPY fail
+                    processCopyFail(msgLo, msgLimit);
+                    return;
+                case 'S':
+                case 'H':
+                    // sync and flush are ignored in copy-in mode
+                    return;
+                default:
+                    abortCopyIn();
+                    throw CairoException.nonCritical().put("unexpected message during COPY FROM STDIN [type=").put((char) type).put(']');
+            }
+        }
+
+        if (skipUntilSync) {
+            switch (type) {
+                case 'X':
+                    throw PeerDisconnectedException.INSTANCE;
+                case 'S':
+                    skipUntilSync = false;
+                    break;
+                default:
+                    return;
+            }
+        }
+
+        if (transactionState != IMPLICIT_TRANSACTION) {
+            parseMessage(type, msgLo, msgLimit, address, compiler);
+            return;
+        }
+
+        try {
+            parseMessage(type, msgLo, msgLimit, address, compiler);
+        } catch (SqlException | ImplicitCastException | CairoException e) {
+            if (type == 'S') {
+                // commit of the batch failed, sync is answered by the error report
+                throw e;
+            }
+            rollbackPipelinedInserts();
+            if (e instanceof SqlException) {
+                prepareNonCriticalError(((SqlException) e).getPosition(), ((SqlException) e).getFlyweightMessage());
+            } else if (e instanceof ImplicitCastException) {
+                prepareNonCriticalError(-1, ((ImplicitCastException) e).getFlyweightMessage());
+            } else if (((CairoException) e).isInterruption()) {
+                prepareQueryCanceled(((CairoException) e).getFlyweightMessage());
+            } else {
+                prepareError((CairoException) e);
+            }
+            skipUntilSync = true;
+        }
+    }
+
+    private void parseMessage(byte type, long msgLo, long msgLimit, long address, @Transient SqlCompiler compiler)
+            throws PeerDisconnectedException, PeerIsSlowToReadException, BadProtocolException, SqlException {
         switch (type) {
             case 'P': //parse
                 sendRNQ = true;
@@ -1533,8 +1831,13 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
             case 'E': // execute
                 sendRNQ = true;
                 processExec(msgLo, msgLimit, compiler);
+                if (copyInActive) {
+                    // client waits for CopyInResponse before sending data
+                    sendAndReset();
+                }
                 break;
             case 'S': // sync
+                commitPipelinedInserts();
                 processSyncActions();
                 prepareReadyForQuery();
                 prepareForNewQuery();
@@ -1557,8 +1860,14 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
             case 'Q': // simple query
                 sendRNQ = true;
                 processQuery(msgLo, msgLimit, compiler);
+                // sync that follows simple query must be answered too,
+                // JDBC driver sends BEGIN this way before COPY
+                sendRNQ = true;
                 break;
             case 'd': // COPY data
+            case 'c': // COPY done
+            case 'f': // COPY fail
+                // discard the rest of COPY FROM STDIN that failed
                 break;
             default:
                 LOG.error().$("unknown message [type=").$(type).$(']').$();
@@ -1589,8 +1898,77 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         responseAsciiSink.putIntDirect(INT_BYTES_X);
     }
 
+    private void prepareCopyInResponse() {
+        final byte format = copyInProcessor.getFormat() == CopyModel.FORMAT_BINARY ? (byte) 1 : (byte) 0;
+        final int columnCount = copyInProcessor.getColumnCount();
+        responseAsciiSink.put(MESSAGE_TYPE_COPY_IN_RESPONSE);
+        long addr = responseAsciiSink.skip();
+        responseAsciiSink.put(format);
+        responseAsciiSink.putNetworkShort((short) columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            responseAsciiSink.putNetworkShort(format);
+        }
+        responseAsciiSink.putLen(addr);
+    }
+
+    private void prepareCopyOutDone() {
+        if (copyOutFormat == CopyModel.FORMAT_BINARY) {
+            // file trailer
+            responseAsciiSink.put(MESSAGE_TYPE_COPY_DATA);
+            responseAsciiSink.putNetworkInt(Integer.BYTES + Short.BYTES);
+            responseAsciiSink.putNetworkShort((short) -1);
+        }
+        responseAsciiSink.put(MESSAGE_TYPE_COPY_DONE);
+        responseAsciiSink.putIntDirect(INT_BYTES_X);
+        copyOutFormat = COPY_OUT_NONE;
+    }
+
+    private void prepareCopyOutResponse() {
+        final RecordMetadata metadata = typesAndSelect.getFactory().getMetadata();
+        final int columnCount = metadata.getColumnCount();
+        final short format = copyOutFormat == CopyModel.FORMAT_BINARY ? (short) 1 : (short) 0;
+        for (int i = 0; i < columnCount; i++) {
+            final int columnType = toColumnType(activeSelectColumnTypes.getQuick(2 * i));
+            // geohash values do not have binary encoding, their text is a valid binary varchar
+            final short columnFormat = ColumnType.isGeoHash(columnType) || ColumnType.isNull(columnType) ? 0 : format;
+            activeSelectColumnTypes.setQuick(2 * i, toColumnBinaryType(columnFormat, columnType));
+        }
+
+        responseAsciiSink.put(MESSAGE_TYPE_COPY_OUT_RESPONSE);
+        long addr = responseAsciiSink.skip();
+        responseAsciiSink.put((byte) format);
+        responseAsciiSink.putNetworkShort((short) columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            responseAsciiSink.putNetworkShort(format);
+        }
+        responseAsciiSink.putLen(addr);
+
+        if (copyOutFormat == CopyModel.FORMAT_BINARY) {
+            // file header: signature, flags and header extension length
+            responseAsciiSink.put(MESSAGE_TYPE_COPY_DATA);
+            addr = responseAsciiSink.skip();
+            for (int i = 0; i < PGCopyInProcessor.BINARY_SIGNATURE.length; i++) {
+                responseAsciiSink.put(PGCopyInProcessor.BINARY_SIGNATURE[i]);
+            }
+            responseAsciiSink.putIntDirect(0);
+            responseAsciiSink.putIntDirect(0);
+            responseAsciiSink.putLen(addr);
+        } else if (copyOutHeader) {
+            responseAsciiSink.put(MESSAGE_TYPE_COPY_DATA);
+            addr = responseAsciiSink.skip();
+            for (int i = 0; i < columnCount; i++) {
+                if (i > 0) {
+                    responseAsciiSink.put((char) copyOutDelimiter);
+                }
+                putCopyText(metadata.getColumnName(i));
+            }
+            responseAsciiSink.put('\n');
+            responseAsciiSink.putLen(addr);
+        }
+    }
+
     private void prepareDescribePortalResponse() {
-        if (typesAndSelect != null) {
+        if (typesAndSelect != null && copyOutFormat == COPY_OUT_NONE) {
             try {
                 prepareRowDescription();
             } catch (NoSpaceLeftInResponseBufferException ignored) {
@@ -1660,6 +2038,8 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
             wrapper = null;
             syncActions.clear();
             sendParameterDescription = false;
+            copyInPending = false;
+            copyOutFormat = COPY_OUT_NONE;
         }
     }
 
@@ -1843,7 +2223,7 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                             final short code = getShortUnsafe(lo);
                             activeSelectColumnTypes.setQuick(2 * i, toColumnBinaryType(code, m.getColumnType(i)));
                             bindSelectColumnFormats.setQuick(i, code);
-                            activeSelectColumnTypes.setQuick(2 * i + 1, 0);
+                            activeSelectColumnTypes.setQuick(2 * i + 1, GeoHashes.getBitFlags(m.getColumnType(i)));
                         }
                     } else if (columnFormatCodeCount == 1) {
                         lo += Short.BYTES;
@@ -1851,7 +2231,7 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                         for (int i = 0; i < columnCount; i++) {
                             activeSelectColumnTypes.setQuick(2 * i, toColumnBinaryType(code, m.getColumnType(i)));
                             bindSelectColumnFormats.setQuick(i, code);
-                            activeSelectColumnTypes.setQuick(2 * i + 1, 0);
+                            activeSelectColumnTypes.setQuick(2 * i + 1, GeoHashes.getBitFlags(m.getColumnType(i)));
                         }
                     } else {
                         LOG.error()
@@ -1959,6 +2339,19 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                 }
                 queryTag = TAG_COPY;
                 break;
+            case CompiledQuery.COPY_REMOTE:
+                queryTag = TAG_COPY;
+                final RecordCursorFactory copyOutFactory = cq.getRecordCursorFactory();
+                if (copyOutFactory != null) {
+                    // COPY TO STDOUT, cursor is sent using the same machinery as SELECT
+                    typesAndSelect = typesAndSelectPool.pop();
+                    typesAndSelect.of(copyOutFactory, bindVariableService);
+                    setupCopyOut(cq.getCopyModel());
+                } else {
+                    copyInProcessor.of(cq.getCopyModel());
+                    copyInPending = true;
+                }
+                break;
             case CompiledQuery.SET:
                 queryTag = TAG_SET;
                 break;
@@ -1995,6 +2388,49 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         }
     }
 
+    private void processCopyData(long lo, long msgLimit) {
+        try {
+            copyInProcessor.parse(lo, msgLimit);
+        } catch (Throwable e) {
+            abortCopyIn();
+            throw e;
+        }
+    }
+
+    private void processCopyDone() throws PeerDisconnectedException, PeerIsSlowToReadException {
+        final TableWriter writer = copyInProcessor.getWriter();
+        try {
+            rowCount = copyInProcessor.finish();
+            if (transactionState == IN_TRANSACTION) {
+                if (!copyInWriterPending) {
+                    pendingWriters.put(writer.getTableName(), writer);
+                }
+            } else {
+                writer.commit();
+                Misc.free(writer);
+            }
+        } catch (Throwable e) {
+            abortCopyIn();
+            throw e;
+        }
+        LOG.info().$("copy from stdin complete [fd=").$(fd).$(", table=").$(writer.getTableName()).$(", rows=").$(rowCount).I$();
+        copyInActive = false;
+        copyInProcessor.clear();
+        isEmptyQuery = false;
+        queryTag = TAG_COPY;
+        prepareCommandComplete(true);
+        if (copyInSimpleQuery) {
+            prepareReadyForQuery();
+        }
+        sendAndReset();
+    }
+
+    private void processCopyFail(long lo, long msgLimit) throws BadProtocolException {
+        abortCopyIn();
+        final CharSequence reason = getString(lo, msgLimit - 1, "invalid UTF8 bytes in copy fail message");
+        throw CairoException.nonCritical().put("COPY from stdin failed: ").put(reason);
+    }
+
     private void processDescribe(long lo, long msgLimit, @Transient SqlCompiler compiler)
             throws SqlException, BadProtocolException {
         sqlExecutionContext.getCircuitBreaker().resetTimer();
@@ -2050,16 +2486,29 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     }
 
     private void processExecute(int maxRows, SqlCompiler compiler) throws PeerDisconnectedException, PeerIsSlowToReadException, SqlException {
+        if (typesAndInsert == null) {
+            // statements other than insert must observe the rows inserted earlier in the pipeline
+            commitPipelinedInserts();
+        }
         if (typesAndSelect != null) {
             LOG.debug().$("executing query").$();
             setupFactoryAndCursor(compiler);
+            if (copyOutFormat != COPY_OUT_NONE) {
+                // COPY cannot be suspended
+                prepareCopyOutResponse();
+                maxRows = 0;
+            }
             sendCursor(maxRows, resumeCursorExecuteRef, resumeCommandCompleteRef);
         } else if (typesAndInsert != null) {
             LOG.debug().$("executing insert").$();
-            executeInsert();
+            executeInsert(insertPipelineEnabled);
         } else if (typesAndUpdate != null) {
             LOG.debug().$("executing update").$();
             executeUpdate(compiler);
+        } else if (copyInPending) {
+            LOG.debug().$("executing copy from stdin").$();
+            startCopyIn(false);
+            prepareCopyInResponse();
         } else { //this must be a OK/SET/COMMIT/ROLLBACK or empty query
             executeTag();
             prepareCommandComplete(false);
@@ -2240,12 +2689,15 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         if (Chars.utf8Decode(lo, limit - 1, e)) {
             queryText = characterStore.toImmutable();
             try {
+                commitPipelinedInserts();
                 compiler.compileBatch(queryText, sqlExecutionContext, batchCallback);
                 // we need to continue parsing receive buffer even if we errored out
                 // this is because PG client might expect separate responses to everything it sent
             } catch (SqlException ex) {
+                abortCopyIn();
                 prepareNonCriticalError(ex.getPosition(), ex.getFlyweightMessage());
             } catch (CairoException ex) {
+                abortCopyIn();
                 if (ex.isInterruption()) {
                     prepareQueryCanceled(ex.getFlyweightMessage());
                 } else {
@@ -2256,7 +2708,13 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
             LOG.error().$("invalid UTF8 bytes in parse query").$();
             throw BadProtocolException.INSTANCE;
         }
-        sendReadyForNewQuery();
+        if (copyInActive) {
+            // ready for query is sent when COPY completes
+            prepareCopyInResponse();
+            sendAndReset();
+        } else {
+            sendReadyForNewQuery();
+        }
     }
 
     private void processSyncActions() {
@@ -2282,6 +2740,106 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         }
     }
 
+    private void putCopyBin(BinarySequence sequence, int columnIndex) throws SqlException {
+        if (sequence == null) {
+            putCopyNull();
+        } else {
+            final long blobSize = sequence.length();
+            if (blobSize >= maxBlobSizeOnQuery) {
+                throw SqlException.position(0)
+                        .put("blob is too large [blobSize=").put(blobSize)
+                        .put(", max=").put(maxBlobSizeOnQuery)
+                        .put(", columnIndex=").put(columnIndex)
+                        .put(']');
+            }
+            // bytea hex format, backslash is escaped in text format
+            if (copyOutFormat == CopyModel.FORMAT_TEXT) {
+                responseAsciiSink.put('\\');
+            }
+            responseAsciiSink.put('\\').put('x');
+            for (long i = 0; i < blobSize; i++) {
+                final int b = sequence.byteAt(i) & 0xff;
+                responseAsciiSink.put(Numbers.hexDigits[b >> 4]).put(Numbers.hexDigits[b & 0xf]);
+            }
+        }
+    }
+
+    private void putCopyGeoHash(long value, int bitFlags) {
+        if (value == GeoHashes.NULL) {
+            putCopyNull();
+        } else if (bitFlags < 0) {
+            GeoHashes.appendCharsUnsafe(value, -bitFlags, responseAsciiSink);
+        } else {
+            GeoHashes.appendBinaryStringUnsafe(value, bitFlags, responseAsciiSink);
+        }
+    }
+
+    private void putCopyNull() {
+        // CSV null is an empty unquoted value
+        if (copyOutFormat == CopyModel.FORMAT_TEXT) {
+            responseAsciiSink.put('\\').put('N');
+        }
+    }
+
+    private void putCopyText(@Nullable CharSequence value) {
+        if (value == null) {
+            putCopyNull();
+            return;
+        }
+        final int len = value.length();
+        int lo = 0;
+        if (copyOutFormat == CopyModel.FORMAT_CSV) {
+            // empty string is quoted to tell it apart from null
+            boolean quote = len == 0;
+            for (int i = 0; i < len && !quote; i++) {
+                final char c = value.charAt(i);
+                quote = c == '"' || c == '\n' || c == '\r' || c == copyOutDelimiter;
+            }
+            if (!quote) {
+                responseAsciiSink.encodeUtf8(value);
+                return;
+            }
+            responseAsciiSink.put('"');
+            for (int i = 0; i < len; i++) {
+                if (value.charAt(i) == '"') {
+                    responseAsciiSink.encodeUtf8(value, lo, i + 1);
+                    responseAsciiSink.put('"');
+                    lo = i + 1;
+                }
+            }
+            responseAsciiSink.encodeUtf8(value, lo, len);
+            responseAsciiSink.put('"');
+        } else {
+            for (int i = 0; i < len; i++) {
+                final char c = value.charAt(i);
+                final char escape;
+                switch (c) {
+                    case '\\':
+                        escape = '\\';
+                        break;
+                    case '\n':
+                        escape = 'n';
+                        break;
+                    case '\r':
+                        escape = 'r';
+                        break;
+                    case '\t':
+                        escape = 't';
+                        break;
+                    default:
+                        escape = c == copyOutDelimiter ? c : 0;
+                        break;
+                }
+                if (escape != 0) {
+                    responseAsciiSink.encodeUtf8(value, lo, i);
+                    responseAsciiSink.put('\\').put(escape);
+                    lo = i + 1;
+                }
+            }
+            responseAsciiSink.encodeUtf8(value, lo, len);
+        }
+    }
+
     private void putGeoHashStringByteValue(Record rec, int col, int bitFlags) {
         byte l = rec.getGeoByte(col);
         putGeoHashStringValue(l, bitFlags);
@@ -2378,38 +2936,22 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         sendReadyForNewQuery();
     }
 
-    private void sendAndReset() throws PeerDisconnectedException, PeerIsSlowToReadException {
-        doSend(0, (int) (sendBufferPtr - sendBuffer));
-        responseAsciiSink.reset();
-    }
-
-    // This method is currently unused. it's used for the COPY sub-protocol, which is currently not implemented.
-    // It's left here so when we add the sub-protocol later we won't need to reimplemented it.
-    // We could keep it just in git history, but chances are nobody would recall to search for it there
-    private void sendCopyInResponse(CairoEngine engine, TextLoader textLoader) throws PeerDisconnectedException, PeerIsSlowToReadException {
-        if (
-                TableUtils.TABLE_EXISTS == engine.getStatus(
-                        sqlExecutionContext.getCairoSecurityContext(),
-                        path,
-                        textLoader.getTableName()
-                )) {
-            responseAsciiSink.put(MESSAGE_TYPE_COPY_IN_RESPONSE);
-            long addr = responseAsciiSink.skip();
-            responseAsciiSink.put((byte) 0); // TEXT (1=BINARY, which we do not support yet)
-            try (TableWriter writer = engine.getWriter(sqlExecutionContext.getCairoSecurityContext(), textLoader.getTableName(), WRITER_LOCK_REASON)) {
-                RecordMetadata metadata = writer.getMetadata();
-                responseAsciiSink.putNetworkShort((short) metadata.getColumnCount());
-                for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
-                    responseAsciiSink.putNetworkShort((short) PGOids.getTypeOid(metadata.getColumnType(i)));
+    private void rollbackPipelinedInserts() {
+        if (transactionState == IMPLICIT_TRANSACTION) {
+            try {
+                for (int i = 0, n = pendingWriters.size(); i < n; i++) {
+                    pendingWriters.valueQuick(i).rollback();
                 }
+            } finally {
+                clearWriters();
+                transactionState = NO_TRANSACTION;
             }
-            responseAsciiSink.putLen(addr);
-        } else {
-            final SqlException e = SqlException.$(0, "table does not exist [table=").put(textLoader.getTableName()).put(']');
-            prepareNonCriticalError(e.getPosition(), e.getFlyweightMessage());
-            prepareReadyForQuery();
         }
-        sendAndReset();
+    }
+
+    private void sendAndReset() throws PeerDisconnectedException, PeerIsSlowToReadException {
+        doSend(0, (int) (sendBufferPtr - sendBuffer));
+        responseAsciiSink.reset();
     }
 
     private void sendCursor(
@@ -2475,6 +3017,13 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         sendAndReset();
     }
 
+    private void setupCopyOut(CopyModel model) {
+        copyOutFormat = model.getFormat();
+        copyOutHeader = model.isHeader();
+        final byte delimiter = model.getDelimiter();
+        copyOutDelimiter = delimiter > 0 ? delimiter : (copyOutFormat == CopyModel.FORMAT_CSV ? (byte) ',' : (byte) '\t');
+    }
+
     private void setupFactoryAndCursor(SqlCompiler compiler) throws SqlException {
         if (currentCursor == null) {
             boolean recompileStale = true;
@@ -2484,6 +3033,8 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                 if (!circuitBreaker.isTimerSet()) {
                     circuitBreaker.resetTimer();
                 }
+                // the cursor is not resumed, memory is accounted from scratch
+                this.circuitBreaker.getMemoryTracker().reset();
 
                 for (int retries = 0; recompileStale; retries++) {
                     currentFactory = typesAndSelect.getFactory();
@@ -2543,6 +3094,28 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         recvBufferReadOffset = 0;
     }
 
+    private void startCopyIn(boolean simpleQuery) throws SqlException {
+        if (transactionState == ERROR_TRANSACTION) {
+            throw SqlException.$(0, "current transaction is aborted, commands ignored until end of transaction block");
+        }
+        final CharSequence tableName = copyInProcessor.getTableName();
+        copyInWriterPending = pendingWriters.keyIndex(tableName) < 0;
+        final TableWriter writer = getWriter(sqlExecutionContext.getCairoSecurityContext(), tableName, WRITER_LOCK_REASON);
+        try {
+            // rows are committed in batches unless COPY is a part of transaction
+            copyInProcessor.start(writer, transactionState != IN_TRANSACTION);
+        } catch (Throwable e) {
+            copyInProcessor.clear();
+            if (!copyInWriterPending) {
+                Misc.free(writer);
+            }
+            throw e;
+        }
+        copyInPending = false;
+        copyInActive = true;
+        copyInSimpleQuery = simpleQuery;
+    }
+
     private void validateParameterCounts(short parameterFormatCount, short parameterValueCount, int parameterTypeCount) throws BadProtocolException {
         if (parameterValueCount > 0) {
             if (parameterValueCount < parameterTypeCount) {
@@ -2584,6 +3157,9 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
     }
 
     void prepareCommandComplete(boolean addRowCount) {
+        if (copyOutFormat != COPY_OUT_NONE) {
+            prepareCopyOutDone();
+        }
         if (isEmptyQuery) {
             LOG.debug().$("empty").$();
             responseAsciiSink.put(MESSAGE_TYPE_EMPTY_QUERY);
@@ -2604,6 +3180,7 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                 responseAsciiSink.encodeUtf8(queryTag).put((char) 0);
             }
             responseAsciiSink.putLen(addr);
+            LOG.debug().$("complete [fd=").$(fd).$(", peakMem=").$(circuitBreaker.getPeakMemoryUsage()).I$();
         }
     }
 
@@ -2696,17 +3273,23 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
                     activeSelectColumnTypes = selectColumnTypes;
                     buildSelectColumnTypes();
                     assert queryText != null;
-                    queryTag = TAG_SELECT;
                     setupFactoryAndCursor(compiler);
-                    prepareRowDescription();
+                    if (copyOutFormat == COPY_OUT_NONE) {
+                        queryTag = TAG_SELECT;
+                        prepareRowDescription();
+                    } else {
+                        prepareCopyOutResponse();
+                    }
                     sendCursor(0, resumeCursorQueryRef, resumeQueryCompleteRef);
                 } else if (typesAndInsert != null) {
-                    executeInsert();
+                    executeInsert(false);
                 } else if (typesAndUpdate != null) {
                     executeUpdate(compiler);
                 } else if (cq.getType() == CompiledQuery.INSERT_AS_SELECT ||
                         cq.getType() == CompiledQuery.CREATE_TABLE_AS_SELECT) {
                     prepareCommandComplete(true);
+                } else if (cq.getType() == CompiledQuery.COPY_REMOTE) {
+                    startCopyIn(true);
                 } else {
                     executeTag();
                     prepareCommandComplete(false);
@@ -2717,7 +3300,10 @@ public class PGConnectionContext extends AbstractMutableIOContext<PGConnectionCo
         }
 
         @Override
-        public void preCompile(SqlCompiler compiler) {
+        public void preCompile(SqlCompiler compiler) throws SqlException {
+            if (copyInActive) {
+                throw SqlException.$(0, "COPY FROM STDIN must be the last statement in the query");
+            }
             sendRNQ = true;
             prepareForNewBatchQuery();
             PGConnectionContext.this.typesAndInsert = null;
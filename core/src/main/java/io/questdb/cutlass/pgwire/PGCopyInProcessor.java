@@ -0,0 +1,798 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cutlass.pgwire;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.TableWriter;
+import io.questdb.cairo.TableWriterMetadata;
+import io.questdb.cutlass.text.AbstractTextLexer;
+import io.questdb.cutlass.text.TextConfiguration;
+import io.questdb.cutlass.text.TextLexerWrapper;
+import io.questdb.cutlass.text.types.TypeAdapter;
+import io.questdb.cutlass.text.types.TypeManager;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlUtil;
+import io.questdb.griffin.model.CopyModel;
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.std.*;
+import io.questdb.std.datetime.microtime.Timestamps;
+import io.questdb.std.str.DirectByteCharSequence;
+import io.questdb.std.str.DirectCharSink;
+import io.questdb.std.str.StringSink;
+
+import java.io.Closeable;
+
+/**
+ * Streams COPY FROM STDIN data into a table writer. Data arrives in CopyData messages,
+ * which split the stream at arbitrary byte positions, so partial lines and tuples are
+ * carried over to the next message.
+ * <p>
+ * Supported formats are PostgreSQL text (tab separated, backslash escapes, \N for null),
+ * CSV (parsed by the same lexer as file imports, empty value is null) and PostgreSQL binary.
+ */
+public class PGCopyInProcessor implements AbstractTextLexer.Listener, Closeable, Mutable {
+    private static final int BINARY_HEADER_SIZE = 19; // signature, flags and header extension length
+    static final byte[] BINARY_SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0};
+    private static final Log LOG = LogFactory.getLog(PGCopyInProcessor.class);
+    private final ObjList<TypeAdapter> adapters = new ObjList<>();
+    // field index -> writer column index
+    private final IntList columnIndexes = new IntList();
+    private final IntList columnNamePositions = new IntList();
+    private final ObjList<StringSink> columnNames = new ObjList<>();
+    // text and binary values; value with zero address is null
+    private final ObjList<DirectByteCharSequence> fields = new ObjList<>();
+    private final StringSink tableName = new StringSink();
+    private final TextConfiguration textConfiguration;
+    private final TypeManager typeManager;
+    private final DirectCharSink utf8Sink;
+    private boolean autoCommit;
+    private boolean binaryHeaderParsed;
+    private long carryCapacity;
+    private long carryPtr;
+    private long carrySize;
+    private int columnNameCount;
+    private byte delimiter;
+    private boolean done;
+    private int format;
+    private boolean header;
+    private AbstractTextLexer lexer;
+    private TextLexerWrapper lexerWrapper;
+    private long lineCount;
+    private int maxUncommittedRows;
+    private long rowCount;
+    private int targetPosition;
+    private int timestampField;
+    private TableWriter writer;
+
+    public PGCopyInProcessor(TextConfiguration textConfiguration, TypeManager typeManager, DirectCharSink utf8Sink) {
+        this.textConfiguration = textConfiguration;
+        this.typeManager = typeManager;
+        this.utf8Sink = utf8Sink;
+    }
+
+    @Override
+    public void clear() {
+        writer = null;
+        lexer = null;
+        tableName.clear();
+        columnNameCount = 0;
+        columnIndexes.clear();
+        adapters.clear();
+        freeCarry();
+    }
+
+    @Override
+    public void close() {
+        clear();
+        lexerWrapper = Misc.free(lexerWrapper);
+    }
+
+    /**
+     * Parses any remaining buffered data.
+     *
+     * @return number of rows appended to the writer
+     */
+    public long finish() {
+        if (!done) {
+            switch (format) {
+                case CopyModel.FORMAT_CSV:
+                    lexer.parseLast();
+                    checkLexerErrors();
+                    break;
+                case CopyModel.FORMAT_TEXT:
+                    if (carrySize > 0) {
+                        onTextLine(carryPtr, carryPtr + carrySize);
+                    }
+                    break;
+                default:
+                    if (carrySize > 0) {
+                        throw CairoException.nonCritical().put("unexpected end of binary COPY data");
+                    }
+                    break;
+            }
+            done = true;
+        }
+        carrySize = 0;
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columnIndexes.size();
+    }
+
+    public int getFormat() {
+        return format;
+    }
+
+    public CharSequence getTableName() {
+        return tableName;
+    }
+
+    public TableWriter getWriter() {
+        return writer;
+    }
+
+    /**
+     * Copies COPY FROM STDIN options from the model, which is only valid until next compilation.
+     */
+    public void of(CopyModel model) {
+        clear();
+        tableName.put(model.getTarget().token);
+        targetPosition = model.getTarget().position;
+        format = model.getFormat();
+        header = model.isHeader();
+        if (model.getDelimiter() > 0) {
+            delimiter = model.getDelimiter();
+        } else {
+            delimiter = format == CopyModel.FORMAT_CSV ? (byte) ',' : (byte) '\t';
+        }
+
+        final ObjList<CharSequence> names = model.getColumnNames();
+        columnNameCount = names.size();
+        columnNamePositions.clear();
+        columnNamePositions.addAll(model.getColumnNamePositions());
+        for (int i = 0; i < columnNameCount; i++) {
+            if (i == columnNames.size()) {
+                columnNames.add(new StringSink());
+            }
+            final StringSink sink = columnNames.getQuick(i);
+            sink.clear();
+            sink.put(names.getQuick(i));
+        }
+    }
+
+    @Override
+    public void onFields(long line, ObjList<DirectByteCharSequence> fields, int hi) {
+        if (done || (header && line == 0)) {
+            return;
+        }
+        if (isEndOfData(fields.getQuick(0).getLo(), fields.getQuick(0).getHi())) {
+            done = true;
+            return;
+        }
+        appendRow(fields, hi);
+    }
+
+    public void parse(long lo, long hi) {
+        if (done) {
+            return;
+        }
+        switch (format) {
+            case CopyModel.FORMAT_CSV:
+                lexer.parse(lo, hi);
+                checkLexerErrors();
+                break;
+            case CopyModel.FORMAT_TEXT:
+                parseText(lo, hi);
+                break;
+            default:
+                parseBinary(lo, hi);
+                break;
+        }
+    }
+
+    /**
+     * Resolves copied columns against writer metadata and prepares for data.
+     *
+     * @param writer     writer to append rows to, the caller remains the owner
+     * @param autoCommit when true rows are committed in batches of table's max uncommitted rows,
+     *                   otherwise it is up to the caller to commit
+     */
+    public void start(TableWriter writer, boolean autoCommit) throws SqlException {
+        this.writer = writer;
+        this.autoCommit = autoCommit;
+        final TableWriterMetadata metadata = writer.getMetadata();
+        columnIndexes.clear();
+        if (columnNameCount == 0) {
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                columnIndexes.add(i);
+            }
+        } else {
+            for (int i = 0; i < columnNameCount; i++) {
+                final CharSequence name = columnNames.getQuick(i);
+                final int columnIndex = metadata.getColumnIndexQuiet(name);
+                if (columnIndex < 0) {
+                    throw SqlException.invalidColumn(columnNamePositions.getQuick(i), name);
+                }
+                if (columnIndexes.indexOf(columnIndex, 0, columnIndexes.size()) > -1) {
+                    throw SqlException.duplicateColumn(columnNamePositions.getQuick(i), name);
+                }
+                columnIndexes.add(columnIndex);
+            }
+        }
+
+        final int timestampIndex = metadata.getTimestampIndex();
+        timestampField = timestampIndex > -1 ? columnIndexes.indexOf(timestampIndex, 0, columnIndexes.size()) : -1;
+        if (timestampIndex > -1 && timestampField < 0) {
+            throw SqlException.$(targetPosition, "designated timestamp column is not copied [column=")
+                    .put(metadata.getColumnName(timestampIndex)).put(']');
+        }
+
+        adapters.clear();
+        for (int i = 0, n = columnIndexes.size(); i < n; i++) {
+            final int columnType = metadata.getColumnType(columnIndexes.getQuick(i));
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.BOOLEAN:
+                case ColumnType.DATE:
+                case ColumnType.TIMESTAMP:
+                case ColumnType.BINARY:
+                    adapters.add(null);
+                    break;
+                case ColumnType.SYMBOL:
+                    adapters.add(typeManager.nextSymbolAdapter(metadata.isColumnIndexed(columnIndexes.getQuick(i))));
+                    break;
+                default:
+                    adapters.add(typeManager.getTypeAdapter(columnType));
+                    break;
+            }
+        }
+
+        maxUncommittedRows = metadata.getMaxUncommittedRows();
+        done = false;
+        binaryHeaderParsed = false;
+        carrySize = 0;
+        lineCount = 0;
+        rowCount = 0;
+        if (format == CopyModel.FORMAT_CSV) {
+            if (lexerWrapper == null) {
+                lexerWrapper = new TextLexerWrapper(textConfiguration);
+            }
+            lexer = lexerWrapper.getLexer(delimiter);
+            lexer.setupLimits(Integer.MAX_VALUE, this);
+            // header line is skipped by this processor rather than the lexer, so that
+            // the lexer learns field count from it
+            lexer.restart(false);
+        }
+    }
+
+    private static long binaryInt(long lo, int len) throws NumericException {
+        switch (len) {
+            case Byte.BYTES:
+                return Unsafe.getUnsafe().getByte(lo);
+            case Short.BYTES:
+                return Numbers.bswap(Unsafe.getUnsafe().getShort(lo));
+            case Integer.BYTES:
+                return Numbers.bswap(Unsafe.getUnsafe().getInt(lo));
+            case Long.BYTES:
+                return Numbers.bswap(Unsafe.getUnsafe().getLong(lo));
+            default:
+                throw NumericException.INSTANCE;
+        }
+    }
+
+    private static double binaryDouble(long lo, int len) throws NumericException {
+        switch (len) {
+            case Integer.BYTES:
+                return Float.intBitsToFloat(Numbers.bswap(Unsafe.getUnsafe().getInt(lo)));
+            case Long.BYTES:
+                return Double.longBitsToDouble(Numbers.bswap(Unsafe.getUnsafe().getLong(lo)));
+            default:
+                throw NumericException.INSTANCE;
+        }
+    }
+
+    private static long binaryTimestamp(long lo, int len) throws NumericException {
+        switch (len) {
+            case Integer.BYTES:
+                // date, days since 2000-01-01
+                return Numbers.bswap(Unsafe.getUnsafe().getInt(lo)) * Timestamps.DAY_MICROS + Numbers.JULIAN_EPOCH_OFFSET_USEC;
+            case Long.BYTES:
+                // timestamp, micros since 2000-01-01
+                return Numbers.bswap(Unsafe.getUnsafe().getLong(lo)) + Numbers.JULIAN_EPOCH_OFFSET_USEC;
+            default:
+                throw NumericException.INSTANCE;
+        }
+    }
+
+    private static long findEol(long lo, long hi) {
+        long p = lo;
+        while (p < hi && Unsafe.getUnsafe().getByte(p) != '\n') {
+            p++;
+        }
+        return p;
+    }
+
+    private static int hexDigit(byte b) throws NumericException {
+        if (b < 0) {
+            throw NumericException.INSTANCE;
+        }
+        return Numbers.hexToDecimal(b);
+    }
+
+    private static boolean isHexDigit(byte b) {
+        return b > 0 && Numbers.hexNumbers[b] > -1;
+    }
+
+    private static boolean isEndOfData(long lo, long hi) {
+        return hi - lo == 2 && Unsafe.getUnsafe().getByte(lo) == '\\' && Unsafe.getUnsafe().getByte(lo + 1) == '.';
+    }
+
+    private static boolean parseBoolean(CharSequence value) throws NumericException {
+        if (Chars.equalsLowerCaseAscii(value, "t")
+                || Chars.equalsLowerCaseAscii(value, "true")
+                || Chars.equalsLowerCaseAscii(value, "y")
+                || Chars.equalsLowerCaseAscii(value, "yes")
+                || Chars.equalsLowerCaseAscii(value, "on")
+                || Chars.equals(value, '1')) {
+            return true;
+        }
+        if (Chars.equalsLowerCaseAscii(value, "f")
+                || Chars.equalsLowerCaseAscii(value, "false")
+                || Chars.equalsLowerCaseAscii(value, "n")
+                || Chars.equalsLowerCaseAscii(value, "no")
+                || Chars.equalsLowerCaseAscii(value, "off")
+                || Chars.equals(value, '0')) {
+            return false;
+        }
+        throw NumericException.INSTANCE;
+    }
+
+    private void appendCarry(long lo, long hi) {
+        final long len = hi - lo;
+        if (carrySize + len > carryCapacity) {
+            final long capacity = Math.max(carryCapacity * 2, Math.max(carrySize + len, Numbers.SIZE_1MB / 16));
+            if (carryPtr == 0) {
+                carryPtr = Unsafe.malloc(capacity, MemoryTag.NATIVE_PGW_CONN);
+            } else {
+                carryPtr = Unsafe.realloc(carryPtr, carryCapacity, capacity, MemoryTag.NATIVE_PGW_CONN);
+            }
+            carryCapacity = capacity;
+        }
+        Vect.memcpy(carryPtr + carrySize, lo, len);
+        carrySize += len;
+    }
+
+    private void appendRow(ObjList<DirectByteCharSequence> fields, int fieldCount) {
+        if (fieldCount != columnIndexes.size()) {
+            throw CairoException.nonCritical().put("column count mismatch [row=").put(rowCount + 1)
+                    .put(", expected=").put(columnIndexes.size())
+                    .put(", actual=").put(fieldCount)
+                    .put(']');
+        }
+
+        final TableWriter.Row row;
+        if (timestampField > -1) {
+            final DirectByteCharSequence value = fields.getQuick(timestampField);
+            if (isNull(value)) {
+                throw CairoException.nonCritical().put("designated timestamp cannot be null [row=").put(rowCount + 1).put(']');
+            }
+            final long timestamp;
+            try {
+                timestamp = format == CopyModel.FORMAT_BINARY
+                        ? binaryTimestamp(value.getLo(), value.length())
+                        : SqlUtil.implicitCastStrAsTimestamp(value);
+            } catch (Throwable e) {
+                throw badValue(timestampField, e);
+            }
+            row = writer.newRow(timestamp);
+        } else {
+            row = writer.newRow();
+        }
+
+        int field = 0;
+        try {
+            for (int n = columnIndexes.size(); field < n; field++) {
+                final DirectByteCharSequence value = fields.getQuick(field);
+                if (field != timestampField && !isNull(value)) {
+                    if (format == CopyModel.FORMAT_BINARY) {
+                        putBinaryValue(row, field, value);
+                    } else {
+                        putTextValue(row, field, value);
+                    }
+                }
+            }
+            row.append();
+        } catch (Throwable e) {
+            row.cancel();
+            throw badValue(field, e);
+        }
+
+        rowCount++;
+        if (autoCommit && writer.getUncommittedRowCount() >= maxUncommittedRows) {
+            writer.commitWithLag();
+        }
+    }
+
+    private CairoException badValue(int field, Throwable e) {
+        final CharSequence columnName = writer.getMetadata().getColumnName(columnIndexes.getQuick(field));
+        LOG.info().$("could not parse value [table=").$(tableName)
+                .$(", column=").$(columnName)
+                .$(", row=").$(rowCount + 1)
+                .$(", e=").$(e)
+                .I$();
+        return CairoException.nonCritical().put("could not parse value [row=").put(rowCount + 1)
+                .put(", column=").put(columnName)
+                .put(", type=").put(ColumnType.nameOf(writer.getMetadata().getColumnType(columnIndexes.getQuick(field))))
+                .put(']');
+    }
+
+    private long binaryFrameSize(long lo, long hi) {
+        long available = hi - lo;
+        if (!binaryHeaderParsed) {
+            if (available < BINARY_HEADER_SIZE) {
+                return available - BINARY_HEADER_SIZE;
+            }
+            final long size = BINARY_HEADER_SIZE + Numbers.bswap(Unsafe.getUnsafe().getInt(lo + 15));
+            return available < size ? available - size : size;
+        }
+
+        if (available < Short.BYTES) {
+            return available - Short.BYTES;
+        }
+        final int fieldCount = Numbers.bswap(Unsafe.getUnsafe().getShort(lo));
+        long p = lo + Short.BYTES;
+        for (int i = 0; i < fieldCount; i++) {
+            available = hi - p;
+            if (available < Integer.BYTES) {
+                return available - Integer.BYTES;
+            }
+            final int len = Numbers.bswap(Unsafe.getUnsafe().getInt(p));
+            p += Integer.BYTES;
+            if (len > 0) {
+                available = hi - p;
+                if (available < len) {
+                    return available - len;
+                }
+                p += len;
+            }
+        }
+        return p - lo;
+    }
+
+    private void checkLexerErrors() {
+        if (lexer.getErrorCount() > 0) {
+            throw CairoException.nonCritical().put("could not parse CSV line [row=").put(rowCount + 1).put(']');
+        }
+    }
+
+    private DirectByteCharSequence field(int index) {
+        while (fields.size() <= index) {
+            fields.add(new DirectByteCharSequence());
+        }
+        return fields.getQuick(index);
+    }
+
+    private void freeCarry() {
+        if (carryPtr != 0) {
+            carryPtr = Unsafe.free(carryPtr, carryCapacity, MemoryTag.NATIVE_PGW_CONN);
+            carryCapacity = 0;
+        }
+        carrySize = 0;
+    }
+
+    private boolean isNull(DirectByteCharSequence value) {
+        return value.getLo() == 0 || (format == CopyModel.FORMAT_CSV && value.length() == 0);
+    }
+
+    private void onBinaryFrame(long lo, long hi) {
+        if (!binaryHeaderParsed) {
+            for (int i = 0; i < BINARY_SIGNATURE.length; i++) {
+                if (Unsafe.getUnsafe().getByte(lo + i) != BINARY_SIGNATURE[i]) {
+                    throw CairoException.nonCritical().put("invalid binary COPY signature");
+                }
+            }
+            // bit 16 of flags is set when tuples include OIDs
+            if ((Numbers.bswap(Unsafe.getUnsafe().getInt(lo + BINARY_SIGNATURE.length)) & (1 << 16)) != 0) {
+                throw CairoException.nonCritical().put("binary COPY with OIDs is not supported");
+            }
+            binaryHeaderParsed = true;
+            return;
+        }
+
+        final int fieldCount = Numbers.bswap(Unsafe.getUnsafe().getShort(lo));
+        if (fieldCount == -1) {
+            // trailer
+            done = true;
+            return;
+        }
+        long p = lo + Short.BYTES;
+        for (int i = 0; i < fieldCount; i++) {
+            final int len = Numbers.bswap(Unsafe.getUnsafe().getInt(p));
+            p += Integer.BYTES;
+            if (len < 0) {
+                field(i).of(0, 0);
+            } else {
+                field(i).of(p, p + len);
+                p += len;
+            }
+        }
+        assert p == hi;
+        appendRow(fields, fieldCount);
+    }
+
+    private void onTextLine(long lo, long hi) {
+        if (hi > lo && Unsafe.getUnsafe().getByte(hi - 1) == '\r') {
+            hi--;
+        }
+        if (header && lineCount++ == 0) {
+            return;
+        }
+        if (isEndOfData(lo, hi)) {
+            done = true;
+            return;
+        }
+
+        // values are unescaped in place, write pointer never overtakes read pointer
+        int fieldCount = 0;
+        long fieldLo = lo;
+        long w = lo;
+        boolean nullValue = false;
+        for (long p = lo; p < hi; p++) {
+            byte b = Unsafe.getUnsafe().getByte(p);
+            if (b == delimiter) {
+                setTextField(fieldCount++, fieldLo, w, nullValue);
+                fieldLo = w;
+                nullValue = false;
+                continue;
+            }
+            if (b == '\\' && p + 1 < hi) {
+                b = Unsafe.getUnsafe().getByte(++p);
+                switch (b) {
+                    case 'N':
+                        if (w == fieldLo) {
+                            nullValue = true;
+                            continue;
+                        }
+                        break;
+                    case 'b':
+                        b = '\b';
+                        break;
+                    case 'f':
+                        b = '\f';
+                        break;
+                    case 'n':
+                        b = '\n';
+                        break;
+                    case 'r':
+                        b = '\r';
+                        break;
+                    case 't':
+                        b = '\t';
+                        break;
+                    case 'v':
+                        b = 11;
+                        break;
+                    case 'x':
+                        if (p + 1 < hi && isHexDigit(Unsafe.getUnsafe().getByte(p + 1))) {
+                            int v = Numbers.hexNumbers[Unsafe.getUnsafe().getByte(++p)];
+                            if (p + 1 < hi && isHexDigit(Unsafe.getUnsafe().getByte(p + 1))) {
+                                v = v * 16 + Numbers.hexNumbers[Unsafe.getUnsafe().getByte(++p)];
+                            }
+                            b = (byte) v;
+                        }
+                        break;
+                    default:
+                        if (b >= '0' && b <= '7') {
+                            int v = b - '0';
+                            for (int i = 0; i < 2 && p + 1 < hi; i++) {
+                                final byte d = Unsafe.getUnsafe().getByte(p + 1);
+                                if (d < '0' || d > '7') {
+                                    break;
+                                }
+                                v = v * 8 + d - '0';
+                                p++;
+                            }
+                            b = (byte) v;
+                        }
+                        break;
+                }
+            }
+            Unsafe.getUnsafe().putByte(w++, b);
+        }
+        setTextField(fieldCount++, fieldLo, w, nullValue);
+        appendRow(fields, fieldCount);
+    }
+
+    private void parseBinary(long lo, long hi) {
+        long p = lo;
+        // complete header or tuple started by previous message, appending only bytes it needs
+        while (carrySize > 0) {
+            final long size = binaryFrameSize(carryPtr, carryPtr + carrySize);
+            if (size > 0) {
+                onBinaryFrame(carryPtr, carryPtr + size);
+                carrySize = 0;
+            } else if (p < hi) {
+                final long n = Math.min(-size, hi - p);
+                appendCarry(p, p + n);
+                p += n;
+            } else {
+                return;
+            }
+        }
+
+        while (p < hi && !done) {
+            final long size = binaryFrameSize(p, hi);
+            if (size < 0) {
+                appendCarry(p, hi);
+                return;
+            }
+            onBinaryFrame(p, p + size);
+            p += size;
+        }
+    }
+
+    private void parseText(long lo, long hi) {
+        long p = lo;
+        if (carrySize > 0) {
+            final long eol = findEol(lo, hi);
+            if (eol == hi) {
+                appendCarry(lo, hi);
+                return;
+            }
+            appendCarry(lo, eol);
+            final long size = carrySize;
+            carrySize = 0;
+            onTextLine(carryPtr, carryPtr + size);
+            p = eol + 1;
+        }
+
+        while (p < hi && !done) {
+            final long eol = findEol(p, hi);
+            if (eol == hi) {
+                appendCarry(p, hi);
+                return;
+            }
+            onTextLine(p, eol);
+            p = eol + 1;
+        }
+    }
+
+    private void putBinaryValue(TableWriter.Row row, int field, DirectByteCharSequence value) throws Exception {
+        final int columnIndex = columnIndexes.getQuick(field);
+        final int columnType = writer.getMetadata().getColumnType(columnIndex);
+        final long lo = value.getLo();
+        final int len = value.length();
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                row.putBool(columnIndex, binaryInt(lo, len) != 0);
+                break;
+            case ColumnType.BYTE:
+                row.putByte(columnIndex, (byte) binaryInt(lo, len));
+                break;
+            case ColumnType.SHORT:
+                row.putShort(columnIndex, (short) binaryInt(lo, len));
+                break;
+            case ColumnType.INT:
+                row.putInt(columnIndex, (int) binaryInt(lo, len));
+                break;
+            case ColumnType.LONG:
+                row.putLong(columnIndex, binaryInt(lo, len));
+                break;
+            case ColumnType.FLOAT:
+                row.putFloat(columnIndex, (float) binaryDouble(lo, len));
+                break;
+            case ColumnType.DOUBLE:
+                row.putDouble(columnIndex, binaryDouble(lo, len));
+                break;
+            case ColumnType.TIMESTAMP:
+                row.putTimestamp(columnIndex, binaryTimestamp(lo, len));
+                break;
+            case ColumnType.DATE:
+                row.putDate(columnIndex, binaryTimestamp(lo, len) / 1000);
+                break;
+            case ColumnType.CHAR:
+                row.putChar(columnIndex, utf8Decode(value).charAt(0));
+                break;
+            case ColumnType.STRING:
+                row.putStr(columnIndex, utf8Decode(value));
+                break;
+            case ColumnType.SYMBOL:
+                row.putSym(columnIndex, utf8Decode(value));
+                break;
+            case ColumnType.BINARY:
+                row.putBin(columnIndex, lo, len);
+                break;
+            default:
+                // long256 and geohashes are sent as text
+                adapters.getQuick(field).write(row, columnIndex, value);
+                break;
+        }
+    }
+
+    private void putTextValue(TableWriter.Row row, int field, DirectByteCharSequence value) throws Exception {
+        final int columnIndex = columnIndexes.getQuick(field);
+        final int columnType = writer.getMetadata().getColumnType(columnIndex);
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                row.putBool(columnIndex, parseBoolean(value));
+                break;
+            case ColumnType.TIMESTAMP:
+                row.putTimestamp(columnIndex, SqlUtil.implicitCastStrAsTimestamp(value));
+                break;
+            case ColumnType.DATE:
+                row.putDate(columnIndex, SqlUtil.implicitCastStrAsDate(value));
+                break;
+            case ColumnType.BINARY:
+                putHexBinary(row, columnIndex, value);
+                break;
+            case ColumnType.STRING:
+                if (format == CopyModel.FORMAT_TEXT) {
+                    row.putStr(columnIndex, utf8Decode(value));
+                    break;
+                }
+                // fall through, CSV adapter takes care of escaped quotes
+            default:
+                if (format == CopyModel.FORMAT_TEXT && ColumnType.isSymbol(columnType)) {
+                    row.putSym(columnIndex, utf8Decode(value));
+                } else {
+                    adapters.getQuick(field).write(row, columnIndex, value, utf8Sink);
+                }
+                break;
+        }
+    }
+
+    // bytea in hex format, e.g. \x0a0b, is decoded in place
+    private void putHexBinary(TableWriter.Row row, int columnIndex, DirectByteCharSequence value) throws NumericException {
+        final long lo = value.getLo();
+        final long hi = value.getHi();
+        if (hi - lo < 2 || Unsafe.getUnsafe().getByte(lo) != '\\' || Unsafe.getUnsafe().getByte(lo + 1) != 'x' || (hi - lo) % 2 != 0) {
+            throw NumericException.INSTANCE;
+        }
+        long w = lo;
+        for (long p = lo + 2; p < hi; p += 2) {
+            final int v = hexDigit(Unsafe.getUnsafe().getByte(p)) * 16 + hexDigit(Unsafe.getUnsafe().getByte(p + 1));
+            Unsafe.getUnsafe().putByte(w++, (byte) v);
+        }
+        row.putBin(columnIndex, lo, w - lo);
+    }
+
+    private void setTextField(int index, long lo, long hi, boolean nullValue) {
+        if (nullValue && lo == hi) {
+            field(index).of(0, 0);
+        } else {
+            field(index).of(lo, hi);
+        }
+    }
+
+    private CharSequence utf8Decode(DirectByteCharSequence value) {
+        utf8Sink.clear();
+        if (!Chars.utf8Decode(value.getLo(), value.getHi(), utf8Sink)) {
+            throw CairoException.nonCritical().put("invalid UTF8 bytes");
+        }
+        return utf8Sink;
+    }
+}
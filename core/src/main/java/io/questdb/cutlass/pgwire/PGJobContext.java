@@ -41,7 +41,6 @@ import java.io.Closeable;
 public class PGJobContext implements Closeable {
 
     private final SqlCompiler compiler;
-    private final AssociativeCache<TypesAndSelect> typesAndSelectCache;
     private final WeakSelfReturningObjectPool<TypesAndSelect> typesAndSelectPool;
     private final AssociativeCache<TypesAndUpdate> typesAndUpdateCache;
     private final WeakSelfReturningObjectPool<TypesAndUpdate> typesAndUpdatePool;
@@ -56,11 +55,8 @@ public class PGJobContext implements Closeable {
 
         final Metrics metrics = engine.getMetrics();
 
-        final boolean enableSelectCache = configuration.isSelectCacheEnabled();
-        final int blockCount = enableSelectCache ? configuration.getSelectCacheBlockCount() : 1;
-        final int rowCount = enableSelectCache ? configuration.getSelectCacheRowCount() : 1;
-        typesAndSelectCache = new AssociativeCache<>(blockCount, rowCount, metrics.pgWire().cachedSelectsGauge());
-        typesAndSelectPool = new WeakSelfReturningObjectPool<>(TypesAndSelect::new, blockCount * rowCount);
+        // select factories are cached by the engine, the pool holds containers of in-flight queries only
+        typesAndSelectPool = new WeakSelfReturningObjectPool<>(TypesAndSelect::new, 16);
 
         final boolean enabledUpdateCache = configuration.isUpdateCacheEnabled();
         final int updateBlockCount = enabledUpdateCache ? configuration.getUpdateCacheBlockCount() : 1; // 8
@@ -72,12 +68,11 @@ public class PGJobContext implements Closeable {
     @Override
     public void close() {
         Misc.free(compiler);
-        Misc.free(typesAndSelectCache);
         Misc.free(typesAndUpdateCache);
     }
 
     public void flushQueryCache() {
-        typesAndSelectCache.clear();
+        // select factories are flushed from the engine cache by flush_query_cache() itself
         typesAndUpdateCache.clear();
     }
 
@@ -88,7 +83,6 @@ public class PGJobContext implements Closeable {
             BadProtocolException {
         context.handleClientOperation(
                 compiler,
-                typesAndSelectCache,
                 typesAndSelectPool,
                 typesAndUpdateCache,
                 typesAndUpdatePool,
@@ -91,6 +91,10 @@ public interface PGWireConfiguration extends WorkerPoolConfiguration {
 
     boolean isInsertCacheEnabled();
 
+    default boolean isInsertPipelineEnabled() {
+        return false;
+    }
+
     boolean isSelectCacheEnabled();
 
     boolean isUpdateCacheEnabled();
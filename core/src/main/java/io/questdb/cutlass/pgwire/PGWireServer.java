@@ -37,6 +37,7 @@ import io.questdb.mp.SCSequence;
 import io.questdb.mp.WorkerPool;
 import io.questdb.network.*;
 import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
 import io.questdb.std.ObjectFactory;
 import io.questdb.std.QuietCloseable;
 import org.jetbrains.annotations.TestOnly;
@@ -49,7 +50,7 @@ public class PGWireServer implements Closeable {
 
     private static final Log LOG = LogFactory.getLog(PGWireServer.class);
 
-    private final IODispatcher<PGConnectionContext> dispatcher;
+    private final ObjList<IODispatcher<PGConnectionContext>> dispatchers;
     private final Metrics metrics;
     private final WorkerPool workerPool;
 
@@ -61,16 +62,16 @@ public class PGWireServer implements Closeable {
             DatabaseSnapshotAgent snapshotAgent,
             PGConnectionContextFactory contextFactory
     ) {
-        this.dispatcher = IODispatchers.create(
+        this.dispatchers = IODispatchers.create(
                 configuration.getDispatcherConfiguration(),
-                contextFactory
+                contextFactory,
+                workerPool
         );
         this.metrics = engine.getMetrics();
         this.workerPool = workerPool;
 
-        workerPool.assign(dispatcher);
-
         for (int i = 0, n = workerPool.getWorkerCount(); i < n; i++) {
+            final IODispatcher<PGConnectionContext> dispatcher = IODispatchers.forWorker(dispatchers, i);
             final PGJobContext jobContext = new PGJobContext(configuration, engine, functionFactoryCache, snapshotAgent);
 
             final SCSequence queryCacheEventSubSeq = new SCSequence();
@@ -120,15 +121,17 @@ public class PGWireServer implements Closeable {
                 queryCacheEventSubSeq.clear();
             });
         }
+        // release cached select factories along with the server, like the worker-local caches did
+        workerPool.freeOnExit(engine.getQueryFactoryCache());
     }
 
     @Override
     public void close() {
-        Misc.free(dispatcher);
+        Misc.freeObjList(dispatchers);
     }
 
     public int getPort() {
-        return dispatcher.getPort();
+        return dispatchers.getQuick(0).getPort();
     }
 
     @TestOnly
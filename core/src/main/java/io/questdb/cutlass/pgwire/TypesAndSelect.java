@@ -26,6 +26,7 @@ package io.questdb.cutlass.pgwire;
 
 import io.questdb.cairo.sql.BindVariableService;
 import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.std.IntList;
 import io.questdb.std.Misc;
 import io.questdb.std.WeakSelfReturningObjectPool;
 
@@ -50,4 +51,18 @@ public class TypesAndSelect extends AbstractTypeContainer<TypesAndSelect> {
         this.factory = factory;
         copyTypesFrom(bindVariableService);
     }
+
+    public void of(RecordCursorFactory factory, IntList types) {
+        this.factory = factory;
+        copyTypesFrom(types);
+    }
+
+    /**
+     * Transfers factory ownership to the caller, the container no longer frees it on close.
+     */
+    public RecordCursorFactory takeFactory() {
+        final RecordCursorFactory factory = this.factory;
+        this.factory = null;
+        return factory;
+    }
 }
@@ -27,11 +27,11 @@ package io.questdb.griffin;
 import io.questdb.cairo.sql.InsertOperation;
 import io.questdb.cairo.sql.OperationFuture;
 import io.questdb.cairo.sql.RecordCursorFactory;
-import io.questdb.cutlass.text.TextLoader;
 import io.questdb.griffin.engine.ops.AbstractOperation;
 import io.questdb.griffin.engine.ops.AlterOperation;
 import io.questdb.griffin.engine.ops.OperationDispatcher;
 import io.questdb.griffin.engine.ops.UpdateOperation;
+import io.questdb.griffin.model.CopyModel;
 import io.questdb.mp.SCSequence;
 
 public interface CompiledQuery {
@@ -80,6 +80,13 @@ public interface CompiledQuery {
 
     AlterOperation getAlterOperation();
 
+    /**
+     * Returns parsed COPY FROM STDIN or COPY TO STDOUT statement. The model is owned
+     * by the compiler and is valid only until the next compilation. Results of
+     * COPY TO STDOUT are available via {@link #getRecordCursorFactory()}.
+     */
+    CopyModel getCopyModel();
+
     <T extends AbstractOperation> OperationDispatcher<T> getDispatcher();
 
     InsertOperation getInsertOperation();
@@ -93,8 +100,6 @@ public interface CompiledQuery {
      */
     CharSequence getStatementName();
 
-    TextLoader getTextLoader();
-
     short getType();
 
     UpdateOperation getUpdateOperation();
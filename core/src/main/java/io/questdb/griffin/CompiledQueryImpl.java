@@ -28,8 +28,8 @@ import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.sql.InsertOperation;
 import io.questdb.cairo.sql.OperationFuture;
 import io.questdb.cairo.sql.RecordCursorFactory;
-import io.questdb.cutlass.text.TextLoader;
 import io.questdb.griffin.engine.ops.*;
+import io.questdb.griffin.model.CopyModel;
 import io.questdb.mp.SCSequence;
 import io.questdb.std.Chars;
 import org.jetbrains.annotations.Nullable;
@@ -41,12 +41,12 @@ public class CompiledQueryImpl implements CompiledQuery {
     // number of rows either returned by SELECT operation or affected by UPDATE or INSERT
     private long affectedRowsCount;
     private AlterOperation alterOperation;
+    private CopyModel copyModel;
     private InsertOperation insertOperation;
     private RecordCursorFactory recordCursorFactory;
     private SqlExecutionContext sqlExecutionContext;
     // prepared statement name for DEALLOCATE operation
     private CharSequence statementName;
-    private TextLoader textLoader;
     private short type;
     private UpdateOperation updateOperation;
 
@@ -79,6 +79,11 @@ public class CompiledQueryImpl implements CompiledQuery {
         return alterOperation;
     }
 
+    @Override
+    public CopyModel getCopyModel() {
+        return copyModel;
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public <T extends AbstractOperation> OperationDispatcher<T> getDispatcher() {
@@ -122,11 +127,6 @@ public class CompiledQueryImpl implements CompiledQuery {
         return statementName;
     }
 
-    @Override
-    public TextLoader getTextLoader() {
-        return textLoader;
-    }
-
     @Override
     public short getType() {
         return type;
@@ -198,9 +198,9 @@ public class CompiledQueryImpl implements CompiledQuery {
         return this;
     }
 
-    CompiledQuery ofCopyRemote(TextLoader textLoader) {
-        this.textLoader = textLoader;
-        return of(COPY_REMOTE);
+    CompiledQuery ofCopyRemote(CopyModel copyModel, @Nullable RecordCursorFactory factory) {
+        this.copyModel = copyModel;
+        return of(COPY_REMOTE, factory);
     }
 
     CompiledQuery ofCreateTable() {
@@ -51,6 +51,11 @@ public class DefaultSqlExecutionCircuitBreakerConfiguration implements SqlExecut
         return NetworkFacadeImpl.INSTANCE;
     }
 
+    @Override
+    public long getQueryMemoryLimit() {
+        return 0;
+    }
+
     @Override
     public long getTimeout() {
         return Long.MAX_VALUE;
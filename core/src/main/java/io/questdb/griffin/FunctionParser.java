@@ -59,6 +59,8 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
     // order of values matters here, partial match must have greater value than fuzzy match
     private static final int MATCH_NO_MATCH = 0;
     private static final int MATCH_PARTIAL_MATCH = 2;
+    // functions that may return different values on every execution
+    private static final LowerCaseAsciiCharSequenceHashSet nonDeterministicFunctions = new LowerCaseAsciiCharSequenceHashSet();
     private final CairoConfiguration configuration;
     private final FunctionFactoryCache functionFactoryCache;
     private final ArrayDeque<Function> functionStack = new ArrayDeque<>();
@@ -70,6 +72,7 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
     private final PostOrderTreeTraversalAlgo traverseAlgo = new PostOrderTreeTraversalAlgo();
     private final IntList undefinedVariables = new IntList();
     private RecordMetadata metadata;
+    private boolean resultCacheable = true;
     private SqlCodeGenerator sqlCodeGenerator;
     private SqlExecutionContext sqlExecutionContext;
 
@@ -144,6 +147,7 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
     @Override
     public void clear() {
         this.sqlExecutionContext = null;
+        this.resultCacheable = true;
     }
 
     public Function createBindVariable(SqlExecutionContext sqlExecutionContext, int position, CharSequence name) throws SqlException {
@@ -193,6 +197,14 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
         return functionFactoryCache;
     }
 
+    /**
+     * @return false when functions parsed since the last {@link #clear()} make query result
+     * unsuitable for caching, e.g. now() or rnd_int()
+     */
+    public boolean isResultCacheable() {
+        return resultCacheable;
+    }
+
     /**
      * Creates function instance. When node type is {@link ExpressionNode#LITERAL} a column or parameter
      * function is returned. We will be using the supplied {@link #metadata} to resolve type of column. When node token
@@ -370,6 +382,10 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
         return ex;
     }
 
+    private static boolean isNonDeterministic(CharSequence name) {
+        return nonDeterministicFunctions.contains(name) || (name.length() > 4 && Chars.equalsLowerCaseAscii(name, 0, 4, "rnd_", 0, 4));
+    }
+
     private Function checkAndCreateFunction(
             FunctionFactory factory,
             @Transient ObjList<Function> args,
@@ -523,6 +539,10 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
             throw invalidFunction(node, args);
         }
 
+        if (isNonDeterministic(node.token)) {
+            resultCacheable = false;
+        }
+
         final int argCount = args == null ? 0 : args.size();
         FunctionFactory candidate = null;
         FunctionFactoryDescriptor candidateDescriptor = null;
@@ -796,6 +816,8 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
         if (function == null) {
             throw SqlException.position(position).put("undefined bind variable: ").put(name);
         }
+        // result cache keys include indexed bind variables only
+        resultCacheable = false;
         return new NamedParameterLinkFunction(Chars.toString(name), function.getType());
     }
 
@@ -947,5 +969,10 @@ public class FunctionParser implements PostOrderTreeTraversalAlgo.Visitor, Mutab
         FunctionFactoryCache.invalidFunctionNameChars.add(' ');
         FunctionFactoryCache.invalidFunctionNameChars.add('\"');
         FunctionFactoryCache.invalidFunctionNameChars.add('\'');
+
+        nonDeterministicFunctions.add("now");
+        nonDeterministicFunctions.add("sysdate");
+        nonDeterministicFunctions.add("systimestamp");
+        nonDeterministicFunctions.add("timestamp_shuffle");
     }
 }
@@ -61,7 +61,13 @@ public class InsertRowImpl {
 
     public void append(TableWriter writer) throws SqlException {
         final TableWriter.Row row = rowFactory.getRow(writer);
-        copier.copy(virtualRecord, row);
+        try {
+            copier.copy(virtualRecord, row);
+        } catch (Throwable e) {
+            // writer may outlive the failed statement when it is part of a transaction
+            row.cancel();
+            throw e;
+        }
         row.append();
     }
 
@@ -32,6 +32,7 @@ import io.questdb.cairo.sql.*;
 import io.questdb.cairo.sql.async.PageFrameReduceTask;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.engine.CachedResultRecordCursorFactory;
 import io.questdb.griffin.engine.EmptyTableRecordCursorFactory;
 import io.questdb.griffin.engine.LimitOverflowException;
 import io.questdb.griffin.engine.LimitRecordCursorFactory;
@@ -62,6 +63,7 @@ import io.questdb.jit.JitUtil;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
 import io.questdb.std.*;
+import io.questdb.std.str.StringSink;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -99,6 +101,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     private final CairoEngine engine;
     private final EntityColumnFilter entityColumnFilter = new EntityColumnFilter();
     private final ObjectPool<ExpressionNode> expressionNodePool;
+    private final IntHashSet filterColumnIndexes = new IntHashSet();
     private final FunctionParser functionParser;
     private final IntList groupByFunctionPositions = new IntList();
     private final ObjObjHashMap<IntList, ObjList<AnalyticFunction>> groupedAnalytic = new ObjObjHashMap<>();
@@ -114,6 +117,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     private final RecordComparatorCompiler recordComparatorCompiler;
     private final IntList recordFunctionPositions = new IntList();
     private final WeakClosableObjectPool<PageFrameReduceTask> reduceTaskPool;
+    // tables read by the query being generated, along with their ids and structure versions
+    private final ObjList<String> resultCacheTableNames = new ObjList<>();
     private final IntList tempAggIndex = new IntList();
     private final IntList tempKeyIndex = new IntList();
     private final IntList tempKeyIndexesInBase = new IntList();
@@ -127,6 +132,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
     private final WhereClauseParser whereClauseParser = new WhereClauseParser();
     private boolean enableJitNullChecks = true;
     private boolean fullFatJoins = false;
+    private boolean resultCacheable = true;
 
     public SqlCodeGenerator(
             CairoEngine engine,
@@ -145,22 +151,20 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         jitIRMem.putByte((byte) 0);
         jitIRMem.truncate();
         this.expressionNodePool = expressionNodePool;
-        this.reduceTaskPool = new WeakClosableObjectPool<>(
-                () -> new PageFrameReduceTask(configuration),
-                configuration.getPageFrameReduceTaskPoolCapacity()
-        );
+        this.reduceTaskPool = engine.getReduceTaskPool();
     }
 
     @Override
     public void clear() {
         whereClauseParser.clear();
         intListPool.clear();
+        resultCacheTableNames.clear();
+        resultCacheable = true;
     }
 
     @Override
     public void close() {
         Misc.free(jitIRMem);
-        Misc.free(reduceTaskPool);
     }
 
     @NotNull
@@ -181,6 +185,90 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return generateQuery(model, executionContext, true);
     }
 
+    /**
+     * Wraps factory of the top-level query, so that its results are served from the engine's
+     * result cache while the tables it reads remain unchanged. Queries that read no tables,
+     * read table functions or use non-deterministic functions are not cached. Neither are
+     * plain table scans, they are cheap to repeat and tend to be large.
+     *
+     * @param factory factory generated since the last {@link #clear()}
+     * @param sql     query text the factory was generated from
+     * @return caching factory or the original factory when the query cannot be cached
+     */
+    public RecordCursorFactory generateResultCache(RecordCursorFactory factory, CharSequence sql) {
+        if (
+                !configuration.isSqlResultCacheEnabled()
+                        || !resultCacheable
+                        || !functionParser.isResultCacheable()
+                        || resultCacheTableNames.size() == 0
+                        || factory.supportPageFrameCursor()
+        ) {
+            return factory;
+        }
+
+        final RecordMetadata metadata = factory.getMetadata();
+        final GenericRecordMetadata cachedMetadata = new GenericRecordMetadata();
+        final ArrayColumnTypes chainColumnTypes = new ArrayColumnTypes();
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            final int columnType = metadata.getColumnType(i);
+            switch (ColumnType.tagOf(columnType)) {
+                case ColumnType.BOOLEAN:
+                case ColumnType.BYTE:
+                case ColumnType.SHORT:
+                case ColumnType.CHAR:
+                case ColumnType.INT:
+                case ColumnType.LONG:
+                case ColumnType.DATE:
+                case ColumnType.TIMESTAMP:
+                case ColumnType.FLOAT:
+                case ColumnType.DOUBLE:
+                case ColumnType.STRING:
+                case ColumnType.BINARY:
+                case ColumnType.LONG128:
+                case ColumnType.LONG256:
+                case ColumnType.GEOBYTE:
+                case ColumnType.GEOSHORT:
+                case ColumnType.GEOINT:
+                case ColumnType.GEOLONG:
+                    chainColumnTypes.add(columnType);
+                    break;
+                case ColumnType.SYMBOL:
+                    // cached symbols are resolved to strings
+                    chainColumnTypes.add(ColumnType.STRING);
+                    break;
+                default:
+                    return factory;
+            }
+            // cached results have no symbol tables to share
+            cachedMetadata.add(new TableColumnMetadata(
+                    metadata.getColumnName(i),
+                    metadata.getColumnHash(i),
+                    columnType,
+                    false,
+                    0,
+                    false,
+                    null
+            ));
+        }
+        cachedMetadata.setTimestampIndex(metadata.getTimestampIndex());
+
+        entityColumnFilter.of(metadata.getColumnCount());
+        final RecordSink recordSink = RecordSinkFactory.getInstance(asm, metadata, entityColumnFilter, true);
+
+        final StringSink normalizedSql = Misc.getThreadLocalBuilder();
+        QueryFactoryCache.normalize(sql, normalizedSql);
+
+        return new CachedResultRecordCursorFactory(
+                engine,
+                cachedMetadata,
+                factory,
+                Chars.toString(normalizedSql),
+                new ObjList<>(resultCacheTableNames),
+                chainColumnTypes,
+                recordSink
+        );
+    }
+
     private static boolean allGroupsFirstLastWithSingleSymbolFilter(QueryModel model, RecordMetadata metadata) {
         final ObjList<QueryColumn> columns = model.getColumns();
         for (int i = 0, n = columns.size(); i < n; i++) {
@@ -241,6 +329,10 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return model.getOrderByDirectionAdvice().getQuick(index);
     }
 
+    private void addResultCacheTable(TableReader reader) {
+        resultCacheTableNames.add(reader.getTableName());
+    }
+
     private VectorAggregateFunctionConstructor assembleFunctionReference(RecordMetadata metadata, ExpressionNode ast) {
         int columnIndex;
         if (ast.type == FUNCTION && ast.paramCount == 1 && SqlKeywords.isSumKeyword(ast.token) && ast.rhs.type == LITERAL) {
@@ -358,6 +450,24 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return false;
     }
 
+    private void collectFilterColumns(ExpressionNode node, RecordMetadata metadata) {
+        if (node == null) {
+            return;
+        }
+        if (node.type == LITERAL) {
+            final int columnIndex = metadata.getColumnIndexQuiet(node.token);
+            if (columnIndex > -1) {
+                filterColumnIndexes.add(columnIndex);
+            }
+            return;
+        }
+        collectFilterColumns(node.lhs, metadata);
+        collectFilterColumns(node.rhs, metadata);
+        for (int i = 0, n = node.args.size(); i < n; i++) {
+            collectFilterColumns(node.args.getQuick(i), metadata);
+        }
+    }
+
     @Nullable
     private Function compileFilter(
             IntrinsicModel intrinsicModel,
@@ -1282,8 +1392,8 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         }
 
         final boolean enableParallelFilter = configuration.isSqlParallelFilterEnabled();
-        final boolean preTouchColumns = configuration.isSqlParallelFilterPreTouchEnabled();
         if (enableParallelFilter && factory.supportPageFrameCursor()) {
+            final IntList preTouchColumnIndexes = getPreTouchColumnIndexes(filterExpr, factory.getMetadata());
 
             final boolean useJit = executionContext.getJitMode() != SqlJitMode.JIT_MODE_DISABLED;
             final boolean canCompile = factory.supportPageFrameCursor() && JitUtil.isJitSupported();
@@ -1324,7 +1434,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                             reduceTaskPool,
                             limitLoFunction,
                             limitLoPos,
-                            preTouchColumns
+                            preTouchColumnIndexes
                     );
                 } catch (SqlException | LimitOverflowException ex) {
                     Misc.free(jitFilter);
@@ -1363,13 +1473,15 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     ),
                     limitLoFunction,
                     limitLoPos,
-                    preTouchColumns
+                    preTouchColumnIndexes
             );
         }
         return new FilteredRecordCursorFactory(factory, filter);
     }
 
     private RecordCursorFactory generateFunctionQuery(QueryModel model, SqlExecutionContext executionContext) throws SqlException {
+        // table functions, such as tables() or reader_pool(), do not have txns to validate cached results against
+        resultCacheable = false;
         final Function function = model.getTableNameFunction();
         if (function != null) {
             // We're transferring ownership of the function's factory to another factory
@@ -1612,7 +1724,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                                 ),
                                 null,
                                 0,
-                                false
+                                null
                         );
                     } else {
                         master = new FilteredRecordCursorFactory(
@@ -2089,6 +2201,37 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         }
     }
 
+    private RecordCursorFactory generateParallelLatestBy(
+            QueryModel model,
+            SqlExecutionContext executionContext,
+            String tableName,
+            RecordMetadata metadata,
+            IntList columnIndexes,
+            IntList columnSizes
+    ) {
+        final RecordCursorFactory base = new DataFrameRecordCursorFactory(
+                configuration,
+                metadata,
+                new FullBwdDataFrameCursorFactory(tableName, model.getTableId(), model.getTableVersion()),
+                new BwdDataFrameRowCursorFactory(),
+                false,
+                null,
+                true,
+                columnIndexes,
+                columnSizes,
+                true
+        );
+        return new LatestByAllParallelRecordCursorFactory(
+                configuration,
+                executionContext.getMessageBus(),
+                base,
+                RecordSinkFactory.getInstance(asm, metadata, listColumnFilterA, false),
+                keyTypes,
+                reduceTaskPool,
+                executionContext.getSharedWorkerCount()
+        );
+    }
+
     private RecordCursorFactory generateQuery(QueryModel model, SqlExecutionContext executionContext, boolean processJoins) throws SqlException {
         RecordCursorFactory factory = generateQuery0(model, executionContext, processJoins);
         if (model.getUnionModel() != null) {
@@ -2865,6 +3008,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         ) {
             CharSequence tableName = tableNameEn.token;
             try (TableReader reader = engine.getReader(executionContext.getCairoSecurityContext(), tableName)) {
+                addResultCacheTable(reader);
                 CharSequence columnName = model.getBottomUpColumnNames().get(0);
                 TableReaderMetadata readerMetadata = reader.getMetadata();
                 int columnIndex = readerMetadata.getColumnIndex(columnName);
@@ -3009,8 +3153,13 @@ public class SqlCodeGenerator implements Mutable, Closeable {
 
             RecordMetadata metadata = factory.getMetadata();
 
+            // Filtered rows can be aggregated by vector functions too, as long as there are no keys.
+            final boolean filteredFramingSupported = !pageFramingSupported
+                    && !specialCaseKeys
+                    && GroupByNotKeyedVectorRecordCursorFactory.supportsFilteredBase(factory);
+
             // Inspect model for possibility of vector aggregate intrinsics.
-            if (pageFramingSupported && assembleKeysAndFunctionReferences(columns, metadata, !specialCaseKeys)) {
+            if ((pageFramingSupported || filteredFramingSupported) && assembleKeysAndFunctionReferences(columns, metadata, !specialCaseKeys)) {
                 // Create metadata from everything we've gathered.
                 GenericRecordMetadata meta = new GenericRecordMetadata();
 
@@ -3072,7 +3221,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                     );
                 }
 
-                if (tempKeyIndexesInBase.size() == 1) {
+                if (pageFramingSupported && tempKeyIndexesInBase.size() == 1) {
                     for (int i = 0, n = tempVaf.size(); i < n; i++) {
                         tempVaf.getQuick(i).pushValueTypes(arrayColumnTypes);
                     }
@@ -3477,6 +3626,7 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 model.getTableId(),
                 model.getTableVersion())
         ) {
+            addResultCacheTable(reader);
             final RecordMetadata readerMeta = reader.getMetadata();
 
             // create metadata based on top-down columns that are required
@@ -3944,6 +4094,10 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 }
             }
 
+            if (isParallelLatestBySupported(framingSupported, executionContext)) {
+                return generateParallelLatestBy(model, executionContext, tableName, myMeta, columnIndexes, columnSizes);
+            }
+
             return new LatestByAllFilteredRecordCursorFactory(
                     myMeta,
                     configuration,
@@ -4032,6 +4186,31 @@ public class SqlCodeGenerator implements Mutable, Closeable {
         return toLimitFunction(executionContext, model.getLimitLo(), LongConstant.ZERO);
     }
 
+    /**
+     * Late materialization for parallel filters: only the columns that are not referenced by the filter
+     * are pre-touched by the reduce workers, and only for the rows that passed the filter.
+     *
+     * @return indexes of the non-filter columns or null if there is nothing to pre-touch
+     */
+    @Nullable
+    private IntList getPreTouchColumnIndexes(ExpressionNode filterExpr, RecordMetadata metadata) {
+        if (!configuration.isSqlParallelFilterPreTouchEnabled()) {
+            return null;
+        }
+        filterColumnIndexes.clear();
+        collectFilterColumns(filterExpr, metadata);
+        IntList columnIndexes = null;
+        for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+            if (filterColumnIndexes.excludes(i)) {
+                if (columnIndexes == null) {
+                    columnIndexes = new IntList();
+                }
+                columnIndexes.add(i);
+            }
+        }
+        return columnIndexes;
+    }
+
     private int getTimestampIndex(QueryModel model, RecordCursorFactory factory) throws SqlException {
         return getTimestampIndex(model, factory.getMetadata());
     }
@@ -4057,6 +4236,10 @@ public class SqlCodeGenerator implements Mutable, Closeable {
                 getOrderByDirectionOrDefault(model, 0) == ORDER_DIRECTION_DESCENDING;
     }
 
+    private boolean isParallelLatestBySupported(boolean framingSupported, SqlExecutionContext executionContext) {
+        return framingSupported && configuration.isSqlParallelLatestByEnabled() && executionContext.getSharedWorkerCount() > 0;
+    }
+
     private boolean isSingleColumnFunction(ExpressionNode ast, CharSequence name) {
         return ast.type == FUNCTION && ast.paramCount == 1 && Chars.equalsIgnoreCase(ast.token, name) && ast.rhs.type == LITERAL;
     }
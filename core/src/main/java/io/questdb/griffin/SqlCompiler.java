@@ -102,7 +102,6 @@ public class SqlCompiler implements Closeable {
     private final ObjectPool<ExpressionNode> sqlNodePool;
     private final TableStructureAdapter tableStructureAdapter = new TableStructureAdapter();
     private final ObjList<TableWriter> tableWriters = new ObjList<>();
-    private final TextLoader textLoader;
     private final IntIntHashMap typeCast = new IntIntHashMap();
     private final VacuumColumnVersions vacuumColumnVersions;
     // Helper var used to pass back count in cases it can't be done via method result.
@@ -225,7 +224,6 @@ public class SqlCompiler implements Closeable {
                 queryModelPool,
                 postOrderTreeTraversalAlgo
         );
-        this.textLoader = new TextLoader(engine);
         alterOperationBuilder = new AlterOperationBuilder();
     }
 
@@ -247,7 +245,6 @@ public class SqlCompiler implements Closeable {
         vacuumColumnVersions.close();
         Misc.free(path);
         Misc.free(renamePath);
-        Misc.free(textLoader);
         Misc.free(rebuildIndex);
         Misc.free(codeGenerator);
         Misc.free(mem);
@@ -1171,7 +1168,9 @@ public class SqlCompiler implements Closeable {
         switch (executionModel.getModelType()) {
             case ExecutionModel.QUERY:
                 LOG.info().$("plan [q=`").$((QueryModel) executionModel).$("`, fd=").$(executionContext.getRequestFd()).$(']').$();
-                return compiledQuery.of(generate((QueryModel) executionModel, executionContext));
+                final RecordCursorFactory factory = generate((QueryModel) executionModel, executionContext);
+                // query text is known upfront in single query mode only
+                return compiledQuery.of(isSingleQueryMode ? codeGenerator.generateResultCache(factory, lexer.getContent()) : factory);
             case ExecutionModel.CREATE_TABLE:
                 return createTableWithRetries(executionModel, executionContext);
             case ExecutionModel.COPY:
@@ -1599,11 +1598,18 @@ public class SqlCompiler implements Closeable {
 
     @NotNull
     private CompiledQuery executeCopy(SqlExecutionContext executionContext, CopyModel executionModel) throws SqlException {
+        final QueryModel queryModel = executionModel.getQueryModel();
+        if (queryModel != null) {
+            // query results are streamed to the client, e.g. over PostgreSQL wire protocol
+            final RecordCursorFactory factory = generate(optimiser.optimise(queryModel, executionContext), executionContext);
+            return compiledQuery.ofCopyRemote(executionModel, factory);
+        }
         executionContext.getCairoSecurityContext().checkWritePermission();
         if (!executionModel.isCancel() && Chars.equalsLowerCaseAscii(executionModel.getFileName().token, "stdin")) {
-            // no-op implementation
-            setupTextLoaderFromModel(executionModel);
-            return compiledQuery.ofCopyRemote(textLoader);
+            // data is streamed by the client, e.g. over PostgreSQL wire protocol
+            final ExpressionNode target = executionModel.getTarget();
+            tableExistsOrFail(target.position, target.token, executionContext);
+            return compiledQuery.ofCopyRemote(executionModel, null);
         }
         RecordCursorFactory copyFactory = executeCopy0(executionModel);
         return compiledQuery.ofCopyLocal(copyFactory);
@@ -2133,19 +2139,6 @@ public class SqlCompiler implements Closeable {
         return compiledQuery.ofRepair();
     }
 
-    private void setupTextLoaderFromModel(CopyModel model) {
-        textLoader.clear();
-        textLoader.setState(TextLoader.ANALYZE_STRUCTURE);
-        // todo: configure the following
-        //   - what happens when data row errors out, max errors may be?
-        //   - we should be able to skip X rows from top, dodgy headers etc.
-
-        textLoader.configureDestination(model.getTarget().token, false, false,
-                model.getAtomicity() != -1 ? model.getAtomicity() : Atomicity.SKIP_ROW,
-                model.getPartitionBy() < 0 ? PartitionBy.NONE : model.getPartitionBy(),
-                model.getTimestampColumnName(), model.getTimestampFormat());
-    }
-
     private CompiledQuery snapshotDatabase(SqlExecutionContext executionContext) throws SqlException {
         executionContext.getCairoSecurityContext().checkWritePermission();
         CharSequence tok = expectToken(lexer, "'prepare' or 'complete'");
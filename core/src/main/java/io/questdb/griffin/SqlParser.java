@@ -345,12 +345,48 @@ public final class SqlParser {
         return model;
     }
 
+    private void addCopyColumnName(CopyModel model, ExpressionNode node) throws SqlException {
+        if (node == null) {
+            return;
+        }
+        if (node.type != ExpressionNode.LITERAL) {
+            throw SqlException.$(node.position, "column name expected");
+        }
+        model.addColumnName(GenericLexer.immutableOf(GenericLexer.unquote(node.token)), node.position);
+    }
+
     private ExecutionModel parseCopy(GenericLexer lexer) throws SqlException {
-        if (Chars.isBlank(configuration.getSqlCopyInputRoot())) {
-            throw SqlException.$(lexer.lastTokenPosition(), "COPY is disabled ['cairo.sql.copy.root' is not set?]");
+        final int copyPosition = lexer.lastTokenPosition();
+        CharSequence tok = tok(lexer, "table name or '('");
+        if (Chars.equals(tok, '(')) {
+            // COPY (query) TO STDOUT
+            final QueryModel queryModel = parseAsSubQueryAndExpectClosingBrace(lexer, null);
+            expectTok(lexer, "to");
+            final CopyModel model = copyModelPool.next();
+            model.setQueryModel(queryModel);
+            return parseCopyToStdout(lexer, model);
         }
+        lexer.unparseLast();
+
         ExpressionNode target = expectExpr(lexer);
-        CharSequence tok = tok(lexer, "'from' or 'to' or 'cancel'");
+        tok = tok(lexer, "'from' or 'to' or 'cancel'");
+
+        if (isToKeyword(tok)) {
+            return parseCopyTableToStdout(lexer, target);
+        }
+
+        if (isFromKeyword(tok)) {
+            tok = tok(lexer, "file name or 'stdin'");
+            if (Chars.equalsLowerCaseAscii(tok, "stdin")) {
+                return parseCopyFromStdin(lexer, target, literal(lexer, tok));
+            }
+            lexer.unparseLast();
+            tok = "from";
+        }
+
+        if (Chars.isBlank(configuration.getSqlCopyInputRoot())) {
+            throw SqlException.$(copyPosition, "COPY is disabled ['cairo.sql.copy.root' is not set?]");
+        }
 
         if (isCancelKeyword(tok)) {
             CopyModel model = copyModelPool.next();
@@ -435,6 +471,124 @@ public final class SqlParser {
         throw SqlException.$(lexer.lastTokenPosition(), "'from' expected");
     }
 
+    private ExecutionModel parseCopyFromStdin(GenericLexer lexer, ExpressionNode target, ExpressionNode stdin) throws SqlException {
+        final CopyModel model = copyModelPool.next();
+        model.setFileName(stdin);
+        parseCopyTarget(model, target);
+        parseCopyStdioOptions(lexer, model, stdin.position);
+        return model;
+    }
+
+    private void parseCopyStdioOptions(GenericLexer lexer, CopyModel model, int stdioPosition) throws SqlException {
+        model.setFormat(CopyModel.FORMAT_TEXT);
+
+        // both PostgreSQL option list, e.g. WITH (FORMAT csv, HEADER true), and legacy
+        // options, e.g. WITH CSV HEADER or BINARY, are accepted
+        CharSequence tok = optTok(lexer);
+        if (tok != null && isWithKeyword(tok)) {
+            tok = optTok(lexer);
+        }
+        boolean parenthesised = false;
+        if (tok != null && Chars.equals(tok, '(')) {
+            parenthesised = true;
+            tok = tok(lexer, "copy option");
+        }
+        while (tok != null && !isSemicolon(tok)) {
+            if (Chars.equals(tok, ')') && parenthesised) {
+                parenthesised = false;
+            } else if (!Chars.equals(tok, ',')) {
+                if (isFormatKeyword(tok)) {
+                    tok = tok(lexer, "'text', 'csv' or 'binary'");
+                }
+                if (Chars.equalsLowerCaseAscii(tok, "text")) {
+                    model.setFormat(CopyModel.FORMAT_TEXT);
+                } else if (Chars.equalsLowerCaseAscii(tok, "csv")) {
+                    model.setFormat(CopyModel.FORMAT_CSV);
+                } else if (Chars.equalsLowerCaseAscii(tok, "binary")) {
+                    model.setFormat(CopyModel.FORMAT_BINARY);
+                } else if (isHeaderKeyword(tok)) {
+                    tok = optTok(lexer);
+                    if (tok != null && (isTrueKeyword(tok) || isFalseKeyword(tok))) {
+                        model.setHeader(isTrueKeyword(tok));
+                    } else {
+                        model.setHeader(true);
+                        continue;
+                    }
+                } else if (isDelimiterKeyword(tok)) {
+                    tok = tok(lexer, "delimiter character expected");
+                    CharSequence delimiter = GenericLexer.unquote(tok);
+                    if (delimiter.length() != 1 || delimiter.charAt(0) > 127) {
+                        throw SqlException.$(lexer.lastTokenPosition(), "delimiter must be a single ascii character");
+                    }
+                    model.setDelimiter((byte) delimiter.charAt(0));
+                } else {
+                    throw SqlException.$(lexer.lastTokenPosition(), "unexpected option");
+                }
+            }
+            tok = optTok(lexer);
+        }
+        if (parenthesised) {
+            throw SqlException.$(lexer.getPosition(), "')' expected");
+        }
+        if (model.getFormat() == CopyModel.FORMAT_BINARY && (model.isHeader() || model.getDelimiter() > 0)) {
+            throw SqlException.$(stdioPosition, "header and delimiter options are not supported in binary format");
+        }
+    }
+
+    private ExecutionModel parseCopyTableToStdout(GenericLexer lexer, ExpressionNode target) throws SqlException {
+        final CopyModel model = copyModelPool.next();
+        parseCopyTarget(model, target);
+
+        // COPY table TO STDOUT is a shorthand for COPY (select * from table) TO STDOUT
+        final QueryModel queryModel = queryModelPool.next();
+        queryModel.setModelPosition(target.position);
+        final ObjList<CharSequence> columnNames = model.getColumnNames();
+        if (columnNames.size() == 0) {
+            SqlUtil.addSelectStar(queryModel, queryColumnPool, expressionNodePool);
+        } else {
+            final IntList columnNamePositions = model.getColumnNamePositions();
+            for (int i = 0, n = columnNames.size(); i < n; i++) {
+                final CharSequence columnName = columnNames.getQuick(i);
+                queryModel.addBottomUpColumn(queryColumnPool.next().of(columnName, nextLiteral(columnName, columnNamePositions.getQuick(i))));
+            }
+        }
+        final QueryModel nestedModel = queryModelPool.next();
+        nestedModel.setModelPosition(target.position);
+        nestedModel.setTableName(model.getTarget());
+        queryModel.setSelectModelType(QueryModel.SELECT_MODEL_CHOOSE);
+        queryModel.setNestedModel(nestedModel);
+        model.setQueryModel(queryModel);
+        return parseCopyToStdout(lexer, model);
+    }
+
+    private void parseCopyTarget(CopyModel model, ExpressionNode target) throws SqlException {
+        // COPY table (column, ...) is parsed as a function call
+        if (target.type == ExpressionNode.FUNCTION) {
+            if (target.paramCount < 3) {
+                addCopyColumnName(model, target.lhs);
+                addCopyColumnName(model, target.rhs);
+            } else {
+                for (int i = target.paramCount - 1; i > -1; i--) {
+                    addCopyColumnName(model, target.args.getQuick(i));
+                }
+            }
+        } else if (target.type != ExpressionNode.LITERAL) {
+            throw SqlException.$(target.position, "table name expected");
+        }
+        model.setTarget(nextLiteral(GenericLexer.immutableOf(GenericLexer.unquote(target.token)), target.position));
+    }
+
+    private ExecutionModel parseCopyToStdout(GenericLexer lexer, CopyModel model) throws SqlException {
+        final CharSequence tok = tok(lexer, "'stdout'");
+        if (!Chars.equalsLowerCaseAscii(tok, "stdout")) {
+            throw SqlException.$(lexer.lastTokenPosition(), "'stdout' expected");
+        }
+        final ExpressionNode stdout = literal(lexer, tok);
+        model.setFileName(stdout);
+        parseCopyStdioOptions(lexer, model, stdout.position);
+        return model;
+    }
+
     private ExecutionModel parseCreateStatement(GenericLexer lexer, SqlExecutionContext executionContext) throws SqlException {
         expectTok(lexer, "table");
         return parseCreateTable(lexer, executionContext);
@@ -0,0 +1,539 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine;
+
+import io.questdb.cairo.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.std.*;
+import io.questdb.std.str.CharSink;
+import io.questdb.std.str.Path;
+import io.questdb.std.str.StringSink;
+
+/**
+ * Serves results of the base factory from {@link QueryResultCache}.
+ * <p>
+ * Results are keyed by query text and values of indexed bind variables. On a cache miss
+ * records of the base cursor are copied to a {@link RecordChain} while the caller reads
+ * them. Once the cursor is closed after it was read to the end, the chain is copied to
+ * contiguous memory and handed to the cache. Cursors of any number of factories can read
+ * a cached result at the same time, each through its own {@link RecordChainView}. Symbols
+ * are stored as strings, so cached results do not depend on the symbol tables of table readers.
+ */
+public class CachedResultRecordCursorFactory extends AbstractRecordCursorFactory {
+    private final RecordCursorFactory base;
+    private final QueryResultCache cache;
+    private final CachedRecordCursor cachedCursor;
+    private final ColumnTypes chainColumnTypes;
+    private final StringSink keySink = new StringSink();
+    private final long maxResultSize;
+    private final int pageSize;
+    private final Path path = new Path();
+    private final RecordSink recordSink;
+    private final RecordingRecordCursor recordingCursor = new RecordingRecordCursor();
+    private final int rootLen;
+    private final String sql;
+    private final ObjList<String> tableNames;
+    private final LongList tableTxns = new LongList();
+    private final TxReader txReader;
+
+    public CachedResultRecordCursorFactory(
+            CairoEngine engine,
+            RecordMetadata metadata,
+            RecordCursorFactory base,
+            String sql,
+            ObjList<String> tableNames,
+            ColumnTypes chainColumnTypes,
+            RecordSink recordSink
+    ) {
+        super(metadata);
+        final CairoConfiguration configuration = engine.getConfiguration();
+        this.cache = engine.getQueryResultCache();
+        this.base = base;
+        this.sql = sql;
+        this.tableNames = tableNames;
+        this.chainColumnTypes = chainColumnTypes;
+        this.recordSink = recordSink;
+        this.cachedCursor = new CachedRecordCursor(new RecordChainView(chainColumnTypes));
+        this.pageSize = configuration.getSqlResultCachePageSize();
+        // a single result must not flush out the rest of the cache
+        this.maxResultSize = configuration.getSqlResultCacheMemoryLimit() / 4;
+        this.txReader = new TxReader(configuration.getFilesFacade());
+        this.rootLen = path.of(configuration.getRoot()).length();
+    }
+
+    @Override
+    public boolean fragmentedSymbolTables() {
+        return base.fragmentedSymbolTables();
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        if (!buildKey(executionContext.getBindVariableService())) {
+            return base.getCursor(executionContext);
+        }
+
+        // txns are read before the query runs, so that a commit in between makes the result stale rather than lost
+        tableTxns.clear();
+        try {
+            for (int i = 0, n = tableNames.size(); i < n; i++) {
+                // txn file version moves with every commit, there is no need to get a table reader for it
+                path.trimTo(rootLen).concat(tableNames.getQuick(i)).concat(TableUtils.TXN_FILE_NAME).$();
+                tableTxns.add(txReader.ofRO(path, PartitionBy.NONE).unsafeReadVersion());
+            }
+        } catch (CairoException e) {
+            // table is gone, base factory reports that
+            return base.getCursor(executionContext);
+        } finally {
+            txReader.clear();
+        }
+
+        final QueryResultCache.Entry entry = cache.acquire(keySink, tableTxns);
+        if (entry != null) {
+            cachedCursor.of(entry);
+            return cachedCursor;
+        }
+        recordingCursor.of(base.getCursor(executionContext), Chars.toString(keySink));
+        return recordingCursor;
+    }
+
+    @Override
+    public boolean hasDescendingOrder() {
+        return base.hasDescendingOrder();
+    }
+
+    @Override
+    public boolean implementsLimit() {
+        return base.implementsLimit();
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return base.recordCursorSupportsRandomAccess();
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        base.toPlan(sink);
+    }
+
+    @Override
+    public boolean usesCompiledFilter() {
+        return base.usesCompiledFilter();
+    }
+
+    private boolean buildKey(BindVariableService bindVariableService) {
+        keySink.clear();
+        keySink.put(sql);
+        for (int i = 0, n = bindVariableService.getIndexedVariableCount(); i < n; i++) {
+            final Function function = bindVariableService.getFunction(i);
+            keySink.put('\0');
+            if (function == null) {
+                continue;
+            }
+            final int type = function.getType();
+            keySink.put(ColumnType.tagOf(type)).put(':');
+            switch (ColumnType.tagOf(type)) {
+                case ColumnType.BOOLEAN:
+                    keySink.put(function.getBool(null));
+                    break;
+                case ColumnType.BYTE:
+                    keySink.put(function.getByte(null));
+                    break;
+                case ColumnType.SHORT:
+                    keySink.put(function.getShort(null));
+                    break;
+                case ColumnType.CHAR:
+                    keySink.put((int) function.getChar(null));
+                    break;
+                case ColumnType.INT:
+                    keySink.put(function.getInt(null));
+                    break;
+                case ColumnType.LONG:
+                    keySink.put(function.getLong(null));
+                    break;
+                case ColumnType.DATE:
+                    keySink.put(function.getDate(null));
+                    break;
+                case ColumnType.TIMESTAMP:
+                    keySink.put(function.getTimestamp(null));
+                    break;
+                case ColumnType.FLOAT:
+                    keySink.put(Float.floatToIntBits(function.getFloat(null)));
+                    break;
+                case ColumnType.DOUBLE:
+                    keySink.put(Double.doubleToLongBits(function.getDouble(null)));
+                    break;
+                case ColumnType.STRING:
+                    final CharSequence value = function.getStr(null);
+                    if (value != null) {
+                        // length prefix keeps values containing separators apart
+                        keySink.put(value.length()).put(':').put(value);
+                    } else {
+                        keySink.put(TableUtils.NULL_LEN);
+                    }
+                    break;
+                case ColumnType.LONG256:
+                    function.getLong256(null, keySink);
+                    break;
+                case ColumnType.GEOBYTE:
+                    keySink.put(function.getGeoByte(null));
+                    break;
+                case ColumnType.GEOSHORT:
+                    keySink.put(function.getGeoShort(null));
+                    break;
+                case ColumnType.GEOINT:
+                    keySink.put(function.getGeoInt(null));
+                    break;
+                case ColumnType.GEOLONG:
+                    keySink.put(function.getGeoLong(null));
+                    break;
+                default:
+                    // binary values and the like are not worth caching
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(base);
+        Misc.free(txReader);
+        Misc.free(path);
+    }
+
+    private static class CachedRecord implements Record {
+        private Record base;
+
+        @Override
+        public BinarySequence getBin(int col) {
+            return base.getBin(col);
+        }
+
+        @Override
+        public long getBinLen(int col) {
+            return base.getBinLen(col);
+        }
+
+        @Override
+        public boolean getBool(int col) {
+            return base.getBool(col);
+        }
+
+        @Override
+        public byte getByte(int col) {
+            return base.getByte(col);
+        }
+
+        @Override
+        public char getChar(int col) {
+            return base.getChar(col);
+        }
+
+        @Override
+        public long getDate(int col) {
+            return base.getDate(col);
+        }
+
+        @Override
+        public double getDouble(int col) {
+            return base.getDouble(col);
+        }
+
+        @Override
+        public float getFloat(int col) {
+            return base.getFloat(col);
+        }
+
+        @Override
+        public byte getGeoByte(int col) {
+            return base.getGeoByte(col);
+        }
+
+        @Override
+        public int getGeoInt(int col) {
+            return base.getGeoInt(col);
+        }
+
+        @Override
+        public long getGeoLong(int col) {
+            return base.getGeoLong(col);
+        }
+
+        @Override
+        public short getGeoShort(int col) {
+            return base.getGeoShort(col);
+        }
+
+        @Override
+        public int getInt(int col) {
+            return base.getInt(col);
+        }
+
+        @Override
+        public long getLong(int col) {
+            return base.getLong(col);
+        }
+
+        @Override
+        public long getLong128Hi(int col) {
+            return base.getLong128Hi(col);
+        }
+
+        @Override
+        public long getLong128Lo(int col) {
+            return base.getLong128Lo(col);
+        }
+
+        @Override
+        public void getLong256(int col, CharSink sink) {
+            base.getLong256(col, sink);
+        }
+
+        @Override
+        public Long256 getLong256A(int col) {
+            return base.getLong256A(col);
+        }
+
+        @Override
+        public Long256 getLong256B(int col) {
+            return base.getLong256B(col);
+        }
+
+        @Override
+        public long getRowId() {
+            return base.getRowId();
+        }
+
+        @Override
+        public short getShort(int col) {
+            return base.getShort(col);
+        }
+
+        @Override
+        public CharSequence getStr(int col) {
+            return base.getStr(col);
+        }
+
+        @Override
+        public void getStr(int col, CharSink sink) {
+            base.getStr(col, sink);
+        }
+
+        @Override
+        public CharSequence getStrB(int col) {
+            return base.getStrB(col);
+        }
+
+        @Override
+        public int getStrLen(int col) {
+            return base.getStrLen(col);
+        }
+
+        @Override
+        public CharSequence getSym(int col) {
+            // symbols are stored as strings
+            return base.getStr(col);
+        }
+
+        @Override
+        public CharSequence getSymB(int col) {
+            return base.getStrB(col);
+        }
+
+        @Override
+        public long getTimestamp(int col) {
+            return base.getTimestamp(col);
+        }
+
+        private void of(Record base) {
+            this.base = base;
+        }
+    }
+
+    private class CachedRecordCursor implements RecordCursor {
+        private final CachedRecord recordA = new CachedRecord();
+        private final CachedRecord recordB = new CachedRecord();
+        private final RecordChainView view;
+        private QueryResultCache.Entry entry;
+
+        private CachedRecordCursor(RecordChainView view) {
+            this.view = view;
+            recordA.of(view.getRecord());
+            recordB.of(view.getRecordB());
+        }
+
+        @Override
+        public void close() {
+            if (entry != null) {
+                view.close();
+                cache.release(entry);
+                entry = null;
+            }
+        }
+
+        @Override
+        public Record getRecord() {
+            return recordA;
+        }
+
+        @Override
+        public Record getRecordB() {
+            return recordB;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return view.hasNext();
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            view.recordAt(((CachedRecord) record).base, atRowId);
+        }
+
+        @Override
+        public long size() {
+            return entry.getRowCount();
+        }
+
+        @Override
+        public void toTop() {
+            view.toTop();
+        }
+
+        private void of(QueryResultCache.Entry entry) {
+            this.entry = entry;
+            view.of(entry.getAddress(), entry.getSize());
+        }
+    }
+
+    private class RecordingRecordCursor implements RecordCursor {
+        private RecordCursor base;
+        private Record baseRecord;
+        private RecordChain chain;
+        private String key;
+        private long prevRecordOffset;
+        private boolean recording;
+        private long rowCount;
+
+        @Override
+        public void close() {
+            if (chain != null) {
+                if (recording) {
+                    // the caller did not read the result to the end
+                    chain = Misc.free(chain);
+                } else {
+                    // cached copy is read-only and contiguous, so that it can be shared by concurrent readers;
+                    // it is owned by the cache, so it is not charged to the query's memory limit
+                    final long size = chain.getMemUsed();
+                    final long address = size > 0 ? Unsafe.malloc(size, MemoryTag.NATIVE_QUERY_CACHE) : 0;
+                    try {
+                        chain.copyTo(address);
+                    } finally {
+                        chain = Misc.free(chain);
+                    }
+                    cache.put(new QueryResultCache.Entry(key, tableTxns, address, size, rowCount));
+                }
+            }
+            base = Misc.free(base);
+        }
+
+        @Override
+        public Record getRecord() {
+            return baseRecord;
+        }
+
+        @Override
+        public Record getRecordB() {
+            return base.getRecordB();
+        }
+
+        @Override
+        public SymbolTable getSymbolTable(int columnIndex) {
+            return base.getSymbolTable(columnIndex);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (base.hasNext()) {
+                if (recording) {
+                    prevRecordOffset = chain.put(baseRecord, prevRecordOffset);
+                    rowCount++;
+                    if (chain.getMemUsed() > maxResultSize) {
+                        stopRecording();
+                    }
+                }
+                return true;
+            }
+            // result is cached on close, once the caller is done with it
+            recording = false;
+            return false;
+        }
+
+        @Override
+        public SymbolTable newSymbolTable(int columnIndex) {
+            return base.newSymbolTable(columnIndex);
+        }
+
+        @Override
+        public void recordAt(Record record, long atRowId) {
+            base.recordAt(record, atRowId);
+        }
+
+        @Override
+        public long size() {
+            return base.size();
+        }
+
+        @Override
+        public void toTop() {
+            // rewinding part way through would record rows twice
+            if (recording && rowCount > 0) {
+                stopRecording();
+            }
+            base.toTop();
+        }
+
+        private void of(RecordCursor base, String key) {
+            this.base = base;
+            this.baseRecord = base.getRecord();
+            this.key = key;
+            this.chain = new RecordChain(chainColumnTypes, recordSink, pageSize, Integer.MAX_VALUE);
+            this.prevRecordOffset = -1;
+            this.recording = true;
+            this.rowCount = 0;
+        }
+
+        private void stopRecording() {
+            recording = false;
+            chain = Misc.free(chain);
+        }
+    }
+}
@@ -41,6 +41,11 @@ public class LimitRecordCursorFactory extends AbstractRecordCursorFactory {
         this.cursor = new LimitRecordCursor(loFunction, hiFunction);
     }
 
+    @Override
+    public boolean dispatchesPageFrames() {
+        return base.dispatchesPageFrames();
+    }
+
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
         cursor.of(base.getCursor(executionContext), executionContext);
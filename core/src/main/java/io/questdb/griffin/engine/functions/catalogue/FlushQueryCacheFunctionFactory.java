@@ -26,7 +26,10 @@ package io.questdb.griffin.engine.functions.catalogue;
 
 import io.questdb.MessageBus;
 import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.QueryFactoryCache;
+import io.questdb.cairo.sql.QueryResultCache;
 import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlExecutionContext;
@@ -53,20 +56,27 @@ public class FlushQueryCacheFunctionFactory implements FunctionFactory {
                                 CairoConfiguration configuration,
                                 SqlExecutionContext sqlExecutionContext
     ) {
-        return new FlushQueryCacheFunction(sqlExecutionContext.getMessageBus());
+        return new FlushQueryCacheFunction(sqlExecutionContext.getCairoEngine());
     }
 
     private static class FlushQueryCacheFunction extends BooleanFunction {
 
         private final MessageBus messageBus;
+        private final QueryFactoryCache queryFactoryCache;
+        private final QueryResultCache queryResultCache;
 
-        public FlushQueryCacheFunction(MessageBus messageBus) {
-            this.messageBus = messageBus;
+        public FlushQueryCacheFunction(CairoEngine engine) {
+            this.messageBus = engine.getMessageBus();
+            this.queryFactoryCache = engine.getQueryFactoryCache();
+            this.queryResultCache = engine.getQueryResultCache();
         }
 
         @Override
         public boolean getBool(Record rec) {
             LOG.info().$("flushing query caches").$();
+            // compiled queries are shared by all connections, the event takes care of connection-local caches
+            queryFactoryCache.clear();
+            queryResultCache.clear();
 
             while (true) {
                 final long pubCursor = messageBus.getQueryCacheEventPubSeq().next();
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.LongFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+import io.questdb.std.Numbers;
+import io.questdb.std.Vect;
+
+/**
+ * Estimates number of distinct values using HyperLogLog. Map value holds offset of the
+ * group's sketch in native memory, so that memory per group is fixed regardless of
+ * the number of distinct values.
+ */
+public abstract class AbstractApproxCountDistinctGroupByFunction extends LongFunction implements UnaryFunction, GroupByFunction {
+    // map value holds constant instead of sketch offset, e.g. for fill values
+    private static final long NO_SKETCH = -1;
+    private final Function arg;
+    private final MemoryCARW sketches;
+    private int valueIndex;
+
+    public AbstractApproxCountDistinctGroupByFunction(Function arg, CairoConfiguration configuration) {
+        this.arg = arg;
+        this.sketches = Vm.getCARWInstance(configuration.getSqlMapPageSize(), configuration.getSqlMapMaxPages(), MemoryTag.NATIVE_FUNC_RSS);
+    }
+
+    @Override
+    public void clear() {
+        // release sketch memory between queries, it is allocated again on first append
+        sketches.close();
+    }
+
+    @Override
+    public void close() {
+        UnaryFunction.super.close();
+        Misc.free(sketches);
+    }
+
+    @Override
+    public void computeFirst(MapValue mapValue, Record record) {
+        final long size = HyperLogLog.sizeOf(HyperLogLog.PRECISION);
+        final long offset = sketches.getAppendOffset();
+        Vect.memset(sketches.appendAddressFor(size), size, 0);
+        mapValue.putLong(valueIndex, offset);
+        computeNext(mapValue, record);
+    }
+
+    @Override
+    public void computeNext(MapValue mapValue, Record record) {
+        add(sketches.addressOf(mapValue.getLong(valueIndex)), record);
+    }
+
+    @Override
+    public Function getArg() {
+        return arg;
+    }
+
+    @Override
+    public long getLong(Record rec) {
+        final long offset = rec.getLong(valueIndex);
+        if (offset == NO_SKETCH) {
+            return rec.getLong(valueIndex + 1);
+        }
+        return HyperLogLog.estimate(sketches.addressOf(offset), HyperLogLog.PRECISION);
+    }
+
+    @Override
+    public boolean isConstant() {
+        return false;
+    }
+
+    @Override
+    public boolean isReadThreadSafe() {
+        return false;
+    }
+
+    @Override
+    public void pushValueTypes(ArrayColumnTypes columnTypes) {
+        this.valueIndex = columnTypes.getColumnCount();
+        columnTypes.add(ColumnType.LONG);
+        columnTypes.add(ColumnType.LONG);
+    }
+
+    @Override
+    public void setEmpty(MapValue mapValue) {
+        setLong(mapValue, 0L);
+    }
+
+    @Override
+    public void setLong(MapValue mapValue, long value) {
+        mapValue.putLong(valueIndex, NO_SKETCH);
+        mapValue.putLong(valueIndex + 1, value);
+    }
+
+    @Override
+    public void setNull(MapValue mapValue) {
+        setLong(mapValue, Numbers.LONG_NaN);
+    }
+
+    @Override
+    public void toTop() {
+        UnaryFunction.super.toTop();
+        // sketches of the previous pass are no longer referenced
+        sketches.jumpTo(0);
+    }
+
+    /**
+     * Adds argument value to the sketch unless the value is null.
+     *
+     * @param sketchAddress address of the group's sketch
+     * @param record        record to read the value from
+     */
+    protected abstract void add(long sketchAddress, Record record);
+}
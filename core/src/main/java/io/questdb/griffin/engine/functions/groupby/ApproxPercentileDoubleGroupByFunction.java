@@ -0,0 +1,131 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.ArrayColumnTypes;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.map.MapValue;
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.GroupByFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Misc;
+
+/**
+ * Estimates percentile using DDSketch. Map value holds offset of the group's sketch
+ * in native memory. Sketch grows with the range of values rather than their number
+ * and is bounded at around 8KB per group.
+ */
+public class ApproxPercentileDoubleGroupByFunction extends DoubleFunction implements UnaryFunction, GroupByFunction {
+    // map value holds constant instead of sketch offset, e.g. for fill values
+    private static final long NO_SKETCH = -1;
+    private final Function arg;
+    private final double percentile;
+    private final MemoryCARW sketches;
+    private int valueIndex;
+
+    public ApproxPercentileDoubleGroupByFunction(Function arg, double percentile, CairoConfiguration configuration) {
+        this.arg = arg;
+        this.percentile = percentile;
+        this.sketches = Vm.getCARWInstance(configuration.getSqlMapPageSize(), configuration.getSqlMapMaxPages(), MemoryTag.NATIVE_FUNC_RSS);
+    }
+
+    @Override
+    public void clear() {
+        // release sketch memory between queries, it is allocated again on first append
+        sketches.close();
+    }
+
+    @Override
+    public void close() {
+        UnaryFunction.super.close();
+        Misc.free(sketches);
+    }
+
+    @Override
+    public void computeFirst(MapValue mapValue, Record record) {
+        mapValue.putLong(valueIndex, DDSketch.create(sketches));
+        computeNext(mapValue, record);
+    }
+
+    @Override
+    public void computeNext(MapValue mapValue, Record record) {
+        DDSketch.add(sketches, mapValue.getLong(valueIndex), arg.getDouble(record));
+    }
+
+    @Override
+    public Function getArg() {
+        return arg;
+    }
+
+    @Override
+    public double getDouble(Record rec) {
+        final long offset = rec.getLong(valueIndex);
+        if (offset == NO_SKETCH) {
+            return rec.getDouble(valueIndex + 1);
+        }
+        return DDSketch.quantile(sketches, offset, percentile);
+    }
+
+    @Override
+    public boolean isConstant() {
+        return false;
+    }
+
+    @Override
+    public boolean isReadThreadSafe() {
+        return false;
+    }
+
+    @Override
+    public void pushValueTypes(ArrayColumnTypes columnTypes) {
+        this.valueIndex = columnTypes.getColumnCount();
+        columnTypes.add(ColumnType.LONG);
+        columnTypes.add(ColumnType.DOUBLE);
+    }
+
+    @Override
+    public void setDouble(MapValue mapValue, double value) {
+        mapValue.putLong(valueIndex, NO_SKETCH);
+        mapValue.putDouble(valueIndex + 1, value);
+    }
+
+    @Override
+    public void setNull(MapValue mapValue) {
+        setDouble(mapValue, Double.NaN);
+    }
+
+    @Override
+    public void toTop() {
+        UnaryFunction.super.toTop();
+        // sketches of the previous pass are no longer referenced
+        sketches.jumpTo(0);
+    }
+}
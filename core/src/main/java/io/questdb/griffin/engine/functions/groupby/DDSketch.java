@@ -0,0 +1,285 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.vm.api.MemoryARW;
+import io.questdb.std.Numbers;
+import io.questdb.std.Unsafe;
+import io.questdb.std.Vect;
+
+/**
+ * Quantile sketch with relative accuracy guarantee (DDSketch) kept in append-only native memory.
+ * <p>
+ * Value x is counted in bucket ceil(log(x) / log(gamma)), where gamma is (1 + a) / (1 - a)
+ * and a is relative accuracy. Positive and negative values are counted in two separate
+ * stores, zeros are counted separately. Stores are allocated on first value of their sign
+ * with a few buckets and are reallocated with twice the buckets as the range of values
+ * grows, up to a fixed maximum. When a store of the maximum size runs out of buckets, its
+ * lowest buckets are collapsed, which keeps accuracy of upper quantiles at the expense of
+ * lower ones. A store that is outgrown is abandoned in place, the memory is reclaimed when
+ * the whole memory is reset.
+ * <p>
+ * Sketch layout: count, zero count, min, max, positive store offset and negative store
+ * offset. Store layout is index of the first bucket, lowest and highest non-empty bucket
+ * indexes, bucket count followed by bucket counts.
+ */
+final class DDSketch {
+    static final int MAX_BUCKET_COUNT = 512;
+    static final int MIN_BUCKET_COUNT = 16;
+    static final double RELATIVE_ACCURACY = 0.01;
+    private static final long COUNT_OFFSET = 0;
+    private static final double GAMMA = (1 + RELATIVE_ACCURACY) / (1 - RELATIVE_ACCURACY);
+    private static final double LOG_GAMMA = Math.log(GAMMA);
+    private static final long MAX_OFFSET = 24;
+    private static final long MIN_OFFSET = 16;
+    private static final long NEGATIVE_STORE_OFFSET = 40;
+    private static final long NO_STORE = -1;
+    private static final long POSITIVE_STORE_OFFSET = 32;
+    static final long SIZE = 48;
+    private static final long STORE_BASE_OFFSET = 0;
+    private static final long STORE_BUCKETS_OFFSET = 16;
+    private static final long STORE_CAPACITY_OFFSET = 12;
+    private static final long STORE_HI_OFFSET = 8;
+    private static final long STORE_LO_OFFSET = 4;
+    private static final long ZERO_COUNT_OFFSET = 8;
+
+    private DDSketch() {
+    }
+
+    static void add(MemoryARW mem, long offset, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return;
+        }
+        final long address = mem.addressOf(offset);
+        Unsafe.getUnsafe().putLong(address + COUNT_OFFSET, Unsafe.getUnsafe().getLong(address + COUNT_OFFSET) + 1);
+        if (value < Unsafe.getUnsafe().getDouble(address + MIN_OFFSET)) {
+            Unsafe.getUnsafe().putDouble(address + MIN_OFFSET, value);
+        }
+        if (value > Unsafe.getUnsafe().getDouble(address + MAX_OFFSET)) {
+            Unsafe.getUnsafe().putDouble(address + MAX_OFFSET, value);
+        }
+        if (value > 0) {
+            storeAdd(mem, offset + POSITIVE_STORE_OFFSET, index(value));
+        } else if (value < 0) {
+            storeAdd(mem, offset + NEGATIVE_STORE_OFFSET, index(-value));
+        } else {
+            Unsafe.getUnsafe().putLong(address + ZERO_COUNT_OFFSET, Unsafe.getUnsafe().getLong(address + ZERO_COUNT_OFFSET) + 1);
+        }
+    }
+
+    /**
+     * Appends empty sketch to the memory.
+     *
+     * @param mem append-only memory
+     * @return offset of the sketch
+     */
+    static long create(MemoryARW mem) {
+        final long offset = mem.getAppendOffset();
+        final long address = mem.appendAddressFor(SIZE);
+        Unsafe.getUnsafe().putLong(address + COUNT_OFFSET, 0);
+        Unsafe.getUnsafe().putLong(address + ZERO_COUNT_OFFSET, 0);
+        Unsafe.getUnsafe().putDouble(address + MIN_OFFSET, Double.POSITIVE_INFINITY);
+        Unsafe.getUnsafe().putDouble(address + MAX_OFFSET, Double.NEGATIVE_INFINITY);
+        Unsafe.getUnsafe().putLong(address + POSITIVE_STORE_OFFSET, NO_STORE);
+        Unsafe.getUnsafe().putLong(address + NEGATIVE_STORE_OFFSET, NO_STORE);
+        return offset;
+    }
+
+    /**
+     * @param mem      memory the sketch was created in
+     * @param offset   sketch offset
+     * @param quantile quantile between 0 and 1
+     * @return value estimate within relative accuracy, or NaN when sketch is empty
+     */
+    static double quantile(MemoryARW mem, long offset, double quantile) {
+        final long address = mem.addressOf(offset);
+        final long count = Unsafe.getUnsafe().getLong(address + COUNT_OFFSET);
+        if (count == 0) {
+            return Double.NaN;
+        }
+        final double min = Unsafe.getUnsafe().getDouble(address + MIN_OFFSET);
+        final double max = Unsafe.getUnsafe().getDouble(address + MAX_OFFSET);
+        final double rank = quantile * (count - 1);
+        // extremes are tracked exactly
+        if (rank <= 0) {
+            return min;
+        }
+        if (rank >= count - 1) {
+            return max;
+        }
+        long n = 0;
+
+        // negative values, from the largest magnitude
+        long storeOffset = Unsafe.getUnsafe().getLong(address + NEGATIVE_STORE_OFFSET);
+        if (storeOffset != NO_STORE) {
+            final long store = mem.addressOf(storeOffset);
+            final int base = Unsafe.getUnsafe().getInt(store + STORE_BASE_OFFSET);
+            for (int i = Unsafe.getUnsafe().getInt(store + STORE_HI_OFFSET), lo = Unsafe.getUnsafe().getInt(store + STORE_LO_OFFSET); i >= lo; i--) {
+                n += bucket(store, i - base);
+                if (n > rank) {
+                    return clamp(-value(i), min, max);
+                }
+            }
+        }
+
+        n += Unsafe.getUnsafe().getLong(address + ZERO_COUNT_OFFSET);
+        if (n > rank) {
+            return clamp(0, min, max);
+        }
+
+        storeOffset = Unsafe.getUnsafe().getLong(address + POSITIVE_STORE_OFFSET);
+        if (storeOffset != NO_STORE) {
+            final long store = mem.addressOf(storeOffset);
+            final int base = Unsafe.getUnsafe().getInt(store + STORE_BASE_OFFSET);
+            for (int i = Unsafe.getUnsafe().getInt(store + STORE_LO_OFFSET), hi = Unsafe.getUnsafe().getInt(store + STORE_HI_OFFSET); i <= hi; i++) {
+                n += bucket(store, i - base);
+                if (n > rank) {
+                    return clamp(value(i), min, max);
+                }
+            }
+        }
+        return max;
+    }
+
+    private static long bucket(long store, int slot) {
+        return Unsafe.getUnsafe().getLong(store + STORE_BUCKETS_OFFSET + (long) slot * Long.BYTES);
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private static int index(double value) {
+        return (int) Math.ceil(Math.log(value) / LOG_GAMMA);
+    }
+
+    private static void putBucket(long store, int slot, long count) {
+        Unsafe.getUnsafe().putLong(store + STORE_BUCKETS_OFFSET + (long) slot * Long.BYTES, count);
+    }
+
+    private static void storeAdd(MemoryARW mem, long storeRefOffset, int index) {
+        long storeOffset = Unsafe.getUnsafe().getLong(mem.addressOf(storeRefOffset));
+        if (storeOffset == NO_STORE) {
+            storeOffset = storeCreate(mem, MIN_BUCKET_COUNT);
+            final long store = mem.addressOf(storeOffset);
+            Unsafe.getUnsafe().putInt(store + STORE_BASE_OFFSET, index - MIN_BUCKET_COUNT / 2);
+            Unsafe.getUnsafe().putInt(store + STORE_LO_OFFSET, Integer.MAX_VALUE);
+            Unsafe.getUnsafe().putInt(store + STORE_HI_OFFSET, Integer.MIN_VALUE);
+            Unsafe.getUnsafe().putLong(mem.addressOf(storeRefOffset), storeOffset);
+        }
+
+        long store = mem.addressOf(storeOffset);
+        int base = Unsafe.getUnsafe().getInt(store + STORE_BASE_OFFSET);
+        int lo = Unsafe.getUnsafe().getInt(store + STORE_LO_OFFSET);
+        int hi = Unsafe.getUnsafe().getInt(store + STORE_HI_OFFSET);
+        int capacity = Unsafe.getUnsafe().getInt(store + STORE_CAPACITY_OFFSET);
+
+        if (lo <= hi && (index < base || index >= base + capacity) && capacity < MAX_BUCKET_COUNT) {
+            // grow the store, so that it fits the new range if possible
+            final int rangeLo = Math.min(lo, index);
+            final int range = Math.max(hi, index) - rangeLo + 1;
+            final int newCapacity = Math.min(MAX_BUCKET_COUNT, Numbers.ceilPow2(range));
+            final int newBase = range <= newCapacity ? rangeLo - (newCapacity - range) / 2 : lo - (newCapacity - (hi - lo + 1)) / 2;
+            final long newStoreOffset = storeCreate(mem, newCapacity);
+            // the memory may have moved
+            store = mem.addressOf(storeOffset);
+            final long newStore = mem.addressOf(newStoreOffset);
+            Vect.memcpy(
+                    newStore + STORE_BUCKETS_OFFSET + (long) (lo - newBase) * Long.BYTES,
+                    store + STORE_BUCKETS_OFFSET + (long) (lo - base) * Long.BYTES,
+                    (long) (hi - lo + 1) * Long.BYTES
+            );
+            Unsafe.getUnsafe().putLong(mem.addressOf(storeRefOffset), newStoreOffset);
+            store = newStore;
+            base = newBase;
+            capacity = newCapacity;
+        }
+
+        final long buckets = store + STORE_BUCKETS_OFFSET;
+        if (lo > hi) {
+            // empty store
+            if (index < base || index >= base + capacity) {
+                base = index - capacity / 2;
+            }
+        } else if (index >= base + capacity) {
+            // move window up, collapse buckets which fall out of it into its lowest bucket
+            final int newBase = index - capacity + 1;
+            if (newBase > hi) {
+                long collapsed = 0;
+                for (int i = lo; i <= hi; i++) {
+                    collapsed += bucket(store, i - base);
+                }
+                Vect.memset(buckets, (long) capacity * Long.BYTES, 0);
+                putBucket(store, 0, collapsed);
+                lo = hi = newBase;
+            } else {
+                final int shift = newBase - base;
+                if (newBase > lo) {
+                    long collapsed = 0;
+                    for (int i = lo; i < newBase; i++) {
+                        collapsed += bucket(store, i - base);
+                    }
+                    putBucket(store, shift, bucket(store, shift) + collapsed);
+                    lo = newBase;
+                }
+                Vect.memmove(buckets, buckets + (long) shift * Long.BYTES, (long) (capacity - shift) * Long.BYTES);
+                Vect.memset(buckets + (long) (capacity - shift) * Long.BYTES, (long) shift * Long.BYTES, 0);
+            }
+            base = newBase;
+        } else if (index < base) {
+            // move window down as far as the highest bucket allows
+            final int newBase = Math.max(index, hi - capacity + 1);
+            if (newBase < base) {
+                final int shift = base - newBase;
+                Vect.memmove(buckets + (long) shift * Long.BYTES, buckets, (long) (capacity - shift) * Long.BYTES);
+                Vect.memset(buckets, (long) shift * Long.BYTES, 0);
+                base = newBase;
+            }
+            if (index < base) {
+                // collapse into the lowest bucket
+                index = base;
+            }
+        }
+
+        putBucket(store, index - base, bucket(store, index - base) + 1);
+        Unsafe.getUnsafe().putInt(store + STORE_BASE_OFFSET, base);
+        Unsafe.getUnsafe().putInt(store + STORE_LO_OFFSET, Math.min(lo, index));
+        Unsafe.getUnsafe().putInt(store + STORE_HI_OFFSET, Math.max(hi, index));
+    }
+
+    private static long storeCreate(MemoryARW mem, int capacity) {
+        final long offset = mem.getAppendOffset();
+        final long size = STORE_BUCKETS_OFFSET + (long) capacity * Long.BYTES;
+        final long store = mem.appendAddressFor(size);
+        Vect.memset(store, size, 0);
+        Unsafe.getUnsafe().putInt(store + STORE_CAPACITY_OFFSET, capacity);
+        return offset;
+    }
+
+    private static double value(int index) {
+        // bucket midpoint in terms of relative error
+        return 2 * Math.pow(GAMMA, index) / (GAMMA + 1);
+    }
+}
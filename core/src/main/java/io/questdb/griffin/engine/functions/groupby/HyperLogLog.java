@@ -0,0 +1,105 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.std.Unsafe;
+
+/**
+ * HyperLogLog cardinality sketch kept in native memory. The sketch is an array of
+ * 2^precision one byte registers, which must be zeroed before first use. Standard
+ * error of the estimate is 1.04 / sqrt(2^precision).
+ */
+final class HyperLogLog {
+    static final int PRECISION = 12;
+
+    private HyperLogLog() {
+    }
+
+    static void add(long address, int precision, long hash) {
+        final long index = hash >>> (Long.SIZE - precision);
+        // position of the leftmost set bit in the remaining hash bits, the sentinel bit bounds it
+        final int rank = Long.numberOfLeadingZeros((hash << precision) | (1L << (precision - 1))) + 1;
+        final long p = address + index;
+        if (rank > Unsafe.getUnsafe().getByte(p)) {
+            Unsafe.getUnsafe().putByte(p, (byte) rank);
+        }
+    }
+
+    static long estimate(long address, int precision) {
+        final int m = 1 << precision;
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < m; i++) {
+            final int rank = Unsafe.getUnsafe().getByte(address + i);
+            // 2^-rank
+            sum += Double.longBitsToDouble((1023L - rank) << 52);
+            if (rank == 0) {
+                zeros++;
+            }
+        }
+        double estimate = alpha(m) * m * m / sum;
+        if (estimate <= 2.5 * m && zeros > 0) {
+            // linear counting is more accurate for small cardinalities
+            estimate = m * Math.log((double) m / zeros);
+        }
+        return Math.round(estimate);
+    }
+
+    static long hash(long value) {
+        // murmur3 finalizer
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+
+    static long hash(CharSequence value) {
+        long h = value.length();
+        for (int i = 0, n = value.length(); i < n; i++) {
+            h = h * 0x9e3779b97f4a7c15L + value.charAt(i);
+        }
+        return hash(h);
+    }
+
+    static long sizeOf(int precision) {
+        return 1L << precision;
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1 + 1.079 / m);
+        }
+    }
+}
@@ -31,6 +31,7 @@ import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.BinaryFunction;
 import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.columns.DoubleColumn;
 import io.questdb.std.IntList;
 import io.questdb.std.ObjList;
 
@@ -42,7 +43,40 @@ public class DivDoubleFunctionFactory implements FunctionFactory {
 
     @Override
     public Function newInstance(int position, ObjList<Function> args, IntList argPositions, CairoConfiguration configuration, SqlExecutionContext sqlExecutionContext) {
-        return new Func(args.getQuick(0), args.getQuick(1));
+        final Function left = args.getQuick(0);
+        final Function right = args.getQuick(1);
+        // read values straight from the record for the common column-only cases
+        if (left instanceof DoubleColumn) {
+            if (right instanceof DoubleColumn) {
+                return new ColumnFunc((DoubleColumn) left, (DoubleColumn) right);
+            }
+            if (right.isConstant()) {
+                return new ColumnConstFunc((DoubleColumn) left, right, false);
+            }
+        }
+        return new Func(left, right);
+    }
+
+    private static final class ColumnConstFunc extends DoubleColumnArithmeticFunctions.ColumnConstFunc {
+        public ColumnConstFunc(DoubleColumn column, Function constant, boolean constantLeft) {
+            super(column, constant, constantLeft);
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return rec.getDouble(columnIndex) / value;
+        }
+    }
+
+    private static final class ColumnFunc extends DoubleColumnArithmeticFunctions.ColumnFunc {
+        public ColumnFunc(DoubleColumn left, DoubleColumn right) {
+            super(left, right);
+        }
+
+        @Override
+        public double getDouble(Record rec) {
+            return rec.getDouble(leftIndex) / rec.getDouble(rightIndex);
+        }
     }
 
     private static class Func extends DoubleFunction implements BinaryFunction {
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.griffin.engine.functions.math;
+
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.engine.functions.BinaryFunction;
+import io.questdb.griffin.engine.functions.DoubleFunction;
+import io.questdb.griffin.engine.functions.columns.DoubleColumn;
+
+/**
+ * Bases of double arithmetic functions that read their operands straight from the record
+ * rather than through argument functions. Each operator subclass implements getDouble()
+ * itself, so the call stays monomorphic.
+ */
+public final class DoubleColumnArithmeticFunctions {
+
+    private DoubleColumnArithmeticFunctions() {
+    }
+
+    /**
+     * Double column and a constant. The constant may be the left operand of a commutative
+     * operator, the operands are still reported in the order they were written.
+     */
+    public abstract static class ColumnConstFunc extends DoubleFunction implements BinaryFunction {
+        protected final int columnIndex;
+        protected final double value;
+        private final DoubleColumn column;
+        private final Function constant;
+        private final boolean constantLeft;
+
+        protected ColumnConstFunc(DoubleColumn column, Function constant, boolean constantLeft) {
+            this.column = column;
+            this.columnIndex = column.getColumnIndex();
+            this.constant = constant;
+            this.constantLeft = constantLeft;
+            this.value = constant.getDouble(null);
+        }
+
+        @Override
+        public Function getLeft() {
+            return constantLeft ? constant : column;
+        }
+
+        @Override
+        public Function getRight() {
+            return constantLeft ? column : constant;
+        }
+    }
+
+    /**
+     * Two double columns.
+     */
+    public abstract static class ColumnFunc extends DoubleFunction implements BinaryFunction {
+        protected final int leftIndex;
+        protected final int rightIndex;
+        private final DoubleColumn left;
+        private final DoubleColumn right;
+
+        protected ColumnFunc(DoubleColumn left, DoubleColumn right) {
+            this.left = left;
+            this.leftIndex = left.getColumnIndex();
+            this.right = right;
+            this.rightIndex = right.getColumnIndex();
+        }
+
+        @Override
+        public Function getLeft() {
+            return left;
+        }
+
+        @Override
+        public Function getRight() {
+            return right;
+        }
+    }
+}
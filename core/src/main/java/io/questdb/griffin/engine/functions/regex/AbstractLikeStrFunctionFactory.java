@@ -27,49 +27,19 @@ package io.questdb.griffin.engine.functions.regex;
 
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.Function;
-import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.SymbolTableSource;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
-import io.questdb.griffin.engine.functions.BooleanFunction;
-import io.questdb.griffin.engine.functions.UnaryFunction;
 import io.questdb.griffin.engine.functions.bind.IndexedParameterLinkFunction;
 import io.questdb.griffin.engine.functions.constants.BooleanConstant;
 import io.questdb.std.Chars;
 import io.questdb.std.IntList;
-import io.questdb.std.Misc;
 import io.questdb.std.ObjList;
 import io.questdb.std.str.StringSink;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
 public abstract class AbstractLikeStrFunctionFactory implements FunctionFactory {
 
-    public static String escapeSpecialChars(CharSequence pattern, CharSequence prev) {
-        int len = pattern.length();
-
-        StringSink sink = Misc.getThreadLocalBuilder();
-        for (int i = 0; i < len; i++) {
-            char c = pattern.charAt(i);
-            if (c == '_')
-                sink.put(".");
-            else if (c == '%')
-                sink.put(".*?");
-            else if ("[](){}.*+?$^|#\\".indexOf(c) != -1) {
-                sink.put("\\");
-                sink.put(c);
-            } else
-                sink.put(c);
-        }
-
-        if (Chars.equalsNc(sink, prev)) {
-            return null;
-        }
-        return Chars.toString(sink);
-    }
-
     @Override
     public Function newInstance(
             int position,
@@ -84,16 +54,7 @@ public abstract class AbstractLikeStrFunctionFactory implements FunctionFactory
         if (pattern.isConstant()) {
             final CharSequence likeString = pattern.getStr(null);
             if (likeString != null && likeString.length() > 0) {
-                String p = escapeSpecialChars(likeString, null);
-                assert p != null;
-                int flags = Pattern.DOTALL;
-                if (isCaseInsensitive()) {
-                    flags |= Pattern.CASE_INSENSITIVE;
-                }
-                return new ConstLikeStrFunction(
-                        value,
-                        Pattern.compile(p, flags).matcher("")
-                );
+                return new ConstLikeStrFunction(value, new LikeMatcher(likeString, isCaseInsensitive()));
             }
             return BooleanConstant.FALSE;
         }
@@ -108,84 +69,51 @@ public abstract class AbstractLikeStrFunctionFactory implements FunctionFactory
 
     protected abstract boolean isCaseInsensitive();
 
-    private static class BindLikeStrFunction extends BooleanFunction implements UnaryFunction {
+    private static class BindLikeStrFunction extends AbstractMatchFunction {
         private final boolean caseInsensitive;
         private final Function pattern;
-        private final Function value;
-        private String lastPattern = null;
-        private Matcher matcher;
+        private final StringSink lastPattern = new StringSink();
+        private LikeMatcher matcher;
 
         public BindLikeStrFunction(Function value, Function pattern, boolean caseInsensitive) {
-            this.value = value;
+            super(value);
             this.pattern = pattern;
             this.caseInsensitive = caseInsensitive;
         }
 
         @Override
-        public Function getArg() {
-            return value;
-        }
-
-        @Override
-        public boolean getBool(Record rec) {
-            if (matcher != null) {
-                CharSequence cs = getArg().getStr(rec);
-                return cs != null && matcher.reset(cs).matches();
-            }
-            return false;
-        }
-
-        @Override
-        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
-            value.init(symbolTableSource, executionContext);
+        protected void initPattern(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
             pattern.init(symbolTableSource, executionContext);
             // this is bind variable, we can use it as constant
             final CharSequence patternValue = pattern.getStr(null);
             if (patternValue != null && patternValue.length() > 0) {
-                final String p = escapeSpecialChars(patternValue, lastPattern);
-                if (p != null) {
-                    int flags = Pattern.DOTALL;
-                    if (caseInsensitive) {
-                        flags |= Pattern.CASE_INSENSITIVE;
-                    }
-                    this.matcher = Pattern.compile(p, flags).matcher("");
-                    this.lastPattern = p;
+                if (matcher == null || !Chars.equals(patternValue, lastPattern)) {
+                    matcher = new LikeMatcher(patternValue, caseInsensitive);
+                    lastPattern.clear();
+                    lastPattern.put(patternValue);
                 }
             } else {
-                lastPattern = null;
                 matcher = null;
             }
         }
 
         @Override
-        public boolean isReadThreadSafe() {
-            return false;
+        protected boolean matches(CharSequence cs) {
+            return matcher != null && cs != null && matcher.matches(cs);
         }
     }
 
-    private static class ConstLikeStrFunction extends BooleanFunction implements UnaryFunction {
-        private final Matcher matcher;
-        private final Function value;
+    private static class ConstLikeStrFunction extends AbstractMatchFunction {
+        private final LikeMatcher matcher;
 
-        public ConstLikeStrFunction(Function value, Matcher matcher) {
-            this.value = value;
+        public ConstLikeStrFunction(Function value, LikeMatcher matcher) {
+            super(value);
             this.matcher = matcher;
         }
 
         @Override
-        public Function getArg() {
-            return value;
-        }
-
-        @Override
-        public boolean getBool(Record rec) {
-            CharSequence cs = getArg().getStr(rec);
-            return cs != null && matcher.reset(cs).matches();
-        }
-
-        @Override
-        public boolean isReadThreadSafe() {
-            return false;
+        protected boolean matches(CharSequence cs) {
+            return cs != null && matcher.matches(cs);
         }
     }
 }
@@ -0,0 +1,105 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.regex;
+
+import io.questdb.cairo.sql.Function;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.StaticSymbolTable;
+import io.questdb.cairo.sql.SymbolTable;
+import io.questdb.cairo.sql.SymbolTableSource;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.functions.BooleanFunction;
+import io.questdb.griffin.engine.functions.SymbolFunction;
+import io.questdb.griffin.engine.functions.UnaryFunction;
+import io.questdb.std.BitSet;
+
+/**
+ * Base class for string pattern predicates. When the argument is a symbol column
+ * with a static symbol table, the pattern is matched at most once per distinct symbol
+ * key and the outcome is cached by key. This bounds string matching work by the symbol
+ * table cardinality rather than the number of filtered rows.
+ */
+abstract class AbstractMatchFunction extends BooleanFunction implements UnaryFunction {
+    private final Function arg;
+    private final BitSet evaluatedKeys = new BitSet();
+    private final BitSet matchingKeys = new BitSet();
+    private boolean nullMatches;
+    private StaticSymbolTable symbolTable;
+
+    protected AbstractMatchFunction(Function arg) {
+        this.arg = arg;
+    }
+
+    @Override
+    public Function getArg() {
+        return arg;
+    }
+
+    @Override
+    public boolean getBool(Record rec) {
+        if (symbolTable != null) {
+            final int key = arg.getInt(rec);
+            if (key == SymbolTable.VALUE_IS_NULL) {
+                return nullMatches;
+            }
+            if (evaluatedKeys.get(key)) {
+                return matchingKeys.get(key);
+            }
+            evaluatedKeys.set(key);
+            if (matches(symbolTable.valueOf(key))) {
+                matchingKeys.set(key);
+                return true;
+            }
+            return false;
+        }
+        return matches(arg.getStr(rec));
+    }
+
+    @Override
+    public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+        arg.init(symbolTableSource, executionContext);
+        initPattern(symbolTableSource, executionContext);
+        // pattern may have changed, e.g. it is a bind variable, so cached outcomes are stale
+        evaluatedKeys.clear();
+        matchingKeys.clear();
+        symbolTable = arg instanceof SymbolFunction ? ((SymbolFunction) arg).getStaticSymbolTable() : null;
+        nullMatches = matches(null);
+    }
+
+    @Override
+    public boolean isReadThreadSafe() {
+        return false;
+    }
+
+    protected void initPattern(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+    }
+
+    /**
+     * @param cs value to test, can be null
+     * @return true when value matches the pattern
+     */
+    protected abstract boolean matches(CharSequence cs);
+}
@@ -0,0 +1,101 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.regex;
+
+import io.questdb.std.Chars;
+
+/**
+ * Allocation-free matcher for LIKE patterns, where '%' matches any sequence of characters
+ * and '_' matches a single character. Semantics are the same as of the equivalent
+ * java.util.regex pattern, i.e. '_' consumes a whole code point and case-insensitive
+ * comparison is limited to ASCII letters.
+ * <p>
+ * Matching is greedy with backtracking to the last '%' only, so it never explores
+ * more than pattern length times value length states.
+ */
+final class LikeMatcher {
+    private final boolean caseInsensitive;
+    private final String pattern;
+
+    LikeMatcher(CharSequence pattern, boolean caseInsensitive) {
+        this.pattern = Chars.toString(pattern);
+        this.caseInsensitive = caseInsensitive;
+    }
+
+    boolean matches(CharSequence value) {
+        final int patternLen = pattern.length();
+        final int len = value.length();
+        int p = 0;
+        int i = 0;
+        int wildcardP = -1;
+        int wildcardI = 0;
+        while (i < len) {
+            if (p < patternLen) {
+                final char pc = pattern.charAt(p);
+                if (pc == '%') {
+                    wildcardP = p++;
+                    wildcardI = i;
+                    continue;
+                }
+                if (pc == '_') {
+                    p++;
+                    i = nextCodePoint(value, i, len);
+                    continue;
+                }
+                if (equals(pc, value.charAt(i))) {
+                    p++;
+                    i++;
+                    continue;
+                }
+            }
+            if (wildcardP == -1) {
+                return false;
+            }
+            // let the last '%' consume one more code point and retry the rest of the pattern
+            p = wildcardP + 1;
+            wildcardI = nextCodePoint(value, wildcardI, len);
+            i = wildcardI;
+        }
+        while (p < patternLen && pattern.charAt(p) == '%') {
+            p++;
+        }
+        return p == patternLen;
+    }
+
+    private static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + 32) : c;
+    }
+
+    private static int nextCodePoint(CharSequence value, int i, int len) {
+        if (Character.isHighSurrogate(value.charAt(i)) && i + 1 < len && Character.isLowSurrogate(value.charAt(i + 1))) {
+            return i + 2;
+        }
+        return i + 1;
+    }
+
+    private boolean equals(char pc, char c) {
+        return pc == c || (caseInsensitive && toLowerAscii(pc) == toLowerAscii(c));
+    }
+}
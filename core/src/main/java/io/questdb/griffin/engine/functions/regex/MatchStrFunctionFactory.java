@@ -26,18 +26,13 @@ package io.questdb.griffin.engine.functions.regex;
 
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.Function;
-import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.SymbolTableSource;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
-import io.questdb.griffin.engine.functions.BooleanFunction;
-import io.questdb.griffin.engine.functions.UnaryFunction;
 import io.questdb.std.IntList;
 import io.questdb.std.ObjList;
 
-import java.util.regex.Matcher;
-
 public class MatchStrFunctionFactory implements FunctionFactory {
     @Override
     public String getSignature() {
@@ -56,82 +51,57 @@ public class MatchStrFunctionFactory implements FunctionFactory {
         final Function pattern = args.getQuick(1);
         final int patternPosition = argPositions.getQuick(1);
         if (pattern.isConstant()) {
-            return new MatchConstPatternFunction(value, RegexUtils.createMatcher(pattern, patternPosition));
+            return new MatchConstPatternFunction(value, RegexUtils.createFinder(pattern, patternPosition));
         } else if (pattern.isRuntimeConstant()) {
             return new MatchRuntimeConstPatternFunction(value, pattern, patternPosition);
         }
         throw SqlException.$(patternPosition, "not implemented: dynamic pattern would be very slow to execute");
     }
 
-    private static class MatchConstPatternFunction extends BooleanFunction implements UnaryFunction {
-        private final Matcher matcher;
-        private final Function value;
-
-        public MatchConstPatternFunction(Function value, Matcher matcher) {
-            this.value = value;
-            this.matcher = matcher;
-        }
-
-        @Override
-        public Function getArg() {
-            return value;
-        }
+    private static class MatchConstPatternFunction extends AbstractMatchFunction {
+        private final RegexFinder finder;
 
-        @Override
-        public boolean getBool(Record rec) {
-            CharSequence cs = getArg().getStr(rec);
-            return cs != null && matcher.reset(cs).find();
+        public MatchConstPatternFunction(Function value, RegexFinder finder) {
+            super(value);
+            this.finder = finder;
         }
 
         @Override
-        public boolean isReadThreadSafe() {
-            return false;
+        protected boolean matches(CharSequence cs) {
+            return cs != null && finder.find(cs);
         }
     }
 
-    private static class MatchRuntimeConstPatternFunction extends BooleanFunction implements UnaryFunction {
+    private static class MatchRuntimeConstPatternFunction extends AbstractMatchFunction {
         private final Function pattern;
         private final int patternPosition;
-        private final Function value;
-        private Matcher matcher;
+        private RegexFinder finder;
 
         public MatchRuntimeConstPatternFunction(Function value, Function pattern, int patternPosition) {
-            this.value = value;
+            super(value);
             this.pattern = pattern;
             this.patternPosition = patternPosition;
         }
 
         @Override
-        public Function getArg() {
-            return value;
-        }
-
-        @Override
-        public boolean getBool(Record rec) {
-            CharSequence cs = getArg().getStr(rec);
-            return cs != null && matcher.reset(cs).find();
-        }
-
-        @Override
-        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
-            UnaryFunction.super.init(symbolTableSource, executionContext);
-            pattern.init(symbolTableSource, executionContext);
-            this.matcher = RegexUtils.createMatcher(pattern, patternPosition);
+        public boolean isConstant() {
+            return false;
         }
 
         @Override
-        public boolean isConstant() {
+        public boolean isRuntimeConstant() {
             return false;
         }
 
         @Override
-        public boolean isReadThreadSafe() {
-            return false;
+        protected void initPattern(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) throws SqlException {
+            pattern.init(symbolTableSource, executionContext);
+            this.finder = RegexUtils.createFinder(pattern, patternPosition);
         }
 
         @Override
-        public boolean isRuntimeConstant() {
-            return false;
+        protected boolean matches(CharSequence cs) {
+            return cs != null && finder.find(cs);
         }
     }
 }
@@ -26,20 +26,12 @@ package io.questdb.griffin.engine.functions.regex;
 
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.Function;
-import io.questdb.cairo.sql.Record;
 import io.questdb.griffin.FunctionFactory;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
-import io.questdb.griffin.engine.functions.BooleanFunction;
-import io.questdb.griffin.engine.functions.UnaryFunction;
-import io.questdb.std.Chars;
 import io.questdb.std.IntList;
 import io.questdb.std.ObjList;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import java.util.regex.PatternSyntaxException;
-
 public class NotMatchStrFunctionFactory implements FunctionFactory {
     @Override
     public String getSignature() {
@@ -54,44 +46,20 @@ public class NotMatchStrFunctionFactory implements FunctionFactory {
             CairoConfiguration configuration,
             SqlExecutionContext sqlExecutionContext
     ) throws SqlException {
-        Function value = args.getQuick(0);
-        CharSequence regex = args.getQuick(1).getStr(null);
-
-        if (regex == null) {
-            throw SqlException.$(argPositions.getQuick(1), "NULL regex");
-        }
-
-        try {
-            Matcher matcher = Pattern.compile(Chars.toString(regex)).matcher("");
-            return new MatchFunction(value, matcher);
-        } catch (PatternSyntaxException e) {
-            throw SqlException.$(argPositions.getQuick(1) + e.getIndex() + 1, e.getMessage());
-        }
+        return new MatchFunction(args.getQuick(0), RegexUtils.createFinder(args.getQuick(1), argPositions.getQuick(1)));
     }
 
-    private static class MatchFunction extends BooleanFunction implements UnaryFunction {
-        private final Function arg;
-        private final Matcher matcher;
+    private static class MatchFunction extends AbstractMatchFunction {
+        private final RegexFinder finder;
 
-        public MatchFunction(Function arg, Matcher matcher) {
-            this.arg = arg;
-            this.matcher = matcher;
-        }
-
-        @Override
-        public Function getArg() {
-            return arg;
-        }
-
-        @Override
-        public boolean getBool(Record rec) {
-            CharSequence cs = getArg().getStr(rec);
-            return cs == null || !matcher.reset(cs).find();
+        public MatchFunction(Function arg, RegexFinder finder) {
+            super(arg);
+            this.finder = finder;
         }
 
         @Override
-        public boolean isReadThreadSafe() {
-            return false;
+        protected boolean matches(CharSequence cs) {
+            return cs == null || !finder.find(cs);
         }
     }
 }
@@ -0,0 +1,475 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.regex;
+
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.ObjList;
+
+/**
+ * Allocation-free regular expression finder for the common subset of java.util.regex
+ * syntax: literals, escapes, '.', character classes, groups, alternation, '?', '*', '+'
+ * and leading '^' / trailing '$' anchors.
+ * <p>
+ * The expression is compiled into a position (Glushkov) automaton of up to 64 positions,
+ * which is simulated bit-parallel, i.e. the set of active positions is a single long.
+ * Search time is linear in the value length and never backtracks. Expressions outside
+ * of the subset, e.g. backreferences, lookarounds, bounded repetition or inline flags,
+ * are not compiled and remain with java.util.regex. The same applies to values with
+ * surrogate pairs, where java.util.regex matches code points rather than chars.
+ */
+final class RegexAutomaton implements RegexFinder {
+    private static final CharClass DIGIT = new CharClass(new char[]{'0', '9'}, false);
+    private static final CharClass DOT = new CharClass(new char[]{'\n', '\n', '\r', '\r', '\u0085', '\u0085', '\u2028', '\u2029'}, true);
+    private static final int MAX_POSITIONS = Long.SIZE;
+    private static final CharClass NOT_DIGIT = new CharClass(DIGIT.ranges, true);
+    private static final CharClass SPACE = new CharClass(new char[]{' ', ' ', '\t', '\r'}, false);
+    private static final CharClass NOT_SPACE = new CharClass(SPACE.ranges, true);
+    private static final CharClass WORD = new CharClass(new char[]{'0', '9', 'A', 'Z', '_', '_', 'a', 'z'}, false);
+    private static final CharClass NOT_WORD = new CharClass(WORD.ranges, true);
+    private final boolean anchoredEnd;
+    private final boolean anchoredStart;
+    // positions accepting given ASCII char
+    private final long[] asciiMasks = new long[128];
+    private final CharClass[] classes;
+    private final RegexFinder fallback;
+    private final long first;
+    private final long[] follow;
+    private final long last;
+    private final boolean nullable;
+
+    private RegexAutomaton(Parser parser, Fragment fragment, RegexFinder fallback) {
+        final int positionCount = parser.classes.size();
+        this.classes = new CharClass[positionCount];
+        this.follow = new long[positionCount];
+        for (int i = 0; i < positionCount; i++) {
+            classes[i] = parser.classes.getQuick(i);
+            follow[i] = parser.follow.getQuick(i);
+        }
+        for (char c = 0; c < asciiMasks.length; c++) {
+            asciiMasks[c] = computeMask(c);
+        }
+        this.first = fragment.first;
+        this.last = fragment.last;
+        this.nullable = fragment.nullable;
+        this.anchoredStart = parser.anchoredStart;
+        this.anchoredEnd = parser.anchoredEnd;
+        this.fallback = fallback;
+    }
+
+    /**
+     * @param regex    regular expression, must be valid java.util.regex syntax
+     * @param fallback finder to delegate values with surrogate pairs to
+     * @return automaton or null when expression is outside of supported subset
+     */
+    static RegexAutomaton compile(CharSequence regex, RegexFinder fallback) {
+        final Parser parser = new Parser(regex);
+        final Fragment fragment = parser.parse();
+        return fragment != null ? new RegexAutomaton(parser, fragment, fallback) : null;
+    }
+
+    @Override
+    public boolean find(CharSequence value) {
+        final int len = value.length();
+        if (nullable && (!anchoredStart || !anchoredEnd || isEnd(value, 0, len))) {
+            // empty match
+            return true;
+        }
+        long active = 0;
+        for (int i = 0; i < len; i++) {
+            final char c = value.charAt(i);
+            if (Character.isSurrogate(c)) {
+                return fallback.find(value);
+            }
+            long next = anchoredStart && i > 0 ? 0 : first;
+            for (long a = active; a != 0; a &= a - 1) {
+                next |= follow[Long.numberOfTrailingZeros(a)];
+            }
+            active = next & (c < asciiMasks.length ? asciiMasks[c] : computeMask(c));
+            if ((active & last) != 0 && (!anchoredEnd || isEnd(value, i + 1, len))) {
+                return true;
+            }
+            if (active == 0 && anchoredStart) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    // '$' without MULTILINE flag matches at the end of input and before the final line terminator
+    private static boolean isEnd(CharSequence value, int pos, int len) {
+        if (pos == len) {
+            return true;
+        }
+        if (pos == len - 2) {
+            return value.charAt(pos) == '\r' && value.charAt(pos + 1) == '\n';
+        }
+        if (pos == len - 1) {
+            final char c = value.charAt(pos);
+            if (c == '\n') {
+                // no match between \r and \n
+                return pos == 0 || value.charAt(pos - 1) != '\r';
+            }
+            return c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+        }
+        return false;
+    }
+
+    private long computeMask(char c) {
+        long mask = 0;
+        for (int i = 0, n = classes.length; i < n; i++) {
+            if (classes[i].contains(c)) {
+                mask |= 1L << i;
+            }
+        }
+        return mask;
+    }
+
+    private static class CharClass {
+        private final boolean negated;
+        // inclusive lo, hi pairs
+        private final char[] ranges;
+
+        private CharClass(char[] ranges, boolean negated) {
+            this.ranges = ranges;
+            this.negated = negated;
+        }
+
+        private static CharClass of(IntList ranges, boolean negated) {
+            final char[] chars = new char[ranges.size()];
+            for (int i = 0, n = ranges.size(); i < n; i++) {
+                chars[i] = (char) ranges.getQuick(i);
+            }
+            return new CharClass(chars, negated);
+        }
+
+        private boolean contains(char c) {
+            for (int i = 0, n = ranges.length; i < n; i += 2) {
+                if (c >= ranges[i] && c <= ranges[i + 1]) {
+                    return !negated;
+                }
+            }
+            return negated;
+        }
+    }
+
+    private static class Fragment {
+        private long first;
+        private long last;
+        private boolean nullable;
+
+        private Fragment(long first, long last, boolean nullable) {
+            this.first = first;
+            this.last = last;
+            this.nullable = nullable;
+        }
+    }
+
+    /**
+     * Recursive descent parser, which computes first, last and follow position sets
+     * of the expression. Parse methods return null when expression is not supported.
+     */
+    private static class Parser {
+        private final ObjList<CharClass> classes = new ObjList<>();
+        private final LongList follow = new LongList();
+        private final CharSequence regex;
+        private boolean anchoredEnd;
+        private boolean anchoredStart;
+        private int depth;
+        private int hi;
+        private int pos;
+
+        private Parser(CharSequence regex) {
+            this.regex = regex;
+        }
+
+        private static void addRanges(IntList ranges, CharClass charClass) {
+            for (int i = 0, n = charClass.ranges.length; i < n; i++) {
+                ranges.add(charClass.ranges[i]);
+            }
+        }
+
+        private static char control(char c) {
+            switch (c) {
+                case 't':
+                    return '\t';
+                case 'n':
+                    return '\n';
+                case 'r':
+                    return '\r';
+                case 'f':
+                    return '\f';
+                default:
+                    return 0;
+            }
+        }
+
+        private void addFollow(long from, long to) {
+            for (long a = from; a != 0; a &= a - 1) {
+                final int i = Long.numberOfTrailingZeros(a);
+                follow.setQuick(i, follow.getQuick(i) | to);
+            }
+        }
+
+        private boolean isEscaped(int index) {
+            int n = 0;
+            while (index - n > 0 && regex.charAt(index - n - 1) == '\\') {
+                n++;
+            }
+            return (n & 1) == 1;
+        }
+
+        private Fragment parse() {
+            hi = regex.length();
+            for (int i = 0; i < hi; i++) {
+                if (Character.isSurrogate(regex.charAt(i))) {
+                    return null;
+                }
+            }
+            if (hi > 0 && regex.charAt(0) == '^') {
+                anchoredStart = true;
+                pos = 1;
+            }
+            if (hi > pos && regex.charAt(hi - 1) == '$' && !isEscaped(hi - 1)) {
+                anchoredEnd = true;
+                hi--;
+            }
+            final Fragment fragment = parseAlternation();
+            return pos == hi ? fragment : null;
+        }
+
+        private Fragment parseAlternation() {
+            final Fragment result = parseConcatenation();
+            while (result != null && pos < hi && regex.charAt(pos) == '|') {
+                if (depth == 0 && (anchoredStart || anchoredEnd)) {
+                    // anchors would only apply to the first and the last branch
+                    return null;
+                }
+                pos++;
+                final Fragment branch = parseConcatenation();
+                if (branch == null) {
+                    return null;
+                }
+                result.first |= branch.first;
+                result.last |= branch.last;
+                result.nullable |= branch.nullable;
+            }
+            return result;
+        }
+
+        private Fragment parseAtom() {
+            final char c = regex.charAt(pos++);
+            switch (c) {
+                case '(':
+                    if (pos < hi && regex.charAt(pos) == '?') {
+                        // non-capturing groups, lookarounds and inline flags
+                        return null;
+                    }
+                    depth++;
+                    final Fragment group = parseAlternation();
+                    depth--;
+                    if (group == null || pos >= hi || regex.charAt(pos) != ')') {
+                        return null;
+                    }
+                    pos++;
+                    return group;
+                case '.':
+                    return position(DOT);
+                case '[':
+                    return parseClass();
+                case '\\':
+                    return parseEscape();
+                case '^':
+                case '$':
+                case '*':
+                case '+':
+                case '?':
+                case '{':
+                case '}':
+                case ']':
+                    return null;
+                default:
+                    return position(new CharClass(new char[]{c, c}, false));
+            }
+        }
+
+        private Fragment parseClass() {
+            boolean negated = false;
+            if (pos < hi && regex.charAt(pos) == '^') {
+                negated = true;
+                pos++;
+            }
+            final int lo = pos;
+            final IntList ranges = new IntList();
+            while (true) {
+                if (pos >= hi) {
+                    return null;
+                }
+                final char c = regex.charAt(pos++);
+                if (c == ']') {
+                    if (pos - 1 == lo) {
+                        // leading ']' has special meaning in java.util.regex
+                        return null;
+                    }
+                    break;
+                }
+                if (c == '[' || (c == '&' && pos < hi && regex.charAt(pos) == '&')) {
+                    // unions and intersections
+                    return null;
+                }
+                if (c == '-' && pos - 1 != lo && (pos >= hi || regex.charAt(pos) != ']')) {
+                    return null;
+                }
+                char from = c;
+                if (c == '\\') {
+                    if (pos >= hi) {
+                        return null;
+                    }
+                    final char e = regex.charAt(pos++);
+                    final CharClass predefined = e == 'd' ? DIGIT : e == 'w' ? WORD : e == 's' ? SPACE : null;
+                    if (predefined != null) {
+                        if (pos < hi && regex.charAt(pos) == '-') {
+                            return null;
+                        }
+                        addRanges(ranges, predefined);
+                        continue;
+                    }
+                    from = control(e);
+                    if (from == 0) {
+                        if (Character.isLetterOrDigit(e)) {
+                            return null;
+                        }
+                        from = e;
+                    }
+                }
+                if (pos + 1 < hi && regex.charAt(pos) == '-' && regex.charAt(pos + 1) != ']') {
+                    final char to = regex.charAt(pos + 1);
+                    if (to == '[' || to == '\\' || to == '&' || to < from) {
+                        return null;
+                    }
+                    pos += 2;
+                    ranges.add(from);
+                    ranges.add(to);
+                } else {
+                    ranges.add(from);
+                    ranges.add(from);
+                }
+            }
+            return position(CharClass.of(ranges, negated));
+        }
+
+        private Fragment parseConcatenation() {
+            final Fragment result = new Fragment(0, 0, true);
+            while (pos < hi) {
+                final char c = regex.charAt(pos);
+                if (c == '|' || c == ')') {
+                    break;
+                }
+                final Fragment next = parseRepetition();
+                if (next == null) {
+                    return null;
+                }
+                addFollow(result.last, next.first);
+                if (result.nullable) {
+                    result.first |= next.first;
+                }
+                result.last = next.nullable ? result.last | next.last : next.last;
+                result.nullable &= next.nullable;
+            }
+            return result;
+        }
+
+        private Fragment parseEscape() {
+            if (pos >= hi) {
+                return null;
+            }
+            final char c = regex.charAt(pos++);
+            switch (c) {
+                case 'd':
+                    return position(DIGIT);
+                case 'D':
+                    return position(NOT_DIGIT);
+                case 's':
+                    return position(SPACE);
+                case 'S':
+                    return position(NOT_SPACE);
+                case 'w':
+                    return position(WORD);
+                case 'W':
+                    return position(NOT_WORD);
+                default:
+                    char literal = control(c);
+                    if (literal == 0) {
+                        if (Character.isLetterOrDigit(c)) {
+                            // word boundaries, backreferences, quotations, code points etc.
+                            return null;
+                        }
+                        literal = c;
+                    }
+                    return position(new CharClass(new char[]{literal, literal}, false));
+            }
+        }
+
+        private Fragment parseRepetition() {
+            final Fragment atom = parseAtom();
+            if (atom == null || pos >= hi) {
+                return atom;
+            }
+            final char c = regex.charAt(pos);
+            if (c == '*' || c == '+' || c == '?') {
+                pos++;
+                if (c != '?') {
+                    addFollow(atom.last, atom.first);
+                }
+                if (c != '+') {
+                    atom.nullable = true;
+                }
+                if (pos < hi) {
+                    final char modifier = regex.charAt(pos);
+                    if (modifier == '+') {
+                        // possessive quantifiers may reject matches
+                        return null;
+                    }
+                    if (modifier == '?') {
+                        // reluctant quantifiers find the same matches
+                        pos++;
+                    }
+                }
+            }
+            return atom;
+        }
+
+        private Fragment position(CharClass charClass) {
+            final int index = classes.size();
+            if (index == MAX_POSITIONS) {
+                return null;
+            }
+            classes.add(charClass);
+            follow.add(0);
+            final long bit = 1L << index;
+            return new Fragment(bit, bit, false);
+        }
+    }
+}
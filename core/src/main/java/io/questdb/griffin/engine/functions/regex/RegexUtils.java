@@ -38,6 +38,18 @@ final class RegexUtils {
     private RegexUtils() {
     }
 
+    /**
+     * Creates finder for the pattern. Patterns within the subset supported by {@link RegexAutomaton}
+     * are matched by the automaton, the rest are matched by java.util.regex.
+     */
+    @NotNull
+    public static RegexFinder createFinder(Function pattern, int position) throws SqlException {
+        final Matcher matcher = createMatcher(pattern, position);
+        final JavaRegexFinder javaFinder = new JavaRegexFinder(matcher);
+        final RegexAutomaton automaton = RegexAutomaton.compile(matcher.pattern().pattern(), javaFinder);
+        return automaton != null ? automaton : javaFinder;
+    }
+
     @NotNull
     public static Matcher createMatcher(Function pattern, int position) throws SqlException {
         final CharSequence regex = pattern.getStr(null);
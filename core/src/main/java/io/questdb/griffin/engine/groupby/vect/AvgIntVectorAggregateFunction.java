@@ -85,6 +85,25 @@ public class AvgIntVectorAggregateFunction extends DoubleFunction implements Vec
         }
     }
 
+    @Override
+    public void aggregateFiltered(long address, long rowsAddress, long rowCount, int workerId) {
+        if (address != 0) {
+            double sum = 0;
+            long count = 0;
+            for (long i = 0; i < rowCount; i++) {
+                final int value = Unsafe.getUnsafe().getInt(address + (Unsafe.getUnsafe().getLong(rowsAddress + (i << 3)) << 2));
+                if (value != Numbers.INT_NaN) {
+                    sum += value;
+                    count++;
+                }
+            }
+            if (count > 0) {
+                this.sum.add(sum);
+                this.count.add(count);
+            }
+        }
+    }
+
     @Override
     public void clear() {
         sum.reset();
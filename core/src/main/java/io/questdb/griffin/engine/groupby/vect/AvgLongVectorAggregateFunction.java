@@ -83,6 +83,25 @@ public class AvgLongVectorAggregateFunction extends DoubleFunction implements Ve
         }
     }
 
+    @Override
+    public void aggregateFiltered(long address, long rowsAddress, long rowCount, int workerId) {
+        if (address != 0) {
+            double sum = 0;
+            long count = 0;
+            for (long i = 0; i < rowCount; i++) {
+                final long value = Unsafe.getUnsafe().getLong(address + (Unsafe.getUnsafe().getLong(rowsAddress + (i << 3)) << 3));
+                if (value != Numbers.LONG_NaN) {
+                    sum += value;
+                    count++;
+                }
+            }
+            if (count > 0) {
+                this.sum.add(sum);
+                this.count.add(count);
+            }
+        }
+    }
+
     @Override
     public void clear() {
         sum.reset();
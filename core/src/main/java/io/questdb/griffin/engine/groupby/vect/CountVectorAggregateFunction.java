@@ -54,6 +54,11 @@ public class CountVectorAggregateFunction extends LongFunction implements Vector
         return countFunc.count(pRosti, keyAddress, valueAddressSize >>> columnSizeShr, valueOffset);
     }
 
+    @Override
+    public void aggregateFiltered(long address, long rowsAddress, long rowCount, int workerId) {
+        count.add(rowCount);
+    }
+
     @Override
     public void clear() {
         count.reset();
@@ -30,32 +30,39 @@ import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.CairoException;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
 import io.questdb.cutlass.text.AtomicBooleanCircuitBreaker;
 import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.griffin.engine.table.AsyncFilteredRecordCursorFactory;
+import io.questdb.griffin.engine.table.AsyncJitFilteredRecordCursorFactory;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
-import io.questdb.mp.RingQueue;
-import io.questdb.mp.SOUnboundedCountDownLatch;
-import io.questdb.mp.Sequence;
-import io.questdb.mp.Worker;
-import io.questdb.std.Misc;
-import io.questdb.std.ObjList;
-import io.questdb.std.ObjectPool;
-import io.questdb.std.Transient;
+import io.questdb.mp.*;
+import io.questdb.std.*;
 import io.questdb.tasks.VectorAggregateTask;
 
 import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
 
+/**
+ * Non-keyed aggregation over page frames. When base factory is an async filter, the filter is
+ * evaluated by the page frame reduce workers and filtered rows of each frame are aggregated as
+ * soon as the frame is collected, while frame memory is still hot. There is no intermediate
+ * record cursor in this case.
+ */
 public class GroupByNotKeyedVectorRecordCursorFactory extends AbstractRecordCursorFactory {
 
     private static final Log LOG = LogFactory.getLog(GroupByNotKeyedVectorRecordCursorFactory.class);
+    private static final String EXCEPTION_MESSAGE = "timeout, query aborted";
     private final ObjList<VectorAggregateEntry> activeEntries;
     private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
     private final GroupByNotKeyedVectorRecordCursor cursor;
     private final SOUnboundedCountDownLatch doneLatch = new SOUnboundedCountDownLatch();
     private final ObjectPool<VectorAggregateEntry> entryPool;
+    private final boolean filtered;
     private final AtomicBooleanCircuitBreaker sharedCircuitBreaker;
     private final ObjList<VectorAggregateFunction> vafList;
 
@@ -69,19 +76,26 @@ public class GroupByNotKeyedVectorRecordCursorFactory extends AbstractRecordCurs
         this.entryPool = new ObjectPool<>(VectorAggregateEntry::new, configuration.getGroupByPoolCapacity());
         this.activeEntries = new ObjList<>(configuration.getGroupByPoolCapacity());
         this.base = base;
+        this.filtered = !base.supportPageFrameCursor();
         this.vafList = new ObjList<>(vafList.size());
         this.vafList.addAll(vafList);
         this.cursor = new GroupByNotKeyedVectorRecordCursor(this.vafList);
         this.sharedCircuitBreaker = new AtomicBooleanCircuitBreaker();
     }
 
+    /**
+     * Checks if rows produced by the given base factory can be aggregated without page frame cursor.
+     *
+     * @param base factory that does not support page frame cursor
+     * @return true when base is an async filter that is not limited
+     */
+    public static boolean supportsFilteredBase(RecordCursorFactory base) {
+        return (base instanceof AsyncJitFilteredRecordCursorFactory || base instanceof AsyncFilteredRecordCursorFactory)
+                && !base.followedLimitAdvice();
+    }
+
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
-        final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
-
-        final MessageBus bus = executionContext.getMessageBus();
-
-        final PageFrameCursor cursor = base.getPageFrameCursor(executionContext, ORDER_ASC);
         final int vafCount = vafList.size();
 
         // clear state of aggregate functions
@@ -89,6 +103,25 @@ public class GroupByNotKeyedVectorRecordCursorFactory extends AbstractRecordCurs
             vafList.getQuick(i).clear();
         }
 
+        // check if this executed via worker pool
+        final Thread thread = Thread.currentThread();
+        final int workerId;
+        if (thread instanceof Worker) {
+            workerId = ((Worker) thread).getWorkerId();
+        } else {
+            workerId = 0;
+        }
+
+        if (filtered) {
+            return getFilteredCursor(executionContext, workerId);
+        }
+
+        final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
+
+        final MessageBus bus = executionContext.getMessageBus();
+
+        final PageFrameCursor cursor = base.getPageFrameCursor(executionContext, ORDER_ASC);
+
         final RingQueue<VectorAggregateTask> queue = bus.getVectorAggregateQueue();
         final Sequence pubSeq = bus.getVectorAggregatePubSeq();
 
@@ -102,15 +135,6 @@ public class GroupByNotKeyedVectorRecordCursorFactory extends AbstractRecordCurs
 
         doneLatch.reset();
 
-        // check if this executed via worker pool
-        final Thread thread = Thread.currentThread();
-        final int workerId;
-        if (thread instanceof Worker) {
-            workerId = ((Worker) thread).getWorkerId();
-        } else {
-            workerId = 0;
-        }
-
         try {
             PageFrame frame;
             while ((frame = cursor.next()) != null) {
@@ -140,7 +164,7 @@ public class GroupByNotKeyedVectorRecordCursorFactory extends AbstractRecordCurs
                     } else {
                         final VectorAggregateEntry entry = entryPool.next();
                         // null pRosti means that we do not need keyed aggregation
-                        entry.of(queuedCount++, vaf, null, 0, pageAddress, pageSize, colSizeShr, doneLatch, null, null, sharedCircuitBreaker);
+                        entry.of(queuedCount++, vaf, null, 0, pageAddress, pageSize, colSizeShr, doneLatch, null, null, sharedCircuitBreaker, circuitBreaker.getMemoryTracker());
                         activeEntries.add(entry);
                         queue.get(seq).entry = entry;
                         pubSeq.done(seq);
@@ -177,6 +201,9 @@ public class GroupByNotKeyedVectorRecordCursorFactory extends AbstractRecordCurs
     public void toPlan(PlanSink sink) {
         sink.type("GroupByNotKeyed");
         sink.meta("vectorized").val(true);
+        if (filtered) {
+            sink.meta("filtered").val(true);
+        }
         sink.attr("groupByFunctions").val(vafList);
         sink.child(base);
     }
@@ -201,6 +228,70 @@ public class GroupByNotKeyedVectorRecordCursorFactory extends AbstractRecordCurs
         return reclaimed;
     }
 
+    private RecordCursor getFilteredCursor(SqlExecutionContext executionContext, int workerId) throws SqlException {
+        final SqlExecutionCircuitBreaker circuitBreaker = executionContext.getCircuitBreaker();
+        final PageFrameSequence<?> frameSequence = base.execute(executionContext, collectSubSeq, ORDER_ASC);
+        final int frameLimit = frameSequence.getFrameCount() - 1;
+        final int vafCount = vafList.size();
+        boolean allFramesActive = true;
+        int frameIndex = -1;
+        long cursor = -1;
+        int total = 0;
+        try {
+            while (frameIndex < frameLimit) {
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                cursor = frameSequence.next();
+                if (cursor > -1) {
+                    final PageFrameReduceTask task = frameSequence.getTask(cursor);
+                    allFramesActive &= frameSequence.isActive();
+                    frameIndex = task.getFrameIndex();
+                    final DirectLongList rows = task.getRows();
+                    final long rowCount = rows.size();
+                    // skip aggregation once the sequence is cancelled or failed, but keep collecting frames
+                    if (rowCount > 0 && allFramesActive) {
+                        final PageAddressCache pageAddressCache = task.getPageAddressCache();
+                        for (int i = 0; i < vafCount; i++) {
+                            final VectorAggregateFunction vaf = vafList.getQuick(i);
+                            final int columnIndex = vaf.getColumnIndex();
+                            // count() has no column, it only needs the number of rows
+                            final long pageAddress = columnIndex > -1 ? pageAddressCache.getPageAddress(frameIndex, columnIndex) : 0;
+                            circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+                            vaf.aggregateFiltered(pageAddress, rows.getAddress(), rowCount, workerId);
+                        }
+                        total++;
+                    }
+                    frameSequence.collect(cursor, false);
+                    cursor = -1;
+                } else {
+                    Os.pause();
+                }
+            }
+
+            circuitBreaker.statefulThrowExceptionIfTrippedNoThrottle();
+        } catch (CairoException ce) {
+            // stop reduce workers from filtering frames that won't be aggregated
+            frameSequence.cancel();
+            throw ce;
+        } finally {
+            // errors, including circuit breaker interruptions, propagate with their own message
+            if (cursor > -1) {
+                frameSequence.collect(cursor, true);
+            }
+            if (frameLimit > -1) {
+                frameSequence.await();
+            }
+            frameSequence.clear();
+        }
+
+        if (!allFramesActive) {
+            // reduce workers cancel the sequence when their circuit breaker trips
+            throw CairoException.nonCritical().put(EXCEPTION_MESSAGE).setInterruption(true);
+        }
+
+        LOG.info().$("done [total=").$(total).$(", frameCount=").$(frameLimit + 1).$(']').$();
+        return this.cursor.of(null);
+    }
+
     @Override
     protected void _close() {
         Misc.freeObjList(vafList);
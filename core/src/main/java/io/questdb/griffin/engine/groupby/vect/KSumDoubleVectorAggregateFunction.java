@@ -70,13 +70,7 @@ public class KSumDoubleVectorAggregateFunction extends DoubleFunction implements
             // Kahan compensated summation
             final double x = Vect.sumDoubleKahan(address, addressSize / Double.BYTES);
             if (x == x) {
-                final int sumOffset = workerId * SUM_PADDING;
-                final double sum = this.sum[sumOffset];
-                final double y = x - this.sum[sumOffset + 1]; // y = x - c
-                final double t = sum + y; // t = sum + y
-                this.sum[sumOffset + 1] = t - sum - y; // c = t - sum - y
-                this.sum[sumOffset] = t; // sum = t
-                this.count[workerId * COUNT_PADDING]++;
+                accumulate(x, workerId);
             }
         }
     }
@@ -90,6 +84,28 @@ public class KSumDoubleVectorAggregateFunction extends DoubleFunction implements
         }
     }
 
+    @Override
+    public void aggregateFiltered(long address, long rowsAddress, long rowCount, int workerId) {
+        if (address != 0) {
+            double sum = 0;
+            double c = 0;
+            long count = 0;
+            for (long i = 0; i < rowCount; i++) {
+                final double value = Unsafe.getUnsafe().getDouble(address + (Unsafe.getUnsafe().getLong(rowsAddress + (i << 3)) << 3));
+                if (value == value) {
+                    final double y = value - c;
+                    final double t = sum + y;
+                    c = t - sum - y;
+                    sum = t;
+                    count++;
+                }
+            }
+            if (count > 0) {
+                accumulate(sum, workerId);
+            }
+        }
+    }
+
     @Override
     public void clear() {
         Arrays.fill(sum, 0);
@@ -165,4 +181,14 @@ public class KSumDoubleVectorAggregateFunction extends DoubleFunction implements
         }
         return Rosti.keyedIntKSumDoubleWrapUp(pRosti, valueOffset, sum, count);
     }
+
+    private void accumulate(double x, int workerId) {
+        final int sumOffset = workerId * SUM_PADDING;
+        final double sum = this.sum[sumOffset];
+        final double y = x - this.sum[sumOffset + 1]; // y = x - c
+        final double t = sum + y; // t = sum + y
+        this.sum[sumOffset + 1] = t - sum - y; // c = t - sum - y
+        this.sum[sumOffset] = t; // sum = t
+        this.count[workerId * COUNT_PADDING]++;
+    }
 }
@@ -79,6 +79,21 @@ public class MaxDoubleVectorAggregateFunction extends DoubleFunction implements
         }
     }
 
+    @Override
+    public void aggregateFiltered(long address, long rowsAddress, long rowCount, int workerId) {
+        if (address != 0) {
+            double max = Double.NEGATIVE_INFINITY;
+            for (long i = 0; i < rowCount; i++) {
+                final double value = Unsafe.getUnsafe().getDouble(address + (Unsafe.getUnsafe().getLong(rowsAddress + (i << 3)) << 3));
+                // NaN values fail the comparison and are skipped
+                if (value > max) {
+                    max = value;
+                }
+            }
+            this.max.accumulate(max);
+        }
+    }
+
     @Override
     public void clear() {
         max.reset();
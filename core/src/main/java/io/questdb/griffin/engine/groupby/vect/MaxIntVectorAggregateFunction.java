@@ -77,6 +77,21 @@ public class MaxIntVectorAggregateFunction extends IntFunction implements Vector
         }
     }
 
+    @Override
+    public void aggregateFiltered(long address, long rowsAddress, long rowCount, int workerId) {
+        if (address != 0) {
+            // null is Integer.MIN_VALUE, it never wins the comparison
+            int max = Integer.MIN_VALUE;
+            for (long i = 0; i < rowCount; i++) {
+                final int value = Unsafe.getUnsafe().getInt(address + (Unsafe.getUnsafe().getLong(rowsAddress + (i << 3)) << 2));
+                if (value > max) {
+                    max = value;
+                }
+            }
+            this.max.accumulate(max);
+        }
+    }
+
     @Override
     public void clear() {
         max.reset();
@@ -76,6 +76,21 @@ public class MaxTimestampVectorAggregateFunction extends TimestampFunction imple
         }
     }
 
+    @Override
+    public void aggregateFiltered(long address, long rowsAddress, long rowCount, int workerId) {
+        if (address != 0) {
+            // null is Long.MIN_VALUE, it never wins the comparison
+            long max = Long.MIN_VALUE;
+            for (long i = 0; i < rowCount; i++) {
+                final long value = Unsafe.getUnsafe().getLong(address + (Unsafe.getUnsafe().getLong(rowsAddress + (i << 3)) << 3));
+                if (value > max) {
+                    max = value;
+                }
+            }
+            this.max.accumulate(max);
+        }
+    }
+
     @Override
     public void clear() {
         max.reset();
@@ -81,6 +81,21 @@ public class MinDoubleVectorAggregateFunction extends DoubleFunction implements
         }
     }
 
+    @Override
+    public void aggregateFiltered(long address, long rowsAddress, long rowCount, int workerId) {
+        if (address != 0) {
+            double min = Double.POSITIVE_INFINITY;
+            for (long i = 0; i < rowCount; i++) {
+                final double value = Unsafe.getUnsafe().getDouble(address + (Unsafe.getUnsafe().getLong(rowsAddress + (i << 3)) << 3));
+                // NaN values fail the comparison and are skipped
+                if (value < min) {
+                    min = value;
+                }
+            }
+            this.min.accumulate(min);
+        }
+    }
+
     @Override
     public void clear() {
         min.reset();
@@ -88,6 +88,22 @@ public class MinIntVectorAggregateFunction extends IntFunction implements Vector
         }
     }
 
+    @Override
+    public void aggregateFiltered(long address, long rowsAddress, long rowCount, int workerId) {
+        if (address != 0) {
+            int min = Numbers.INT_NaN;
+            for (long i = 0; i < rowCount; i++) {
+                final int value = Unsafe.getUnsafe().getInt(address + (Unsafe.getUnsafe().getLong(rowsAddress + (i << 3)) << 2));
+                if (value != Numbers.INT_NaN && (min == Numbers.INT_NaN || value < min)) {
+                    min = value;
+                }
+            }
+            if (min != Numbers.INT_NaN) {
+                accumulator.accumulate(min);
+            }
+        }
+    }
+
     @Override
     public void clear() {
         accumulator.reset();
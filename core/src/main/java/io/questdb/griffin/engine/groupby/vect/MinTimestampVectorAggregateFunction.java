@@ -88,6 +88,22 @@ public class MinTimestampVectorAggregateFunction extends TimestampFunction imple
         }
     }
 
+    @Override
+    public void aggregateFiltered(long address, long rowsAddress, long rowCount, int workerId) {
+        if (address != 0) {
+            long min = Numbers.LONG_NaN;
+            for (long i = 0; i < rowCount; i++) {
+                final long value = Unsafe.getUnsafe().getLong(address + (Unsafe.getUnsafe().getLong(rowsAddress + (i << 3)) << 3));
+                if (value != Numbers.LONG_NaN && (min == Numbers.LONG_NaN || value < min)) {
+                    min = value;
+                }
+            }
+            if (min != Numbers.LONG_NaN) {
+                accumulator.accumulate(min);
+            }
+        }
+    }
+
     @Override
     public void clear() {
         accumulator.reset();
@@ -73,18 +73,7 @@ public class NSumDoubleVectorAggregateFunction extends DoubleFunction implements
             // Neumaier compensated summation
             final double x = Vect.sumDoubleNeumaier(address, addressSize / Double.BYTES);
             if (x == x) {
-                final int sumOffset = workerId * SUM_PADDING;
-                final double sum = this.sum[sumOffset];
-                final double t = sum + x;
-                double c = this.sum[sumOffset + 1];
-                if (Math.abs(sum) >= x) {
-                    c += (sum - t) + x;
-                } else {
-                    c += (x - t) + sum;
-                }
-                this.sum[sumOffset] = t; // sum = t
-                this.sum[sumOffset + 1] = c;
-                this.count[workerId * COUNT_PADDING]++;
+                accumulate(x, workerId);
             }
         }
     }
@@ -98,6 +87,31 @@ public class NSumDoubleVectorAggregateFunction extends DoubleFunction implements
         }
     }
 
+    @Override
+    public void aggregateFiltered(long address, long rowsAddress, long rowCount, int workerId) {
+        if (address != 0) {
+            double sum = 0;
+            double c = 0;
+            long count = 0;
+            for (long i = 0; i < rowCount; i++) {
+                final double value = Unsafe.getUnsafe().getDouble(address + (Unsafe.getUnsafe().getLong(rowsAddress + (i << 3)) << 3));
+                if (value == value) {
+                    final double t = sum + value;
+                    if (Math.abs(sum) >= Math.abs(value)) {
+                        c += (sum - t) + value;
+                    } else {
+                        c += (value - t) + sum;
+                    }
+                    sum = t;
+                    count++;
+                }
+            }
+            if (count > 0) {
+                accumulate(sum + c, workerId);
+            }
+        }
+    }
+
     @Override
     public void clear() {
         Arrays.fill(sum, 0);
@@ -156,6 +170,21 @@ public class NSumDoubleVectorAggregateFunction extends DoubleFunction implements
         return Rosti.keyedIntNSumDoubleWrapUp(pRosti, valueOffset, transientSum, transientCount, transientC);
     }
 
+    private void accumulate(double x, int workerId) {
+        final int sumOffset = workerId * SUM_PADDING;
+        final double sum = this.sum[sumOffset];
+        final double t = sum + x;
+        double c = this.sum[sumOffset + 1];
+        if (Math.abs(sum) >= x) {
+            c += (sum - t) + x;
+        } else {
+            c += (x - t) + sum;
+        }
+        this.sum[sumOffset] = t; // sum = t
+        this.sum[sumOffset + 1] = c;
+        this.count[workerId * COUNT_PADDING]++;
+    }
+
     private void computeSum() {
         double sum = 0;
         long count = 0;
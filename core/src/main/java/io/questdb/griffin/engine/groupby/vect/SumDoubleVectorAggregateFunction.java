@@ -87,6 +87,25 @@ public class SumDoubleVectorAggregateFunction extends DoubleFunction implements
         }
     }
 
+    @Override
+    public void aggregateFiltered(long address, long rowsAddress, long rowCount, int workerId) {
+        if (address != 0) {
+            double sum = 0;
+            long count = 0;
+            for (long i = 0; i < rowCount; i++) {
+                final double value = Unsafe.getUnsafe().getDouble(address + (Unsafe.getUnsafe().getLong(rowsAddress + (i << 3)) << 3));
+                if (value == value) {
+                    sum += value;
+                    count++;
+                }
+            }
+            if (count > 0) {
+                this.sum[workerId * SUM_PADDING] += sum;
+                this.count[workerId * COUNT_PADDING]++;
+            }
+        }
+    }
+
     @Override
     public void clear() {
         Arrays.fill(sum, 0);
@@ -63,15 +63,9 @@ public class SumLong256VectorAggregateFunction extends Long256Function implement
     public void aggregate(long address, long addressSize, int columnSizeHint, int workerId) {
         if (address != 0) {
             final long count = addressSize / (Long.BYTES * 4);
-            Long256Impl value = sumLong256(partialSums.get(), address, count);
+            Long256Impl value = sumLong256(partialSums.get(), address, 0, count);
             if (value != Long256Impl.NULL_LONG256) {
-                lock.lock();
-                try {
-                    Long256Util.add(sumA, value);
-                    this.count.increment();
-                } finally {
-                    lock.unlock();
-                }
+                accumulate(value);
             }
         }
     }
@@ -85,6 +79,16 @@ public class SumLong256VectorAggregateFunction extends Long256Function implement
         }
     }
 
+    @Override
+    public void aggregateFiltered(long address, long rowsAddress, long rowCount, int workerId) {
+        if (address != 0) {
+            Long256Impl value = sumLong256(partialSums.get(), address, rowsAddress, rowCount);
+            if (value != Long256Impl.NULL_LONG256) {
+                accumulate(value);
+            }
+        }
+    }
+
     @Override
     public void clear() {
         sumA.setAll(0, 0, 0, 0);
@@ -151,11 +155,25 @@ public class SumLong256VectorAggregateFunction extends Long256Function implement
         return Rosti.keyedIntSumLong256WrapUp(pRosti, valueOffset, sumA.getLong0(), sumA.getLong1(), sumA.getLong2(), sumA.getLong3(), count.sum());
     }
 
-    private Long256Impl sumLong256(Long256Impl sum, long address, long count) {
+    private void accumulate(Long256Impl value) {
+        lock.lock();
+        try {
+            Long256Util.add(sumA, value);
+            this.count.increment();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // sums count values, either contiguous or at the row indexes listed at rowsAddress when it is not 0
+    private Long256Impl sumLong256(Long256Impl sum, long address, long rowsAddress, long count) {
         boolean hasData = false;
         long offset = 0;
         sum.setAll(0, 0, 0, 0);
         for (long i = 0; i < count; i++) {
+            if (rowsAddress != 0) {
+                offset = Unsafe.getUnsafe().getLong(rowsAddress + (i << 3)) << 5;
+            }
             final long l0 = Unsafe.getUnsafe().getLong(address + offset);
             final long l1 = Unsafe.getUnsafe().getLong(address + offset + Long.BYTES);
             final long l2 = Unsafe.getUnsafe().getLong(address + offset + Long.BYTES * 2);
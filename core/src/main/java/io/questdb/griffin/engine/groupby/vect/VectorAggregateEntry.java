@@ -27,9 +27,11 @@ package io.questdb.griffin.engine.groupby.vect;
 import io.questdb.cairo.sql.ExecutionCircuitBreaker;
 import io.questdb.mp.CountDownLatchSPI;
 import io.questdb.std.AbstractLockable;
+import io.questdb.std.MemoryTracker;
 import io.questdb.std.Mutable;
 import io.questdb.std.Rosti;
 import io.questdb.std.RostiAllocFacade;
+import io.questdb.std.Unsafe;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.concurrent.atomic.AtomicInteger;
@@ -40,6 +42,7 @@ public class VectorAggregateEntry extends AbstractLockable implements Mutable {
     private CountDownLatchSPI doneLatch;
     private VectorAggregateFunction func;
     private long keyAddress;
+    private MemoryTracker memoryTracker;
     private AtomicInteger oomCounter;
     private long[] pRosti;
     private RostiAllocFacade raf;
@@ -57,14 +60,21 @@ public class VectorAggregateEntry extends AbstractLockable implements Mutable {
         if (tryLock()) {
             if (!circuitBreaker.checkIfTripped() &&
                     (oomCounter == null || oomCounter.get() == 0)) {
-                if (pRosti != null) {
-                    long oldSize = Rosti.getAllocMemory(pRosti[workerId]);
-                    if (!func.aggregate(pRosti[workerId], keyAddress, valueAddress, valueCount, columnSizeShr, workerId)) {
-                        oomCounter.incrementAndGet();
+                // charge map growth to the query, entry may be run by a worker or by another query's thread
+                final MemoryTracker threadMemoryTracker = Unsafe.getThreadMemoryTracker();
+                Unsafe.setThreadMemoryTracker(memoryTracker);
+                try {
+                    if (pRosti != null) {
+                        long oldSize = Rosti.getAllocMemory(pRosti[workerId]);
+                        if (!func.aggregate(pRosti[workerId], keyAddress, valueAddress, valueCount, columnSizeShr, workerId)) {
+                            oomCounter.incrementAndGet();
+                        }
+                        raf.updateMemoryUsage(pRosti[workerId], oldSize);
+                    } else {
+                        func.aggregate(valueAddress, valueCount, columnSizeShr, workerId);
                     }
-                    raf.updateMemoryUsage(pRosti[workerId], oldSize);
-                } else {
-                    func.aggregate(valueAddress, valueCount, columnSizeShr, workerId);
+                } finally {
+                    Unsafe.setThreadMemoryTracker(threadMemoryTracker);
                 }
             }
             doneLatch.countDown();
@@ -85,7 +95,8 @@ public class VectorAggregateEntry extends AbstractLockable implements Mutable {
             // oom is not possible when aggregation is not keyed
             @Nullable AtomicInteger oomCounter,
             RostiAllocFacade raf,
-            ExecutionCircuitBreaker circuitBreaker
+            ExecutionCircuitBreaker circuitBreaker,
+            @Nullable MemoryTracker memoryTracker
     ) {
         of(sequence);
         this.pRosti = pRosti;
@@ -98,5 +109,6 @@ public class VectorAggregateEntry extends AbstractLockable implements Mutable {
         this.oomCounter = oomCounter;
         this.raf = raf;
         this.circuitBreaker = circuitBreaker;
+        this.memoryTracker = memoryTracker;
     }
 }
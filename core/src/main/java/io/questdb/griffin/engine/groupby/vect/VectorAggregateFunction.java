@@ -34,6 +34,9 @@ public interface VectorAggregateFunction extends Function, Mutable {
 
     boolean aggregate(long pRosti, long keyAddress, long valueAddress, long valueAddressSize, int columnSizeShr, int workerId);
 
+    // aggregates values at the row indexes selected by a filter, rowsAddress points to the list of rowCount longs
+    void aggregateFiltered(long address, long rowsAddress, long rowCount, int workerId);
+
     int getColumnIndex();
 
     // value offset in map
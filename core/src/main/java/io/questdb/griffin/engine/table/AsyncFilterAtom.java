@@ -43,14 +43,22 @@ public class AsyncFilterAtom implements StatefulAtom, Closeable {
     private final Function filter;
     private final ObjList<Function> perWorkerFilters;
     private final AtomicIntegerArray perWorkerLocks;
+    private final IntList preTouchColumnIndexes;
     private final IntList preTouchColumnTypes;
     // Used to randomize acquire attempts for work stealing threads. Accessed in a racy way, intentionally.
     private final Rnd rnd = new Rnd();
 
+    /**
+     * @param filter                 filter function
+     * @param perWorkerFilters       filter clones for the reduce workers, null if the filter is thread-safe
+     * @param metadata               metadata of the filtered page frames
+     * @param preTouchColumnIndexes  columns to pre-touch for the filtered rows, null to disable pre-touch
+     */
     public AsyncFilterAtom(
             @NotNull Function filter,
             @Nullable ObjList<Function> perWorkerFilters,
-            @Nullable IntList preTouchColumnTypes
+            @NotNull RecordMetadata metadata,
+            @Nullable IntList preTouchColumnIndexes
     ) {
         this.filter = filter;
         this.perWorkerFilters = perWorkerFilters;
@@ -59,7 +67,15 @@ public class AsyncFilterAtom implements StatefulAtom, Closeable {
         } else {
             perWorkerLocks = null;
         }
-        this.preTouchColumnTypes = preTouchColumnTypes;
+        this.preTouchColumnIndexes = preTouchColumnIndexes;
+        if (preTouchColumnIndexes != null) {
+            this.preTouchColumnTypes = new IntList(preTouchColumnIndexes.size());
+            for (int i = 0, n = preTouchColumnIndexes.size(); i < n; i++) {
+                preTouchColumnTypes.add(metadata.getColumnType(preTouchColumnIndexes.getQuick(i)));
+            }
+        } else {
+            this.preTouchColumnTypes = null;
+        }
     }
 
     public int acquireFilter(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
@@ -117,7 +133,9 @@ public class AsyncFilterAtom implements StatefulAtom, Closeable {
      * <p>
      * The idea is to access the memory to page fault and, thus, warm up the pages
      * in parallel, on multiple threads, instead of relying on the "query owner" thread
-     * to do it later serially.
+     * to do it later serially. Columns referenced by the filter are not in the list: their
+     * pages are already touched by the filter pass. The remaining columns are materialized
+     * for the filtered rows only, so pages with no matching rows are never faulted in.
      */
     public void preTouchColumns(PageAddressCacheRecord record, DirectLongList rows) {
         if (preTouchColumnTypes == null) {
@@ -128,8 +146,9 @@ public class AsyncFilterAtom implements StatefulAtom, Closeable {
         for (long p = 0; p < rows.size(); p++) {
             long r = rows.get(p);
             record.setRowIndex(r);
-            for (int i = 0; i < preTouchColumnTypes.size(); i++) {
-                int columnType = preTouchColumnTypes.getQuick(i);
+            for (int c = 0, n = preTouchColumnTypes.size(); c < n; c++) {
+                final int columnType = preTouchColumnTypes.getQuick(c);
+                final int i = preTouchColumnIndexes.getQuick(c);
                 switch (ColumnType.tagOf(columnType)) {
                     case ColumnType.BOOLEAN:
                         sum += record.getBool(i) ? 1 : 0;
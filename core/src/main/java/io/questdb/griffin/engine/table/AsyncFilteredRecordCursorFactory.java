@@ -31,6 +31,7 @@ import io.questdb.cairo.sql.*;
 import io.questdb.cairo.sql.async.PageFrameReduceTask;
 import io.questdb.cairo.sql.async.PageFrameReducer;
 import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.mp.SCSequence;
@@ -48,12 +49,15 @@ public class AsyncFilteredRecordCursorFactory extends AbstractRecordCursorFactor
     private final RecordCursorFactory base;
     private final SCSequence collectSubSeq = new SCSequence();
     private final AsyncFilteredRecordCursor cursor;
+    private final Function filter;
     private final AsyncFilterAtom filterAtom;
     private final PageFrameSequence<AsyncFilterAtom> frameSequence;
     private final Function limitLoFunction;
     private final int limitLoPos;
     private final int maxNegativeLimit;
     private final AsyncFilteredNegativeLimitRecordCursor negativeLimitCursor;
+    private final int pageFrameMaxRows;
+    private final int pageFrameMinRows;
     private DirectLongList negativeLimitRows;
 
     public AsyncFilteredRecordCursorFactory(
@@ -65,26 +69,26 @@ public class AsyncFilteredRecordCursorFactory extends AbstractRecordCursorFactor
             @Nullable ObjList<Function> perWorkerFilters,
             @Nullable Function limitLoFunction,
             int limitLoPos,
-            boolean preTouchColumns
+            @Nullable IntList preTouchColumnIndexes
     ) {
         super(base.getMetadata());
         assert !(base instanceof AsyncFilteredRecordCursorFactory);
         this.base = base;
         this.cursor = new AsyncFilteredRecordCursor(filter, base.hasDescendingOrder());
         this.negativeLimitCursor = new AsyncFilteredNegativeLimitRecordCursor();
-        IntList preTouchColumnTypes = null;
-        if (preTouchColumns) {
-            preTouchColumnTypes = new IntList();
-            for (int i = 0, n = base.getMetadata().getColumnCount(); i < n; i++) {
-                int columnType = base.getMetadata().getColumnType(i);
-                preTouchColumnTypes.add(columnType);
-            }
-        }
-        this.filterAtom = new AsyncFilterAtom(filter, perWorkerFilters, preTouchColumnTypes);
+        this.filterAtom = new AsyncFilterAtom(filter, perWorkerFilters, base.getMetadata(), preTouchColumnIndexes);
         this.frameSequence = new PageFrameSequence<>(configuration, messageBus, REDUCER, localTaskPool);
         this.limitLoFunction = limitLoFunction;
         this.limitLoPos = limitLoPos;
         this.maxNegativeLimit = configuration.getSqlMaxNegativeLimit();
+        this.filter = filter;
+        this.pageFrameMinRows = configuration.getSqlPageFrameMinRows();
+        this.pageFrameMaxRows = configuration.getSqlPageFrameMaxRows();
+    }
+
+    @Override
+    public boolean dispatchesPageFrames() {
+        return true;
     }
 
     @Override
@@ -148,6 +152,16 @@ public class AsyncFilteredRecordCursorFactory extends AbstractRecordCursorFactor
         return base.supportsUpdateRowId(tableName);
     }
 
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("AsyncFilter");
+        sink.attr("filter").val(filter);
+        // configured bounds, actual frame size is computed per partition on execution
+        sink.attr("configuredPageFrameMinRows").val(pageFrameMinRows);
+        sink.attr("configuredPageFrameMaxRows").val(pageFrameMaxRows);
+        sink.child(base);
+    }
+
     @Override
     public boolean usesCompiledFilter() {
         return base.usesCompiledFilter();
@@ -34,6 +34,7 @@ import io.questdb.cairo.sql.async.PageFrameReducer;
 import io.questdb.cairo.sql.async.PageFrameSequence;
 import io.questdb.cairo.vm.Vm;
 import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.PlanSink;
 import io.questdb.griffin.SqlException;
 import io.questdb.griffin.SqlExecutionContext;
 import io.questdb.griffin.engine.functions.bind.CompiledFilterSymbolBindVariable;
@@ -53,12 +54,15 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
     private final RecordCursorFactory base;
     private final SCSequence collectSubSeq = new SCSequence();
     private final AsyncFilteredRecordCursor cursor;
+    private final Function filter;
     private final AsyncJitFilterAtom filterAtom;
     private final PageFrameSequence<AsyncJitFilterAtom> frameSequence;
     private final Function limitLoFunction;
     private final int limitLoPos;
     private final int maxNegativeLimit;
     private final AsyncFilteredNegativeLimitRecordCursor negativeLimitCursor;
+    private final int pageFrameMaxRows;
+    private final int pageFrameMinRows;
     private DirectLongList negativeLimitRows;
 
     public AsyncJitFilteredRecordCursorFactory(
@@ -72,7 +76,7 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
             @NotNull @Transient WeakClosableObjectPool<PageFrameReduceTask> localTaskPool,
             @Nullable Function limitLoFunction,
             int limitLoPos,
-            boolean preTouchColumns
+            @Nullable IntList preTouchColumnIndexes
     ) {
         super(base.getMetadata());
         assert !(base instanceof FilteredRecordCursorFactory);
@@ -82,19 +86,19 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
         this.negativeLimitCursor = new AsyncFilteredNegativeLimitRecordCursor();
         MemoryCARW bindVarMemory = Vm.getCARWInstance(configuration.getSqlJitBindVarsMemoryPageSize(),
                 configuration.getSqlJitBindVarsMemoryMaxPages(), MemoryTag.NATIVE_JIT);
-        IntList preTouchColumnTypes = null;
-        if (preTouchColumns) {
-            preTouchColumnTypes = new IntList();
-            for (int i = 0, n = base.getMetadata().getColumnCount(); i < n; i++) {
-                int columnType = base.getMetadata().getColumnType(i);
-                preTouchColumnTypes.add(columnType);
-            }
-        }
-        this.filterAtom = new AsyncJitFilterAtom(filter, perWorkerFilters, compiledFilter, bindVarMemory, bindVarFunctions, preTouchColumnTypes);
+        this.filterAtom = new AsyncJitFilterAtom(filter, perWorkerFilters, compiledFilter, bindVarMemory, bindVarFunctions, base.getMetadata(), preTouchColumnIndexes);
         this.frameSequence = new PageFrameSequence<>(configuration, messageBus, REDUCER, localTaskPool);
         this.limitLoFunction = limitLoFunction;
         this.limitLoPos = limitLoPos;
         this.maxNegativeLimit = configuration.getSqlMaxNegativeLimit();
+        this.filter = filter;
+        this.pageFrameMinRows = configuration.getSqlPageFrameMinRows();
+        this.pageFrameMaxRows = configuration.getSqlPageFrameMaxRows();
+    }
+
+    @Override
+    public boolean dispatchesPageFrames() {
+        return true;
     }
 
     @Override
@@ -157,6 +161,16 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
         return base.supportsUpdateRowId(tableName);
     }
 
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("AsyncJitFilter");
+        sink.attr("filter").val(filter);
+        // configured bounds, actual frame size is computed per partition on execution
+        sink.attr("configuredPageFrameMinRows").val(pageFrameMinRows);
+        sink.attr("configuredPageFrameMaxRows").val(pageFrameMaxRows);
+        sink.child(base);
+    }
+
     @Override
     public boolean usesCompiledFilter() {
         return true;
@@ -248,9 +262,10 @@ public class AsyncJitFilteredRecordCursorFactory extends AbstractRecordCursorFac
                 CompiledFilter compiledFilter,
                 MemoryCARW bindVarMemory,
                 ObjList<Function> bindVarFunctions,
-                @Nullable IntList preTouchColumnTypes
+                RecordMetadata metadata,
+                @Nullable IntList preTouchColumnIndexes
         ) {
-            super(filter, perWorkerFilters, preTouchColumnTypes);
+            super(filter, perWorkerFilters, metadata, preTouchColumnIndexes);
             this.compiledFilter = compiledFilter;
             this.bindVarMemory = bindVarMemory;
             this.bindVarFunctions = bindVarFunctions;
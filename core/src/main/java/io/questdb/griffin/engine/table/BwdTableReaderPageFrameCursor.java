@@ -99,12 +99,7 @@ public class BwdTableReaderPageFrameCursor implements PageFrameCursor {
             this.reenterPartitionIndex = dataFrame.getPartitionIndex();
             final long lo = dataFrame.getRowLo();
             final long hi = dataFrame.getRowHi();
-            this.currentPageFrameRowLimit = Math.min(
-                    pageFrameMaxRows,
-                    Math.max(
-                            pageFrameMinRows, (hi - lo) / workerCount
-                    )
-            );
+            this.currentPageFrameRowLimit = FwdTableReaderPageFrameCursor.computePageFrameRowLimit(hi - lo, workerCount, pageFrameMinRows, pageFrameMaxRows);
             return computeFrame(lo, hi);
         }
         return null;
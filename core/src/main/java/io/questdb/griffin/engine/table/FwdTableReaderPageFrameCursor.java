@@ -69,6 +69,23 @@ public class FwdTableReaderPageFrameCursor implements PageFrameCursor {
         this.pageFrameMaxRows = pageFrameMaxRows;
     }
 
+    /**
+     * Calculates max number of rows in page frames of a data frame. Data frame is split
+     * between workers within min and max page frame size, then the limit is evened out,
+     * so that large partitions don't end with a short tail frame. For example, with 1M max
+     * rows a 1.1M row partition is split into two frames of 550K rows rather than 1M and 100K.
+     * The result never goes below min or above max page frame rows.
+     */
+    static long computePageFrameRowLimit(long rowCount, int workerCount, int pageFrameMinRows, int pageFrameMaxRows) {
+        final long limit = Math.min(pageFrameMaxRows, Math.max(pageFrameMinRows, rowCount / workerCount));
+        if (limit < 1 || rowCount <= limit) {
+            return limit;
+        }
+        final long frameCount = (rowCount + limit - 1) / limit;
+        // max rows take precedence when misconfigured below min rows, as above
+        return Math.min(pageFrameMaxRows, Math.max(pageFrameMinRows, (rowCount + frameCount - 1) / frameCount));
+    }
+
     @Override
     public void close() {
         dataFrameCursor = Misc.free(dataFrameCursor);
@@ -99,12 +116,7 @@ public class FwdTableReaderPageFrameCursor implements PageFrameCursor {
             this.reenterPartitionIndex = dataFrame.getPartitionIndex();
             final long lo = dataFrame.getRowLo();
             final long hi = dataFrame.getRowHi();
-            this.currentPageFrameRowLimit = Math.min(
-                    pageFrameMaxRows,
-                    Math.max(
-                            pageFrameMinRows, (hi - lo) / workerCount
-                    )
-            );
+            this.currentPageFrameRowLimit = computePageFrameRowLimit(hi - lo, workerCount, pageFrameMinRows, pageFrameMaxRows);
             return computeFrame(lo, hi);
         }
         return null;
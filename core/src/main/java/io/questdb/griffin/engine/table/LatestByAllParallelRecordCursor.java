@@ -0,0 +1,191 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.std.DirectLongList;
+import io.questdb.std.Misc;
+import io.questdb.std.Os;
+import io.questdb.std.Rows;
+
+class LatestByAllParallelRecordCursor implements RecordCursor {
+
+    private static final String exceptionMessage = "timeout, query aborted";
+    private final PageAddressCacheRecord record;
+    private final RecordSink recordSink;
+    private long cursor = -1;
+    private PageFrameSequence<LatestByAllParallelRecordCursorFactory.LatestByAllAtom> frameSequence;
+    private long index;
+    private boolean isOpen;
+    private Map map;
+    private PageAddressCacheRecord recordB;
+    // row ids of the latest rows, encoded as frame index and row index within the frame, newest first
+    private DirectLongList rows;
+
+    public LatestByAllParallelRecordCursor(Map map, DirectLongList rows, RecordSink recordSink) {
+        this.map = map;
+        this.rows = rows;
+        this.recordSink = recordSink;
+        this.record = new PageAddressCacheRecord();
+    }
+
+    @Override
+    public void close() {
+        if (isOpen) {
+            if (frameSequence != null) {
+                collectCursor(true);
+                if (frameSequence.getFrameCount() > 0) {
+                    frameSequence.await();
+                }
+                frameSequence.getAtom().clear();
+                frameSequence.clear();
+            }
+            map.close();
+            isOpen = false;
+        }
+    }
+
+    public void destroy() {
+        map = Misc.free(map);
+        rows = Misc.free(rows);
+        Misc.free(record);
+        Misc.free(recordB);
+    }
+
+    @Override
+    public Record getRecord() {
+        return record;
+    }
+
+    @Override
+    public Record getRecordB() {
+        if (recordB != null) {
+            return recordB;
+        }
+        recordB = new PageAddressCacheRecord(record);
+        return recordB;
+    }
+
+    @Override
+    public SymbolTable getSymbolTable(int columnIndex) {
+        return frameSequence.getSymbolTableSource().getSymbolTable(columnIndex);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (index > -1) {
+            recordAt(record, rows.get(index--));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public SymbolTable newSymbolTable(int columnIndex) {
+        return frameSequence.getSymbolTableSource().newSymbolTable(columnIndex);
+    }
+
+    @Override
+    public void recordAt(Record record, long atRowId) {
+        ((PageAddressCacheRecord) record).setFrameIndex(Rows.toPartitionIndex(atRowId));
+        ((PageAddressCacheRecord) record).setRowIndex(Rows.toLocalRowID(atRowId));
+    }
+
+    @Override
+    public long size() {
+        return rows.size();
+    }
+
+    @Override
+    public void toTop() {
+        // rows are kept until the cursor is closed, so there is no need to scan the table again
+        index = rows.size() - 1;
+    }
+
+    private void collectCursor(boolean forceCollect) {
+        if (cursor > -1) {
+            frameSequence.collect(cursor, forceCollect);
+            cursor = -1;
+        }
+    }
+
+    private void mergeFrames(SqlExecutionCircuitBreaker circuitBreaker) {
+        final int frameCount = frameSequence.getFrameCount();
+        int frameIndex = -1;
+        while (frameIndex < frameCount - 1) {
+            circuitBreaker.statefulThrowExceptionIfTripped();
+            cursor = frameSequence.next();
+            if (cursor < 0) {
+                Os.pause();
+                continue;
+            }
+
+            final PageFrameReduceTask task = frameSequence.getTask(cursor);
+            frameIndex = task.getFrameIndex();
+            if (!frameSequence.isActive()) {
+                throw CairoException.nonCritical().put(exceptionMessage).setInterruption(true);
+            }
+
+            // frames are collected newest first, so the first row seen for a key is the latest one
+            final DirectLongList frameRows = task.getRows();
+            record.setFrameIndex(frameIndex);
+            for (long i = 0, n = frameRows.size(); i < n; i++) {
+                final long r = frameRows.get(i);
+                record.setRowIndex(r);
+                final MapKey key = map.withKey();
+                key.put(record, recordSink);
+                if (key.create()) {
+                    rows.add(Rows.toRowID(frameIndex, r));
+                }
+            }
+            collectCursor(false);
+        }
+    }
+
+    void of(PageFrameSequence<LatestByAllParallelRecordCursorFactory.LatestByAllAtom> frameSequence, SqlExecutionCircuitBreaker circuitBreaker) {
+        this.isOpen = true;
+        this.frameSequence = frameSequence;
+        record.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        if (recordB != null) {
+            recordB.of(frameSequence.getSymbolTableSource(), frameSequence.getPageAddressCache());
+        }
+        map.reopen();
+        rows.clear();
+        try {
+            mergeFrames(circuitBreaker);
+        } catch (Throwable e) {
+            close();
+            throw e;
+        }
+        toTop();
+    }
+}
@@ -0,0 +1,230 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.table;
+
+import io.questdb.MessageBus;
+import io.questdb.cairo.AbstractRecordCursorFactory;
+import io.questdb.cairo.CairoConfiguration;
+import io.questdb.cairo.ColumnTypes;
+import io.questdb.cairo.RecordSink;
+import io.questdb.cairo.map.Map;
+import io.questdb.cairo.map.MapFactory;
+import io.questdb.cairo.map.MapKey;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.async.PageFrameReduceTask;
+import io.questdb.cairo.sql.async.PageFrameReducer;
+import io.questdb.cairo.sql.async.PageFrameSequence;
+import io.questdb.griffin.PlanSink;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.SqlExecutionContext;
+import io.questdb.mp.SCSequence;
+import io.questdb.mp.Sequence;
+import io.questdb.std.*;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Closeable;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_DESC;
+
+/**
+ * Parallel LATEST BY over all distinct values of arbitrary key columns.
+ * <p>
+ * Page frames are dispatched newest-first. Each reduce worker finds the latest row
+ * for every key within its frame using a worker-local map. The query owner thread
+ * then merges frame results in frame order, so that the first row seen for a key
+ * is the latest one.
+ */
+public class LatestByAllParallelRecordCursorFactory extends AbstractRecordCursorFactory {
+
+    private static final PageFrameReducer REDUCER = LatestByAllParallelRecordCursorFactory::findLatest;
+
+    private final LatestByAllAtom atom;
+    private final RecordCursorFactory base;
+    private final SCSequence collectSubSeq = new SCSequence();
+    private final LatestByAllParallelRecordCursor cursor;
+    private final PageFrameSequence<LatestByAllAtom> frameSequence;
+
+    public LatestByAllParallelRecordCursorFactory(
+            @NotNull CairoConfiguration configuration,
+            @NotNull MessageBus messageBus,
+            @NotNull RecordCursorFactory base,
+            @NotNull RecordSink recordSink,
+            @Transient @NotNull ColumnTypes keyTypes,
+            @NotNull @Transient WeakClosableObjectPool<PageFrameReduceTask> localTaskPool,
+            int workerCount
+    ) {
+        super(base.getMetadata());
+        assert base.supportPageFrameCursor();
+        this.base = base;
+        this.atom = new LatestByAllAtom(configuration, keyTypes, recordSink, workerCount);
+        this.frameSequence = new PageFrameSequence<>(configuration, messageBus, REDUCER, localTaskPool);
+        this.cursor = new LatestByAllParallelRecordCursor(
+                MapFactory.createMap(configuration, keyTypes),
+                new DirectLongList(configuration.getSqlLatestByRowCount(), MemoryTag.NATIVE_LATEST_BY_LONG_LIST),
+                recordSink
+        );
+    }
+
+    @Override
+    public PageFrameSequence<LatestByAllAtom> execute(SqlExecutionContext executionContext, Sequence collectSubSeq, int order) throws SqlException {
+        return frameSequence.of(base, executionContext, collectSubSeq, atom, ORDER_DESC);
+    }
+
+    @Override
+    public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
+        cursor.of(execute(executionContext, collectSubSeq, ORDER_DESC), executionContext.getCircuitBreaker());
+        return cursor;
+    }
+
+    @Override
+    public boolean recordCursorSupportsRandomAccess() {
+        return true;
+    }
+
+    @Override
+    public void toPlan(PlanSink sink) {
+        sink.type("LatestByAllParallel");
+        sink.attr("workers").val(atom.getWorkerCount());
+        sink.child(base);
+    }
+
+    private static void findLatest(
+            int workerId,
+            @NotNull PageAddressCacheRecord record,
+            @NotNull PageFrameReduceTask task,
+            @NotNull SqlExecutionCircuitBreaker circuitBreaker,
+            @Nullable PageFrameSequence<?> stealingFrameSequence
+    ) {
+        final DirectLongList rows = task.getRows();
+        final long frameRowCount = task.getFrameRowCount();
+        final LatestByAllAtom atom = task.getFrameSequence(LatestByAllAtom.class).getAtom();
+
+        rows.clear();
+
+        final boolean owner = stealingFrameSequence != null && stealingFrameSequence == task.getFrameSequence();
+        final int mapId = atom.acquireMap(workerId, owner, circuitBreaker);
+        final Map map = atom.getMap(mapId);
+        final RecordSink recordSink = atom.getRecordSink();
+        try {
+            map.clear();
+            // frame rows are in ascending timestamp order, so scan them backwards
+            for (long r = frameRowCount - 1; r > -1; r--) {
+                record.setRowIndex(r);
+                final MapKey key = map.withKey();
+                key.put(record, recordSink);
+                if (key.create()) {
+                    rows.add(r);
+                }
+            }
+        } finally {
+            atom.releaseMap(mapId);
+        }
+    }
+
+    @Override
+    protected void _close() {
+        Misc.free(base);
+        Misc.free(cursor);
+        Misc.free(frameSequence);
+        Misc.free(atom);
+        cursor.destroy();
+    }
+
+    static class LatestByAllAtom implements StatefulAtom, Closeable {
+        // the last map is reserved for the query owner thread
+        private final ObjList<Map> perWorkerMaps;
+        private final AtomicIntegerArray perWorkerLocks;
+        private final RecordSink recordSink;
+        // Used to randomize acquire attempts for work stealing threads. Accessed in a racy way, intentionally.
+        private final Rnd rnd = new Rnd();
+        private final int workerCount;
+
+        LatestByAllAtom(CairoConfiguration configuration, @Transient ColumnTypes keyTypes, RecordSink recordSink, int workerCount) {
+            this.recordSink = recordSink;
+            this.workerCount = workerCount;
+            this.perWorkerMaps = new ObjList<>(workerCount + 1);
+            for (int i = 0; i <= workerCount; i++) {
+                perWorkerMaps.add(MapFactory.createMap(configuration, keyTypes));
+            }
+            this.perWorkerLocks = new AtomicIntegerArray(workerCount);
+        }
+
+        public int acquireMap(int workerId, boolean owner, SqlExecutionCircuitBreaker circuitBreaker) {
+            if (workerId == -1 && owner) {
+                return workerCount;
+            }
+            workerId = workerId == -1 ? rnd.nextInt(workerCount) : workerId;
+            while (true) {
+                for (int i = 0; i < workerCount; i++) {
+                    int id = (i + workerId) % workerCount;
+                    if (perWorkerLocks.compareAndSet(id, 0, 1)) {
+                        return id;
+                    }
+                }
+                circuitBreaker.statefulThrowExceptionIfTripped();
+                Os.pause();
+            }
+        }
+
+        public void clear() {
+            // release map memory between queries, maps are reopened on next init()
+            for (int i = 0, n = perWorkerMaps.size(); i < n; i++) {
+                perWorkerMaps.getQuick(i).close();
+            }
+        }
+
+        @Override
+        public void close() {
+            Misc.freeObjList(perWorkerMaps);
+        }
+
+        public Map getMap(int mapId) {
+            return perWorkerMaps.getQuick(mapId);
+        }
+
+        public RecordSink getRecordSink() {
+            return recordSink;
+        }
+
+        public int getWorkerCount() {
+            return workerCount;
+        }
+
+        @Override
+        public void init(SymbolTableSource symbolTableSource, SqlExecutionContext executionContext) {
+            for (int i = 0, n = perWorkerMaps.size(); i < n; i++) {
+                perWorkerMaps.getQuick(i).reopen();
+            }
+        }
+
+        public void releaseMap(int mapId) {
+            if (mapId < workerCount) {
+                perWorkerLocks.set(mapId, 0);
+            }
+        }
+    }
+}
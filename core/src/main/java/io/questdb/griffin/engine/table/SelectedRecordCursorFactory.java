@@ -43,6 +43,11 @@ public class SelectedRecordCursorFactory extends AbstractRecordCursorFactory {
         this.cursor = new SelectedRecordCursor(columnCrossIndex, base.recordCursorSupportsRandomAccess());
     }
 
+    @Override
+    public boolean dispatchesPageFrames() {
+        return base.dispatchesPageFrames();
+    }
+
     @Override
     public boolean followedOrderByAdvice() {
         return base.followedOrderByAdvice();
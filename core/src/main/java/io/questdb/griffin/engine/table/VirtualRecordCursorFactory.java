@@ -59,6 +59,11 @@ public class VirtualRecordCursorFactory extends AbstractRecordCursorFactory {
         this.baseFactory = baseFactory;
     }
 
+    @Override
+    public boolean dispatchesPageFrames() {
+        return baseFactory.dispatchesPageFrames();
+    }
+
     @Override
     public RecordCursor getCursor(SqlExecutionContext executionContext) throws SqlException {
         RecordCursor cursor = baseFactory.getCursor(executionContext);
@@ -24,19 +24,29 @@
 
 package io.questdb.griffin.model;
 
+import io.questdb.std.IntList;
 import io.questdb.std.Mutable;
+import io.questdb.std.ObjList;
 import io.questdb.std.ObjectFactory;
 import io.questdb.std.Sinkable;
 import io.questdb.std.str.CharSink;
 
 public class CopyModel implements ExecutionModel, Mutable, Sinkable {
     public static final ObjectFactory<CopyModel> FACTORY = CopyModel::new;
+    // data formats of COPY FROM STDIN and COPY TO STDOUT
+    public static final int FORMAT_BINARY = 2;
+    public static final int FORMAT_CSV = 1;
+    public static final int FORMAT_TEXT = 0;
+    private final IntList columnNamePositions = new IntList();
+    private final ObjList<CharSequence> columnNames = new ObjList<>();
     private int atomicity;
     private boolean cancel;
     private byte delimiter;
     private ExpressionNode fileName;
+    private int format;
     private boolean header;
     private int partitionBy;
+    private QueryModel queryModel; // COPY TO STDOUT query
     private ExpressionNode target; // holds table name (new import) or import id (cancel model)
     private CharSequence timestampColumnName;
     private CharSequence timestampFormat;
@@ -55,12 +65,29 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         partitionBy = -1;
         delimiter = -1;
         atomicity = -1;
+        format = FORMAT_TEXT;
+        queryModel = null;
+        columnNames.clear();
+        columnNamePositions.clear();
+    }
+
+    public void addColumnName(CharSequence columnName, int position) {
+        columnNames.add(columnName);
+        columnNamePositions.add(position);
     }
 
     public int getAtomicity() {
         return atomicity;
     }
 
+    public IntList getColumnNamePositions() {
+        return columnNamePositions;
+    }
+
+    public ObjList<CharSequence> getColumnNames() {
+        return columnNames;
+    }
+
     public byte getDelimiter() {
         return delimiter;
     }
@@ -69,6 +96,10 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         return fileName;
     }
 
+    public int getFormat() {
+        return format;
+    }
+
     @Override
     public int getModelType() {
         return ExecutionModel.COPY;
@@ -78,6 +109,10 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         return partitionBy;
     }
 
+    public QueryModel getQueryModel() {
+        return queryModel;
+    }
+
     public ExpressionNode getTarget() {
         return target;
     }
@@ -114,6 +149,10 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         this.fileName = fileName;
     }
 
+    public void setFormat(int format) {
+        this.format = format;
+    }
+
     public void setHeader(boolean header) {
         this.header = header;
     }
@@ -122,6 +161,10 @@ public class CopyModel implements ExecutionModel, Mutable, Sinkable {
         this.partitionBy = partitionBy;
     }
 
+    public void setQueryModel(QueryModel queryModel) {
+        this.queryModel = queryModel;
+    }
+
     public void setTarget(ExpressionNode tableName) {
         this.target = tableName;
     }
@@ -66,6 +66,9 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
     static final int I8_TYPE = 4;
     // Constants
     static final int IMM = 1;
+    // Longer IN lists are left to the Java filter, which looks values up in a hash set
+    // instead of comparing each row to every value
+    static final int IN_LIST_MAX_SIZE = 16;
     static final int LE = 11;  // a <= b
     static final int LT = 10;  // a <  b
     // Columns
@@ -120,13 +123,16 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         predicateContext.onNodeDescended(node);
 
         // Look ahead for negative const
-        if (node.type == ExpressionNode.OPERATION && node.paramCount == 1 && Chars.equals(node.token, "-")) {
-            ExpressionNode nextNode = node.lhs != null ? node.lhs : node.rhs;
-            if (nextNode != null && nextNode.paramCount == 0 && nextNode.type == ExpressionNode.CONSTANT) {
-                // Store negation node for later backfilling
-                serializeConstantStub(node);
-                return false;
-            }
+        if (isNegatedConstant(node)) {
+            // Store negation node for later backfilling
+            serializeConstantStub(node);
+            return false;
+        }
+
+        // IN lists are serialized as a chain of equality predicates combined with OR
+        if (isInOperation(node)) {
+            serializeIn(node);
+            return false;
         }
 
         return true;
@@ -214,26 +220,7 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         } else {
             serializeOperator(node.position, node.token, argCount);
         }
-
-        boolean predicateLeft = predicateContext.onNodeVisited(node);
-
-        if (predicateLeft) {
-            // We're out of a predicate
-
-            // Force scalar mode if the predicate had byte or short arithmetic operations.
-            // That's because SIMD mode uses byte/short-sized overflows for arithmetic
-            // calculations instead of implicit upcast to int done by *.sql.Function classes.
-            forceScalarMode |=
-                    predicateContext.hasArithmeticOperations && predicateContext.localTypesObserver.maxSize() <= 2;
-
-            // Then backfill constants and symbol bind variables and clean up
-            try {
-                backfillNodes.forEach(backfillNodeConsumer);
-                backfillNodes.clear();
-            } catch (SqlWrapperException e) {
-                throw e.wrappedException;
-            }
-        }
+        onNodeVisited(node);
     }
 
     private static byte bindVariableTypeCode(int columnTypeTag) {
@@ -288,6 +275,10 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
             case ColumnType.DOUBLE:
                 return F8_TYPE;
             default:
+                // Var-size columns such as STRING need both the data and the offset vectors,
+                // but filters receive a single data page address per column. Supporting them
+                // takes new loads in the native backend (core/src/main/c/share/jit) and a new
+                // frame layout, so such predicates stay on the Java filter for now.
                 return UNDEFINED_CODE;
         }
     }
@@ -309,11 +300,26 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         return Chars.equals(token, "/");
     }
 
+    private static boolean isInOperation(ExpressionNode node) {
+        return node.paramCount > 1 && SqlKeywords.isInKeyword(node.token);
+    }
+
+    private static boolean isNegatedConstant(ExpressionNode node) {
+        if (node.type == ExpressionNode.OPERATION && node.paramCount == 1 && Chars.equals(node.token, "-")) {
+            ExpressionNode nextNode = node.lhs != null ? node.lhs : node.rhs;
+            return nextNode != null && nextNode.paramCount == 0 && nextNode.type == ExpressionNode.CONSTANT;
+        }
+        return false;
+    }
+
     private static boolean isTopLevelOperation(ExpressionNode node) {
         final CharSequence token = node.token;
         if (SqlKeywords.isNotKeyword(token)) {
             return true;
         }
+        if (isInOperation(node)) {
+            return true;
+        }
         if (node.paramCount < 2) {
             return false;
         }
@@ -470,6 +476,27 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         return false;
     }
 
+    private void onNodeVisited(ExpressionNode node) throws SqlException {
+        boolean predicateLeft = predicateContext.onNodeVisited(node);
+        if (predicateLeft) {
+            // We're out of a predicate
+
+            // Force scalar mode if the predicate had byte or short arithmetic operations.
+            // That's because SIMD mode uses byte/short-sized overflows for arithmetic
+            // calculations instead of implicit upcast to int done by *.sql.Function classes.
+            forceScalarMode |=
+                    predicateContext.hasArithmeticOperations && predicateContext.localTypesObserver.maxSize() <= 2;
+
+            // Then backfill constants and symbol bind variables and clean up
+            try {
+                backfillNodes.forEach(backfillNodeConsumer);
+                backfillNodes.clear();
+            } catch (SqlWrapperException e) {
+                throw e.wrappedException;
+            }
+        }
+    }
+
     private void putDoubleOperand(long offset, int type, double payload) {
         memory.putInt(offset, CompiledFilterIRSerializer.IMM);
         memory.putInt(offset + Integer.BYTES, type);
@@ -665,6 +692,49 @@ public class CompiledFilterIRSerializer implements PostOrderTreeTraversalAlgo.Vi
         }
     }
 
+    /**
+     * Serializes "col in (a, b, c)" as "col = a or col = b or col = c". Only plain column
+     * on the left side and constants or bind variables on the right side are supported.
+     */
+    private void serializeIn(final ExpressionNode node) throws SqlException {
+        final ExpressionNode column = node.paramCount < 3 ? node.lhs : node.args.getLast();
+        if (column.type != ExpressionNode.LITERAL) {
+            throw SqlException.position(column.position).put("unsupported 'in' operand: ").put(column.token);
+        }
+        final int columnIndex = metadata.getColumnIndexQuiet(column.token);
+        if (columnIndex == -1) {
+            throw SqlException.invalidColumn(column.position, column.token);
+        }
+        final int columnTypeTag = ColumnType.tagOf(metadata.getColumnType(columnIndex));
+        if (columnTypeTag == ColumnType.DATE || columnTypeTag == ColumnType.TIMESTAMP) {
+            // string values stand for intervals here
+            throw SqlException.position(column.position).put("unsupported 'in' column type: ").put(ColumnType.nameOf(columnTypeTag));
+        }
+
+        final int valueCount = node.paramCount - 1;
+        if (valueCount > IN_LIST_MAX_SIZE) {
+            throw SqlException.position(node.position).put("too many 'in' values: ").put(valueCount);
+        }
+        for (int i = 0; i < valueCount; i++) {
+            final ExpressionNode value = node.paramCount < 3 ? node.rhs : node.args.getQuick(i);
+            if (value.type == ExpressionNode.CONSTANT || isNegatedConstant(value)) {
+                serializeConstantStub(value);
+            } else if (value.type == ExpressionNode.BIND_VARIABLE) {
+                serializeBindVariable(value);
+            } else {
+                throw SqlException.position(value.position).put("unsupported 'in' value: ").put(value.token);
+            }
+            onNodeVisited(value);
+            serializeColumn(column.position, column.token);
+            onNodeVisited(column);
+            putOperator(EQ);
+            if (i > 0) {
+                putOperator(OR);
+            }
+        }
+        onNodeVisited(node);
+    }
+
     private void serializeNull(long offset, int position, int typeCode, boolean geoHashPredicate) throws SqlException {
         switch (typeCode) {
             case I1_TYPE:
@@ -41,6 +41,7 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
     protected static final int M_FD = 1;
     protected static final int M_TIMESTAMP = 0;
     private final static String[] DISCONNECT_SOURCES;
+    private static final long IDLE_CHECK_INTERVAL_MS = 1000;
     protected final Log LOG;
     protected final int activeConnectionLimit;
     protected final MillisecondClock clock;
@@ -68,6 +69,7 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
     protected long serverFd;
     private long closeListenFdEpochMs;
     private volatile boolean listening;
+    private long nextIdleCheckEpochMs;
     private int port;
     protected final QueueConsumer<IOEvent<C>> disconnectContextRef = this::disconnectContext;
 
@@ -201,8 +203,51 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
         pendingAdded(r);
     }
 
+    private void checkConnectionLimit(int tlConCount, long timestamp) {
+        if (tlConCount >= activeConnectionLimit) {
+            if (connectionCount.get() >= activeConnectionLimit) {
+                unregisterListenerFd();
+                listening = false;
+                closeListenFdEpochMs = timestamp + queuedConnectionTimeoutMs;
+                LOG.info().$("max connection limit reached, unregistered listener [serverFd=").$(serverFd).I$();
+            }
+        }
+    }
+
+    private boolean configureConnection(long fd) {
+        if (nf.configureNonBlocking(fd) < 0) {
+            LOG.error().$("could not configure non-blocking [fd=").$(fd).$(", errno=").$(nf.errno()).$(']').$();
+            nf.close(fd, LOG);
+            return false;
+        }
+
+        if (nf.setTcpNoDelay(fd, true) < 0) {
+            // Randomly on OS X, if a client connects and the peer TCP socket has SO_LINGER set to false, then setting the TCP_NODELAY
+            // option fails!
+            LOG.info().$("could not turn off Nagle's algorithm [fd=").$(fd).$(", errno=").$(nf.errno()).$(']').$();
+        }
+
+        if (peerNoLinger) {
+            nf.configureNoLinger(fd);
+        }
+
+        if (sndBufSize > 0) {
+            nf.setSndBuf(fd, sndBufSize);
+        }
+
+        if (rcvBufSize > 0) {
+            nf.setRcvBuf(fd, rcvBufSize);
+        }
+
+        LOG.info().$("connected [ip=").$ip(nf.getPeerIP(fd)).$(", fd=").$(fd).$(']').$();
+        return true;
+    }
+
     private void createListenFd() throws NetworkError {
         this.serverFd = nf.socketTcp(false);
+        if (configuration.getDispatcherCount() > 1 && nf.setReusePort(this.serverFd) < 0) {
+            LOG.error().$("could not set SO_REUSEPORT [fd=").$(serverFd).$(", errno=").$(nf.errno()).$(']').$();
+        }
         final int backlog = configuration.getListenBacklog();
         if (this.port == 0) {
             // Note that `configuration.getBindPort()` might also be 0.
@@ -249,42 +294,27 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
                 break;
             }
 
-            if (nf.configureNonBlocking(fd) < 0) {
-                LOG.error().$("could not configure non-blocking [fd=").$(fd).$(", errno=").$(nf.errno()).$(']').$();
-                nf.close(fd, LOG);
+            if (!configureConnection(fd)) {
                 break;
             }
 
-            if (nf.setTcpNoDelay(fd, true) < 0) {
-                // Randomly on OS X, if a client connects and the peer TCP socket has SO_LINGER set to false, then setting the TCP_NODELAY
-                // option fails!
-                LOG.info().$("could not turn off Nagle's algorithm [fd=").$(fd).$(", errno=").$(nf.errno()).$(']').$();
-            }
-
-            if (peerNoLinger) {
-                nf.configureNoLinger(fd);
-            }
-
-            if (sndBufSize > 0) {
-                nf.setSndBuf(fd, sndBufSize);
-            }
-
-            if (rcvBufSize > 0) {
-                nf.setRcvBuf(fd, rcvBufSize);
-            }
-
-            LOG.info().$("connected [ip=").$ip(nf.getPeerIP(fd)).$(", fd=").$(fd).$(']').$();
             tlConCount = connectionCount.incrementAndGet();
             addPending(fd, timestamp);
         }
 
-        if (tlConCount >= activeConnectionLimit) {
-            if (connectionCount.get() >= activeConnectionLimit) {
-                unregisterListenerFd();
-                listening = false;
-                closeListenFdEpochMs = timestamp + queuedConnectionTimeoutMs;
-                LOG.info().$("max connection limit reached, unregistered listener [serverFd=").$(serverFd).I$();
-            }
+        checkConnectionLimit(tlConCount, timestamp);
+    }
+
+    /**
+     * Registers connection accepted outside of {@link #accept(long)}, e.g. by completion based
+     * dispatcher. Connections accepted by requests in flight, when the limit has been reached,
+     * are still registered.
+     */
+    protected void accepted(long fd, long timestamp) {
+        if (configureConnection(fd)) {
+            final int tlConCount = connectionCount.incrementAndGet();
+            addPending(fd, timestamp);
+            checkConnectionLimit(tlConCount, timestamp);
         }
     }
 
@@ -328,6 +358,21 @@ public abstract class AbstractIODispatcher<C extends IOContext> extends Synchron
         }
     }
 
+    protected void processIdleContexts(long epochMs) {
+        if (epochMs >= nextIdleCheckEpochMs) {
+            // pending contexts wait for I/O, none of them is being processed by a worker
+            for (int i = 0, n = pending.size(); i < n; i++) {
+                final C context = pending.get(i);
+                try {
+                    context.onIdle();
+                } catch (Throwable e) {
+                    LOG.error().$("idle context failure [fd=").$(context.getFd()).$(", e=").$(e).I$();
+                }
+            }
+            nextIdleCheckEpochMs = epochMs + IDLE_CHECK_INTERVAL_MS;
+        }
+    }
+
     protected void publishOperation(int operation, C context) {
         long cursor = ioEventPubSeq.nextBully();
         IOEvent<C> evt = ioEventQueue.get(cursor);
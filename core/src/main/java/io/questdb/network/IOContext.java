@@ -37,4 +37,11 @@ public interface IOContext extends Closeable {
     default boolean invalid() {
         return getFd() == -1;
     }
+
+    /**
+     * Called by the dispatcher from time to time while the context waits for I/O, i.e. when no
+     * worker is processing it. Contexts can release resources they keep between requests here.
+     */
+    default void onIdle() {
+    }
 }
@@ -24,6 +24,8 @@
 
 package io.questdb.network;
 
+import io.questdb.std.IOURingFacade;
+import io.questdb.std.IOURingFacadeImpl;
 import io.questdb.std.Numbers;
 import io.questdb.std.Os;
 import io.questdb.std.datetime.millitime.MillisecondClock;
@@ -38,6 +40,18 @@ public interface IODispatcherConfiguration {
 
     MillisecondClock getClock();
 
+    /**
+     * Number of dispatchers to accept connections on the same address. Each dispatcher
+     * owns a listening socket bound with SO_REUSEPORT, so that the kernel spreads incoming
+     * connections between them. Only Linux balances such sockets, elsewhere a single
+     * dispatcher is used regardless of this value.
+     *
+     * @return number of dispatchers
+     */
+    default int getDispatcherCount() {
+        return 1;
+    }
+
     default String getDispatcherLogName() {
         return "IODispatcher";
     }
@@ -56,6 +70,10 @@ public interface IODispatcherConfiguration {
         return Numbers.ceilPow2(getLimit());
     }
 
+    default IOURingFacade getIOURingFacade() {
+        return IOURingFacadeImpl.INSTANCE;
+    }
+
     int getInitialBias();
 
     default int getInterestQueueCapacity() {
@@ -90,4 +108,14 @@ public interface IODispatcherConfiguration {
     int getSndBufSize();
 
     long getTimeout();
+
+    /**
+     * When enabled, Linux dispatcher waits for socket readiness and accepts connections via io_uring
+     * instead of epoll. It falls back to epoll when io_uring is not available.
+     *
+     * @return true when io_uring dispatcher is preferred
+     */
+    default boolean isIOURingEnabled() {
+        return false;
+    }
 }
@@ -122,6 +122,7 @@ public class IODispatcherLinux<C extends IOContext> extends AbstractIODispatcher
 
         final long timestamp = clock.getTicks();
         processDisconnects(timestamp);
+        processIdleContexts(timestamp);
         final int n = epoll.poll();
         int watermark = pending.size();
         int offset = 0;
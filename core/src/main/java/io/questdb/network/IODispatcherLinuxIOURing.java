@@ -0,0 +1,226 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.network;
+
+import io.questdb.std.Files;
+import io.questdb.std.IOURing;
+import io.questdb.std.LongList;
+import io.questdb.std.Numbers;
+
+/**
+ * Linux dispatcher, which uses io_uring instead of epoll. Connection readiness is awaited with
+ * one-shot polls and connections are accepted with multishot accept, falling back to single-shot
+ * accept on kernels before 5.19. Polls, poll removals and accepts queued during an iteration are
+ * submitted with a single syscall, while completions are read from the shared ring without any.
+ * Sockets are still read and written by the connection contexts.
+ */
+public class IODispatcherLinuxIOURing<C extends IOContext> extends AbstractIODispatcher<C> {
+    private static final int ECANCELED = 125;
+    private static final int EINVAL = 22;
+    private static final int MAX_RING_CAPACITY = 4096;
+    private static final int M_ID = 2;
+    // ids of accept requests, which may still complete, including cancelled ones
+    private final LongList acceptIds = new LongList();
+    private final IOURing ring;
+    private long acceptId = -1;
+    private boolean multishotAccept = true;
+
+    public IODispatcherLinuxIOURing(
+            IODispatcherConfiguration configuration,
+            IOContextFactory<C> ioContextFactory
+    ) {
+        super(configuration, ioContextFactory);
+        this.ring = configuration.getIOURingFacade().newInstance(
+                Math.min(Numbers.ceilPow2(configuration.getEventCapacity()), MAX_RING_CAPACITY)
+        );
+        registerListenerFd();
+        submit();
+    }
+
+    @Override
+    public void close() {
+        super.close();
+        // exiting the ring drops in-flight polls and with them the last references to closed sockets
+        this.ring.close();
+        LOG.info().$("closed").$();
+    }
+
+    private void enqueueAccept() {
+        long id;
+        while ((id = ring.enqueueAccept(serverFd, multishotAccept)) < 0) {
+            submit();
+        }
+        acceptId = id;
+        acceptIds.add(id);
+    }
+
+    private long enqueuePoll(long fd, int operation) {
+        final int events = operation == IOOperation.READ ? IOURing.POLLIN : IOURing.POLLOUT;
+        long id;
+        while ((id = ring.enqueuePoll(fd, events)) < 0) {
+            submit();
+        }
+        return id;
+    }
+
+    private void onAcceptCompleted(long id, int res, int flags, long timestamp) {
+        if ((flags & IOURing.CQE_F_MORE) == 0) {
+            // request is over, multishot one has either failed or been cancelled
+            acceptIds.remove(id);
+            if (id == acceptId) {
+                acceptId = -1;
+            }
+        }
+
+        if (res > -1) {
+            // socket has been opened by the kernel, account for it like Net.accept() does
+            accepted(Files.bumpFileCount(res), timestamp);
+        } else if (res == -EINVAL && multishotAccept) {
+            LOG.info().$("multishot accept is not supported, falling back to single-shot accept").$();
+            multishotAccept = false;
+        } else if (res != -ECANCELED) {
+            LOG.error().$("could not accept [serverFd=").$(serverFd).$(", errno=").$(-res).I$();
+        }
+
+        if (acceptId == -1 && isListening() && serverFd > -1) {
+            enqueueAccept();
+        }
+    }
+
+    private void processIdleConnections(long deadline) {
+        int count = 0;
+        for (int i = 0, n = pending.size(); i < n && pending.get(i, M_TIMESTAMP) < deadline; i++, count++) {
+            // poll holds a reference to the socket, it would not close otherwise
+            while (ring.enqueuePollRemove(pending.get(i, M_ID)) < 0) {
+                submit();
+            }
+            doDisconnect(pending.get(i), DISCONNECT_SRC_IDLE);
+        }
+        pending.zapTop(count);
+    }
+
+    private boolean processRegistrations(long timestamp) {
+        long cursor;
+        boolean useful = false;
+        while ((cursor = interestSubSeq.next()) > -1) {
+            IOEvent<C> evt = interestQueue.get(cursor);
+            C context = evt.context;
+            int operation = evt.operation;
+            interestSubSeq.done(cursor);
+
+            final long fd = context.getFd();
+            final long id = enqueuePoll(fd, operation);
+            LOG.debug().$("registered [fd=").$(fd).$(", op=").$(operation).$(", id=").$(id).$(']').$();
+
+            int r = pending.addRow();
+            pending.set(r, M_TIMESTAMP, timestamp);
+            pending.set(r, M_FD, fd);
+            pending.set(r, M_ID, id);
+            pending.set(r, context);
+            useful = true;
+        }
+        return useful;
+    }
+
+    private void submit() {
+        final int res = ring.submit();
+        if (res < 0) {
+            LOG.error().$("could not submit to io_uring [errno=").$(-res).I$();
+        }
+    }
+
+    @Override
+    protected void pendingAdded(int index) {
+        // ring ids grow monotonically, which keeps pending rows sorted by id
+        pending.set(index, M_ID, enqueuePoll(
+                pending.get(index, M_FD),
+                initialBias == IODispatcherConfiguration.BIAS_READ ? IOOperation.READ : IOOperation.WRITE
+        ));
+    }
+
+    @Override
+    protected void registerListenerFd() {
+        if (acceptId == -1) {
+            enqueueAccept();
+        }
+    }
+
+    @Override
+    protected boolean runSerially() {
+        boolean useful = false;
+
+        final long timestamp = clock.getTicks();
+        processDisconnects(timestamp);
+        processIdleContexts(timestamp);
+        while (ring.nextCqe()) {
+            final long id = ring.getCqeId();
+            final int res = ring.getCqeRes();
+            useful = true;
+            if (acceptIds.indexOf(id) > -1) {
+                onAcceptCompleted(id, res, ring.getCqeFlags(), timestamp);
+                continue;
+            }
+
+            final int row = pending.binarySearch(id, M_ID);
+            if (row < 0) {
+                // completion of a removed poll or of a cancellation request
+                continue;
+            }
+
+            final int operation;
+            if (res < 0) {
+                // let the context run into the error and disconnect
+                LOG.error().$("poll failed [fd=").$(pending.get(row, M_FD)).$(", errno=").$(-res).I$();
+                operation = IOOperation.READ;
+            } else {
+                operation = (res & IOURing.POLLIN) != 0 ? IOOperation.READ : IOOperation.WRITE;
+            }
+            publishOperation(operation, pending.get(row));
+            pending.deleteRow(row);
+        }
+
+        // process timed out connections
+        final long deadline = timestamp - idleConnectionTimeout;
+        if (pending.size() > 0 && pending.get(0, M_TIMESTAMP) < deadline) {
+            processIdleConnections(deadline);
+            useful = true;
+        }
+
+        useful |= processRegistrations(timestamp);
+        // everything queued during this iteration goes to the kernel in one go
+        submit();
+        return useful;
+    }
+
+    @Override
+    protected void unregisterListenerFd() {
+        if (acceptId != -1) {
+            while (ring.enqueueCancel(acceptId) < 0) {
+                submit();
+            }
+            acceptId = -1;
+        }
+    }
+}
@@ -156,6 +156,7 @@ public class IODispatcherOsx<C extends IOContext> extends AbstractIODispatcher<C
     protected boolean runSerially() {
         final long timestamp = clock.getTicks();
         processDisconnects(timestamp);
+        processIdleContexts(timestamp);
         boolean useful = false;
         final int n = kqueue.poll();
         int watermark = pending.size();
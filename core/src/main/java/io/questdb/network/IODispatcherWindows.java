@@ -116,6 +116,7 @@ public class IODispatcherWindows<C extends IOContext> extends AbstractIODispatch
 
         final long timestamp = clock.getTicks();
         processDisconnects(timestamp);
+        processIdleContexts(timestamp);
 
         int count;
         if (readFdSet.getCount() > 0 || writeFdSet.getCount() > 0) {
@@ -24,9 +24,17 @@
 
 package io.questdb.network;
 
+import io.questdb.log.Log;
+import io.questdb.log.LogFactory;
+import io.questdb.mp.WorkerPool;
+import io.questdb.std.IOURingFacade;
+import io.questdb.std.Misc;
+import io.questdb.std.ObjList;
 import io.questdb.std.Os;
+import io.questdb.std.datetime.millitime.MillisecondClock;
 
 public class IODispatchers {
+    private static final Log LOG = LogFactory.getLog(IODispatchers.class);
 
     private IODispatchers() {
     }
@@ -38,6 +46,12 @@ public class IODispatchers {
         switch (Os.type) {
             case Os.LINUX_AMD64:
             case Os.LINUX_ARM64:
+                if (configuration.isIOURingEnabled()) {
+                    if (configuration.getIOURingFacade().isAvailable()) {
+                        return new IODispatcherLinuxIOURing<>(configuration, ioContextFactory);
+                    }
+                    LOG.advisory().$(configuration.getDispatcherLogName()).$(" io_uring is not available, using epoll").$();
+                }
                 return new IODispatcherLinux<>(configuration, ioContextFactory);
             case Os.OSX_AMD64:
             case Os.OSX_ARM64:
@@ -49,4 +63,173 @@ public class IODispatchers {
                 throw new RuntimeException();
         }
     }
+
+    /**
+     * Creates dispatchers listening on the same address and pins them to the pool workers.
+     * Dispatcher at index i % n is assigned to worker i, workers are expected to process
+     * IO queue of the same dispatcher, see {@link #forWorker(ObjList, int)}. Connection
+     * stays on the dispatcher, which accepted it, for its lifetime.
+     * <p>
+     * Number of dispatchers is capped by worker count and is always 1 on platforms other than
+     * Linux, which is the only one to balance connections between SO_REUSEPORT sockets.
+     */
+    public static <C extends IOContext> ObjList<IODispatcher<C>> create(
+            IODispatcherConfiguration configuration,
+            IOContextFactory<C> ioContextFactory,
+            WorkerPool workerPool
+    ) {
+        final int workerCount = workerPool.getWorkerCount();
+        int dispatcherCount = Math.max(1, Math.min(configuration.getDispatcherCount(), workerCount));
+        if (dispatcherCount > 1 && !Os.isLinux()) {
+            LOG.advisory().$(configuration.getDispatcherLogName())
+                    .$(" multiple dispatchers are supported on Linux only, using one [configured=")
+                    .$(configuration.getDispatcherCount()).$(']').$();
+            dispatcherCount = 1;
+        }
+
+        final ObjList<IODispatcher<C>> dispatchers = new ObjList<>(dispatcherCount);
+        try {
+            final SharedPortConfiguration sharedPortConfiguration = new SharedPortConfiguration(configuration, dispatcherCount);
+            dispatchers.add(create(sharedPortConfiguration, ioContextFactory));
+            // bind the rest to the port the first dispatcher resolved, it may have been ephemeral
+            sharedPortConfiguration.bindPort = dispatchers.getQuick(0).getPort();
+            for (int i = 1; i < dispatcherCount; i++) {
+                dispatchers.add(create(sharedPortConfiguration, ioContextFactory));
+            }
+        } catch (Throwable th) {
+            Misc.freeObjList(dispatchers);
+            throw th;
+        }
+
+        for (int i = 0; i < workerCount; i++) {
+            workerPool.assign(i, forWorker(dispatchers, i));
+        }
+        return dispatchers;
+    }
+
+    public static <C extends IOContext> IODispatcher<C> forWorker(ObjList<IODispatcher<C>> dispatchers, int workerId) {
+        return dispatchers.getQuick(workerId % dispatchers.size());
+    }
+
+    private static class SharedPortConfiguration implements IODispatcherConfiguration {
+        private final IODispatcherConfiguration delegate;
+        private final int dispatcherCount;
+        private int bindPort;
+
+        private SharedPortConfiguration(IODispatcherConfiguration delegate, int dispatcherCount) {
+            this.delegate = delegate;
+            this.dispatcherCount = dispatcherCount;
+            this.bindPort = delegate.getBindPort();
+        }
+
+        @Override
+        public int getBindIPv4Address() {
+            return delegate.getBindIPv4Address();
+        }
+
+        @Override
+        public int getBindPort() {
+            return bindPort;
+        }
+
+        @Override
+        public MillisecondClock getClock() {
+            return delegate.getClock();
+        }
+
+        @Override
+        public int getDispatcherCount() {
+            return dispatcherCount;
+        }
+
+        @Override
+        public String getDispatcherLogName() {
+            return delegate.getDispatcherLogName();
+        }
+
+        @Override
+        public EpollFacade getEpollFacade() {
+            return delegate.getEpollFacade();
+        }
+
+        @Override
+        public int getEventCapacity() {
+            return delegate.getEventCapacity();
+        }
+
+        @Override
+        public boolean getHint() {
+            return delegate.getHint();
+        }
+
+        @Override
+        public int getIOQueueCapacity() {
+            return delegate.getIOQueueCapacity();
+        }
+
+        @Override
+        public IOURingFacade getIOURingFacade() {
+            return delegate.getIOURingFacade();
+        }
+
+        @Override
+        public int getInitialBias() {
+            return delegate.getInitialBias();
+        }
+
+        @Override
+        public int getInterestQueueCapacity() {
+            return delegate.getInterestQueueCapacity();
+        }
+
+        @Override
+        public int getLimit() {
+            return delegate.getLimit();
+        }
+
+        @Override
+        public int getListenBacklog() {
+            return delegate.getListenBacklog();
+        }
+
+        @Override
+        public NetworkFacade getNetworkFacade() {
+            return delegate.getNetworkFacade();
+        }
+
+        @Override
+        public boolean getPeerNoLinger() {
+            return delegate.getPeerNoLinger();
+        }
+
+        @Override
+        public long getQueueTimeout() {
+            return delegate.getQueueTimeout();
+        }
+
+        @Override
+        public int getRcvBufSize() {
+            return delegate.getRcvBufSize();
+        }
+
+        @Override
+        public SelectFacade getSelectFacade() {
+            return delegate.getSelectFacade();
+        }
+
+        @Override
+        public int getSndBufSize() {
+            return delegate.getSndBufSize();
+        }
+
+        @Override
+        public long getTimeout() {
+            return delegate.getTimeout();
+        }
+
+        @Override
+        public boolean isIOURingEnabled() {
+            return delegate.isIOURingEnabled();
+        }
+    }
 }
@@ -40,6 +40,8 @@ public final class Files {
     public static final int FILES_RENAME_ERR_EXDEV = 1;
     public static final int FILES_RENAME_ERR_OTHER = 2;
     public static final int FILES_RENAME_OK = 0;
+    // Linux specific madvise() advice, there is no POSIX equivalent
+    public static final int MADV_HUGEPAGE = 14;
     public static final int MAP_RO = 1;
     public static final int MAP_RW = 2;
     public static final long PAGE_SIZE;
@@ -230,7 +232,10 @@ public final class Files {
         }
     }
 
-    public static native void madvise0(long address, long len, int advise);
+    /**
+     * @return 0 on success, error number otherwise
+     */
+    public static native int madvise0(long address, long len, int advise);
 
     public static int mkdir(Path path, int mode) {
         return mkdir(path.address(), mode);
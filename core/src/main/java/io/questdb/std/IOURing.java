@@ -29,15 +29,58 @@ import org.jetbrains.annotations.TestOnly;
 import java.io.Closeable;
 
 public interface IOURing extends Closeable {
+    // set in cqe flags while a multishot request stays armed
+    int CQE_F_MORE = 1 << 1;
+    int POLLIN = 0x1;
+    int POLLOUT = 0x4;
 
     @Override
     void close();
 
+    /**
+     * Enqueues accept on a listening socket. Multishot accept stays armed and produces a cqe per
+     * accepted connection, with {@link #CQE_F_MORE} flag set for as long as it remains armed.
+     * Kernels older than 5.19 fail multishot request with -EINVAL.
+     *
+     * @param fd        listening socket
+     * @param multishot true to keep accepting until cancelled
+     * @return id of the request or -1 if submission queue is full
+     */
+    long enqueueAccept(long fd, boolean multishot);
+
+    /**
+     * Enqueues cancellation of an in-flight request, e.g. multishot accept.
+     *
+     * @param id id of the request to cancel
+     * @return id of the cancellation request or -1 if submission queue is full
+     */
+    long enqueueCancel(long id);
+
     @TestOnly
     long enqueueNop();
 
+    /**
+     * Enqueues one-shot poll for the given events. Cqe result is the mask of ready events.
+     *
+     * @param fd     file descriptor to poll
+     * @param events mask of {@link #POLLIN} and {@link #POLLOUT}
+     * @return id of the request or -1 if submission queue is full
+     */
+    long enqueuePoll(long fd, int events);
+
+    /**
+     * Enqueues removal of an in-flight poll. Poll holds a reference to the file, so it has to be
+     * removed for the socket to close.
+     *
+     * @param id id of the poll request
+     * @return id of the removal request or -1 if submission queue is full
+     */
+    long enqueuePollRemove(long id);
+
     long enqueueRead(long fd, long offset, long bufPtr, int len);
 
+    int getCqeFlags();
+
     long getCqeId();
 
     int getCqeRes();
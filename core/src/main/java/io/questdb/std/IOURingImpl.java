@@ -31,7 +31,7 @@ import static io.questdb.std.IOUringAccessor.*;
 
 public class IOURingImpl implements IOURing {
 
-    // Holds <id, res> tuples for recently consumed cqes.
+    // Holds <id, flags << 32 | res> tuples for recently consumed cqes.
     private final long[] cachedCqes;
     private final long cqKheadAddr;
     private final int cqKringMask;
@@ -91,17 +91,45 @@ public class IOURingImpl implements IOURing {
         closed = true;
     }
 
+    @Override
+    public long enqueueAccept(long fd, boolean multishot) {
+        return enqueueSqe(IORING_OP_ACCEPT, fd, 0, 0, 0, multishot ? IORING_ACCEPT_MULTISHOT : 0, 0);
+    }
+
+    @Override
+    public long enqueueCancel(long id) {
+        return enqueueSqe(IORING_OP_ASYNC_CANCEL, -1, 0, id, 0);
+    }
+
     @Override
     @TestOnly
     public long enqueueNop() {
         return enqueueSqe(IORING_OP_NOP, 0, 0, 0, 0);
     }
 
+    @Override
+    public long enqueuePoll(long fd, int events) {
+        return enqueueSqe(IORING_OP_POLL_ADD, fd, 0, 0, 0, 0, events);
+    }
+
+    @Override
+    public long enqueuePollRemove(long id) {
+        return enqueueSqe(IORING_OP_POLL_REMOVE, -1, 0, id, 0);
+    }
+
     @Override
     public long enqueueRead(long fd, long offset, long bufAddr, int len) {
         return enqueueSqe(IORING_OP_READ, fd, offset, bufAddr, len);
     }
 
+    @Override
+    public int getCqeFlags() {
+        if (cachedIndex < cachedSize) {
+            return (int) (cachedCqes[2 * cachedIndex + 1] >>> 32);
+        }
+        return -1;
+    }
+
     @Override
     public long getCqeId() {
         if (cachedIndex < cachedSize) {
@@ -133,7 +161,10 @@ public class IOURingImpl implements IOURing {
         for (int i = head; i < tail; i++) {
             final long cqeAddr = cqesAddr + (long) (i & cqKringMask) * SIZEOF_CQE;
             cachedCqes[2 * (i - head)] = Unsafe.getUnsafe().getLong(cqeAddr + CQE_USER_DATA_OFFSET);
-            cachedCqes[2 * (i - head) + 1] = Unsafe.getUnsafe().getInt(cqeAddr + CQE_RES_OFFSET);
+            cachedCqes[2 * (i - head) + 1] = Numbers.encodeLowHighInts(
+                    Unsafe.getUnsafe().getInt(cqeAddr + CQE_RES_OFFSET),
+                    Unsafe.getUnsafe().getInt(cqeAddr + CQE_FLAGS_OFFSET)
+            );
         }
         cachedSize = tail - head;
         cachedIndex = 0;
@@ -153,10 +184,18 @@ public class IOURingImpl implements IOURing {
     }
 
     private long enqueueSqe(byte op, long fd, long offset, long bufAddr, int len) {
+        return enqueueSqe(op, fd, offset, bufAddr, len, 0, 0);
+    }
+
+    private long enqueueSqe(byte op, long fd, long offset, long bufAddr, int len, int ioprio, int opFlags) {
         final long sqeAddr = nextSqe();
         if (sqeAddr == 0) {
             return -1;
         }
+        // sqes are reused, so clear fields left by previous requests
+        Vect.memset(sqeAddr, SIZEOF_SQE, 0);
+        Unsafe.getUnsafe().putShort(sqeAddr + SQE_IOPRIO_OFFSET, (short) ioprio);
+        Unsafe.getUnsafe().putInt(sqeAddr + SQE_OP_FLAGS_OFFSET, opFlags);
         Unsafe.getUnsafe().putByte(sqeAddr + SQE_OPCODE_OFFSET, op);
         Unsafe.getUnsafe().putInt(sqeAddr + SQE_FD_OFFSET, (int) fd);
         Unsafe.getUnsafe().putLong(sqeAddr + SQE_OFF_OFFSET, offset);
@@ -26,6 +26,7 @@ package io.questdb.std;
 
 public class IOUringAccessor {
 
+    static final short CQE_FLAGS_OFFSET;
     static final short CQE_RES_OFFSET;
     static final short CQE_USER_DATA_OFFSET;
     static final short CQ_CQES_OFFSET;
@@ -33,16 +34,25 @@ public class IOUringAccessor {
     static final short CQ_KRING_ENTRIES_OFFSET;
     static final short CQ_KRING_MASK_OFFSET;
     static final short CQ_KTAIL_OFFSET;
+    static final byte IORING_ACCEPT_MULTISHOT = 1;
+    static final byte IORING_OP_ACCEPT = 13;
+    static final byte IORING_OP_ASYNC_CANCEL = 14;
     static final byte IORING_OP_NOP = 0;
+    static final byte IORING_OP_POLL_ADD = 6;
+    static final byte IORING_OP_POLL_REMOVE = 7;
     static final byte IORING_OP_READ = 22;
     static final short RING_FD_OFFSET;
     static final short SIZEOF_CQE;
     static final short SIZEOF_SQE;
     static final short SQE_ADDR_OFFSET;
     static final short SQE_FD_OFFSET;
+    // io_uring_sqe layout is fixed by the kernel ABI, these fields are not exported by the native lib
+    static final short SQE_IOPRIO_OFFSET = 2;
     static final short SQE_LEN_OFFSET;
     static final short SQE_OFF_OFFSET;
     static final short SQE_OPCODE_OFFSET;
+    // union of rw_flags, poll32_events, accept_flags, cancel_flags etc.
+    static final short SQE_OP_FLAGS_OFFSET = 28;
     static final short SQE_USER_DATA_OFFSET;
     static final short SQ_KHEAD_OFFSET;
     static final short SQ_KRING_ENTRIES_OFFSET;
@@ -142,5 +152,7 @@ public class IOUringAccessor {
         SIZEOF_CQE = getCqeSize();
         CQE_USER_DATA_OFFSET = getCqeUserDataOffset();
         CQE_RES_OFFSET = getCqeResOffset();
+        // flags follow the 32-bit res in io_uring_cqe
+        CQE_FLAGS_OFFSET = (short) (CQE_RES_OFFSET + Integer.BYTES);
     }
 }
@@ -68,6 +68,7 @@ public final class MemoryTag {
     public static final int NATIVE_PARALLEL_IMPORT = 40;
     public static final int NATIVE_PATH = 24;
     public static final int NATIVE_PGW_CONN = 12;
+    public static final int NATIVE_QUERY_CACHE = 52;
     public static final int NATIVE_RECORD_CHAIN = 4;
     public static final int NATIVE_REPL = 17;
     public static final int NATIVE_ROSTI = 35;
@@ -77,13 +78,26 @@ public final class MemoryTag {
     public static final int NATIVE_TEXT_PARSER_RSS = 48;
     public static final int NATIVE_TLS_RSS = 47;
     public static final int NATIVE_TREE_CHAIN = 6;
-    public static final int SIZE = NATIVE_DIRECT_CHAR_SINK + 1;
+    public static final int SIZE = NATIVE_QUERY_CACHE + 1;
     private static final ObjList<String> tagNameMap = new ObjList<>(SIZE);
 
     public static String nameOf(int tag) {
         return tagNameMap.getQuick(tag);
     }
 
+    /**
+     * @param name memory tag name, case-insensitive
+     * @return memory tag or -1 if there is no tag with the given name
+     */
+    public static int tagOf(CharSequence name) {
+        for (int i = 0; i < SIZE; i++) {
+            if (Chars.equalsIgnoreCase(tagNameMap.getQuick(i), name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
     static {
         tagNameMap.extendAndSet(MMAP_DEFAULT, "MMAP_DEFAULT");
         tagNameMap.extendAndSet(NATIVE_DEFAULT, "NATIVE_DEFAULT");
@@ -137,5 +151,6 @@ public final class MemoryTag {
         tagNameMap.extendAndSet(NATIVE_IO_DISPATCHER_RSS, "NATIVE_IO_DISPATCHER_RSS");
         tagNameMap.extendAndSet(NATIVE_FUNC_RSS, "NATIVE_FUNC_RSS");
         tagNameMap.extendAndSet(NATIVE_DIRECT_CHAR_SINK, "NATIVE_DIRECT_CHAR_SINK");
+        tagNameMap.extendAndSet(NATIVE_QUERY_CACHE, "NATIVE_QUERY_CACHE");
     }
 }
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+import io.questdb.cairo.CairoException;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Accumulates native memory allocated by the threads it is bound to, see
+ * {@link Unsafe#setThreadMemoryTracker(MemoryTracker)}. Only memory tags used by
+ * SQL execution, such as maps, record chains and sort trees, are accounted. A query
+ * binds its tracker to the network thread executing it and to the workers reducing
+ * its page frames, so the tracker is updated concurrently.
+ * <p>
+ * Memory is charged before it is allocated, and an allocation that would take the
+ * tracker over its limit fails. The tracker is reset once per query, when the query
+ * starts. Memory retained by factories from earlier executions is not charged to the
+ * query, and freeing it gives the query room for the same amount of its own memory.
+ */
+public class MemoryTracker {
+    private final AtomicLong peak = new AtomicLong();
+    private final AtomicLong used = new AtomicLong();
+    private volatile long limit = Long.MAX_VALUE;
+
+    public long getLimit() {
+        return limit;
+    }
+
+    public long getPeak() {
+        return peak.get();
+    }
+
+    public long getUsed() {
+        return used.get();
+    }
+
+    /**
+     * Starts accounting of a new query. Must not be called while the query is executing,
+     * memory it has allocated so far would not be accounted anymore.
+     */
+    public void reset() {
+        used.set(0);
+        peak.set(0);
+    }
+
+    /**
+     * @param limit maximum number of bytes the tracker can be charged with, Long.MAX_VALUE for no limit
+     */
+    public void setLimit(long limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Accounts memory, which has been allocated or freed already. Native code allocates memory
+     * on its own, such allocations cannot be refused and are reported after the fact.
+     */
+    void add(long size) {
+        updatePeak(used.addAndGet(size));
+    }
+
+    /**
+     * Charges memory before it is allocated.
+     *
+     * @param size number of bytes about to be allocated
+     * @throws CairoException when the allocation would exceed the limit, the tracker is not charged then
+     */
+    void charge(long size) {
+        final long next = used.addAndGet(size);
+        if (next > limit) {
+            used.addAndGet(-size);
+            throw CairoException.nonCritical().put("query memory limit exceeded [limit=").put(limit)
+                    .put(", used=").put(next - size)
+                    .put(", requested=").put(size)
+                    .put(']');
+        }
+        updatePeak(next);
+    }
+
+    private void updatePeak(long used) {
+        long p;
+        while (used > (p = peak.get()) && !peak.compareAndSet(p, used)) {
+            Os.pause();
+        }
+    }
+}
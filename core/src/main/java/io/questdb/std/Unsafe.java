@@ -31,12 +31,15 @@ import java.lang.reflect.AccessibleObject;
 import java.lang.reflect.Array;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.LongAdder;
 
 public final class Unsafe {
     public static final long BYTE_OFFSET;
     public static final long BYTE_SCALE;
+    // transparent huge pages are 2MB on both x86-64 and aarch64 with 4K base pages
+    public static final long HUGE_PAGE_SIZE = 2 * 1024 * 1024;
     public static final long INT_OFFSET;
     public static final long INT_SCALE;
     //#if jdk.version!=8
@@ -47,11 +50,16 @@ public final class Unsafe {
     static final AtomicLong MEM_USED = new AtomicLong(0);
     private static final LongAdder[] COUNTERS = new LongAdder[MemoryTag.SIZE];
     private static final AtomicLong FREE_COUNT = new AtomicLong(0);
+    private static final AtomicLong HUGE_PAGE_ADVISE_COUNT = new AtomicLong(0);
+    private static final AtomicLong HUGE_PAGE_ADVISED_MEM = new AtomicLong(0);
+    private static final boolean[] HUGE_PAGE_TAGS = new boolean[MemoryTag.SIZE];
     private static final AtomicLong MALLOC_COUNT = new AtomicLong(0);
     //#if jdk.version!=8
     private static final long OVERRIDE;
     //#endif
     private static final AtomicLong REALLOC_COUNT = new AtomicLong(0);
+    private static final java.lang.ThreadLocal<MemoryTracker> THREAD_MEMORY_TRACKER = new java.lang.ThreadLocal<>();
+    private static final boolean[] TRACKED_TAGS = new boolean[MemoryTag.SIZE];
     private static final sun.misc.Unsafe UNSAFE;
     private static final AnonymousClassDefiner anonymousClassDefiner;
     //#if jdk.version!=8
@@ -120,6 +128,7 @@ public final class Unsafe {
             getUnsafe().freeMemory(ptr);
             FREE_COUNT.incrementAndGet();
             recordMemAlloc(-size, memoryTag);
+            forgetHugePages(ptr, size, memoryTag);
         }
         return 0;
     }
@@ -140,6 +149,14 @@ public final class Unsafe {
         return FREE_COUNT.get();
     }
 
+    public static long getHugePageAdviseCount() {
+        return HUGE_PAGE_ADVISE_COUNT.get();
+    }
+
+    public static long getHugePageAdvisedMem() {
+        return HUGE_PAGE_ADVISED_MEM.get();
+    }
+
     public static long getMallocCount() {
         return MALLOC_COUNT.get();
     }
@@ -153,6 +170,10 @@ public final class Unsafe {
         return COUNTERS[memoryTag].sum();
     }
 
+    public static MemoryTracker getThreadMemoryTracker() {
+        return THREAD_MEMORY_TRACKER.get();
+    }
+
     public static long getReallocCount() {
         return REALLOC_COUNT.get();
     }
@@ -174,13 +195,43 @@ public final class Unsafe {
     }
     //#endif
 
+    /**
+     * Checks whether memory can be advised to be backed by transparent huge pages, which is
+     * the case on Linux kernels built with transparent huge page support.
+     *
+     * @return true when MADV_HUGEPAGE advice is accepted
+     */
+    public static boolean isHugePageAdviceSupported() {
+        if (!Os.isLinux()) {
+            return false;
+        }
+        // advice fails when the kernel is built without transparent huge pages
+        final long ptr = getUnsafe().allocateMemory(2 * HUGE_PAGE_SIZE);
+        try {
+            return Files.madvise0(hugePageRangeLo(ptr), HUGE_PAGE_SIZE, Files.MADV_HUGEPAGE) == 0;
+        } finally {
+            getUnsafe().freeMemory(ptr);
+        }
+    }
+
+    public static boolean isHugePageTag(int memoryTag) {
+        return HUGE_PAGE_TAGS[memoryTag];
+    }
+
     public static long malloc(long size, int memoryTag) {
+        final MemoryTracker tracker = chargeThreadMemoryTracker(size, memoryTag);
         try {
             long ptr = getUnsafe().allocateMemory(size);
-            recordMemAlloc(size, memoryTag);
+            countMemAlloc(size, memoryTag);
             MALLOC_COUNT.incrementAndGet();
+            if (HUGE_PAGE_TAGS[memoryTag]) {
+                adviseHugePages(ptr, size);
+            }
             return ptr;
         } catch (OutOfMemoryError oom) {
+            if (tracker != null) {
+                tracker.add(-size);
+            }
             System.err.printf(
                     "Unsafe.malloc() OutOfMemoryError, mem_used=%d, size=%d, memoryTag=%d",
                     MEM_USED.get(), size, memoryTag);
@@ -189,12 +240,27 @@ public final class Unsafe {
     }
 
     public static long realloc(long address, long oldSize, long newSize, int memoryTag) {
+        final long delta = newSize - oldSize;
+        final MemoryTracker tracker = delta > 0 ? chargeThreadMemoryTracker(delta, memoryTag) : null;
         try {
             long ptr = getUnsafe().reallocateMemory(address, newSize);
-            recordMemAlloc(-oldSize + newSize, memoryTag);
+            if (delta > 0) {
+                countMemAlloc(delta, memoryTag);
+            } else {
+                // shrinking is never refused, it is accounted once memory is released
+                recordMemAlloc(delta, memoryTag);
+            }
             REALLOC_COUNT.incrementAndGet();
+            // the old block is gone only when realloc succeeds, the new block is advised from scratch
+            forgetHugePages(address, oldSize, memoryTag);
+            if (HUGE_PAGE_TAGS[memoryTag]) {
+                adviseHugePages(ptr, newSize);
+            }
             return ptr;
         } catch (OutOfMemoryError oom) {
+            if (tracker != null) {
+                tracker.add(-delta);
+            }
             System.err.printf(
                     "Unsafe.realloc() OutOfMemoryError, mem_used=%d, old_size=%d, new_size=%d, memoryTag=%d",
                     MEM_USED.get(), oldSize, newSize, memoryTag);
@@ -202,11 +268,54 @@ public final class Unsafe {
         }
     }
 
+    /**
+     * Accounts memory allocated or freed outside of this class, e.g. by native code. Allocations
+     * reported here are charged to the thread's memory tracker after the fact and cannot be refused.
+     *
+     * @param size      number of bytes allocated, negative when memory is freed
+     * @param memoryTag memory tag
+     */
     public static void recordMemAlloc(long size, int memoryTag) {
-        long mem = MEM_USED.addAndGet(size);
-        assert mem >= 0;
-        assert memoryTag >= 0 && memoryTag < MemoryTag.SIZE;
-        COUNTERS[memoryTag].add(size);
+        countMemAlloc(size, memoryTag);
+        if (TRACKED_TAGS[memoryTag]) {
+            final MemoryTracker tracker = THREAD_MEMORY_TRACKER.get();
+            if (tracker != null) {
+                tracker.add(size);
+            }
+        }
+    }
+
+    /**
+     * Selects memory tags, which large native allocations should be backed by transparent
+     * huge pages. Allocations of at least {@link #HUGE_PAGE_SIZE} with these tags are advised
+     * with MADV_HUGEPAGE, which reduces TLB misses when memory is accessed randomly, e.g. by
+     * hash maps. Support for the advice is checked here, tags are not set on OSes other than Linux
+     * and on kernels without transparent huge pages. Advised ranges are accounted in
+     * {@link #getHugePageAdvisedMem()} until they are freed.
+     * <p>
+     * Tags are set by {@link io.questdb.cairo.CairoEngine} from its configuration. They are meant to
+     * be set before memory with these tags is allocated, the advised memory gauge is approximate
+     * for allocations made before the tags change.
+     *
+     * @param memoryTags memory tags to use huge pages for, all other tags are reset
+     */
+    public static void setHugePageMemoryTags(IntList memoryTags) {
+        Arrays.fill(HUGE_PAGE_TAGS, false);
+        if (memoryTags.size() > 0 && isHugePageAdviceSupported()) {
+            for (int i = 0, n = memoryTags.size(); i < n; i++) {
+                HUGE_PAGE_TAGS[memoryTags.getQuick(i)] = true;
+            }
+        }
+    }
+
+    /**
+     * Binds memory tracker to the current thread. Allocations and de-allocations made by this thread
+     * with SQL execution memory tags are accounted in the tracker until another tracker is bound.
+     *
+     * @param tracker memory tracker or null to stop tracking
+     */
+    public static void setThreadMemoryTracker(MemoryTracker tracker) {
+        THREAD_MEMORY_TRACKER.set(tracker);
     }
 
     public static long swapEndianness(long value) {
@@ -221,6 +330,58 @@ public final class Unsafe {
         return (b0 << 56) | (b1 << 48) | (b2 << 40) | (b3 << 32) | (b4 << 24) | (b5 << 16) | (b6 << 8) | b7;
     }
 
+    private static void adviseHugePages(long ptr, long size) {
+        final long len = hugePageRangeLen(ptr, size);
+        if (len > 0) {
+            if (Files.madvise0(hugePageRangeLo(ptr), len, Files.MADV_HUGEPAGE) == 0) {
+                HUGE_PAGE_ADVISE_COUNT.incrementAndGet();
+            }
+            // the range is accounted even if advice fails, so that free() can subtract it
+            // knowing only the address, size and tag of the allocation
+            HUGE_PAGE_ADVISED_MEM.addAndGet(len);
+        }
+    }
+
+    @Nullable
+    private static MemoryTracker chargeThreadMemoryTracker(long size, int memoryTag) {
+        if (TRACKED_TAGS[memoryTag]) {
+            final MemoryTracker tracker = THREAD_MEMORY_TRACKER.get();
+            if (tracker != null) {
+                // throws before anything is allocated when the query is over its limit
+                tracker.charge(size);
+                return tracker;
+            }
+        }
+        return null;
+    }
+
+    private static void countMemAlloc(long size, int memoryTag) {
+        long mem = MEM_USED.addAndGet(size);
+        assert mem >= 0;
+        assert memoryTag >= 0 && memoryTag < MemoryTag.SIZE;
+        COUNTERS[memoryTag].add(size);
+    }
+
+    private static void forgetHugePages(long ptr, long size, int memoryTag) {
+        if (HUGE_PAGE_TAGS[memoryTag]) {
+            final long len = hugePageRangeLen(ptr, size);
+            if (len > 0) {
+                HUGE_PAGE_ADVISED_MEM.addAndGet(-len);
+            }
+        }
+    }
+
+    // huge pages can only back aligned ranges, so we advise the aligned part of the allocation
+    private static long hugePageRangeLen(long ptr, long size) {
+        final long lo = hugePageRangeLo(ptr);
+        final long hi = (ptr + size) & -HUGE_PAGE_SIZE;
+        return hi > lo ? hi - lo : 0;
+    }
+
+    private static long hugePageRangeLo(long ptr) {
+        return (ptr + HUGE_PAGE_SIZE - 1) & -HUGE_PAGE_SIZE;
+    }
+
     //#if jdk.version!=8
     private static long AccessibleObject_override_fieldOffset() {
         if (isJava8Or11()) {
@@ -407,5 +568,14 @@ public final class Unsafe {
         for (int i = 0; i < COUNTERS.length; i++) {
             COUNTERS[i] = new LongAdder();
         }
+
+        // memory of SQL execution structures, which size depends on the data being queried
+        TRACKED_TAGS[MemoryTag.NATIVE_COMPACT_MAP] = true;
+        TRACKED_TAGS[MemoryTag.NATIVE_FAST_MAP] = true;
+        TRACKED_TAGS[MemoryTag.NATIVE_FAST_MAP_LONG_LIST] = true;
+        TRACKED_TAGS[MemoryTag.NATIVE_JOIN_MAP] = true;
+        TRACKED_TAGS[MemoryTag.NATIVE_RECORD_CHAIN] = true;
+        TRACKED_TAGS[MemoryTag.NATIVE_ROSTI] = true;
+        TRACKED_TAGS[MemoryTag.NATIVE_TREE_CHAIN] = true;
     }
 }
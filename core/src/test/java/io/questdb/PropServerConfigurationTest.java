@@ -36,6 +36,7 @@ import io.questdb.network.NetworkFacadeImpl;
 import io.questdb.network.SelectFacadeImpl;
 import io.questdb.std.Files;
 import io.questdb.std.FilesFacadeImpl;
+import io.questdb.std.MemoryTag;
 import io.questdb.std.Misc;
 import io.questdb.std.Os;
 import io.questdb.std.datetime.microtime.MicrosecondClockImpl;
@@ -106,6 +107,8 @@ public class PropServerConfigurationTest {
         Assert.assertEquals("Keep-Alive: timeout=5, max=10000" + Misc.EOL, configuration.getHttpServerConfiguration().getStaticContentProcessorConfiguration().getKeepAliveHeader());
 
         Assert.assertEquals(64, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getLimit());
+        Assert.assertEquals(1, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getDispatcherCount());
+        Assert.assertFalse(configuration.getHttpServerConfiguration().getDispatcherConfiguration().isIOURingEnabled());
         Assert.assertEquals(64, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getEventCapacity());
         Assert.assertEquals(64, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getIOQueueCapacity());
         Assert.assertEquals(300000, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getTimeout());
@@ -133,12 +136,15 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(1_000_000, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getConnectionCheckFrequency());
         Assert.assertEquals(4, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getFloatScale());
         Assert.assertEquals(12, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getDoubleScale());
+        Assert.assertEquals(4, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getCursorMaxCount());
+        Assert.assertEquals(60_000, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getCursorIdleTimeout());
         Assert.assertEquals("Keep-Alive: timeout=5, max=10000" + Misc.EOL, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getKeepAliveHeader());
 
         Assert.assertFalse(configuration.getHttpServerConfiguration().getHttpContextConfiguration().readOnlySecurityContext());
         Assert.assertEquals(Long.MAX_VALUE, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getMaxQueryResponseRowLimit());
         Assert.assertTrue(configuration.getCairoConfiguration().getCircuitBreakerConfiguration().isEnabled());
         Assert.assertEquals(2_000_000, configuration.getCairoConfiguration().getCircuitBreakerConfiguration().getCircuitBreakerThrottle());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getCircuitBreakerConfiguration().getQueryMemoryLimit());
         Assert.assertEquals(64, configuration.getCairoConfiguration().getCircuitBreakerConfiguration().getBufferSize());
 
         Assert.assertEquals(CommitMode.NOSYNC, configuration.getCairoConfiguration().getCommitMode());
@@ -150,6 +156,7 @@ public class PropServerConfigurationTest {
         Assert.assertEquals(256, configuration.getCairoConfiguration().getDefaultSymbolCapacity());
         Assert.assertEquals(30, configuration.getCairoConfiguration().getFileOperationRetryCount());
         Assert.assertEquals(300000, configuration.getCairoConfiguration().getIdleCheckInterval());
+        Assert.assertEquals(0, configuration.getCairoConfiguration().getHugePageMemoryTags().size());
         Assert.assertEquals(120_000, configuration.getCairoConfiguration().getInactiveReaderTTL());
         Assert.assertEquals(600_000, configuration.getCairoConfiguration().getInactiveWriterTTL());
         Assert.assertEquals(256, configuration.getCairoConfiguration().getIndexValueBlockSize());
@@ -215,7 +222,12 @@ public class PropServerConfigurationTest {
 
         Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelFilterEnabled());
         Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelFilterPreTouchEnabled());
+        Assert.assertTrue(configuration.getCairoConfiguration().isSqlParallelLatestByEnabled());
         Assert.assertEquals(1_000_000, configuration.getCairoConfiguration().getSqlPageFrameMaxRows());
+        Assert.assertEquals(256, configuration.getCairoConfiguration().getSqlQueryCacheCapacity());
+        Assert.assertFalse(configuration.getCairoConfiguration().isSqlResultCacheEnabled());
+        Assert.assertEquals(64 * 1024 * 1024, configuration.getCairoConfiguration().getSqlResultCacheMemoryLimit());
+        Assert.assertEquals(64 * 1024, configuration.getCairoConfiguration().getSqlResultCachePageSize());
         Assert.assertEquals(1000, configuration.getCairoConfiguration().getSqlPageFrameMinRows());
         Assert.assertEquals(4, configuration.getCairoConfiguration().getPageFrameReduceShardCount());
         Assert.assertEquals(64, configuration.getCairoConfiguration().getPageFrameReduceQueueCapacity());
@@ -263,6 +275,8 @@ public class PropServerConfigurationTest {
         // influxdb line TCP protocol
         Assert.assertTrue(configuration.getLineTcpReceiverConfiguration().isEnabled());
         Assert.assertEquals(256, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getLimit());
+        Assert.assertEquals(1, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getDispatcherCount());
+        Assert.assertFalse(configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().isIOURingEnabled());
         Assert.assertEquals(0, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getBindIPv4Address());
         Assert.assertEquals(9009, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getBindPort());
         Assert.assertEquals(256, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getEventCapacity());
@@ -323,11 +337,14 @@ public class PropServerConfigurationTest {
 
         // Pg wire
         Assert.assertEquals(64, configuration.getPGWireConfiguration().getDispatcherConfiguration().getLimit());
+        Assert.assertEquals(1, configuration.getPGWireConfiguration().getDispatcherConfiguration().getDispatcherCount());
+        Assert.assertFalse(configuration.getPGWireConfiguration().getDispatcherConfiguration().isIOURingEnabled());
         Assert.assertEquals(2, configuration.getPGWireConfiguration().getBinParamCountCapacity());
         Assert.assertTrue(configuration.getPGWireConfiguration().isSelectCacheEnabled());
         Assert.assertEquals(8, configuration.getPGWireConfiguration().getSelectCacheBlockCount());
         Assert.assertEquals(8, configuration.getPGWireConfiguration().getSelectCacheRowCount());
         Assert.assertTrue(configuration.getPGWireConfiguration().isInsertCacheEnabled());
+        Assert.assertFalse(configuration.getPGWireConfiguration().isInsertPipelineEnabled());
         Assert.assertEquals(4, configuration.getPGWireConfiguration().getInsertCacheBlockCount());
         Assert.assertEquals(4, configuration.getPGWireConfiguration().getInsertCacheRowCount());
         Assert.assertEquals(16, configuration.getPGWireConfiguration().getInsertPoolCapacity());
@@ -766,8 +783,11 @@ public class PropServerConfigurationTest {
 
             Assert.assertTrue(configuration.getHttpServerConfiguration().getHttpContextConfiguration().readOnlySecurityContext());
             Assert.assertEquals(50000, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getMaxQueryResponseRowLimit());
+            Assert.assertEquals(2, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getCursorMaxCount());
+            Assert.assertEquals(10_000, configuration.getHttpServerConfiguration().getJsonQueryProcessorConfiguration().getCursorIdleTimeout());
             Assert.assertFalse(configuration.getCairoConfiguration().getCircuitBreakerConfiguration().isEnabled());
             Assert.assertEquals(500, configuration.getCairoConfiguration().getCircuitBreakerConfiguration().getCircuitBreakerThrottle());
+            Assert.assertEquals(1024 * 1024 * 1024L, configuration.getCairoConfiguration().getCircuitBreakerConfiguration().getQueryMemoryLimit());
             Assert.assertEquals(32, configuration.getCairoConfiguration().getCircuitBreakerConfiguration().getBufferSize());
 
             Assert.assertEquals(100, configuration.getWorkerPoolConfiguration().getYieldThreshold());
@@ -822,6 +842,7 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(512, configuration.getCairoConfiguration().getDefaultSymbolCapacity());
             Assert.assertEquals(10, configuration.getCairoConfiguration().getFileOperationRetryCount());
             Assert.assertEquals(20_000, configuration.getCairoConfiguration().getIdleCheckInterval());
+            Assert.assertEquals("[" + MemoryTag.NATIVE_FAST_MAP + "," + MemoryTag.NATIVE_RECORD_CHAIN + "]", configuration.getCairoConfiguration().getHugePageMemoryTags().toString());
             Assert.assertEquals(600_000, configuration.getCairoConfiguration().getInactiveReaderTTL());
             Assert.assertEquals(400_000, configuration.getCairoConfiguration().getInactiveWriterTTL());
             Assert.assertEquals(1024, configuration.getCairoConfiguration().getIndexValueBlockSize());
@@ -897,7 +918,12 @@ public class PropServerConfigurationTest {
 
             Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelFilterEnabled());
             Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelFilterPreTouchEnabled());
+            Assert.assertFalse(configuration.getCairoConfiguration().isSqlParallelLatestByEnabled());
             Assert.assertEquals(1000, configuration.getCairoConfiguration().getSqlPageFrameMaxRows());
+            Assert.assertEquals(32, configuration.getCairoConfiguration().getSqlQueryCacheCapacity());
+            Assert.assertTrue(configuration.getCairoConfiguration().isSqlResultCacheEnabled());
+            Assert.assertEquals(8 * 1024 * 1024, configuration.getCairoConfiguration().getSqlResultCacheMemoryLimit());
+            Assert.assertEquals(16 * 1024, configuration.getCairoConfiguration().getSqlResultCachePageSize());
             Assert.assertEquals(100, configuration.getCairoConfiguration().getSqlPageFrameMinRows());
             Assert.assertEquals(128, configuration.getCairoConfiguration().getPageFrameReduceShardCount());
             Assert.assertEquals(1024, configuration.getCairoConfiguration().getPageFrameReduceQueueCapacity());
@@ -977,6 +1003,7 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(1, configuration.getPGWireConfiguration().getSelectCacheBlockCount());
             Assert.assertEquals(2, configuration.getPGWireConfiguration().getSelectCacheRowCount());
             Assert.assertFalse(configuration.getPGWireConfiguration().isInsertCacheEnabled());
+            Assert.assertTrue(configuration.getPGWireConfiguration().isInsertPipelineEnabled());
             Assert.assertEquals(128, configuration.getPGWireConfiguration().getInsertCacheBlockCount());
             Assert.assertEquals(256, configuration.getPGWireConfiguration().getInsertCacheRowCount());
             Assert.assertEquals(32, configuration.getPGWireConfiguration().getInsertPoolCapacity());
@@ -1023,6 +1050,8 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(4194304, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getSndBufSize());
             Assert.assertEquals(8388608, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getRcvBufSize());
             Assert.assertTrue(configuration.getHttpServerConfiguration().getDispatcherConfiguration().getHint());
+            Assert.assertEquals(2, configuration.getHttpServerConfiguration().getDispatcherConfiguration().getDispatcherCount());
+            Assert.assertTrue(configuration.getHttpServerConfiguration().getDispatcherConfiguration().isIOURingEnabled());
 
             Assert.assertEquals(9120, configuration.getHttpMinServerConfiguration().getDispatcherConfiguration().getBindPort());
             Assert.assertEquals(8, configuration.getHttpMinServerConfiguration().getDispatcherConfiguration().getLimit());
@@ -1038,6 +1067,8 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(1_002, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getQueueTimeout());
             Assert.assertEquals(32768, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getRcvBufSize());
             Assert.assertTrue(configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getHint());
+            Assert.assertEquals(3, configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().getDispatcherCount());
+            Assert.assertTrue(configuration.getLineTcpReceiverConfiguration().getDispatcherConfiguration().isIOURingEnabled());
 
             // Pg wire
             Assert.assertEquals(11, configuration.getPGWireConfiguration().getDispatcherConfiguration().getLimit());
@@ -1046,6 +1077,8 @@ public class PropServerConfigurationTest {
             Assert.assertEquals(32768, configuration.getPGWireConfiguration().getDispatcherConfiguration().getRcvBufSize());
             Assert.assertEquals(32800, configuration.getPGWireConfiguration().getDispatcherConfiguration().getSndBufSize());
             Assert.assertTrue(configuration.getPGWireConfiguration().getDispatcherConfiguration().getHint());
+            Assert.assertEquals(4, configuration.getPGWireConfiguration().getDispatcherConfiguration().getDispatcherCount());
+            Assert.assertTrue(configuration.getPGWireConfiguration().getDispatcherConfiguration().isIOURingEnabled());
         }
     }
 
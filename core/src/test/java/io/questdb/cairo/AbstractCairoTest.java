@@ -85,6 +85,8 @@ public class AbstractCairoTest {
     protected static int defaultTableWriteMode = -1;
     protected static Boolean enableColumnPreTouch = null;
     protected static Boolean enableParallelFilter = null;
+    protected static Boolean enableParallelLatestBy = null;
+    protected static Boolean enableResultCache = null;
     protected static CairoEngine engine;
     protected static FilesFacade ff;
     protected static boolean hideTelemetryTable = false;
@@ -442,6 +444,16 @@ public class AbstractCairoTest {
             public boolean isSqlParallelFilterPreTouchEnabled() {
                 return enableColumnPreTouch != null ? enableColumnPreTouch : super.isSqlParallelFilterPreTouchEnabled();
             }
+
+            @Override
+            public boolean isSqlParallelLatestByEnabled() {
+                return enableParallelLatestBy != null ? enableParallelLatestBy : super.isSqlParallelLatestByEnabled();
+            }
+
+            @Override
+            public boolean isSqlResultCacheEnabled() {
+                return enableResultCache != null ? enableResultCache : super.isSqlResultCacheEnabled();
+            }
         };
         metrics = Metrics.enabled();
         engine = new CairoEngine(configuration, metrics);
@@ -507,6 +519,8 @@ public class AbstractCairoTest {
         snapshotInstanceId = null;
         snapshotRecoveryEnabled = null;
         enableParallelFilter = null;
+        enableParallelLatestBy = null;
+        enableResultCache = null;
         enableColumnPreTouch = null;
         hideTelemetryTable = false;
         writerCommandQueueCapacity = 4;
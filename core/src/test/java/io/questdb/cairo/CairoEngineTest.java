@@ -33,6 +33,9 @@ import io.questdb.std.Chars;
 import io.questdb.std.Files;
 import io.questdb.std.FilesFacade;
 import io.questdb.std.FilesFacadeImpl;
+import io.questdb.std.IntList;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
 import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.Path;
 import io.questdb.test.tools.TestUtils;
@@ -181,6 +184,32 @@ public class CairoEngineTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testHugePageMemoryTagsFromConfiguration() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final IntList tags = new IntList();
+            tags.add(MemoryTag.NATIVE_FAST_MAP);
+            final CairoConfiguration hugePageConfiguration = new DefaultCairoConfiguration(root) {
+                @Override
+                public IntList getHugePageMemoryTags() {
+                    return tags;
+                }
+            };
+            try {
+                try (CairoEngine ignore = new CairoEngine(hugePageConfiguration)) {
+                    Assert.assertEquals(Unsafe.isHugePageAdviceSupported(), Unsafe.isHugePageTag(MemoryTag.NATIVE_FAST_MAP));
+                    Assert.assertFalse(Unsafe.isHugePageTag(MemoryTag.NATIVE_DEFAULT));
+                }
+
+                try (CairoEngine ignore = new CairoEngine(configuration)) {
+                    Assert.assertFalse(Unsafe.isHugePageTag(MemoryTag.NATIVE_FAST_MAP));
+                }
+            } finally {
+                Unsafe.setHugePageMemoryTags(new IntList());
+            }
+        });
+    }
+
     @Test
     public void testLockBusyReader() throws Exception {
 
@@ -58,6 +58,65 @@ public class RecordChainTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testCopyToView() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final int N = 10000;
+            CairoTestUtils.createTestTable(N, new Rnd(), new TestRecord.ArrayBinarySequence());
+            try (TableReader reader = new TableReader(configuration, "x")) {
+                entityColumnFilter.of(reader.getColumnCount());
+                RecordSink recordSink = RecordSinkFactory.getInstance(asm, reader.getMetadata(), entityColumnFilter, false);
+                // small extend segment, chain memory is grown many times before it is copied
+                try (RecordChain chain = new RecordChain(reader.getMetadata(), recordSink, 64 * 1024, Integer.MAX_VALUE)) {
+                    populateChain(chain, reader);
+                    final long size = chain.getMemUsed();
+                    final long address = Unsafe.malloc(size, MemoryTag.NATIVE_DEFAULT);
+                    try {
+                        chain.copyTo(address);
+                        // two views read the same copy independently
+                        final RecordChainView viewA = new RecordChainView(reader.getMetadata());
+                        final RecordChainView viewB = new RecordChainView(reader.getMetadata());
+                        viewA.of(address, size);
+                        viewB.of(address, size);
+                        final RecordCursor cursor = reader.getCursor();
+                        viewA.setSymbolTableResolver(cursor);
+                        viewB.setSymbolTableResolver(cursor);
+
+                        final Record recordA = viewA.getRecord();
+                        final Record recordB = viewB.getRecord();
+                        final Record readerRecord = cursor.getRecord();
+                        long count = 0;
+                        while (viewA.hasNext()) {
+                            Assert.assertTrue(viewB.hasNext());
+                            Assert.assertTrue(cursor.hasNext());
+                            assertSame(readerRecord, recordA, reader.getMetadata());
+                            assertSame(readerRecord, recordB, reader.getMetadata());
+                            count++;
+                        }
+                        Assert.assertEquals(N, count);
+                        Assert.assertFalse(viewB.hasNext());
+
+                        // random access by row id of the chain
+                        chain.toTop();
+                        Assert.assertTrue(chain.hasNext());
+                        Assert.assertTrue(chain.hasNext());
+                        final long rowId = chain.getRecord().getRowId();
+                        final Record randomRecord = viewA.getRecordB();
+                        viewA.recordAt(randomRecord, rowId);
+                        Assert.assertEquals(rowId, randomRecord.getRowId());
+                        chain.setSymbolTableResolver(cursor);
+                        assertSame(chain.getRecord(), randomRecord, reader.getMetadata());
+
+                        viewA.close();
+                        viewB.close();
+                    } finally {
+                        Unsafe.free(address, size, MemoryTag.NATIVE_DEFAULT);
+                    }
+                }
+            }
+        });
+    }
+
     @Test
     public void testPseudoRandomAccess() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -2884,6 +2884,63 @@ public class TableReaderTest extends AbstractCairoTest {
         });
     }
 
+    @Test
+    public void testSymbolMapOpenedOnFirstAccess() throws Exception {
+        final AtomicInteger charFileOpenCount = new AtomicInteger();
+        final FilesFacade ff = new FilesFacadeImpl() {
+            @Override
+            public long openRO(LPSZ name) {
+                if (Chars.endsWith(name, "b.c")) {
+                    charFileOpenCount.incrementAndGet();
+                }
+                return super.openRO(name);
+            }
+        };
+
+        assertMemoryLeak(ff, () -> {
+            try (TableModel model = new TableModel(configuration, "x", PartitionBy.DAY)
+                    .col("a", ColumnType.SYMBOL)
+                    .col("b", ColumnType.SYMBOL)
+                    .timestamp()) {
+                CairoTestUtils.create(model);
+            }
+
+            long ts = TimestampFormatUtils.parseTimestamp("2018-01-06T10:00:00.000Z");
+            try (TableWriter writer = new TableWriter(configuration, "x", metrics)) {
+                for (int i = 0; i < 10; i++) {
+                    TableWriter.Row row = writer.newRow(ts + i * Timestamps.HOUR_MICROS);
+                    row.putSym(0, "a" + i);
+                    row.putSym(1, "b" + (i % 3));
+                    row.append();
+                }
+                writer.commit();
+            }
+
+            charFileOpenCount.set(0);
+            try (TableReader reader = new TableReader(configuration, "x")) {
+                Assert.assertEquals("a4", reader.getSymbolMapReader(0).valueOf(4));
+                Assert.assertEquals(0, charFileOpenCount.get());
+
+                try (TableWriter writer = new TableWriter(configuration, "x", metrics)) {
+                    TableWriter.Row row = writer.newRow(ts + 10 * Timestamps.HOUR_MICROS);
+                    row.putSym(0, "a10");
+                    row.putSym(1, "b3");
+                    row.append();
+                    writer.commit();
+                }
+                Assert.assertTrue(reader.reload());
+                Assert.assertEquals(0, charFileOpenCount.get());
+
+                SymbolMapReader symbolMapReader = reader.getSymbolMapReader(1);
+                Assert.assertEquals(1, charFileOpenCount.get());
+                Assert.assertEquals(4, symbolMapReader.getSymbolCount());
+                Assert.assertEquals("b3", symbolMapReader.valueOf(3));
+                Assert.assertSame(symbolMapReader, reader.getSymbolMapReader(1));
+                Assert.assertEquals(1, charFileOpenCount.get());
+            }
+        });
+    }
+
     @Test
     public void testUnsuccessfulFileRemove() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -0,0 +1,267 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.sql;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.metrics.Gauge;
+import io.questdb.metrics.MetricsRegistryImpl;
+import io.questdb.std.IntList;
+import io.questdb.std.str.StringSink;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class QueryFactoryCacheTest {
+
+    @Test
+    public void testBindVariableTypes() {
+        final QueryCacheMetrics metrics = new QueryCacheMetrics(new MetricsRegistryImpl());
+        try (QueryFactoryCache cache = new QueryFactoryCache(8, metrics)) {
+            final TestFactory factory = new TestFactory();
+            final IntList types = new IntList();
+            types.add(ColumnType.INT);
+            types.add(ColumnType.STRING);
+            cache.checkIn("select * from x where a = $1 and b = $2", factory, types, null);
+
+            // factory compiled with bind variables is not available to callers without them
+            Assert.assertNull(cache.checkOut("select * from x where a = $1 and b = $2", null));
+
+            final IntList cachedTypes = new IntList();
+            cachedTypes.add(ColumnType.LONG);
+            Assert.assertSame(factory, cache.checkOut("select * from x where a = $1 and b = $2", cachedTypes));
+            Assert.assertEquals(types, cachedTypes);
+            Assert.assertEquals(1, metrics.hitCount());
+            Assert.assertEquals(1, metrics.missCount());
+            factory.close();
+        }
+    }
+
+    @Test
+    public void testCheckOutCheckIn() {
+        final QueryCacheMetrics metrics = new QueryCacheMetrics(new MetricsRegistryImpl());
+        try (QueryFactoryCache cache = new QueryFactoryCache(8, metrics)) {
+            Assert.assertNull(cache.checkOut("select * from x", null));
+
+            final TestFactory factory1 = new TestFactory();
+            final TestFactory factory2 = new TestFactory();
+            cache.checkIn("select * from x", factory1, null, null);
+            cache.checkIn("select * from x", factory2, null, null);
+            Assert.assertEquals(2, cache.size());
+            Assert.assertEquals(2, metrics.cachedQueriesGauge().getValue());
+
+            // most recently checked in factory goes first
+            Assert.assertSame(factory2, cache.checkOut("select * from x", null));
+            Assert.assertSame(factory1, cache.checkOut("select * from x", null));
+            Assert.assertNull(cache.checkOut("select * from x", null));
+            Assert.assertEquals(0, cache.size());
+            Assert.assertEquals(0, metrics.cachedQueriesGauge().getValue());
+            Assert.assertEquals(2, metrics.hitCount());
+            Assert.assertEquals(2, metrics.missCount());
+
+            cache.checkIn("select * from x", factory1, null, null);
+            cache.checkIn("select * from y", factory2, null, null);
+            cache.clear();
+            Assert.assertTrue(factory1.closed);
+            Assert.assertTrue(factory2.closed);
+            Assert.assertEquals(0, metrics.cachedQueriesGauge().getValue());
+            Assert.assertNull(cache.checkOut("select * from x", null));
+        }
+    }
+
+    @Test
+    public void testDisabled() {
+        try (QueryFactoryCache cache = new QueryFactoryCache(0, new QueryCacheMetrics(new MetricsRegistryImpl()))) {
+            final TestFactory factory = new TestFactory();
+            cache.checkIn("select * from x", factory, null, null);
+            Assert.assertTrue(factory.closed);
+            Assert.assertNull(cache.checkOut("select * from x", null));
+        }
+    }
+
+    @Test
+    public void testEviction() {
+        final QueryCacheMetrics metrics = new QueryCacheMetrics(new MetricsRegistryImpl());
+        final TestFactory[] factories = new TestFactory[5];
+        for (int i = 0; i < factories.length; i++) {
+            factories[i] = new TestFactory();
+        }
+        try (QueryFactoryCache cache = new QueryFactoryCache(3, metrics)) {
+            cache.checkIn("select * from a", factories[0], null, null);
+            cache.checkIn("select * from b", factories[1], null, null);
+            cache.checkIn("select * from a", factories[2], null, null);
+            // least recently checked in factory is evicted
+            cache.checkIn("select * from c", factories[3], null, null);
+            Assert.assertTrue(factories[0].closed);
+            Assert.assertFalse(factories[1].closed);
+
+            // checked out factory goes to the back of the queue once returned
+            Assert.assertSame(factories[1], cache.checkOut("select * from b", null));
+            cache.checkIn("select * from b", factories[1], null, null);
+            cache.checkIn("select * from d", factories[4], null, null);
+            Assert.assertTrue(factories[2].closed);
+            Assert.assertFalse(factories[1].closed);
+            Assert.assertFalse(factories[3].closed);
+            Assert.assertNull(cache.checkOut("select * from a", null));
+            Assert.assertEquals(3, cache.size());
+            Assert.assertEquals(3, metrics.cachedQueriesGauge().getValue());
+        }
+        // cached factories are freed on close
+        for (TestFactory factory : factories) {
+            Assert.assertTrue(factory.closed);
+        }
+    }
+
+    @Test
+    public void testNormalize() {
+        assertNormalized("select * from x", "select * from x");
+        assertNormalized("select * from x", "  select *\n\tfrom   x ;\n");
+        assertNormalized("select * from x", "select * from x;;");
+        assertNormalized("select 'a  b', \"c  d\" from x", "select 'a  b',\n\"c  d\"  from x");
+        assertNormalized("select 'it''s  ok' from x", "select 'it''s  ok'   from x");
+        assertNormalized("select a -- comment  here\n from x", "select a -- comment  here\n  from x");
+        assertNormalized("select /* a  b */ a from x", "select  /* a  b */\na from x");
+        assertNormalized("select 'unterminated", "select 'unterminated  ");
+    }
+
+    @Test
+    public void testNormalizedKey() {
+        try (QueryFactoryCache cache = new QueryFactoryCache(8, new QueryCacheMetrics(new MetricsRegistryImpl()))) {
+            final TestFactory factory = new TestFactory();
+            cache.checkIn("select *\nfrom x;", factory, null, null);
+            Assert.assertSame(factory, cache.checkOut("  select * from   x", null));
+            factory.close();
+        }
+    }
+
+    @Test
+    public void testProtocolGauge() {
+        final MetricsRegistryImpl registry = new MetricsRegistryImpl();
+        final QueryCacheMetrics metrics = new QueryCacheMetrics(registry);
+        final Gauge httpGauge = registry.newGauge("http_cached");
+        final Gauge pgGauge = registry.newGauge("pg_cached");
+        try (QueryFactoryCache cache = new QueryFactoryCache(2, metrics)) {
+            final TestFactory factory1 = new TestFactory();
+            final TestFactory factory2 = new TestFactory();
+            cache.checkIn("select * from x", factory1, null, httpGauge);
+            cache.checkIn("select * from x", factory2, null, pgGauge);
+            Assert.assertEquals(1, httpGauge.getValue());
+            Assert.assertEquals(1, pgGauge.getValue());
+            Assert.assertEquals(2, metrics.cachedQueriesGauge().getValue());
+
+            // gauge of the protocol that checked the factory in is decremented, whoever takes it out
+            Assert.assertSame(factory2, cache.checkOut("select * from x", null));
+            Assert.assertEquals(1, httpGauge.getValue());
+            Assert.assertEquals(0, pgGauge.getValue());
+
+            // eviction
+            cache.checkIn("select * from y", factory2, null, pgGauge);
+            cache.checkIn("select * from z", new TestFactory(), null, pgGauge);
+            Assert.assertTrue(factory1.closed);
+            Assert.assertEquals(0, httpGauge.getValue());
+            Assert.assertEquals(2, pgGauge.getValue());
+
+            cache.clear();
+            Assert.assertEquals(0, pgGauge.getValue());
+            Assert.assertEquals(0, metrics.cachedQueriesGauge().getValue());
+        }
+    }
+
+    @Test
+    public void testStripes() throws Exception {
+        final QueryCacheMetrics metrics = new QueryCacheMetrics(new MetricsRegistryImpl());
+        try (QueryFactoryCache cache = new QueryFactoryCache(3, metrics)) {
+            Assert.assertEquals(1, cache.getStripeCount());
+        }
+        try (QueryFactoryCache cache = new QueryFactoryCache(100, metrics)) {
+            Assert.assertEquals(4, cache.getStripeCount());
+        }
+
+        final int threadCount = 4;
+        final int iterations = 10_000;
+        try (QueryFactoryCache cache = new QueryFactoryCache(256, metrics)) {
+            Assert.assertEquals(16, cache.getStripeCount());
+
+            final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+            final AtomicInteger errors = new AtomicInteger();
+            final Thread[] threads = new Thread[threadCount];
+            for (int t = 0; t < threadCount; t++) {
+                threads[t] = new Thread(() -> {
+                    try {
+                        barrier.await();
+                        for (int i = 0; i < iterations; i++) {
+                            final String sql = "select * from x" + (i % 32);
+                            RecordCursorFactory factory = cache.checkOut(sql, null);
+                            if (factory == null) {
+                                factory = new TestFactory();
+                            } else if (((TestFactory) factory).closed) {
+                                // checked out factory must never be freed by the cache
+                                errors.incrementAndGet();
+                            }
+                            cache.checkIn(sql, factory, null, null);
+                        }
+                    } catch (Throwable e) {
+                        e.printStackTrace();
+                        errors.incrementAndGet();
+                    }
+                });
+                threads[t].start();
+            }
+            for (int t = 0; t < threadCount; t++) {
+                threads[t].join();
+            }
+            Assert.assertEquals(0, errors.get());
+            Assert.assertEquals(cache.size(), metrics.cachedQueriesGauge().getValue());
+            Assert.assertTrue(cache.size() <= threadCount * 32);
+        }
+        Assert.assertEquals(0, metrics.cachedQueriesGauge().getValue());
+    }
+
+    private static void assertNormalized(String expected, String sql) {
+        final StringSink sink = new StringSink();
+        QueryFactoryCache.normalize(sql, sink);
+        Assert.assertEquals(expected, sink.toString());
+    }
+
+    private static class TestFactory implements RecordCursorFactory {
+        private boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        @Override
+        public RecordMetadata getMetadata() {
+            return null;
+        }
+
+        @Override
+        public boolean recordCursorSupportsRandomAccess() {
+            return false;
+        }
+    }
+}
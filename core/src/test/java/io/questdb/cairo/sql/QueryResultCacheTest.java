@@ -0,0 +1,137 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.cairo.sql;
+
+import io.questdb.std.LongList;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class QueryResultCacheTest {
+
+    @Test
+    public void testAcquireRelease() {
+        try (QueryResultCache cache = new QueryResultCache(1024)) {
+            final LongList txns = txns(1, 5);
+            Assert.assertNull(cache.acquire("select count() from x", txns));
+
+            final QueryResultCache.Entry entry = newEntry("select count() from x", txns, 100);
+            cache.put(entry);
+            Assert.assertEquals(1, cache.size());
+            Assert.assertEquals(100, cache.getMemoryUsed());
+
+            // result is shared by concurrent readers and stays cached
+            Assert.assertSame(entry, cache.acquire("select count() from x", txns));
+            Assert.assertSame(entry, cache.acquire("select count() from x", txns(1, 5)));
+            Assert.assertEquals(1, cache.size());
+            Assert.assertEquals(100, cache.getMemoryUsed());
+            cache.release(entry);
+            cache.release(entry);
+
+            // result for the same key replaces the cached one
+            final QueryResultCache.Entry newer = newEntry("select count() from x", txns(2, 5), 200);
+            cache.put(newer);
+            Assert.assertEquals(1, cache.size());
+            Assert.assertEquals(200, cache.getMemoryUsed());
+            Assert.assertSame(newer, cache.acquire("select count() from x", txns(2, 5)));
+            cache.release(newer);
+        }
+    }
+
+    @Test
+    public void testEviction() {
+        try (QueryResultCache cache = new QueryResultCache(300)) {
+            final LongList txns = txns(1);
+            final QueryResultCache.Entry a = newEntry("a", txns, 100);
+            cache.put(a);
+            cache.put(newEntry("b", txns, 100));
+            cache.put(newEntry("c", txns, 100));
+
+            // used result goes to the back of the queue
+            Assert.assertSame(a, cache.acquire("a", txns));
+            cache.release(a);
+
+            // least recently used results are evicted until the new one fits
+            cache.put(newEntry("d", txns, 150));
+            Assert.assertEquals(2, cache.size());
+            Assert.assertEquals(250, cache.getMemoryUsed());
+            Assert.assertNull(cache.acquire("b", txns));
+            Assert.assertNull(cache.acquire("c", txns));
+
+            // result larger than the limit is not cached
+            cache.put(newEntry("e", txns, 301));
+            Assert.assertEquals(2, cache.size());
+            Assert.assertNull(cache.acquire("e", txns));
+
+            cache.clear();
+            Assert.assertEquals(0, cache.size());
+            Assert.assertEquals(0, cache.getMemoryUsed());
+        }
+    }
+
+    @Test
+    public void testEvictionOfResultInUse() {
+        try (QueryResultCache cache = new QueryResultCache(300)) {
+            final LongList txns = txns(1);
+            final QueryResultCache.Entry a = newEntry("a", txns, 200);
+            cache.put(a);
+            Assert.assertSame(a, cache.acquire("a", txns));
+
+            // evicted result is freed once the reader releases it
+            cache.put(newEntry("b", txns, 200));
+            Assert.assertEquals(1, cache.size());
+            Assert.assertNull(cache.acquire("a", txns));
+            Assert.assertEquals(400, cache.getMemoryUsed());
+
+            cache.release(a);
+            Assert.assertEquals(200, cache.getMemoryUsed());
+        }
+    }
+
+    @Test
+    public void testStaleResult() {
+        try (QueryResultCache cache = new QueryResultCache(1024)) {
+            cache.put(newEntry("select * from x join y on id", txns(10, 20), 100));
+
+            // one of the tables has committed since the result was cached
+            Assert.assertNull(cache.acquire("select * from x join y on id", txns(10, 21)));
+            // stale result is freed
+            Assert.assertEquals(0, cache.size());
+            Assert.assertEquals(0, cache.getMemoryUsed());
+            Assert.assertNull(cache.acquire("select * from x join y on id", txns(10, 20)));
+        }
+    }
+
+    private static QueryResultCache.Entry newEntry(String key, LongList txns, long size) {
+        return new QueryResultCache.Entry(key, txns, 0, size, 0);
+    }
+
+    private static LongList txns(long... values) {
+        final LongList txns = new LongList();
+        for (long value : values) {
+            txns.add(value);
+        }
+        return txns;
+    }
+}
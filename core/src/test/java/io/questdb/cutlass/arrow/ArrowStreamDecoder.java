@@ -0,0 +1,341 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.arrow;
+
+import io.questdb.std.IntList;
+import io.questdb.std.LongList;
+import io.questdb.std.ObjList;
+import io.questdb.std.str.StringSink;
+import org.junit.Assert;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads Arrow IPC stream produced by {@link ArrowStreamEncoder} and renders it as text.
+ * First line has column names and types, every other line is a row with tab separated
+ * values. Integers and temporal types are printed as numbers, binary values as hex.
+ */
+public class ArrowStreamDecoder {
+    private static final int TYPE_BINARY = 4;
+    private static final int TYPE_BOOL = 6;
+    private static final int TYPE_DATE = 8;
+    private static final int TYPE_FIXED_SIZE_BINARY = 15;
+    private static final int TYPE_FLOATING_POINT = 3;
+    private static final int TYPE_INT = 2;
+    private static final int TYPE_TIMESTAMP = 10;
+    private static final int TYPE_UTF8 = 5;
+    // indexed by dictionary id
+    private final ObjList<ObjList<String>> dictionaries = new ObjList<>();
+    private final IntList fieldDictionaryIds = new IntList();
+    private final StringSink sink = new StringSink();
+    // bit width, precision or byte width, depending on type
+    private final IntList typeParams = new IntList();
+    private final IntList types = new IntList();
+    private final ObjList<ObjList<String>> values = new ObjList<>();
+    private int batchCount;
+    private ByteBuffer bb;
+    private int bufferIndex;
+    private int buffers;
+    private int bodyStart;
+    private int nodeIndex;
+    private int nodes;
+
+    public static String decode(byte[] stream) {
+        return new ArrowStreamDecoder().decode0(stream);
+    }
+
+    public static String decode(byte[] stream, int expectedBatchCount) {
+        final ArrowStreamDecoder decoder = new ArrowStreamDecoder();
+        final String result = decoder.decode0(stream);
+        Assert.assertEquals(expectedBatchCount, decoder.batchCount);
+        return result;
+    }
+
+    private static void putHex(StringSink sink, ByteBuffer bb, int lo, int len) {
+        for (int i = 0; i < len; i++) {
+            final int b = bb.get(lo + i) & 0xff;
+            sink.put(Character.forDigit(b >> 4, 16)).put(Character.forDigit(b & 0xf, 16));
+        }
+    }
+
+    private String decode0(byte[] stream) {
+        bb = ByteBuffer.wrap(stream).order(ByteOrder.LITTLE_ENDIAN);
+        int pos = 0;
+        while (true) {
+            Assert.assertEquals(0, pos % 8);
+            Assert.assertEquals(-1, bb.getInt(pos));
+            final int metadataSize = bb.getInt(pos + 4);
+            pos += 8;
+            if (metadataSize == 0) {
+                break;
+            }
+            Assert.assertEquals(0, metadataSize % 8);
+            final int message = pos + bb.getInt(pos);
+            Assert.assertEquals(4, bb.getShort(field(message, 0)));
+            final int headerType = bb.get(field(message, 1));
+            final int header = table(message, 2);
+            final long bodyLength = longField(message, 3);
+            bodyStart = pos + metadataSize;
+            switch (headerType) {
+                case 1:
+                    readSchema(header);
+                    Assert.assertEquals(0, bodyLength);
+                    break;
+                case 2:
+                    readDictionary(header);
+                    break;
+                case 3:
+                    readRecordBatch(header);
+                    break;
+                default:
+                    Assert.fail("unexpected message header " + headerType);
+            }
+            pos = bodyStart + (int) bodyLength;
+        }
+        Assert.assertEquals(stream.length, pos);
+        return sink.toString();
+    }
+
+    private int field(int table, int field) {
+        final int vtable = table - bb.getInt(table);
+        final int vtableSize = bb.getShort(vtable);
+        final int offset = 4 + 2 * field < vtableSize ? bb.getShort(vtable + 4 + 2 * field) : 0;
+        return offset == 0 ? -1 : table + offset;
+    }
+
+    private int intField(int table, int field, int defaultValue) {
+        final int p = field(table, field);
+        return p < 0 ? defaultValue : bb.getInt(p);
+    }
+
+    private boolean isValid(long validityOffset, long validityLength, int row) {
+        return validityLength == 0 || (bb.get((int) (bodyStart + validityOffset + (row >> 3))) & (1 << (row & 7))) != 0;
+    }
+
+    private long nextBuffer(LongList out) {
+        final int p = buffers + 4 + 16 * bufferIndex++;
+        out.add(bb.getLong(p + 8));
+        return bb.getLong(p);
+    }
+
+    private void readColumn(int type, int param, int dictionaryId, int length, ObjList<String> column) {
+        final int node = nodes + 4 + 16 * nodeIndex++;
+        Assert.assertEquals(length, bb.getLong(node));
+        final long nullCount = bb.getLong(node + 8);
+        final LongList lengths = new LongList();
+        final long validity = nextBuffer(lengths);
+        final long validityLength = lengths.getQuick(0);
+        long nulls = 0;
+        if (dictionaryId > -1 || (type != TYPE_UTF8 && type != TYPE_BINARY)) {
+            final int data = bodyStart + (int) nextBuffer(lengths);
+            final int width = dictionaryId > -1 ? 4 : type == TYPE_BOOL ? 0 : type == TYPE_INT ? param / 8 : type == TYPE_FLOATING_POINT ? (param == 1 ? 4 : 8) : type == TYPE_FIXED_SIZE_BINARY ? param : 8;
+            for (int r = 0; r < length; r++) {
+                if (!isValid(validity, validityLength, r)) {
+                    column.add(null);
+                    nulls++;
+                    continue;
+                }
+                final int p = data + r * width;
+                if (dictionaryId > -1) {
+                    column.add(dictionaries.getQuick(dictionaryId).getQuick(bb.getInt(p)));
+                    continue;
+                }
+                switch (type) {
+                    case TYPE_BOOL:
+                        column.add(String.valueOf((bb.get(data + (r >> 3)) & (1 << (r & 7))) != 0));
+                        break;
+                    case TYPE_INT:
+                        switch (width) {
+                            case 1:
+                                column.add(String.valueOf(bb.get(p)));
+                                break;
+                            case 2:
+                                column.add(String.valueOf(bb.getShort(p)));
+                                break;
+                            case 4:
+                                column.add(String.valueOf(bb.getInt(p)));
+                                break;
+                            default:
+                                column.add(String.valueOf(bb.getLong(p)));
+                                break;
+                        }
+                        break;
+                    case TYPE_FLOATING_POINT:
+                        column.add(width == 4 ? String.valueOf(bb.getFloat(p)) : String.valueOf(bb.getDouble(p)));
+                        break;
+                    case TYPE_FIXED_SIZE_BINARY:
+                        final StringSink hex = new StringSink();
+                        putHex(hex, bb, p, width);
+                        column.add(hex.toString());
+                        break;
+                    default:
+                        column.add(String.valueOf(bb.getLong(p)));
+                        break;
+                }
+            }
+        } else {
+            final int offsets = bodyStart + (int) nextBuffer(lengths);
+            final int data = bodyStart + (int) nextBuffer(lengths);
+            for (int r = 0; r < length; r++) {
+                if (!isValid(validity, validityLength, r)) {
+                    column.add(null);
+                    nulls++;
+                    continue;
+                }
+                final int lo = bb.getInt(offsets + 4 * r);
+                final int hi = bb.getInt(offsets + 4 * r + 4);
+                if (type == TYPE_UTF8) {
+                    column.add(new String(bb.array(), data + lo, hi - lo, StandardCharsets.UTF_8));
+                } else {
+                    final StringSink hex = new StringSink();
+                    putHex(hex, bb, data + lo, hi - lo);
+                    column.add(hex.toString());
+                }
+            }
+        }
+        Assert.assertEquals(nullCount, nulls);
+    }
+
+    private void readDictionary(int header) {
+        final int id = (int) longField(header, 0);
+        final int batch = table(header, 1);
+        final int length = (int) longField(batch, 0);
+        startBatch(batch);
+        final ObjList<String> dictionary = new ObjList<>();
+        readColumn(TYPE_UTF8, 0, -1, length, dictionary);
+        dictionaries.extendAndSet(id, dictionary);
+    }
+
+    private void readRecordBatch(int header) {
+        final int length = (int) longField(header, 0);
+        startBatch(header);
+        for (int i = 0, n = types.size(); i < n; i++) {
+            final ObjList<String> column = values.getQuick(i);
+            column.clear();
+            readColumn(types.getQuick(i), typeParams.getQuick(i), fieldDictionaryIds.getQuick(i), length, column);
+        }
+        Assert.assertEquals(nodeIndex, bb.getInt(nodes));
+        Assert.assertEquals(bufferIndex, bb.getInt(buffers));
+        for (int r = 0; r < length; r++) {
+            for (int i = 0, n = types.size(); i < n; i++) {
+                if (i > 0) {
+                    sink.put('\t');
+                }
+                final String value = values.getQuick(i).getQuick(r);
+                sink.put(value == null ? "null" : value);
+            }
+            sink.put('\n');
+        }
+        batchCount++;
+    }
+
+    private void readSchema(int schema) {
+        final int fields = table(schema, 1);
+        for (int i = 0, n = bb.getInt(fields); i < n; i++) {
+            final int field = fields + 4 + 4 * i + bb.getInt(fields + 4 + 4 * i);
+            final int typeType = bb.get(field(field, 2));
+            final int type = table(field, 3);
+            Assert.assertEquals(1, bb.get(field(field, 1)));
+            Assert.assertEquals(0, bb.getInt(table(field, 5)));
+            if (i > 0) {
+                sink.put('\t');
+            }
+            sink.put(string(field, 0)).put(':');
+            int param = 0;
+            switch (typeType) {
+                case TYPE_INT:
+                    param = intField(type, 0, 0);
+                    Assert.assertEquals(1, bb.get(field(type, 1)));
+                    sink.put("Int").put(param);
+                    break;
+                case TYPE_FLOATING_POINT:
+                    param = bb.getShort(field(type, 0));
+                    sink.put(param == 1 ? "Float32" : "Float64");
+                    break;
+                case TYPE_UTF8:
+                    sink.put("Utf8");
+                    break;
+                case TYPE_BINARY:
+                    sink.put("Binary");
+                    break;
+                case TYPE_BOOL:
+                    sink.put("Bool");
+                    break;
+                case TYPE_DATE:
+                    Assert.assertEquals(-1, field(type, 0));
+                    sink.put("Date(ms)");
+                    break;
+                case TYPE_TIMESTAMP:
+                    Assert.assertEquals(2, bb.getShort(field(type, 0)));
+                    sink.put("Timestamp(us,").put(string(type, 1)).put(')');
+                    break;
+                case TYPE_FIXED_SIZE_BINARY:
+                    param = intField(type, 0, 0);
+                    sink.put("FixedSizeBinary(").put(param).put(')');
+                    break;
+                default:
+                    Assert.fail("unexpected type " + typeType);
+            }
+            final int dictionary = table(field, 4);
+            if (dictionary > -1) {
+                final int indexType = table(dictionary, 1);
+                Assert.assertEquals(32, intField(indexType, 0, 0));
+                fieldDictionaryIds.add((int) longField(dictionary, 0));
+                sink.put("[dict]");
+            } else {
+                fieldDictionaryIds.add(-1);
+            }
+            types.add(typeType);
+            typeParams.add(param);
+            values.add(new ObjList<>());
+        }
+        sink.put('\n');
+    }
+
+    private long longField(int table, int field) {
+        final int p = field(table, field);
+        return p < 0 ? 0 : bb.getLong(p);
+    }
+
+    private void startBatch(int batch) {
+        nodes = table(batch, 1);
+        buffers = table(batch, 2);
+        nodeIndex = 0;
+        bufferIndex = 0;
+    }
+
+    private String string(int table, int field) {
+        final int p = table(table, field);
+        return new String(bb.array(), p + 4, bb.getInt(p), StandardCharsets.UTF_8);
+    }
+
+    private int table(int table, int field) {
+        final int p = field(table, field);
+        return p < 0 ? -1 : p + bb.getInt(p);
+    }
+}
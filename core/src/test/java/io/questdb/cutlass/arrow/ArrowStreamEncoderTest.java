@@ -0,0 +1,416 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+
+package io.questdb.cutlass.arrow;
+
+import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.sql.*;
+import io.questdb.cairo.sql.Record;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.std.BinarySequence;
+import io.questdb.std.Long256;
+import io.questdb.std.Long256Impl;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.std.str.StringSink;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+
+import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ASC;
+
+public class ArrowStreamEncoderTest extends AbstractGriffinTest {
+
+    @Test
+    public void testAllTypes() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String expected = render("x");
+            Assert.assertEquals(expected, encodeRecords("x", 1000, 2));
+            Assert.assertEquals(expected, encodeRecords("x", 300, 4));
+            // partitions are one day long, so there are 43 frames
+            Assert.assertEquals(expected, encodeFrames("x", 1000, 43));
+            Assert.assertEquals(expected, encodeFrames("x", 7, 168));
+        });
+    }
+
+    @Test
+    public void testColumnTop() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select rnd_int(0, 100, 2) i, timestamp_sequence(0, 3600000000) ts from long_sequence(30)) timestamp(ts) partition by DAY");
+            compile("alter table x add column l long");
+            compile("alter table x add column s symbol");
+            compile("insert into x select rnd_int(0, 100, 2) i, timestamp_sequence('1970-01-02T06:00:00', 3600000000) ts, rnd_long(0, 100, 2) l, rnd_symbol('a', 'b', null) s from long_sequence(30)");
+            final String expected = render("x");
+            Assert.assertTrue(expected.startsWith("i:Int32\tts:Timestamp(us,UTC)\tl:Int64\ts:Utf8[dict]\n" +
+                    "6\t0\tnull\tnull\n"));
+            Assert.assertEquals(expected, encodeRecords("x", 1000, 1));
+            Assert.assertEquals(expected, encodeFrames("x", 1000, 4));
+        });
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x (i int, s symbol, ts timestamp) timestamp(ts)");
+            Assert.assertEquals("i:Int32\ts:Utf8[dict]\tts:Timestamp(us,UTC)\n", encodeRecords("x", 10, 0));
+            Assert.assertEquals("i:Int32\ts:Utf8[dict]\tts:Timestamp(us,UTC)\n", encodeFrames("x", 10, 0));
+        });
+    }
+
+    @Test
+    public void testNonStaticSymbols() throws Exception {
+        assertMemoryLeak(() -> {
+            final String query = "select cast(x % 3 as symbol) s, x from long_sequence(5)";
+            final String expected = render(query);
+            Assert.assertTrue(expected.startsWith("s:Utf8\tx:Int64\n"));
+            Assert.assertEquals(expected, encodeRecords(query, 2, 3));
+        });
+    }
+
+    @Test
+    public void testStreamBytes() throws Exception {
+        // Expected stream was assembled independently of the encoder from the Arrow IPC format
+        // and FlatBuffers binary format specifications, Message.fbs and Schema.fbs. It was not
+        // produced by a reference Arrow implementation, none was available to generate it.
+        // Flatbuffers are laid out back to front in object creation order, vtables are not
+        // shared, so reference writers may order metadata bytes differently.
+        final String expected = "" +
+                // schema
+                "ffffffff200100001000000000000a000c000600050008000a00000000010400" +
+                "0c0000000800080000000400080000000400000003000000bc00000050000000" +
+                "140000001000140010000f000e00080000000400100000001000000014000000" +
+                "0000050110000000000000000400040004000000010000007300000010001800" +
+                "1400130012000c000800040010000000140000001c0000004000000000000501" +
+                "3c00000000000000080010000800040008000000140000000100000000000000" +
+                "08000c0008000700080000000000000120000000040004000400000003000000" +
+                "73796d001000140010000f000e00080000000400100000001000000018000000" +
+                "000002011c0000000000000008000c0008000700080000000000000120000000" +
+                "0100000069000000" +
+                // dictionary batch, id 1
+                "ffffffffb000000014000000000000000c0014000600050008000c000c000000" +
+                "0002040014000000180000000000000008001200080004000800000018000000" +
+                "010000000000000000000a0018000c00080004000a0000002c00000010000000" +
+                "0200000000000000000000000100000002000000000000000000000000000000" +
+                "0000000003000000000000000000000000000000000000000000000000000000" +
+                "0c00000000000000100000000000000002000000000000000000000001000000" +
+                "02000000000000006162000000000000" +
+                // record batch
+                "fffffffff800000014000000000000000c0016000600050008000c000c000000" +
+                "0003040018000000500000000000000000000a0018000c00080004000a000000" +
+                "4c00000010000000030000000000000000000000030000000300000000000000" +
+                "0100000000000000030000000000000001000000000000000300000000000000" +
+                "0100000000000000000000000700000000000000000000000100000000000000" +
+                "08000000000000000c0000000000000018000000000000000100000000000000" +
+                "20000000000000000c0000000000000030000000000000000100000000000000" +
+                "3800000000000000100000000000000048000000000000000300000000000000" +
+                "0500000000000000010000000000008003000000000000000500000000000000" +
+                "0000000000000080010000000000000005000000000000000000000002000000" +
+                "020000000300000078797a0000000000" +
+                // end of stream
+                "ffffffff00000000";
+        assertMemoryLeak(() -> {
+            compile("create table x (i int, sym symbol, s string)");
+            compile("insert into x values (1, 'a', 'xy'), (null, null, null), (3, 'b', 'z')");
+            Assert.assertEquals(expected, toHex(encodeRecords("x", 10)));
+        });
+    }
+
+    @Test
+    public void testTypes() throws Exception {
+        assertMemoryLeak(() -> Assert.assertEquals(
+                "b:Bool\tbt:Int8\tsh:Int16\tc:Utf8\ti:Int32\tl:Int64\tf:Float32\td:Float64\ts:Utf8\tdt:Date(ms)\tts:Timestamp(us,UTC)\tg:Int16\tl256:FixedSizeBinary(32)\tимя:Utf8\n" +
+                        "true\t1\t2\tя\t3\t4\t5.5\t6.5\tstr\t86400000\t1000\t25248\t0100000000000000020000000000000003000000000000000400000000000000\tnull\n",
+                encodeRecords(
+                        "select true b, cast(1 as byte) bt, cast(2 as short) sh, 'я' c, 3 i, 4L l, 5.5f f, 6.5 d, 'str' s," +
+                                " cast(86400000 as date) dt, cast(1000 as timestamp) ts, #sp0 g," +
+                                " 0x04000000000000000300000000000000020000000000000001 l256, cast(null as string) имя" +
+                                " from long_sequence(1)",
+                        10,
+                        1
+                )
+        ));
+    }
+
+    private static String arrowTypeOf(RecordMetadata metadata, int columnIndex) {
+        final int columnType = metadata.getColumnType(columnIndex);
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                return "Bool";
+            case ColumnType.BYTE:
+            case ColumnType.GEOBYTE:
+                return "Int8";
+            case ColumnType.SHORT:
+            case ColumnType.GEOSHORT:
+                return "Int16";
+            case ColumnType.INT:
+            case ColumnType.GEOINT:
+                return "Int32";
+            case ColumnType.LONG:
+            case ColumnType.GEOLONG:
+                return "Int64";
+            case ColumnType.FLOAT:
+                return "Float32";
+            case ColumnType.DOUBLE:
+                return "Float64";
+            case ColumnType.DATE:
+                return "Date(ms)";
+            case ColumnType.TIMESTAMP:
+                return "Timestamp(us,UTC)";
+            case ColumnType.LONG256:
+                return "FixedSizeBinary(32)";
+            case ColumnType.BINARY:
+                return "Binary";
+            case ColumnType.SYMBOL:
+                return metadata.isSymbolTableStatic(columnIndex) ? "Utf8[dict]" : "Utf8";
+            default:
+                return "Utf8";
+        }
+    }
+
+    private static void drain(ArrowStreamEncoder encoder, ByteArrayOutputStream stream) {
+        // consume the stream in small pieces, like network code would
+        long lo;
+        while ((lo = encoder.getSendLo()) < encoder.getSendHi()) {
+            final int len = (int) Math.min(13, encoder.getSendHi() - lo);
+            for (int i = 0; i < len; i++) {
+                stream.write(Unsafe.getUnsafe().getByte(lo + i));
+            }
+            encoder.onSent(len);
+        }
+    }
+
+    private static void putHex(StringSink sink, int b) {
+        sink.put(Character.forDigit(b >> 4, 16)).put(Character.forDigit(b & 0xf, 16));
+    }
+
+    private static void putHex(StringSink sink, long value) {
+        for (int i = 0; i < Long.BYTES; i++) {
+            putHex(sink, (int) (value >>> (i * 8)) & 0xff);
+        }
+    }
+
+    private static void putValue(StringSink sink, Record record, int columnType, int col) {
+        switch (ColumnType.tagOf(columnType)) {
+            case ColumnType.BOOLEAN:
+                sink.put(record.getBool(col));
+                break;
+            case ColumnType.BYTE:
+                sink.put(record.getByte(col));
+                break;
+            case ColumnType.SHORT:
+                sink.put(record.getShort(col));
+                break;
+            case ColumnType.CHAR:
+                final char c = record.getChar(col);
+                sink.put(c == 0 ? "null" : String.valueOf(c));
+                break;
+            case ColumnType.INT:
+                final int i = record.getInt(col);
+                sink.put(i == Integer.MIN_VALUE ? "null" : String.valueOf(i));
+                break;
+            case ColumnType.LONG:
+            case ColumnType.DATE:
+            case ColumnType.TIMESTAMP:
+                final long l = record.getLong(col);
+                sink.put(l == Long.MIN_VALUE ? "null" : String.valueOf(l));
+                break;
+            case ColumnType.FLOAT:
+                final float f = record.getFloat(col);
+                sink.put(f != f ? "null" : String.valueOf(f));
+                break;
+            case ColumnType.DOUBLE:
+                final double d = record.getDouble(col);
+                sink.put(d != d ? "null" : String.valueOf(d));
+                break;
+            case ColumnType.GEOBYTE:
+                final byte gb = record.getGeoByte(col);
+                sink.put(gb == -1 ? "null" : String.valueOf(gb));
+                break;
+            case ColumnType.GEOSHORT:
+                final short gs = record.getGeoShort(col);
+                sink.put(gs == -1 ? "null" : String.valueOf(gs));
+                break;
+            case ColumnType.GEOINT:
+                final int gi = record.getGeoInt(col);
+                sink.put(gi == -1 ? "null" : String.valueOf(gi));
+                break;
+            case ColumnType.GEOLONG:
+                final long gl = record.getGeoLong(col);
+                sink.put(gl == -1 ? "null" : String.valueOf(gl));
+                break;
+            case ColumnType.LONG256:
+                final Long256 v = record.getLong256A(col);
+                if (Long256Impl.NULL_LONG256.equals(v)) {
+                    sink.put("null");
+                    break;
+                }
+                putHex(sink, v.getLong0());
+                putHex(sink, v.getLong1());
+                putHex(sink, v.getLong2());
+                putHex(sink, v.getLong3());
+                break;
+            case ColumnType.STRING:
+                final CharSequence s = record.getStr(col);
+                sink.put(s == null ? "null" : s);
+                break;
+            case ColumnType.SYMBOL:
+                final CharSequence sym = record.getSym(col);
+                sink.put(sym == null ? "null" : sym);
+                break;
+            case ColumnType.BINARY:
+                final BinarySequence bin = record.getBin(col);
+                if (bin == null) {
+                    sink.put("null");
+                } else {
+                    for (long n = 0, len = bin.length(); n < len; n++) {
+                        putHex(sink, bin.byteAt(n) & 0xff);
+                    }
+                }
+                break;
+            default:
+                Assert.fail("unexpected type " + ColumnType.nameOf(columnType));
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        final StringSink sink = new StringSink();
+        for (byte b : bytes) {
+            putHex(sink, b & 0xff);
+        }
+        return sink.toString();
+    }
+
+    private void createTable() throws SqlException {
+        compile("create table x as (" +
+                "select rnd_boolean() b," +
+                " rnd_byte() bt," +
+                " rnd_short() sh," +
+                " rnd_char() c," +
+                " rnd_int(0, 1000, 2) i," +
+                " rnd_long(0, 1000, 2) l," +
+                " rnd_float(2) f," +
+                " rnd_double(2) d," +
+                " rnd_str(3, 5, 2) s," +
+                " rnd_symbol(4, 3, 5, 2) sym," +
+                " rnd_date(to_date('2015', 'yyyy'), to_date('2016', 'yyyy'), 2) dt," +
+                " rnd_geohash(10) g," +
+                " rnd_long256() l256," +
+                " rnd_bin(2, 6, 2) bin," +
+                " timestamp_sequence(0, 3600000000) ts" +
+                " from long_sequence(1000)" +
+                ") timestamp(ts) partition by DAY");
+        compile("insert into x (s, ts) values ('я€😀', '1970-02-12')");
+    }
+
+    private String encodeFrames(String query, int batchSize, int expectedBatchCount) throws SqlException {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (
+                RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory();
+                PageFrameCursor cursor = factory.getPageFrameCursor(sqlExecutionContext, ORDER_ASC);
+                ArrowStreamEncoder encoder = new ArrowStreamEncoder(configuration, MemoryTag.NATIVE_DEFAULT)
+        ) {
+            encoder.of(factory.getMetadata(), cursor);
+            encoder.putSchema();
+            encoder.putDictionaries();
+            drain(encoder, stream);
+            PageFrame frame;
+            while ((frame = cursor.next()) != null) {
+                encoder.ofFrame(frame);
+                final long frameRowCount = frame.getPartitionHi() - frame.getPartitionLo();
+                for (long lo = 0; lo < frameRowCount; lo += batchSize) {
+                    encoder.appendFrameRows(lo, Math.min(lo + batchSize, frameRowCount));
+                    encoder.putRecordBatch();
+                    drain(encoder, stream);
+                }
+            }
+            encoder.putEndOfStream();
+            drain(encoder, stream);
+        }
+        return ArrowStreamDecoder.decode(stream.toByteArray(), expectedBatchCount);
+    }
+
+    private byte[] encodeRecords(String query, int batchSize) throws SqlException {
+        final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        try (
+                RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory();
+                RecordCursor cursor = factory.getCursor(sqlExecutionContext);
+                ArrowStreamEncoder encoder = new ArrowStreamEncoder(configuration, MemoryTag.NATIVE_DEFAULT)
+        ) {
+            encoder.of(factory.getMetadata(), cursor);
+            encoder.putSchema();
+            encoder.putDictionaries();
+            drain(encoder, stream);
+            final Record record = cursor.getRecord();
+            while (cursor.hasNext()) {
+                encoder.appendRecord(record);
+                if (encoder.getRowCount() == batchSize) {
+                    encoder.putRecordBatch();
+                    drain(encoder, stream);
+                }
+            }
+            if (encoder.getRowCount() > 0) {
+                encoder.putRecordBatch();
+            }
+            encoder.putEndOfStream();
+            drain(encoder, stream);
+        }
+        return stream.toByteArray();
+    }
+
+    private String encodeRecords(String query, int batchSize, int expectedBatchCount) throws SqlException {
+        return ArrowStreamDecoder.decode(encodeRecords(query, batchSize), expectedBatchCount);
+    }
+
+    private String render(String query) throws SqlException {
+        final StringSink sink = new StringSink();
+        try (
+                RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory();
+                RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+        ) {
+            final RecordMetadata metadata = factory.getMetadata();
+            for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                if (i > 0) {
+                    sink.put('\t');
+                }
+                sink.put(metadata.getColumnName(i)).put(':').put(arrowTypeOf(metadata, i));
+            }
+            sink.put('\n');
+            final Record record = cursor.getRecord();
+            while (cursor.hasNext()) {
+                for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
+                    if (i > 0) {
+                        sink.put('\t');
+                    }
+                    putValue(sink, record, metadata.getColumnType(i), i);
+                }
+                sink.put('\n');
+            }
+        }
+        return sink.toString();
+    }
+}
@@ -27,7 +27,7 @@ package io.questdb.cutlass.http;
 import io.questdb.Metrics;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.DefaultCairoConfiguration;
-import io.questdb.mp.MPSequence;
+import io.questdb.cairo.sql.RecordCursorFactory;
 import io.questdb.network.NetworkFacadeImpl;
 import org.junit.Assert;
 import org.junit.Rule;
@@ -67,7 +67,7 @@ public class HttpFlushQueryCacheTest {
                     "TIMESTAMP(ts)\n" +
                     "PARTITION BY DAY");
 
-            Assert.assertEquals(0, metrics.jsonQuery().cachedQueriesGauge().getValue());
+            Assert.assertEquals(0, metrics.queryCache().cachedQueriesGauge().getValue());
 
             // execute a SELECT query
             String sql = "SELECT *\n" +
@@ -81,26 +81,24 @@ public class HttpFlushQueryCacheTest {
                     "\r\n");
 
             // The query might not be returned to cache immediately, so we need to try a few times.
-            assertEventually(() -> Assert.assertEquals(1, metrics.jsonQuery().cachedQueriesGauge().getValue()));
+            assertEventually(() -> Assert.assertEquals(1, metrics.queryCache().cachedQueriesGauge().getValue()));
 
             // flush query cache and verify that the memory gets released
-            sql = "SELECT flush_query_cache()";
-            sendAndReceiveBasicSelect(sql, "\r\n" +
+            final String flushSql = "SELECT flush_query_cache()";
+            sendAndReceiveBasicSelect(flushSql, "\r\n" +
                     "7d\r\n" +
                     "{\"query\":\"SELECT flush_query_cache()\",\"columns\":[{\"name\":\"flush_query_cache\",\"type\":\"BOOLEAN\"}],\"dataset\":[[true]],\"count\":1}\r\n" +
                     "00\r\n" +
                     "\r\n");
 
-            // We need to wait until HTTP workers process the message. To do so, we simply try to
-            // publish another query flush event. Since we set the queue size to 1, we're able to
-            // publish only when all consumers (HTTP workers) have processed the previous event.
-            Assert.assertEquals(1, engine.getConfiguration().getQueryCacheEventQueueCapacity());
-            final MPSequence pubSeq = engine.getMessageBus().getQueryCacheEventPubSeq();
-            pubSeq.waitForNext();
-
-            // Sequence set to done before actual flush performed. We might have to try it a few times,
-            // before memory usage drop is measured.
-            assertEventually(() -> Assert.assertEquals(0, metrics.jsonQuery().cachedQueriesGauge().getValue()));
+            // Compiled queries are shared by all connections and dropped synchronously by the flush.
+            // The cache now holds the flush query alone, it is returned to the cache after execution.
+            assertEventually(() -> Assert.assertEquals(1, metrics.queryCache().cachedQueriesGauge().getValue()));
+            Assert.assertNull(engine.getQueryFactoryCache().checkOut(sql, null));
+            final RecordCursorFactory factory = engine.getQueryFactoryCache().checkOut(flushSql, null);
+            Assert.assertNotNull(factory);
+            factory.close();
+            Assert.assertEquals(0, metrics.queryCache().cachedQueriesGauge().getValue());
         });
     }
 
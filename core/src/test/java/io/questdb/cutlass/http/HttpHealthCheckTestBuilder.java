@@ -28,7 +28,6 @@ import io.questdb.Metrics;
 import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.DefaultCairoConfiguration;
 import io.questdb.cutlass.Services;
-import io.questdb.cutlass.http.processors.QueryCache;
 import io.questdb.griffin.SqlException;
 import io.questdb.log.Log;
 import io.questdb.log.LogFactory;
@@ -59,8 +58,6 @@ public class HttpHealthCheckTestBuilder {
                 metrics = Metrics.enabled();
             }
 
-            QueryCache.configure(httpConfiguration, metrics);
-
             WorkerPool workerPool = new TestWorkerPool(1, metrics);
 
             if (injectUnhandledError) {
@@ -219,8 +219,6 @@ public class HttpQueryTestBuilder {
                     }
                 });
 
-                QueryCache.configure(httpConfiguration, metrics);
-
                 workerPool.start(LOG);
 
                 try {
@@ -41,6 +41,8 @@ public class HttpServerConfigurationBuilder {
     private boolean allowDeflateBeforeSend;
     private String baseDir;
     private long configuredMaxQueryResponseRowLimit = Long.MAX_VALUE;
+    private long cursorIdleTimeout = 60_000;
+    private int cursorMaxCount = 4;
     private boolean dumpTraffic;
     private String httpProtocolVersion = "HTTP/1.1 ";
     private long multipartIdleSpinCount = -1;
@@ -73,6 +75,16 @@ public class HttpServerConfigurationBuilder {
                     return 1_000_000;
                 }
 
+                @Override
+                public long getCursorIdleTimeout() {
+                    return cursorIdleTimeout;
+                }
+
+                @Override
+                public int getCursorMaxCount() {
+                    return cursorMaxCount;
+                }
+
                 @Override
                 public int getDoubleScale() {
                     return Numbers.MAX_SCALE;
@@ -97,6 +109,11 @@ public class HttpServerConfigurationBuilder {
                 public long getMaxQueryResponseRowLimit() {
                     return configuredMaxQueryResponseRowLimit;
                 }
+
+                @Override
+                public boolean isQueryCacheEnabled() {
+                    return true;
+                }
             };
             private final StaticContentProcessorConfiguration staticContentProcessorConfiguration = new StaticContentProcessorConfiguration() {
                 @Override
@@ -243,6 +260,16 @@ public class HttpServerConfigurationBuilder {
         return this;
     }
 
+    public HttpServerConfigurationBuilder withCursorIdleTimeout(long cursorIdleTimeout) {
+        this.cursorIdleTimeout = cursorIdleTimeout;
+        return this;
+    }
+
+    public HttpServerConfigurationBuilder withCursorMaxCount(int cursorMaxCount) {
+        this.cursorMaxCount = cursorMaxCount;
+        return this;
+    }
+
     public HttpServerConfigurationBuilder withDumpingTraffic(boolean dumpTraffic) {
         this.dumpTraffic = dumpTraffic;
         return this;
@@ -31,6 +31,7 @@ import io.questdb.cairo.*;
 import io.questdb.cairo.security.AllowAllCairoSecurityContext;
 import io.questdb.cutlass.NetUtils;
 import io.questdb.cutlass.Services;
+import io.questdb.cutlass.arrow.ArrowStreamDecoder;
 import io.questdb.cutlass.http.processors.*;
 import io.questdb.griffin.SqlCompiler;
 import io.questdb.griffin.SqlException;
@@ -57,6 +58,7 @@ import org.junit.*;
 import org.junit.rules.TemporaryFolder;
 import org.junit.rules.Timeout;
 
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.CyclicBarrier;
@@ -632,6 +634,44 @@ public class IODispatcherTest {
         );
     }
 
+    @Test
+    public void testExpArrow() throws Exception {
+        testJsonQuery0(2, engine -> {
+            SqlExecutionContextImpl executionContext = new SqlExecutionContextImpl(engine, 1);
+            try (SqlCompiler compiler = new SqlCompiler(engine)) {
+                compiler.compile("create table x as (select" +
+                        " case when x % 5 = 0 then null else x end l," +
+                        " cast(x as string) s," +
+                        " cast(x % 3 as symbol) sym," +
+                        " timestamp_sequence(0, 60000000) ts" +
+                        " from long_sequence(10000)) timestamp(ts) partition by HOUR", executionContext);
+            }
+
+            // table scan is encoded from page frames, response is much larger than send buffer
+            StringSink expected = new StringSink();
+            expected.put("l:Int64\ts:Utf8\tsym:Utf8[dict]\tts:Timestamp(us,UTC)\n");
+            for (int x = 1; x <= 10000; x++) {
+                expected.put(x % 5 == 0 ? "null" : String.valueOf(x)).put('\t')
+                        .put(x).put('\t')
+                        .put(x % 3).put('\t')
+                        .put((x - 1) * 60000000L).put('\n');
+            }
+            TestUtils.assertEquals(
+                    expected,
+                    ArrowStreamDecoder.decode(receiveArrowStream("GET /exp?query=x&fmt=arrow HTTP/1.1\r\n" + SendAndReceiveRequestBuilder.RequestHeaders))
+            );
+
+            // limit is applied to records
+            TestUtils.assertEquals(
+                    "l:Int64\ts:Utf8\tsym:Utf8[dict]\tts:Timestamp(us,UTC)\n" +
+                            "3\t3\t0\t120000000\n" +
+                            "4\t4\t1\t180000000\n" +
+                            "null\t5\t2\t240000000\n",
+                    ArrowStreamDecoder.decode(receiveArrowStream("GET /exp?query=x&limit=2,5&fmt=arrow HTTP/1.1\r\n" + SendAndReceiveRequestBuilder.RequestHeaders), 1)
+            );
+        }, false);
+    }
+
     @Test
     public void testExpNull() throws Exception {
         testJsonQuery(0, "GET /exp?query=select+null+from+long_sequence(1)&limit=1&src=con HTTP/1.1\r\n" +
@@ -3870,6 +3910,112 @@ public class IODispatcherTest {
                         "\r\n");
     }
 
+    @Test
+    public void testJsonQueryRetainedCursor() throws Exception {
+        testRetainedCursor(4, 60_000, (requester, compiler, executionContext) -> {
+            requester.executeWithStandardHeaders(
+                    "GET /exec?query=x&limit=1,3&keepCursor=true&nm=true HTTP/1.1\r\n",
+                    jsonChunk("{\"dataset\":[[1],[2],[3]],\"count\":3,\"cursorId\":1}")
+            );
+            // retained cursor does not see rows inserted after the query has been executed
+            compiler.compile("insert into x select x + 10 from long_sequence(2)", executionContext);
+            requester.executeWithStandardHeaders(
+                    "GET /exec?query=x&limit=4,6&cursorId=1&nm=true HTTP/1.1\r\n",
+                    jsonChunk("{\"dataset\":[[4],[5],[6]],\"count\":6,\"cursorId\":1}")
+            );
+            // skip rows and reach the end of the cursor, it is not retained anymore
+            requester.executeWithStandardHeaders(
+                    "GET /exec?query=x&limit=9,20&cursorId=1&nm=true HTTP/1.1\r\n",
+                    jsonChunk("{\"dataset\":[[9],[10]],\"count\":10}")
+            );
+            // unknown cursor, query is executed again
+            requester.executeWithStandardHeaders(
+                    "GET /exec?query=x&limit=1,2&cursorId=1&nm=true HTTP/1.1\r\n",
+                    jsonChunk("{\"dataset\":[[1],[2]],\"count\":2,\"cursorId\":2}")
+            );
+            // cursor is past the requested rows
+            requester.executeWithStandardHeaders(
+                    "GET /exec?query=x&limit=2,2&cursorId=2&nm=true HTTP/1.1\r\n",
+                    jsonChunk("{\"dataset\":[[2]],\"count\":2,\"cursorId\":3}")
+            );
+            // cursor of a different query, the filter is reduced on worker threads and its cursor is not retained
+            requester.executeWithStandardHeaders(
+                    "GET /exec?query=x%20where%20x%20%3E%2010&limit=1,1&cursorId=3&nm=true HTTP/1.1\r\n",
+                    jsonChunk("{\"dataset\":[[11]],\"count\":1}")
+            );
+            requester.executeWithStandardHeaders(
+                    "GET /exec?query=x%20where%20x%20%3E%2010&limit=2,2&cursorId=4&nm=true HTTP/1.1\r\n",
+                    jsonChunk("{\"dataset\":[[12]],\"count\":2}")
+            );
+            // table size is known, so rows are counted without reading the cursor
+            requester.executeWithStandardHeaders(
+                    "GET /exec?query=x&limit=1,1&keepCursor=true&count=true&nm=true HTTP/1.1\r\n",
+                    jsonChunk("{\"dataset\":[[1]],\"count\":12,\"cursorId\":4}")
+            );
+            // filtered rows have to be counted, cursor is not retained
+            requester.executeWithStandardHeaders(
+                    "GET /exec?query=x%20where%20x%20%3E%2010&limit=1,1&keepCursor=true&count=true&nm=true HTTP/1.1\r\n",
+                    jsonChunk("{\"dataset\":[[11]],\"count\":2}")
+            );
+        });
+    }
+
+    @Test
+    public void testJsonQueryRetainedCursorEvicted() throws Exception {
+        testRetainedCursor(1, 60_000, (requester, compiler, executionContext) -> {
+            requester.executeWithStandardHeaders(
+                    "GET /exec?query=x&limit=1,1&keepCursor=true&nm=true HTTP/1.1\r\n",
+                    jsonChunk("{\"dataset\":[[1]],\"count\":1,\"cursorId\":1}")
+            );
+            requester.executeWithStandardHeaders(
+                    "GET /exec?query=x&limit=1,2&keepCursor=true&nm=true HTTP/1.1\r\n",
+                    jsonChunk("{\"dataset\":[[1],[2]],\"count\":2,\"cursorId\":2}")
+            );
+            TestUtils.insert(compiler, executionContext, "insert into x values (11)");
+            // the first cursor has been closed to retain the second one
+            requester.executeWithStandardHeaders(
+                    "GET /exec?query=x&limit=10,20&cursorId=1&nm=true HTTP/1.1\r\n",
+                    jsonChunk("{\"dataset\":[[10],[11]],\"count\":11}")
+            );
+            requester.executeWithStandardHeaders(
+                    "GET /exec?query=x&limit=10,20&cursorId=2&nm=true HTTP/1.1\r\n",
+                    jsonChunk("{\"dataset\":[[10]],\"count\":10}")
+            );
+        });
+    }
+
+    @Test
+    public void testJsonQueryRetainedCursorExpired() throws Exception {
+        testRetainedCursor(4, 0, (requester, compiler, executionContext) -> {
+            requester.executeWithStandardHeaders(
+                    "GET /exec?query=x&limit=1,1&keepCursor=true&nm=true HTTP/1.1\r\n",
+                    jsonChunk("{\"dataset\":[[1]],\"count\":1,\"cursorId\":1}")
+            );
+            TestUtils.insert(compiler, executionContext, "insert into x values (11)");
+            requester.executeWithStandardHeaders(
+                    "GET /exec?query=x&limit=10,20&cursorId=1&nm=true HTTP/1.1\r\n",
+                    jsonChunk("{\"dataset\":[[10],[11]],\"count\":11}")
+            );
+        });
+    }
+
+    @Test
+    public void testJsonQueryRetainedCursorExpiredWhileIdle() throws Exception {
+        testRetainedCursor(4, 0, (requester, compiler, executionContext) -> {
+            final CairoEngine engine = executionContext.getCairoEngine();
+            requester.executeWithStandardHeaders(
+                    "GET /exec?query=x&limit=1,1&keepCursor=true&nm=true HTTP/1.1\r\n",
+                    jsonChunk("{\"dataset\":[[1]],\"count\":1,\"cursorId\":1}")
+            );
+            // the connection stays open, the dispatcher closes the expired cursor and releases its reader
+            final long deadline = System.currentTimeMillis() + 10_000;
+            while (engine.getBusyReaderCount() > 0 && System.currentTimeMillis() < deadline) {
+                Os.sleep(10);
+            }
+            Assert.assertEquals(0, engine.getBusyReaderCount());
+        });
+    }
+
     @Test
     public void testJsonQuerySelectAlterSelect() throws Exception {
         testJsonQuery0(1, engine -> {
@@ -4533,7 +4679,6 @@ public class IODispatcherTest {
                     .withHttpProtocolVersion("HTTP/1.1 ")
                     .withOnPeerDisconnect(peerDisconnectLatch::countDown)
                     .build();
-            QueryCache.configure(httpConfiguration, metrics);
 
             WorkerPool workerPool = new TestWorkerPool(1);
 
@@ -6820,6 +6965,64 @@ public class IODispatcherTest {
         }
     }
 
+    private static byte[] receiveArrowStream(String request) {
+        final NetworkFacade nf = NetworkFacadeImpl.INSTANCE;
+        final String eofChunk = "\r\n00\r\n\r\n";
+        final ByteArrayOutputStream response = new ByteArrayOutputStream();
+        final int bufSize = 64 * 1024;
+        final long buf = Unsafe.malloc(bufSize, MemoryTag.NATIVE_DEFAULT);
+        final long fd = new SendAndReceiveRequestBuilder().connectAndSendRequest(request);
+        try {
+            final long deadline = System.currentTimeMillis() + 60_000;
+            while (true) {
+                final int n = nf.recv(fd, buf, bufSize);
+                Assert.assertTrue(n > -1);
+                for (int i = 0; i < n; i++) {
+                    response.write(Unsafe.getUnsafe().getByte(buf + i));
+                }
+                final String tail = response.size() < eofChunk.length() ? "" : new String(response.toByteArray(), response.size() - eofChunk.length(), eofChunk.length(), Files.UTF_8);
+                if (eofChunk.equals(tail)) {
+                    break;
+                }
+                Assert.assertTrue(System.currentTimeMillis() < deadline);
+                if (n == 0) {
+                    Os.pause();
+                }
+            }
+        } finally {
+            nf.close(fd);
+            Unsafe.free(buf, bufSize, MemoryTag.NATIVE_DEFAULT);
+        }
+
+        // parse headers and remove chunked transfer encoding
+        final byte[] bytes = response.toByteArray();
+        final String text = new String(bytes, Files.UTF_8);
+        final int headerEnd = text.indexOf("\r\n\r\n");
+        Assert.assertTrue(text.startsWith("HTTP/1.1 200 OK\r\n"));
+        Assert.assertTrue(text.substring(0, headerEnd).contains("Content-Type: application/vnd.apache.arrow.stream\r\n"));
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        int pos = headerEnd + 4;
+        while (true) {
+            int len = 0;
+            for (; bytes[pos] != '\r'; pos++) {
+                len = len * 16 + Character.digit(bytes[pos], 16);
+            }
+            pos += 2;
+            if (len == 0) {
+                break;
+            }
+            body.write(bytes, pos, len);
+            pos += len;
+            Assert.assertEquals('\r', bytes[pos++]);
+            Assert.assertEquals('\n', bytes[pos++]);
+        }
+        return body.toByteArray();
+    }
+
+    private static String jsonChunk(String body) {
+        return String.format("%02x", body.length()) + "\r\n" + body + "\r\n00\r\n\r\n";
+    }
+
     private static void sendAndReceive(
             NetworkFacade nf,
             String request,
@@ -6948,7 +7151,6 @@ public class IODispatcherTest {
                 .withServerKeepAlive(serverKeepAlive)
                 .withHttpProtocolVersion(httpProtocolVersion)
                 .build();
-        QueryCache.configure(httpConfiguration, metrics);
         return httpConfiguration;
     }
 
@@ -7154,6 +7356,30 @@ public class IODispatcherTest {
                 });
     }
 
+    private void testRetainedCursor(int cursorMaxCount, long cursorIdleTimeout, RetainedCursorCode code) throws Exception {
+        new HttpQueryTestBuilder()
+                .withWorkerCount(2)
+                .withHttpServerConfigBuilder(new HttpServerConfigurationBuilder()
+                        .withSendBufferSize(16 * 1024)
+                        .withCursorMaxCount(cursorMaxCount)
+                        .withCursorIdleTimeout(cursorIdleTimeout)
+                )
+                .withTempFolder(temp)
+                .run(engine -> {
+                    SqlExecutionContextImpl executionContext = new SqlExecutionContextImpl(engine, 1);
+                    try (SqlCompiler compiler = new SqlCompiler(engine)) {
+                        compiler.compile("create table x as (select x from long_sequence(10))", executionContext);
+                        new SendAndReceiveRequestBuilder().executeMany(requester -> {
+                            try {
+                                code.run(requester, compiler, executionContext);
+                            } catch (SqlException e) {
+                                throw new RuntimeException(e);
+                            }
+                        });
+                    }
+                });
+    }
+
     private void testJsonQuery(int recordCount, String request, String expectedResponse, int requestCount, boolean telemetry) throws Exception {
         testJsonQuery0(2, engine -> {
             // create table with all column types
@@ -7596,6 +7822,15 @@ public class IODispatcherTest {
         }
     }
 
+    @FunctionalInterface
+    private interface RetainedCursorCode {
+        void run(
+                SendAndReceiveRequestBuilder.RequestExecutor requester,
+                SqlCompiler compiler,
+                SqlExecutionContext executionContext
+        ) throws InterruptedException, SqlException;
+    }
+
     static class Status {
         boolean valid;
     }
@@ -287,11 +287,13 @@ abstract class BaseLineTcpContextTest extends AbstractCairoTest {
     protected void setupContext(AuthDb authDb, Runnable onCommitNewEvent) {
         disconnected = false;
         recvBuffer = null;
+        final ObjList<IODispatcher<LineTcpConnectionContext>> dispatchers = new ObjList<>();
+        dispatchers.add(null);
         scheduler = new LineTcpMeasurementScheduler(
                 lineTcpConfiguration,
                 engine,
                 createWorkerPool(1, true),
-                null,
+                dispatchers,
                 workerPool = createWorkerPool(nWriterThreads, false)) {
 
             @Override
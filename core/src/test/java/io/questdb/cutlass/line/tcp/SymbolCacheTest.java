@@ -326,6 +326,74 @@ public class SymbolCacheTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testSharedSymbolKeys() throws Exception {
+        String tableName = "tb1";
+        TestUtils.assertMemoryLeak(() -> {
+            final SharedSymbolKeys sharedSymbolKeys = new SharedSymbolKeys();
+            final DefaultLineTcpReceiverConfiguration noReloadConfiguration = new DefaultLineTcpReceiverConfiguration() {
+                @Override
+                public long getSymbolCacheWaitUsBeforeReload() {
+                    return Long.MAX_VALUE;
+                }
+            };
+            try (Path path = new Path();
+                 TableModel model = new TableModel(configuration, tableName, PartitionBy.DAY)
+                         .col("symCol", ColumnType.SYMBOL);
+                 SymbolCache cache1 = new SymbolCache(new DefaultLineTcpReceiverConfiguration());
+                 SymbolCache cache2 = new SymbolCache(noReloadConfiguration)
+            ) {
+                CairoTestUtils.create(model);
+                try (
+                        TableWriter writer = new TableWriter(configuration, tableName, metrics);
+                        TxReader txReader = new TxReader(configuration.getFilesFacade()).ofRO(
+                                path.of(configuration.getRoot()).concat(tableName).concat(TXN_FILE_NAME).$(),
+                                PartitionBy.DAY
+                        )
+                ) {
+                    int symColIndex = writer.getColumnIndex("symCol");
+                    sharedSymbolKeys.addColumn(symColIndex);
+                    cache1.of(configuration, path.of(configuration.getRoot()).concat(tableName), "symCol", 0, txReader, -1, sharedSymbolKeys, symColIndex);
+                    cache2.of(configuration, path.of(configuration.getRoot()).concat(tableName), "symCol", 0, txReader, -1, sharedSymbolKeys, symColIndex);
+
+                    putSymbol(writer, sharedSymbolKeys, symColIndex, "sym1");
+                    putSymbol(writer, sharedSymbolKeys, symColIndex, "sym2");
+
+                    // keys staged by the writer are not shared before commit
+                    Assert.assertNull(sharedSymbolKeys.getCommittedKeys(symColIndex).get("sym1"));
+                    Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, cache2.keyOf("sym1"));
+
+                    writer.commit();
+                    sharedSymbolKeys.onCommit();
+
+                    // second cache does not reload symbol map reader, committed keys come from the shared map
+                    Assert.assertEquals(0, cache2.keyOf("sym1"));
+                    Assert.assertEquals(1, cache2.keyOf("sym2"));
+                    Assert.assertEquals(2, cache2.getCacheValueCount());
+
+                    // first cache resolves uncommitted key from symbol map files
+                    putSymbol(writer, sharedSymbolKeys, symColIndex, "sym3");
+                    Assert.assertEquals(2, cache1.keyOf("sym3"));
+                    Assert.assertEquals(1, cache1.getCacheValueCount());
+
+                    writer.rollback();
+                    sharedSymbolKeys.onRollback();
+
+                    // rolled back key is reassigned to another value
+                    putSymbol(writer, sharedSymbolKeys, symColIndex, "sym4");
+                    Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, cache1.keyOf("sym3"));
+                    Assert.assertEquals(0, cache1.keyOf("sym1"));
+                    writer.commit();
+                    sharedSymbolKeys.onCommit();
+
+                    Assert.assertNull(sharedSymbolKeys.getCommittedKeys(symColIndex).get("sym3"));
+                    Assert.assertEquals(2, cache2.keyOf("sym4"));
+                    Assert.assertEquals(SymbolTable.VALUE_NOT_FOUND, cache2.keyOf("sym3"));
+                }
+            }
+        });
+    }
+
     @Test
     public void testSimpleInteraction() throws Exception {
         String tableName = "tb1";
@@ -495,6 +563,14 @@ public class SymbolCacheTest extends AbstractGriffinTest {
         }
     }
 
+    private static void putSymbol(TableWriter writer, SharedSymbolKeys sharedSymbolKeys, int symColIndex, String value) {
+        final int symbolKey = writer.getSymbolMapWriter(symColIndex).put(value);
+        TableWriter.Row r = writer.newRow();
+        r.putSymIndex(symColIndex, symbolKey);
+        r.append();
+        sharedSymbolKeys.stage(symColIndex, value, symbolKey);
+    }
+
     private static class Holder implements Mutable {
         String value1;
         String value2;
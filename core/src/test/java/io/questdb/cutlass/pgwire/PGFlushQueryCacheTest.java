@@ -26,6 +26,7 @@ package io.questdb.cutlass.pgwire;
 
 import io.questdb.mp.MPSequence;
 import io.questdb.mp.WorkerPool;
+import io.questdb.std.IntList;
 import io.questdb.std.Unsafe;
 import org.junit.Assert;
 import org.junit.Before;
@@ -75,7 +76,7 @@ public class PGFlushQueryCacheTest extends BasePGTest {
                             "TIMESTAMP(ts)\n" +
                             "PARTITION BY DAY");
 
-                    Assert.assertEquals(0, metrics.pgWire().cachedSelectsGauge().getValue());
+                    Assert.assertEquals(0, metrics.queryCache().cachedQueriesGauge().getValue());
 
                     String sql = "SELECT *\n" +
                             "FROM test t1 JOIN test t2 \n" +
@@ -83,11 +84,13 @@ public class PGFlushQueryCacheTest extends BasePGTest {
                             "LIMIT 1";
                     statement.execute(sql);
 
-                    assertEventually(() -> Assert.assertEquals(1, metrics.pgWire().cachedSelectsGauge().getValue()));
+                    assertEventually(() -> Assert.assertEquals(1, metrics.queryCache().cachedQueriesGauge().getValue()));
 
                     statement.execute("SELECT flush_query_cache()");
 
-                    assertEventually(() -> Assert.assertEquals(0, metrics.pgWire().cachedSelectsGauge().getValue()));
+                    // the flush query itself is returned to the cache after execution
+                    assertEventually(() -> Assert.assertEquals(1, metrics.queryCache().cachedQueriesGauge().getValue()));
+                    Assert.assertNull(engine.getQueryFactoryCache().checkOut(sql, new IntList()));
                 }
             }
         });
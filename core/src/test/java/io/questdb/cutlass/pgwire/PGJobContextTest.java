@@ -25,6 +25,7 @@
 package io.questdb.cutlass.pgwire;
 
 import io.questdb.cairo.ColumnType;
+import io.questdb.cairo.EntryUnavailableException;
 import io.questdb.cairo.GeoHashes;
 import io.questdb.cairo.TableReader;
 import io.questdb.cairo.TableWriter;
@@ -42,6 +43,8 @@ import io.questdb.log.LogFactory;
 import io.questdb.mp.SOCountDownLatch;
 import io.questdb.mp.TestWorkerPool;
 import io.questdb.mp.WorkerPool;
+import io.questdb.network.DefaultIODispatcherConfiguration;
+import io.questdb.network.IODispatcherConfiguration;
 import io.questdb.network.NetworkFacade;
 import io.questdb.network.NetworkFacadeImpl;
 import io.questdb.std.*;
@@ -52,6 +55,7 @@ import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.StringSink;
 import io.questdb.test.tools.TestUtils;
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.BeforeClass;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -62,8 +66,12 @@ import org.postgresql.core.BaseConnection;
 import org.postgresql.util.PGTimestamp;
 import org.postgresql.util.PSQLException;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.text.SimpleDateFormat;
 import java.util.GregorianCalendar;
@@ -1257,6 +1265,129 @@ if __name__ == "__main__":
         });
     }
 
+    @Test
+    public void testBatchInsertPipelinedDisconnect() throws Exception {
+        // insert is executed and flushed, but the connection is dropped before sync
+        final String script = ">0000000804d2162f\n" +
+                "<4e\n" +
+                ">0000003900030000636c69656e745f656e636f64696e6700277574662d382700757365720061646d696e006461746162617365007164620000\n" +
+                "<520000000800000003\n" +
+                ">700000000a717565737400\n" +
+                "<520000000800000000530000001154696d655a6f6e6500474d5400530000001d6170706c69636174696f6e5f6e616d6500517565737444420053000000187365727665725f76657273696f6e0031312e33005300000019696e74656765725f6461746574696d6573006f6e005300000019636c69656e745f656e636f64696e670055544638005a0000000549\n" +
+                ">500000002200696e7365727420696e746f20746573742076616c756573283129000000420000000c0000000000000000450000000900000000004800000004\n" +
+                "<31000000043200000004430000000f494e534552542030203100\n";
+
+        assertMemoryLeak(() -> {
+            compiler.compile("create table test (id long)", sqlExecutionContext);
+            try (
+                    PGWireServer server = createPGServer(new Port0PGWireConfiguration() {
+                        @Override
+                        public boolean isInsertPipelineEnabled() {
+                            return true;
+                        }
+                    });
+                    WorkerPool workerPool = server.getWorkerPool()
+            ) {
+                workerPool.start(LOG);
+                NetUtils.playScript(NetworkFacadeImpl.INSTANCE, script, "127.0.0.1", server.getPort());
+
+                // the writer goes back to the pool once the server notices the disconnect
+                final long deadline = System.currentTimeMillis() + 30_000;
+                while (true) {
+                    try (TableWriter writer = engine.getWriter(AllowAllCairoSecurityContext.INSTANCE, "test", "testing")) {
+                        Assert.assertEquals(0, writer.size());
+                        break;
+                    } catch (EntryUnavailableException e) {
+                        Assert.assertTrue("writer is not returned to the pool", System.currentTimeMillis() < deadline);
+                        Os.pause();
+                    }
+                }
+            }
+
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "test")) {
+                Assert.assertEquals(0, reader.size());
+            }
+        });
+    }
+
+    @Test
+    public void testBatchInsertPipelinedError() throws Exception {
+        assertWithPipelinedPgServer((connection, binary) -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("create table test (id long, ts timestamp) timestamp(ts)");
+            }
+
+            try (PreparedStatement batchInsert = connection.prepareStatement("insert into test(id,ts) values(?,?)")) {
+                for (int i = 0; i < 100; i++) {
+                    batchInsert.setLong(1, i);
+                    // row 50 fails, rows before it are rolled back and rows after it are skipped
+                    batchInsert.setTimestamp(2, new Timestamp(i == 50 ? 0 : 1000L + i * 1000L));
+                    batchInsert.addBatch();
+                }
+                try {
+                    batchInsert.executeBatch();
+                    Assert.fail();
+                } catch (BatchUpdateException e) {
+                    TestUtils.assertContains(e.getMessage(), "Cannot insert rows out of order to non-partitioned table");
+                }
+            }
+
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "test")) {
+                Assert.assertEquals(0, reader.size());
+            }
+
+            // the connection is usable after the failed batch
+            StringSink sink = new StringSink();
+            try (
+                    Statement statement = connection.createStatement();
+                    ResultSet rs = statement.executeQuery("select count() from test")
+            ) {
+                assertResultSet("count[BIGINT]\n0\n", sink, rs);
+            }
+        });
+    }
+
+    @Test
+    public void testBatchInsertPipelined() throws Exception {
+        assertWithPipelinedPgServer((connection, binary) -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("create table test (id long,val int)");
+            }
+
+            final long txn;
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "test")) {
+                txn = reader.getTxn();
+            }
+
+            try (PreparedStatement batchInsert = connection.prepareStatement("insert into test(id,val) values(?,?)")) {
+                for (int i = 0; i < 100; i++) {
+                    batchInsert.setLong(1, i);
+                    batchInsert.setInt(2, i * 2);
+                    batchInsert.addBatch();
+                }
+                final int[] counts = batchInsert.executeBatch();
+                Assert.assertEquals(100, counts.length);
+                for (int i = 0; i < counts.length; i++) {
+                    Assert.assertEquals(1, counts[i]);
+                }
+            }
+
+            // the whole batch is committed once, on sync
+            try (TableReader reader = engine.getReader(AllowAllCairoSecurityContext.INSTANCE, "test")) {
+                Assert.assertEquals(txn + 1, reader.getTxn());
+                Assert.assertEquals(100, reader.size());
+            }
+
+            StringSink sink = new StringSink();
+            try (
+                    Statement statement = connection.createStatement();
+                    ResultSet rs = statement.executeQuery("select count(), sum(val) from test")
+            ) {
+                assertResultSet("count[BIGINT],sum[BIGINT]\n100,9900\n", sink, rs);
+            }
+        });
+    }
+
     @Test
     public void testBatchInsertWithTransaction() throws Exception {
         assertWithPgServer(CONN_AWARE_ALL, (connection, binary) -> {
@@ -1856,29 +1987,262 @@ if __name__ == "__main__":
     }
 
     @Test
-    @Ignore
-    public void testCopyIn() throws SQLException {
-        try (
-                final PGWireServer server = createPGServer(2);
-                final WorkerPool workerPool = server.getWorkerPool()
-        ) {
-            workerPool.start(LOG);
-            try (final Connection connection = getConnection(server.getPort(), false, true)) {
-                PreparedStatement stmt = connection.prepareStatement("create table tab (a int, b int)");
+    public void testCopyIn() throws Exception {
+        assertWithPgServer(CONN_AWARE_SIMPLE_TEXT | CONN_AWARE_EXTENDED_BINARY, (connection, binary) -> {
+            try (PreparedStatement stmt = connection.prepareStatement("create table tab (a int, b string)")) {
                 stmt.execute();
+            }
 
-                CopyManager copyManager = new CopyManager((BaseConnection) connection);
+            final CopyManager copyManager = new CopyManager((BaseConnection) connection);
+            final CopyIn copyIn = copyManager.copyIn("copy tab from STDIN with (format csv, header true)");
+            // lines are split across CopyData messages
+            writeToCopy(copyIn, "a,b\r\n10,\"x,y\"\r\n2", "0,\"he said \"\"hi\"\"\"\r\n,\r\n");
+            Assert.assertEquals(3, copyIn.endCopy());
 
-                CopyIn copyIn = copyManager.copyIn("copy tab from STDIN");
+            assertResultSet(
+                    "a[INTEGER],b[VARCHAR]\n" +
+                            "10,x,y\n" +
+                            "20,he said \"hi\"\n" +
+                            "null,null\n",
+                    sink,
+                    connection.prepareStatement("tab").executeQuery()
+            );
+        });
+    }
 
-                String text = "a,b\r\n" +
-                        "10,20";
+    @Test
+    public void testCopyInBadValue() throws Exception {
+        assertWithPgServer(CONN_AWARE_SIMPLE_TEXT | CONN_AWARE_EXTENDED_BINARY, (connection, binary) -> {
+            try (PreparedStatement stmt = connection.prepareStatement("create table tab (a int, ts timestamp) timestamp(ts) partition by DAY")) {
+                stmt.execute();
+            }
 
-                byte[] bytes = text.getBytes();
-                copyIn.writeToCopy(bytes, 0, bytes.length);
+            final CopyManager copyManager = new CopyManager((BaseConnection) connection);
+            final CopyIn copyIn = copyManager.copyIn("copy tab from stdin csv");
+            try {
+                writeToCopy(copyIn, "1,2022-01-01\nfoo,2022-01-02\n");
                 copyIn.endCopy();
+                Assert.fail();
+            } catch (SQLException e) {
+                TestUtils.assertContains(e.getMessage(), "could not parse value [row=2, column=a, type=INT]");
             }
-        }
+
+            // nothing is committed and connection is usable
+            assertResultSet(
+                    "count[BIGINT]\n" +
+                            "0\n",
+                    sink,
+                    connection.prepareStatement("select count() from tab").executeQuery()
+            );
+        });
+    }
+
+    @Test
+    public void testCopyInBinary() throws Exception {
+        assertWithPgServer(CONN_AWARE_SIMPLE_TEXT | CONN_AWARE_EXTENDED_BINARY, (connection, binary) -> {
+            try (PreparedStatement stmt = connection.prepareStatement("create table tab (ts timestamp, i int, l long, d double, s string, sym symbol, b boolean) timestamp(ts) partition by DAY")) {
+                stmt.execute();
+            }
+
+            final ByteBuffer buffer = ByteBuffer.allocate(512);
+            buffer.put("PGCOPY\n\377\r\n\0".getBytes(StandardCharsets.ISO_8859_1)).putInt(0).putInt(0);
+            // timestamps are microseconds since 2000-01-01
+            putBinaryCopyTuple(buffer, 694310400000000L, 1, 100, 1.5, "hello", "x", true);
+            // out-of-order row with null int
+            putBinaryCopyTuple(buffer, 694267200000000L, null, 200, -2.5, "w\u00f6rld", "y", false);
+            buffer.putShort((short) -1);
+
+            final CopyManager copyManager = new CopyManager((BaseConnection) connection);
+            final CopyIn copyIn = copyManager.copyIn("copy tab from stdin with (format binary)");
+            // send few bytes at a time, so that header and tuples are split across CopyData messages
+            final byte[] bytes = buffer.array();
+            for (int i = 0, n = buffer.position(); i < n; i += 7) {
+                copyIn.writeToCopy(bytes, i, Math.min(7, n - i));
+            }
+            Assert.assertEquals(2, copyIn.endCopy());
+
+            try (PreparedStatement stmt = connection.prepareStatement("tab")) {
+                assertResultSet(
+                        "ts[TIMESTAMP],i[INTEGER],l[BIGINT],d[DOUBLE],s[VARCHAR],sym[VARCHAR],b[BIT]\n" +
+                                "2021-12-31 12:00:00.0,null,200,-2.5,w\u00f6rld,y,false\n" +
+                                "2022-01-01 00:00:00.0,1,100,1.5,hello,x,true\n",
+                        sink,
+                        stmt.executeQuery()
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testCopyInText() throws Exception {
+        assertWithPgServer(CONN_AWARE_SIMPLE_TEXT | CONN_AWARE_EXTENDED_BINARY, (connection, binary) -> {
+            try (PreparedStatement stmt = connection.prepareStatement("create table tab (ts timestamp, s string, d double, b boolean, sym symbol) timestamp(ts) partition by DAY")) {
+                stmt.execute();
+            }
+
+            final CopyManager copyManager = new CopyManager((BaseConnection) connection);
+            final CopyIn copyIn = copyManager.copyIn("copy tab (s, ts, d, b, sym) from stdin");
+            final String text = "a\\x41\\102\t2022-01-02T00:00:00.000000Z\t1.5\tt\tx\n" +
+                    "\\N\t2022-01-01 10:00:00\t\\N\tf\t\\N\n" +
+                    "c\\\\d\t2022-01-03\t2.5\ttrue\ty\n" +
+                    "\\.\n";
+            final byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            for (int i = 0, n = bytes.length; i < n; i += 5) {
+                copyIn.writeToCopy(bytes, i, Math.min(5, n - i));
+            }
+            Assert.assertEquals(3, copyIn.endCopy());
+
+            try (PreparedStatement stmt = connection.prepareStatement("tab")) {
+                assertResultSet(
+                        "ts[TIMESTAMP],s[VARCHAR],d[DOUBLE],b[BIT],sym[VARCHAR]\n" +
+                                "2022-01-01 10:00:00.0,null,null,false,null\n" +
+                                "2022-01-02 00:00:00.0,aAB,1.5,true,x\n" +
+                                "2022-01-03 00:00:00.0,c\\d,2.5,true,y\n",
+                        sink,
+                        stmt.executeQuery()
+                );
+            }
+        });
+    }
+
+    @Test
+    public void testCopyInTransaction() throws Exception {
+        assertWithPgServer(CONN_AWARE_SIMPLE_TEXT | CONN_AWARE_EXTENDED_BINARY, (connection, binary) -> {
+            try (PreparedStatement stmt = connection.prepareStatement("create table tab (a int)")) {
+                stmt.execute();
+            }
+
+            connection.setAutoCommit(false);
+            final CopyManager copyManager = new CopyManager((BaseConnection) connection);
+            Assert.assertEquals(2, copyManager.copyIn("copy tab from stdin", new ByteArrayInputStream("1\n2\n".getBytes())));
+            try (PreparedStatement stmt = connection.prepareStatement("insert into tab values (3)")) {
+                stmt.execute();
+            }
+            Assert.assertEquals(1, copyManager.copyIn("copy tab from stdin", new ByteArrayInputStream("4\n".getBytes())));
+            connection.rollback();
+            Assert.assertEquals(1, copyManager.copyIn("copy tab from stdin", new ByteArrayInputStream("5\n".getBytes())));
+            connection.commit();
+            connection.setAutoCommit(true);
+
+            assertResultSet(
+                    "a[INTEGER]\n" +
+                            "5\n",
+                    sink,
+                    connection.prepareStatement("tab").executeQuery()
+            );
+        });
+    }
+
+    @Test
+    public void testCopyOut() throws Exception {
+        assertWithPgServer(CONN_AWARE_SIMPLE_TEXT | CONN_AWARE_EXTENDED_BINARY, (connection, binary) -> {
+            try (PreparedStatement stmt = connection.prepareStatement("create table tab as (" +
+                    "select x a, case when x = 1 then 'plain' when x = 3 then 'a,\"b\"' when x = 4 then '' end s from long_sequence(4)" +
+                    ")")) {
+                stmt.execute();
+            }
+
+            final CopyManager copyManager = new CopyManager((BaseConnection) connection);
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Assert.assertEquals(4, copyManager.copyOut("copy tab to stdout with (format csv, header)", out));
+            TestUtils.assertEquals(
+                    "a,s\n" +
+                            "1,plain\n" +
+                            "2,\n" +
+                            "3,\"a,\"\"b\"\"\"\n" +
+                            "4,\"\"\n",
+                    out.toString(StandardCharsets.UTF_8)
+            );
+
+            // connection is usable after COPY
+            assertResultSet(
+                    "count[BIGINT]\n" +
+                            "4\n",
+                    sink,
+                    connection.prepareStatement("select count() from tab").executeQuery()
+            );
+        });
+    }
+
+    @Test
+    public void testCopyOutBinary() throws Exception {
+        assertWithPgServer(CONN_AWARE_SIMPLE_TEXT | CONN_AWARE_EXTENDED_BINARY, (connection, binary) -> {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("create table tab (ts timestamp, i int, l long, d double, s string, b boolean) timestamp(ts) partition by DAY");
+                stmt.execute("insert into tab values ('2022-01-01T00:00:00.000000Z', 7, 100, 0.5, null, true)");
+                stmt.execute("insert into tab values ('2022-01-01T01:00:00.000000Z', null, 200, 1.0, 'w\u00f6rld', false)");
+            }
+
+            final CopyManager copyManager = new CopyManager((BaseConnection) connection);
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Assert.assertEquals(2, copyManager.copyOut("copy (select * from tab) to stdout binary", out));
+
+            final ByteBuffer buffer = ByteBuffer.wrap(out.toByteArray());
+            final byte[] signature = new byte[11];
+            buffer.get(signature);
+            Assert.assertArrayEquals("PGCOPY\n\377\r\n\0".getBytes(StandardCharsets.ISO_8859_1), signature);
+            Assert.assertEquals(0, buffer.getInt());
+            Assert.assertEquals(0, buffer.getInt());
+
+            // timestamps are microseconds since 2000-01-01
+            assertBinaryCopyTuple(buffer, 694310400000000L, 7, 100, 0.5, null, true);
+            assertBinaryCopyTuple(buffer, 694314000000000L, null, 200, 1.0, "w\u00f6rld", false);
+            Assert.assertEquals(-1, buffer.getShort());
+            Assert.assertFalse(buffer.hasRemaining());
+        });
+    }
+
+    @Test
+    public void testCopyOutLarge() throws Exception {
+        assertMemoryLeak(() -> {
+            final PGWireConfiguration configuration = new Port0PGWireConfiguration() {
+                @Override
+                public int getSendBufferSize() {
+                    return 512;
+                }
+            };
+
+            try (
+                    final PGWireServer server = createPGServer(configuration);
+                    final WorkerPool workerPool = server.getWorkerPool()
+            ) {
+                workerPool.start(LOG);
+                try (final Connection connection = getConnection(server.getPort(), false, false)) {
+                    final CopyManager copyManager = new CopyManager((BaseConnection) connection);
+                    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    // result does not fit send buffer and is sent in many chunks
+                    Assert.assertEquals(100_000, copyManager.copyOut("copy (select x, x * 2 y from long_sequence(100000)) to stdout", out));
+
+                    final String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+                    Assert.assertEquals(100_000, lines.length);
+                    for (int i = 0; i < lines.length; i++) {
+                        Assert.assertEquals((i + 1) + "\t" + (2 * (i + 1)), lines[i]);
+                    }
+                }
+            }
+        });
+    }
+
+    @Test
+    public void testCopyOutText() throws Exception {
+        assertWithPgServer(CONN_AWARE_SIMPLE_TEXT | CONN_AWARE_EXTENDED_BINARY, (connection, binary) -> {
+            try (Statement stmt = connection.createStatement()) {
+                stmt.execute("create table tab (ts timestamp, s string, d double, b boolean, sym symbol) timestamp(ts) partition by DAY");
+                stmt.execute("insert into tab values ('1970-01-02', 'a\tb', 1.5, false, 'x')");
+                stmt.execute("insert into tab values ('1970-01-03', 'c\\d\ne', null, true, null)");
+                stmt.execute("insert into tab values ('1970-01-04', null, null, false, null)");
+            }
+
+            final CopyManager copyManager = new CopyManager((BaseConnection) connection);
+            final ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Assert.assertEquals(3, copyManager.copyOut("copy tab (s, ts, d, b, sym) to stdout", out));
+            TestUtils.assertEquals(
+                    "a\\tb\t1970-01-02 00:00:00.000000\t1.5\tf\tx\n" +
+                            "c\\\\d\\ne\t1970-01-03 00:00:00.000000\t\\N\tt\t\\N\n" +
+                            "\\N\t1970-01-04 00:00:00.000000\t\\N\tf\t\\N\n",
+                    out.toString(StandardCharsets.UTF_8)
+            );
+        });
     }
 
     @Test
@@ -2465,6 +2829,22 @@ if __name__ == "__main__":
         assertHexScript(script);
     }
 
+    @Test
+    public void testIOURingDispatcher() throws Exception {
+        Assume.assumeTrue(IOURingFacadeImpl.INSTANCE.isAvailable());
+        assertConcurrentConnections(new DefaultIODispatcherConfiguration() {
+            @Override
+            public int getBindPort() {
+                return 0;
+            }
+
+            @Override
+            public boolean isIOURingEnabled() {
+                return true;
+            }
+        });
+    }
+
     @Test
     public void testIndexedSymbolBindVariableNotEqualsSingleValueMultipleExecutions() throws Exception {
         assertMemoryLeak(() -> {
@@ -3922,6 +4302,21 @@ nodejs code:
         });
     }
 
+    @Test
+    public void testMultipleDispatchers() throws Exception {
+        assertConcurrentConnections(new DefaultIODispatcherConfiguration() {
+            @Override
+            public int getBindPort() {
+                return 0;
+            }
+
+            @Override
+            public int getDispatcherCount() {
+                return 2;
+            }
+        });
+    }
+
     @Test
     public void testMultiplePreparedStatements() throws Exception {
         TestUtils.assertMemoryLeak(() -> {
@@ -5498,6 +5893,90 @@ nodejs code:
         });
     }
 
+    @Test
+    public void testSelectAllTypesBinaryFormat() throws Exception {
+        assertMemoryLeak(() -> {
+            try (
+                    final PGWireServer server = createPGServer(1);
+                    final WorkerPool workerPool = server.getWorkerPool()
+            ) {
+                workerPool.start(LOG);
+                final String query = "select" +
+                        " cast(x as byte) b," +
+                        " cast(x as short) s," +
+                        " cast(x as int) i," +
+                        " x l," +
+                        " cast(x / 2.0 as float) f," +
+                        " x / 4.0 d," +
+                        " x % 2 = 0 bool," +
+                        " cast(65 + x as char) c," +
+                        " 'abc' || x str," +
+                        " cast('sym' || x as symbol) sym," +
+                        " cast(x * 86400000000 as timestamp) ts," +
+                        " cast(x * 86400000 as date) dt," +
+                        " ##010 g3b," +
+                        " #46s g3c," +
+                        " #jnw9 g4c," +
+                        " #zfuqd3bf g8c," +
+                        " cast('0x4b0f595f143e5d722f1a8266e7921e3b716de3d25dcc2d919fa2397a5d8c84c4' as long256) l256," +
+                        " null n" +
+                        " from long_sequence(3)";
+
+                // numeric and temporal columns are binary, the rest are text
+                try (
+                        final Connection connection = getConnection(Mode.Extended, server.getPort(), true, -1);
+                        final PreparedStatement statement = connection.prepareStatement(query)
+                ) {
+                    try (ResultSet rs = statement.executeQuery()) {
+                        assertResultSet(
+                                "b[SMALLINT],s[SMALLINT],i[INTEGER],l[BIGINT],f[REAL],d[DOUBLE],bool[BIT],c[CHAR],str[VARCHAR],sym[VARCHAR],ts[TIMESTAMP],dt[TIMESTAMP],g3b[VARCHAR],g3c[VARCHAR],g4c[VARCHAR],g8c[VARCHAR],l256[VARCHAR],n[VARCHAR]\n" +
+                                        "1,1,1,1,0.500,0.25,false,B,abc1,sym1,1970-01-02 00:00:00.0,1970-01-02 00:00:00.0,010,46s,jnw9,zfuqd3bf,0x4b0f595f143e5d722f1a8266e7921e3b716de3d25dcc2d919fa2397a5d8c84c4,null\n" +
+                                        "2,2,2,2,1.000,0.5,true,C,abc2,sym2,1970-01-03 00:00:00.0,1970-01-03 00:00:00.0,010,46s,jnw9,zfuqd3bf,0x4b0f595f143e5d722f1a8266e7921e3b716de3d25dcc2d919fa2397a5d8c84c4,null\n" +
+                                        "3,3,3,3,1.500,0.75,false,D,abc3,sym3,1970-01-04 00:00:00.0,1970-01-04 00:00:00.0,010,46s,jnw9,zfuqd3bf,0x4b0f595f143e5d722f1a8266e7921e3b716de3d25dcc2d919fa2397a5d8c84c4,null\n",
+                                new StringSink(),
+                                rs
+                        );
+                    }
+                }
+
+                // varchar columns requested in binary format too, the driver does not decode them,
+                // compare raw bytes instead
+                Properties properties = new Properties();
+                properties.setProperty("user", "admin");
+                properties.setProperty("password", "quest");
+                properties.setProperty("sslmode", "disable");
+                properties.setProperty("binaryTransfer", "true");
+                properties.setProperty("binaryTransferEnable", "VARCHAR");
+                properties.setProperty("prepareThreshold", "-1");
+                final String url = String.format("jdbc:postgresql://127.0.0.1:%d/qdb", server.getPort());
+                try (
+                        final Connection connection = DriverManager.getConnection(url, properties);
+                        final PreparedStatement statement = connection.prepareStatement(query)
+                ) {
+                    final StringSink sink = new StringSink();
+                    try (ResultSet rs = statement.executeQuery()) {
+                        while (rs.next()) {
+                            for (int i = 9; i <= 18; i++) {
+                                if (i == 11 || i == 12) {
+                                    // timestamp and date
+                                    continue;
+                                }
+                                final byte[] bytes = rs.getBytes(i);
+                                sink.put(bytes == null ? "null" : new String(bytes, StandardCharsets.UTF_8)).put(i < 18 ? ',' : '\n');
+                            }
+                        }
+                    }
+                    TestUtils.assertEquals(
+                            "abc1,sym1,010,46s,jnw9,zfuqd3bf,0x4b0f595f143e5d722f1a8266e7921e3b716de3d25dcc2d919fa2397a5d8c84c4,null\n" +
+                                    "abc2,sym2,010,46s,jnw9,zfuqd3bf,0x4b0f595f143e5d722f1a8266e7921e3b716de3d25dcc2d919fa2397a5d8c84c4,null\n" +
+                                    "abc3,sym3,010,46s,jnw9,zfuqd3bf,0x4b0f595f143e5d722f1a8266e7921e3b716de3d25dcc2d919fa2397a5d8c84c4,null\n",
+                            sink
+                    );
+                }
+            }
+        });
+    }
+
     @Test
     /* asyncq.py (please pay attention to non-standard username/password)
 
@@ -7036,6 +7515,98 @@ create table tab as (
         );
     }
 
+    private void assertConcurrentConnections(IODispatcherConfiguration dispatcherConfiguration) throws Exception {
+        final PGWireConfiguration configuration = new Port0PGWireConfiguration() {
+            @Override
+            public IODispatcherConfiguration getDispatcherConfiguration() {
+                return dispatcherConfiguration;
+            }
+
+            @Override
+            public int getWorkerCount() {
+                return 4;
+            }
+        };
+
+        TestUtils.assertMemoryLeak(() -> {
+            try (
+                    final PGWireServer server = createPGServer(configuration);
+                    final WorkerPool workerPool = server.getWorkerPool()
+            ) {
+                workerPool.start(LOG);
+                final ObjList<Connection> connections = new ObjList<>();
+                try {
+                    for (int i = 0; i < 8; i++) {
+                        connections.add(getConnection(server.getPort(), false, true));
+                    }
+                    for (int i = 0, n = connections.size(); i < n; i++) {
+                        try (
+                                Statement statement = connections.getQuick(i).createStatement();
+                                ResultSet rs = statement.executeQuery("select " + i + " x from long_sequence(2)")
+                        ) {
+                            sink.clear();
+                            assertResultSet("x[INTEGER]\n" + i + "\n" + i + "\n", sink, rs);
+                        }
+                    }
+                } finally {
+                    for (int i = 0, n = connections.size(); i < n; i++) {
+                        connections.getQuick(i).close();
+                    }
+                }
+            }
+        });
+    }
+
+    private static void assertBinaryCopyTuple(ByteBuffer buffer, long ts, Integer i, long l, double d, String s, boolean b) {
+        Assert.assertEquals(6, buffer.getShort());
+        Assert.assertEquals(Long.BYTES, buffer.getInt());
+        Assert.assertEquals(ts, buffer.getLong());
+        if (i == null) {
+            Assert.assertEquals(-1, buffer.getInt());
+        } else {
+            Assert.assertEquals(Integer.BYTES, buffer.getInt());
+            Assert.assertEquals(i.intValue(), buffer.getInt());
+        }
+        Assert.assertEquals(Long.BYTES, buffer.getInt());
+        Assert.assertEquals(l, buffer.getLong());
+        Assert.assertEquals(Double.BYTES, buffer.getInt());
+        Assert.assertEquals(d, buffer.getDouble(), 0.0);
+        if (s == null) {
+            Assert.assertEquals(-1, buffer.getInt());
+        } else {
+            final byte[] expected = s.getBytes(StandardCharsets.UTF_8);
+            final byte[] actual = new byte[buffer.getInt()];
+            buffer.get(actual);
+            Assert.assertArrayEquals(expected, actual);
+        }
+        Assert.assertEquals(1, buffer.getInt());
+        Assert.assertEquals(b ? 1 : 0, buffer.get());
+    }
+
+    private static void putBinaryCopyTuple(ByteBuffer buffer, long ts, Integer i, long l, double d, String s, String sym, boolean b) {
+        buffer.putShort((short) 7);
+        buffer.putInt(Long.BYTES).putLong(ts);
+        if (i == null) {
+            buffer.putInt(-1);
+        } else {
+            buffer.putInt(Integer.BYTES).putInt(i);
+        }
+        buffer.putInt(Long.BYTES).putLong(l);
+        buffer.putInt(Double.BYTES).putDouble(d);
+        final byte[] str = s.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(str.length).put(str);
+        final byte[] symbol = sym.getBytes(StandardCharsets.UTF_8);
+        buffer.putInt(symbol.length).put(symbol);
+        buffer.putInt(1).put((byte) (b ? 1 : 0));
+    }
+
+    private static void writeToCopy(CopyIn copyIn, String... chunks) throws SQLException {
+        for (String chunk : chunks) {
+            final byte[] bytes = chunk.getBytes(StandardCharsets.UTF_8);
+            copyIn.writeToCopy(bytes, 0, bytes.length);
+        }
+    }
+
     private void assertHexScript(String script) throws Exception {
         final Rnd rnd = new Rnd();
         assertHexScript(NetworkFacadeImpl.INSTANCE, script, new Port0PGWireConfiguration() {
@@ -7062,6 +7633,42 @@ create table tab as (
         });
     }
 
+    private void assertWithPipelinedPgServer(ConnectionAwareRunnable runnable) throws Exception {
+        for (boolean binary : new boolean[]{true, false}) {
+            setUp();
+            try {
+                assertMemoryLeak(() -> {
+                    try (
+                            final PGWireServer server = createPGServer(new Port0PGWireConfiguration() {
+                                @Override
+                                public Rnd getRandom() {
+                                    return new Rnd();
+                                }
+
+                                @Override
+                                public int getWorkerCount() {
+                                    return 2;
+                                }
+
+                                @Override
+                                public boolean isInsertPipelineEnabled() {
+                                    return true;
+                                }
+                            });
+                            WorkerPool workerPool = server.getWorkerPool()
+                    ) {
+                        workerPool.start(LOG);
+                        try (final Connection connection = getConnection(Mode.Extended, server.getPort(), binary, -1)) {
+                            runnable.run(connection, binary);
+                        }
+                    }
+                });
+            } finally {
+                tearDown();
+            }
+        }
+    }
+
     private void assertWithPgServer(long bits, ConnectionAwareRunnable runnable) throws Exception {
         assertWithPgServer(bits, Long.MAX_VALUE, runnable);
     }
@@ -29,6 +29,7 @@ import io.questdb.TelemetryConfiguration;
 import io.questdb.cairo.CairoConfiguration;
 import io.questdb.cairo.sql.SqlExecutionCircuitBreakerConfiguration;
 import io.questdb.std.FilesFacade;
+import io.questdb.std.IntList;
 import io.questdb.std.datetime.DateFormat;
 import io.questdb.std.datetime.DateLocale;
 import io.questdb.std.datetime.microtime.MicrosecondClock;
@@ -247,6 +248,11 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getGroupByPoolCapacity();
     }
 
+    @Override
+    public IntList getHugePageMemoryTags() {
+        return conf.getHugePageMemoryTags();
+    }
+
     @Override
     public long getIdleCheckInterval() {
         return conf.getIdleCheckInterval();
@@ -662,6 +668,21 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
         return conf.getSqlPageFrameMinRows();
     }
 
+    @Override
+    public int getSqlQueryCacheCapacity() {
+        return conf.getSqlQueryCacheCapacity();
+    }
+
+    @Override
+    public long getSqlResultCacheMemoryLimit() {
+        return conf.getSqlResultCacheMemoryLimit();
+    }
+
+    @Override
+    public int getSqlResultCachePageSize() {
+        return conf.getSqlResultCachePageSize();
+    }
+
     @Override
     public int getSqlSmallMapKeyCapacity() {
         return conf.getSqlSmallMapKeyCapacity();
@@ -806,4 +827,14 @@ public class CairoConfigurationWrapper implements CairoConfiguration {
     public boolean isSqlParallelFilterPreTouchEnabled() {
         return conf.isSqlParallelFilterPreTouchEnabled();
     }
+
+    @Override
+    public boolean isSqlParallelLatestByEnabled() {
+        return conf.isSqlParallelLatestByEnabled();
+    }
+
+    @Override
+    public boolean isSqlResultCacheEnabled() {
+        return conf.isSqlResultCacheEnabled();
+    }
 }
@@ -324,6 +324,20 @@ public class CompiledFilterRegressionTest extends AbstractGriffinTest {
         assertGeneratedQueryNotNull("select * from x", ddl, gen);
     }
 
+    @Test
+    public void testInList() throws Exception {
+        final String ddl = "create table x as " +
+                "(select timestamp_sequence(400000000000, 500000000) as k," +
+                " rnd_long(-10, 10, 10) i64," +
+                " rnd_char() ch" +
+                " from long_sequence(" + N_SIMD_WITH_SCALAR_TAIL + ")) timestamp(k)";
+        FilterGenerator gen = new FilterGenerator()
+                .withOptionalNot().withAnyOf("i64 in (0, 3)", "ch in ('A', 'Q', 'Z')")
+                .withBooleanOperator()
+                .withOptionalNot().withAnyOf("i64 in (-1)", "i64 in (1, 2, 3, 4, 5, 6, 7, 8, 9, 10)");
+        assertGeneratedQueryNullable("select * from x", ddl, gen);
+    }
+
     @Test
     public void testIntConstantColumnComparisonBoundaryMatch() throws Exception {
         final int boundary = 101;
@@ -434,6 +448,17 @@ public class CompiledFilterRegressionTest extends AbstractGriffinTest {
         testOrderBy("order by ts desc");
     }
 
+    @Test
+    public void testSymbolInList() throws Exception {
+        final String query = "select price, sym from x where sym in ('HBC', 'DXR', 'XYZ', null)";
+        final String ddl = "create table x as " +
+                "(select rnd_symbol(5, 3, 3, 3) sym, \n" +
+                " rnd_double() price, \n" +
+                " timestamp_sequence(172800000000, 360000000) ts \n" +
+                "from long_sequence(" + N_SIMD_WITH_SCALAR_TAIL + ")) timestamp (ts)";
+        assertQueryNullable(query, ddl);
+    }
+
     @Test
     public void testSymbolKnownConstant() throws Exception {
         // The column order is important here, since we want
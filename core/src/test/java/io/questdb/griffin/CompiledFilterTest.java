@@ -177,6 +177,33 @@ public class CompiledFilterTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testInList() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select" +
+                    " timestamp_sequence(400000000000, 500000000) ts," +
+                    " x l," +
+                    " rnd_symbol('A','B','C') sym" +
+                    " from long_sequence(5)) timestamp(ts)", sqlExecutionContext);
+
+            final String query = "select sym, l, ts from x where sym in ('B', 'D') or l in (1, 5)";
+            final String expected = "sym\tl\tts\n" +
+                    "A\t1\t1970-01-05T15:06:40.000000Z\n" +
+                    "B\t3\t1970-01-05T15:23:20.000000Z\n" +
+                    "C\t5\t1970-01-05T15:40:00.000000Z\n";
+
+            assertSql(query, expected);
+            assertSqlRunWithJit(query);
+
+            final String notInQuery = "select sym, l, ts from x where sym not in ('A', 'C') and l not in (2)";
+            final String notInExpected = "sym\tl\tts\n" +
+                    "B\t3\t1970-01-05T15:23:20.000000Z\n";
+
+            assertSql(notInQuery, notInExpected);
+            assertSqlRunWithJit(notInQuery);
+        });
+    }
+
     @Test
     public void testIndexBindVariableReplacedContext() throws Exception {
         assertMemoryLeak(() -> {
@@ -173,6 +173,80 @@ public class CopyTest extends AbstractGriffinTest {
         assertEquals(-1, model.getDelimiter());
     }
 
+    @Test
+    public void testCopyFromStdinColumnList() throws SqlException {
+        CopyModel model = (CopyModel) compiler.testCompileModel("copy \"y\" (b, \"a\") from stdin with (format csv, header, delimiter '|');", sqlExecutionContext);
+
+        assertEquals("y", model.getTarget().token.toString());
+        assertEquals(2, model.getColumnNames().size());
+        assertEquals("b", model.getColumnNames().getQuick(0).toString());
+        assertEquals("a", model.getColumnNames().getQuick(1).toString());
+        assertEquals(CopyModel.FORMAT_CSV, model.getFormat());
+        assertTrue(model.isHeader());
+        assertEquals('|', model.getDelimiter());
+    }
+
+    @Test
+    public void testCopyFromStdinOptions() throws SqlException {
+        CopyModel model = (CopyModel) compiler.testCompileModel("copy y from STDIN", sqlExecutionContext);
+        assertEquals(CopyModel.FORMAT_TEXT, model.getFormat());
+        assertEquals(0, model.getColumnNames().size());
+        assertFalse(model.isHeader());
+
+        model = (CopyModel) compiler.testCompileModel("copy y from stdin binary", sqlExecutionContext);
+        assertEquals(CopyModel.FORMAT_BINARY, model.getFormat());
+
+        model = (CopyModel) compiler.testCompileModel("copy y from stdin with csv header false;", sqlExecutionContext);
+        assertEquals(CopyModel.FORMAT_CSV, model.getFormat());
+        assertFalse(model.isHeader());
+    }
+
+    @Test
+    public void testCopyFromStdinUnexpectedOption() throws Exception {
+        assertFailure("copy x from stdin with (format binary, header)", null, 12, "header and delimiter options are not supported in binary format");
+        assertFailure("copy x from stdin with (format json)", null, 31, "unexpected option");
+        assertFailure("copy x from stdin with (format csv", null, 34, "')' expected");
+    }
+
+    @Test
+    public void testCopyToStdout() throws Exception {
+        assertMemoryLeak(() -> {
+            compiler.compile("create table x as (select x a, 'k' || x b from long_sequence(3))", sqlExecutionContext);
+            CompiledQuery cq = compiler.compile("copy (select b, a * 2 c from x where a > 1) to stdout with (format csv, header)", sqlExecutionContext);
+            assertEquals(CompiledQuery.COPY_REMOTE, cq.getType());
+            assertEquals(CopyModel.FORMAT_CSV, cq.getCopyModel().getFormat());
+            assertTrue(cq.getCopyModel().isHeader());
+            try (
+                    RecordCursorFactory factory = cq.getRecordCursorFactory();
+                    RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+            ) {
+                TestUtils.assertCursor("b\tc\n" +
+                        "k2\t4\n" +
+                        "k3\t6\n", cursor, factory.getMetadata(), true, sink);
+            }
+
+            cq = compiler.compile("copy x (b) to STDOUT binary", sqlExecutionContext);
+            assertEquals(CopyModel.FORMAT_BINARY, cq.getCopyModel().getFormat());
+            try (
+                    RecordCursorFactory factory = cq.getRecordCursorFactory();
+                    RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+            ) {
+                TestUtils.assertCursor("b\n" +
+                        "k1\n" +
+                        "k2\n" +
+                        "k3\n", cursor, factory.getMetadata(), true, sink);
+            }
+        });
+    }
+
+    @Test
+    public void testCopyToStdoutUnexpectedTarget() throws Exception {
+        assertFailure("copy x to stdin", "create table x (a int)", 10, "'stdout' expected");
+        assertFailure("copy (select a from x) to stdout with (format binary, delimiter ',')", null, 26, "header and delimiter options are not supported in binary format");
+        assertFailure("copy (x) to stdout with (format csv", null, 35, "')' expected");
+        assertFailure("copy x (a, c) to stdout", null, 11, "Invalid column: c");
+    }
+
     @Test
     public void testParallelCopyCancelChecksImportId() throws Exception {
         String importId = runAndFetchImportId("copy x from 'test-quotes-big.csv' with header true timestamp 'ts' delimiter ',' " +
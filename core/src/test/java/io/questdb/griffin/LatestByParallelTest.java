@@ -29,6 +29,7 @@ import io.questdb.cairo.CairoEngine;
 import io.questdb.cairo.DefaultCairoConfiguration;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.async.PageFrameReduceJob;
 import io.questdb.griffin.engine.functions.rnd.SharedRandom;
 import io.questdb.griffin.engine.table.LatestByAllIndexedJob;
 import io.questdb.log.Log;
@@ -116,6 +117,26 @@ public class LatestByParallelTest {
         executeVanilla(LatestByParallelTest::testLatestByFiltered);
     }
 
+    @Test
+    public void testLatestByMultipleColumnsParallel1() throws Exception {
+        executeWithPool(4, 8, LatestByParallelTest::testLatestByMultipleColumns);
+    }
+
+    @Test
+    public void testLatestByMultipleColumnsParallel2() throws Exception {
+        executeWithPool(8, 4, LatestByParallelTest::testLatestByMultipleColumns);
+    }
+
+    @Test
+    public void testLatestByMultipleColumnsParallel3() throws Exception {
+        executeWithPool(4, 0, LatestByParallelTest::testLatestByMultipleColumns);
+    }
+
+    @Test
+    public void testLatestByMultipleColumnsVanilla() throws Exception {
+        executeVanilla(LatestByParallelTest::testLatestByMultipleColumns);
+    }
+
     @Test
     public void testLatestByTimestampParallel1() throws Exception {
         executeWithPool(4, 8, LatestByParallelTest::testLatestByTimestamp);
@@ -214,6 +235,42 @@ public class LatestByParallelTest {
         assertQuery(compiler, sqlExecutionContext, expected, ddl, query);
     }
 
+    private static void testLatestByMultipleColumns(
+            CairoEngine engine,
+            SqlCompiler compiler,
+            SqlExecutionContext sqlExecutionContext
+    ) throws SqlException {
+
+        final String expected = "a\tb\tc\tk\n" +
+                "50.63418727518947\tCPSW\t0\t1970-01-23T21:43:20.000000Z\n" +
+                "69.0928711264264\t\t1\t1970-01-23T22:16:40.000000Z\n" +
+                "69.02710093873637\tVTJW\t2\t1970-01-23T22:33:20.000000Z\n" +
+                "99.8906104811058\tVTJW\t1\t1970-01-23T23:40:00.000000Z\n" +
+                "4.461670736335666\tCPSW\t2\t1970-01-23T23:56:40.000000Z\n" +
+                "79.3330113795678\tHYRX\t1\t1970-01-24T00:30:00.000000Z\n" +
+                "24.79413473760611\tHYRX\t2\t1970-01-24T01:36:40.000000Z\n" +
+                "80.60230869295405\tHYRX\t0\t1970-01-24T01:53:20.000000Z\n" +
+                "96.01003869212586\tVTJW\t0\t1970-01-24T02:10:00.000000Z\n" +
+                "28.703241606885243\t\t0\t1970-01-24T02:43:20.000000Z\n" +
+                "82.26431960093134\t\t2\t1970-01-24T03:00:00.000000Z\n" +
+                "11.251649073989133\tCPSW\t1\t1970-01-24T03:16:40.000000Z\n";
+
+        final String ddl = "create table x as " +
+                "(" +
+                "select" +
+                " rnd_double(0)*100 a," +
+                " rnd_symbol(3,4,4,1) b," +
+                " rnd_int(0, 2, 0) c," +
+                " timestamp_sequence(0, 1000000000) k" +
+                " from" +
+                " long_sequence(2000)" +
+                ") timestamp(k) partition by DAY";
+
+        final String query = "select * from x latest on k partition by b, c";
+
+        assertQuery(compiler, sqlExecutionContext, expected, ddl, query);
+    }
+
     private static void testLatestByTimestamp(
             CairoEngine engine,
             SqlCompiler compiler,
@@ -254,6 +311,11 @@ public class LatestByParallelTest {
                 try {
                     if (pool != null) {
                         pool.assign(new LatestByAllIndexedJob(engine.getMessageBus()));
+                        for (int i = 0, n = pool.getWorkerCount(); i < n; i++) {
+                            final PageFrameReduceJob job = new PageFrameReduceJob(engine.getMessageBus(), new Rnd(), null);
+                            pool.assign(i, job);
+                            pool.freeOnExit(job);
+                        }
                         pool.start(LOG);
                     }
 
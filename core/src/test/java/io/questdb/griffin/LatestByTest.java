@@ -27,11 +27,14 @@ package io.questdb.griffin;
 import io.questdb.cairo.sql.Record;
 import io.questdb.cairo.sql.RecordCursor;
 import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.engine.table.LatestByAllParallelRecordCursorFactory;
 import io.questdb.std.Chars;
 import io.questdb.std.Files;
 import io.questdb.std.FilesFacadeImpl;
 import io.questdb.std.str.LPSZ;
 import io.questdb.std.str.StringSink;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
 import org.junit.Test;
 
 public class LatestByTest extends AbstractGriffinTest {
@@ -66,6 +69,23 @@ public class LatestByTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testLatestByMultipleColumnsParallel() throws Exception {
+        assertMemoryLeak(() -> {
+            pageFrameMaxRows = 100;
+            compile("create table t as (" +
+                    "select rnd_symbol(20, 4, 4, 2) s, rnd_int(0, 9, 2) i, x, timestamp_sequence(0, 60*1000*1000L) ts from long_sequence(10000)" +
+                    ") timestamp(ts) Partition by DAY");
+            // column top in the last partitions
+            compile("alter table t add column l long");
+            compile("insert into t select rnd_symbol(20, 4, 4, 2) s, rnd_int(0, 9, 2) i, x + 10000, timestamp_sequence('1970-01-08', 60*1000*1000L) ts, x l from long_sequence(1000)");
+
+            assertParallelLatestBy("select * from t latest on ts partition by s, i");
+            assertParallelLatestBy("select * from t latest on ts partition by i");
+            assertParallelLatestBy("select i, s, l, ts from t latest on ts partition by i, s");
+        });
+    }
+
     @Test
     public void testLatestBySymbolEmpty() throws Exception {
         assertMemoryLeak(() -> {
@@ -393,6 +413,21 @@ public class LatestByTest extends AbstractGriffinTest {
         });
     }
 
+    private void assertParallelLatestBy(String query) throws SqlException {
+        final StringSink expected = new StringSink();
+        enableParallelLatestBy = false;
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertFalse(factory instanceof LatestByAllParallelRecordCursorFactory);
+        }
+        TestUtils.printSql(compiler, sqlExecutionContext, query, expected);
+
+        enableParallelLatestBy = true;
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertTrue(factory instanceof LatestByAllParallelRecordCursorFactory);
+        }
+        assertQuery(expected.toString(), query, "ts", true, true);
+    }
+
     private String selectDistinctSym(String table, int count, String columnName) throws SqlException {
         StringSink sink = new StringSink();
         try (RecordCursorFactory factory = compiler.compile("select distinct " + columnName + " from " + table + " order by " + columnName + " limit " + count, sqlExecutionContext).getRecordCursorFactory()) {
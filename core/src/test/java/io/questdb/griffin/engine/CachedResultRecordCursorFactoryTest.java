@@ -0,0 +1,246 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine;
+
+import io.questdb.cairo.sql.Record;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.Unsafe;
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CachedResultRecordCursorFactoryTest extends AbstractGriffinTest {
+
+    @Override
+    @Before
+    public void setUp() {
+        super.setUp();
+        enableResultCache = true;
+    }
+
+    @Test
+    public void testBindVariablesAreKeyed() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String query = "select sym, count() from x where v > $1 order by sym";
+
+            bindVariableService.setLong(0, 2);
+            assertSql(query, "sym\tcount\n" +
+                    "a\t1\n" +
+                    "b\t1\n");
+            bindVariableService.setLong(0, 3);
+            assertSql(query, "sym\tcount\n" +
+                    "b\t1\n");
+            Assert.assertEquals(2, engine.getQueryResultCache().size());
+
+            bindVariableService.setLong(0, 2);
+            assertHit(query);
+        });
+    }
+
+    @Test
+    public void testCachedUntilCommit() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String query = "select sym, sum(v) from x order by sym";
+            final String expected = "sym\tsum\n" +
+                    "a\t4\n" +
+                    "b\t6\n";
+
+            assertSql(query, expected);
+            Assert.assertEquals(1, engine.getQueryResultCache().size());
+            // cached copy is owned by the cache rather than by the query that produced it
+            Assert.assertTrue(Unsafe.getMemUsedByTag(MemoryTag.NATIVE_QUERY_CACHE) > 0);
+            // symbols are served from the cache as strings
+            assertSql(query, expected);
+            assertHit(query);
+
+            executeInsert("insert into x values ('c', 10, '2022-01-01T00:00:05.000000Z')");
+            assertSql(query, "sym\tsum\n" +
+                    "a\t4\n" +
+                    "b\t6\n" +
+                    "c\t10\n");
+            assertHit(query);
+        });
+    }
+
+    @Test
+    public void testConcurrentReaders() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String query = "select sym, sum(v) from x order by sym";
+            final String expected = "sym\tsum\n" +
+                    "a\t4\n" +
+                    "b\t6\n";
+            assertSql(query, expected);
+
+            try (
+                    RecordCursorFactory factoryA = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory();
+                    RecordCursorFactory factoryB = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory();
+                    RecordCursor cursorA = factoryA.getCursor(sqlExecutionContext);
+                    RecordCursor cursorB = factoryB.getCursor(sqlExecutionContext)
+            ) {
+                // both cursors read the same cached result, each at its own position
+                Assert.assertEquals(1, engine.getQueryResultCache().size());
+                final Record recordA = cursorA.getRecord();
+                final Record recordB = cursorB.getRecord();
+                Assert.assertTrue(cursorA.hasNext());
+                Assert.assertTrue(cursorA.hasNext());
+                Assert.assertTrue(cursorB.hasNext());
+                TestUtils.assertEquals("b", recordA.getSym(0));
+                TestUtils.assertEquals("a", recordB.getSym(0));
+                Assert.assertEquals(6, recordA.getLong(1));
+                Assert.assertEquals(4, recordB.getLong(1));
+                Assert.assertFalse(cursorA.hasNext());
+                Assert.assertTrue(cursorB.hasNext());
+                TestUtils.assertEquals("b", recordB.getSym(0));
+                Assert.assertFalse(cursorB.hasNext());
+            }
+            Assert.assertEquals(1, engine.getQueryResultCache().size());
+            assertSql(query, expected);
+        });
+    }
+
+    @Test
+    public void testDisabled() throws Exception {
+        assertMemoryLeak(() -> {
+            enableResultCache = false;
+            createTable();
+            assertSql("select sym, sum(v) from x order by sym", "sym\tsum\n" +
+                    "a\t4\n" +
+                    "b\t6\n");
+            Assert.assertEquals(0, engine.getQueryResultCache().size());
+        });
+    }
+
+    @Test
+    public void testJoinIsInvalidatedByEitherTable() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            compile("create table y (sym symbol, name string)");
+            executeInsert("insert into y values ('a', 'alpha')");
+            final String query = "select x.sym, name, sum(v) from x join y on sym order by x.sym";
+
+            assertSql(query, "sym\tname\tsum\n" +
+                    "a\talpha\t4\n");
+            executeInsert("insert into y values ('b', 'beta')");
+            assertSql(query, "sym\tname\tsum\n" +
+                    "a\talpha\t4\n" +
+                    "b\tbeta\t6\n");
+            Assert.assertEquals(1, engine.getQueryResultCache().size());
+        });
+    }
+
+    @Test
+    public void testNonDeterministicQueryNotCached() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSql("select sym, sum(v) from x where ts < now() order by sym", "sym\tsum\n" +
+                    "a\t4\n" +
+                    "b\t6\n");
+            assertSql("select sym, count() from x where rnd_int(1, 2, 0) > 0 order by sym", "sym\tcount\n" +
+                    "a\t2\n" +
+                    "b\t2\n");
+            assertSql("select count() from long_sequence(3)", "count\n" +
+                    "3\n");
+            Assert.assertEquals(0, engine.getQueryResultCache().size());
+        });
+    }
+
+    @Test
+    public void testPartiallyReadResultNotCached() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            try (RecordCursorFactory factory = compiler.compile("select sym, sum(v) from x order by sym", sqlExecutionContext).getRecordCursorFactory()) {
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    final Record record = cursor.getRecord();
+                    Assert.assertTrue(cursor.hasNext());
+                    TestUtils.assertEquals("a", record.getSym(0));
+                }
+            }
+            Assert.assertEquals(0, engine.getQueryResultCache().size());
+        });
+    }
+
+    @Test
+    public void testRecreatedTableNotServedFromCache() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String query = "select sym, sum(v) from x order by sym";
+            assertSql(query, "sym\tsum\n" +
+                    "a\t4\n" +
+                    "b\t6\n");
+            Assert.assertEquals(1, engine.getQueryResultCache().size());
+
+            // same number of commits, so the new table has the same txn file version
+            compile("drop table x");
+            compile("create table x (sym symbol, v long, ts timestamp) timestamp(ts) partition by day");
+            executeInsert("insert into x values ('c', 10, '2022-01-01T00:00:01.000000Z')");
+            executeInsert("insert into x values ('c', 20, '2022-01-01T00:00:02.000000Z')");
+            executeInsert("insert into x values ('d', 30, '2022-01-01T00:00:03.000000Z')");
+            executeInsert("insert into x values ('d', 40, '2022-01-01T00:00:04.000000Z')");
+            assertSql(query, "sym\tsum\n" +
+                    "c\t30\n" +
+                    "d\t70\n");
+        });
+    }
+
+    @Test
+    public void testTableScanNotCached() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            assertSql("select sym, v from x", "sym\tv\n" +
+                    "a\t1\n" +
+                    "b\t2\n" +
+                    "a\t3\n" +
+                    "b\t4\n");
+            Assert.assertEquals(0, engine.getQueryResultCache().size());
+        });
+    }
+
+    private static void assertHit(String query) throws Exception {
+        final int size = engine.getQueryResultCache().size();
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                // result stays in the cache while the cursor reads it
+                Assert.assertEquals("CachedRecordCursor", cursor.getClass().getSimpleName());
+                Assert.assertEquals(size, engine.getQueryResultCache().size());
+            }
+            Assert.assertEquals(size, engine.getQueryResultCache().size());
+        }
+    }
+
+    private static void createTable() throws Exception {
+        compile("create table x (sym symbol, v long, ts timestamp) timestamp(ts) partition by day");
+        executeInsert("insert into x values ('a', 1, '2022-01-01T00:00:01.000000Z')");
+        executeInsert("insert into x values ('b', 2, '2022-01-01T00:00:02.000000Z')");
+        executeInsert("insert into x values ('a', 3, '2022-01-01T00:00:03.000000Z')");
+        executeInsert("insert into x values ('b', 4, '2022-01-01T00:00:04.000000Z')");
+    }
+}
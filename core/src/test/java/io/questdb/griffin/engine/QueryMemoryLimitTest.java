@@ -0,0 +1,214 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine;
+
+import io.questdb.cairo.CairoException;
+import io.questdb.cairo.sql.NetworkSqlExecutionCircuitBreaker;
+import io.questdb.cairo.sql.RecordCursor;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.cairo.sql.SqlExecutionCircuitBreakerConfiguration;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.DefaultSqlExecutionCircuitBreakerConfiguration;
+import io.questdb.std.MemoryTag;
+import io.questdb.std.MemoryTracker;
+import io.questdb.std.Unsafe;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+public class QueryMemoryLimitTest extends AbstractGriffinTest {
+    private static final long MEMORY_LIMIT = 32 * 1024 * 1024;
+
+    @BeforeClass
+    public static void setUpStatic() {
+        SqlExecutionCircuitBreakerConfiguration config = new DefaultSqlExecutionCircuitBreakerConfiguration() {
+            @Override
+            public int getCircuitBreakerThrottle() {
+                return 0;
+            }
+
+            @Override
+            public long getQueryMemoryLimit() {
+                return MEMORY_LIMIT;
+            }
+        };
+
+        circuitBreaker = new NetworkSqlExecutionCircuitBreaker(config, MemoryTag.NATIVE_CB5) {
+            @Override
+            protected boolean testConnection(long fd) {
+                return false;
+            }
+        };
+        AbstractGriffinTest.setUpStatic();
+    }
+
+    @Test
+    public void testAllocationOverLimitIsRefused() throws Exception {
+        assertMemoryLeak(() -> {
+            final MemoryTracker tracker = new MemoryTracker();
+            tracker.setLimit(1024);
+            Unsafe.setThreadMemoryTracker(tracker);
+            try {
+                final long memUsed = Unsafe.getMemUsedByTag(MemoryTag.NATIVE_FAST_MAP);
+                final long ptr = Unsafe.malloc(1000, MemoryTag.NATIVE_FAST_MAP);
+                try {
+                    Assert.assertEquals(1000, tracker.getUsed());
+                    try {
+                        Unsafe.realloc(ptr, 1000, 2000, MemoryTag.NATIVE_FAST_MAP);
+                        Assert.fail();
+                    } catch (CairoException e) {
+                        Assert.assertTrue(e.getMessage(), e.getMessage().contains("query memory limit exceeded"));
+                    }
+                    // nothing is allocated or charged when the limit is breached
+                    Assert.assertEquals(1000, tracker.getUsed());
+                    Assert.assertEquals(memUsed + 1000, Unsafe.getMemUsedByTag(MemoryTag.NATIVE_FAST_MAP));
+                } finally {
+                    Unsafe.free(ptr, 1000, MemoryTag.NATIVE_FAST_MAP);
+                }
+                Assert.assertEquals(0, tracker.getUsed());
+                Assert.assertEquals(1000, tracker.getPeak());
+            } finally {
+                Unsafe.setThreadMemoryTracker(null);
+            }
+        });
+    }
+
+    @Test
+    public void testGroupByOverLimit() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select rnd_str(10, 10, 0) s, rnd_double() d from long_sequence(1000000))");
+            assertLimitExceeded("select s, sum(d) from x");
+        });
+    }
+
+    @Test
+    public void testGroupByWithinLimit() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select rnd_symbol('a', 'b', 'c') s, rnd_double() d from long_sequence(200000))");
+            final NetworkSqlExecutionCircuitBreaker networkCircuitBreaker = (NetworkSqlExecutionCircuitBreaker) circuitBreaker;
+            networkCircuitBreaker.bindMemoryTracker(null);
+            try {
+                networkCircuitBreaker.resetTimer();
+                networkCircuitBreaker.getMemoryTracker().reset();
+                try (RecordCursorFactory factory = compiler.compile("select s, count() from x order by s", sqlExecutionContext).getRecordCursorFactory()) {
+                    try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                        int count = 0;
+                        while (cursor.hasNext()) {
+                            count++;
+                        }
+                        Assert.assertEquals(3, count);
+                    }
+                }
+            } finally {
+                networkCircuitBreaker.unbindMemoryTracker();
+            }
+            final long peak = networkCircuitBreaker.getPeakMemoryUsage();
+            Assert.assertTrue(peak > 0);
+            Assert.assertTrue(peak <= MEMORY_LIMIT);
+        });
+    }
+
+    @Test
+    public void testKeyedVectorGroupByChargedToQuery() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select cast(x % 100000 as int) k, rnd_double() d from long_sequence(1000000))");
+            // aggregation tasks must bind tracker of the query regardless of the thread running them,
+            // the tracker is not bound to this thread
+            circuitBreaker.resetTimer();
+            circuitBreaker.getMemoryTracker().reset();
+            try (RecordCursorFactory factory = compiler.compile("select k, sum(d) from x", sqlExecutionContext).getRecordCursorFactory()) {
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    //noinspection StatementWithEmptyBody
+                    while (cursor.hasNext()) {
+                    }
+                }
+            }
+            Assert.assertTrue(((NetworkSqlExecutionCircuitBreaker) circuitBreaker).getPeakMemoryUsage() > 0);
+        });
+    }
+
+    @Test
+    public void testOrderByOverLimit() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select rnd_str(10, 10, 0) s, rnd_double() d from long_sequence(1000000))");
+            assertLimitExceeded("select * from x order by s");
+        });
+    }
+
+    @Test
+    public void testQueryResumedOnAnotherThread() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select rnd_str(10, 10, 0) s, rnd_double() d from long_sequence(1000000))");
+            final NetworkSqlExecutionCircuitBreaker networkCircuitBreaker = (NetworkSqlExecutionCircuitBreaker) circuitBreaker;
+            networkCircuitBreaker.resetTimer();
+            networkCircuitBreaker.getMemoryTracker().reset();
+            try (RecordCursorFactory factory = compiler.compile("select * from x order by s", sqlExecutionContext).getRecordCursorFactory()) {
+                final AtomicReference<Throwable> error = new AtomicReference<>();
+                final Thread thread = new Thread(() -> {
+                    networkCircuitBreaker.bindMemoryTracker(null);
+                    try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                        //noinspection StatementWithEmptyBody
+                        while (cursor.hasNext()) {
+                        }
+                    } catch (Throwable th) {
+                        error.set(th);
+                    } finally {
+                        networkCircuitBreaker.unbindMemoryTracker();
+                    }
+                });
+                thread.start();
+                thread.join();
+                Assert.assertNotNull(error.get());
+                Assert.assertTrue(error.get().getMessage().contains("query memory limit exceeded"));
+            }
+        });
+    }
+
+    private void assertLimitExceeded(String query) throws Exception {
+        final NetworkSqlExecutionCircuitBreaker networkCircuitBreaker = (NetworkSqlExecutionCircuitBreaker) circuitBreaker;
+        networkCircuitBreaker.bindMemoryTracker(null);
+        try {
+            networkCircuitBreaker.resetTimer();
+            networkCircuitBreaker.getMemoryTracker().reset();
+            try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+                    //noinspection StatementWithEmptyBody
+                    while (cursor.hasNext()) {
+                    }
+                }
+                Assert.fail();
+            } catch (CairoException e) {
+                Assert.assertTrue(e.getMessage(), e.getMessage().contains("query memory limit exceeded"));
+                Assert.assertFalse(e.isInterruption());
+            }
+            // everything charged to the query is released with the factory
+            Assert.assertEquals(0, networkCircuitBreaker.getMemoryTracker().getUsed());
+        } finally {
+            networkCircuitBreaker.unbindMemoryTracker();
+        }
+    }
+}
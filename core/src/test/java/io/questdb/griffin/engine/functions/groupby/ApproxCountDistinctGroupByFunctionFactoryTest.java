@@ -0,0 +1,122 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.griffin.AbstractGriffinTest;
+import org.junit.Test;
+
+public class ApproxCountDistinctGroupByFunctionFactoryTest extends AbstractGriffinTest {
+
+    @Test
+    public void testEmpty() throws Exception {
+        assertQuery(
+                "approx_count_distinct\n" +
+                        "0\n",
+                "select approx_count_distinct(l) from x",
+                "create table x (l long)",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testGroupKeyed() throws Exception {
+        assertQuery(
+                "a\tapprox_count_distinct\tcount_distinct\n" +
+                        "a\t16\t16\n" +
+                        "b\t16\t16\n" +
+                        "c\t16\t16\n",
+                "select a, approx_count_distinct(s), count_distinct(s) from x order by a",
+                "create table x as (select rnd_symbol('a','b','c') a, rnd_long(0, 15, 0) s from long_sequence(1000))",
+                null,
+                true,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testHighCardinality() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x % 100000 l, (x % 50000)::string s from long_sequence(300000))");
+            assertSql(
+                    "select abs(approx_count_distinct(l) - 100000) < 3000 l_ok, abs(approx_count_distinct(s) - 50000) < 1500 s_ok from x",
+                    "l_ok\ts_ok\n" +
+                            "true\ttrue\n"
+            );
+        });
+    }
+
+    @Test
+    public void testIgnoresNulls() throws Exception {
+        assertQuery(
+                "approx_count_distinct\tapprox_count_distinct1\n" +
+                        "4\t3\n",
+                "select approx_count_distinct(l), approx_count_distinct(s) from x",
+                "create table x as (" +
+                        "select case when x % 5 = 0 then null else x % 5 end l," +
+                        " case when x % 4 = 0 then null else (x % 4)::string end s" +
+                        " from long_sequence(100))",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testSampleByFill() throws Exception {
+        assertQuery(
+                "ts\tapprox_count_distinct\n" +
+                        "1970-01-01T00:00:00.000000Z\t10\n" +
+                        "1970-01-01T01:00:00.000000Z\t42\n" +
+                        "1970-01-01T02:00:00.000000Z\t10\n",
+                "select ts, approx_count_distinct(x) from x sample by 1h fill(42)",
+                "create table x as (" +
+                        "select x % 10 x, timestamp_sequence(0, 360000000) ts from long_sequence(10)" +
+                        " union all " +
+                        "select x % 10 x, timestamp_sequence(7200000000, 360000000) ts from long_sequence(10)" +
+                        ") timestamp(ts)",
+                "ts",
+                false
+        );
+    }
+
+    @Test
+    public void testSymbolAndTimestamp() throws Exception {
+        assertQuery(
+                "approx_count_distinct\tapprox_count_distinct1\tapprox_count_distinct2\n" +
+                        "3\t20\t20\n",
+                "select approx_count_distinct(a), approx_count_distinct(ts), approx_count_distinct(i) from x",
+                "create table x as (select rnd_symbol('a','b','c') a, x::int i, timestamp_sequence(0, 1000) ts from long_sequence(20)) timestamp(ts)",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+}
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.groupby;
+
+import io.questdb.cairo.vm.Vm;
+import io.questdb.cairo.vm.api.MemoryCARW;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.std.MemoryTag;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ApproxPercentileDoubleGroupByFunctionFactoryTest extends AbstractGriffinTest {
+
+    @Test
+    public void testAccuracy() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (select x * 1.0 d from long_sequence(100000))");
+            // relative error is bounded by 1%
+            assertSql(
+                    "select abs(approx_percentile(d, 0.99) / 99000 - 1) < 0.011 p99," +
+                            " abs(approx_median(d) / 50000 - 1) < 0.011 p50," +
+                            " abs(approx_percentile(d, 0.01) / 1000 - 1) < 0.011 p01" +
+                            " from x",
+                    "p99\tp50\tp01\n" +
+                            "true\ttrue\ttrue\n"
+            );
+        });
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        assertQuery(
+                "approx_median\n" +
+                        "NaN\n",
+                "select approx_median(d) from x",
+                "create table x (d double)",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testExtremes() throws Exception {
+        assertQuery(
+                "approx_percentile\tapprox_percentile1\tapprox_median\n" +
+                        "-10.0\t1000.0\t0.0\n",
+                "select approx_percentile(d, 0), approx_percentile(d, 1), approx_median(d) from x",
+                "create table x as (" +
+                        "select case when x = 1 then -10.0 when x = 2 then 1000.0 when x = 3 then NaN else 0.0 end d" +
+                        " from long_sequence(5))",
+                null,
+                false,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testGroupKeyed() throws Exception {
+        assertQuery(
+                "k\tapprox_median\n" +
+                        "0\t10.0\n" +
+                        "1\t-10.0\n",
+                "select k, round(approx_median(d), 0) approx_median from x order by k",
+                "create table x as (select x % 2 k, case when x % 2 = 0 then 10.0 else -10.0 end d from long_sequence(1000))",
+                null,
+                true,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testNonConstantPercentile() throws Exception {
+        assertFailure("select approx_percentile(d, d) from x", "create table x (d double)", 7, "constant");
+    }
+
+    @Test
+    public void testPercentileOutOfRange() throws Exception {
+        assertFailure("select approx_percentile(d, 1.5) from x", "create table x (d double)", 28, "percentile must be between 0.0 and 1.0");
+    }
+
+    @Test
+    public void testSampleByFill() throws Exception {
+        assertQuery(
+                "ts\tapprox_median\n" +
+                        "1970-01-01T00:00:00.000000Z\t5.0\n" +
+                        "1970-01-01T01:00:00.000000Z\tNaN\n" +
+                        "1970-01-01T02:00:00.000000Z\t5.0\n",
+                "select ts, round(approx_median(d), 0) approx_median from x sample by 1h fill(null)",
+                "create table x as (" +
+                        "select x * 1.0 d, timestamp_sequence(0, 360000000) ts from long_sequence(9)" +
+                        " union all " +
+                        "select x * 1.0 d, timestamp_sequence(7200000000, 360000000) ts from long_sequence(9)" +
+                        ") timestamp(ts)",
+                "ts",
+                false
+        );
+    }
+
+    @Test
+    public void testStoresGrowWithRange() {
+        try (MemoryCARW mem = Vm.getCARWInstance(4096, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT)) {
+            final long a = DDSketch.create(mem);
+            final long b = DDSketch.create(mem);
+            final long emptySize = mem.getAppendOffset();
+            Assert.assertEquals(2 * DDSketch.SIZE, emptySize);
+
+            // stores are allocated on first value of their sign
+            for (int i = 1; i <= 10; i++) {
+                DDSketch.add(mem, a, 100 + i * 0.1);
+                DDSketch.add(mem, b, 100 - i * 0.1);
+            }
+            DDSketch.add(mem, b, 0);
+            final long storeSize = 16 + DDSketch.MIN_BUCKET_COUNT * Long.BYTES;
+            Assert.assertEquals(emptySize + 2 * storeSize, mem.getAppendOffset());
+
+            // interleaved growth of both sketches
+            for (int i = 1; i <= 1000; i++) {
+                DDSketch.add(mem, a, i);
+                DDSketch.add(mem, b, -i);
+            }
+            Assert.assertEquals(1, DDSketch.quantile(mem, a, 0), 0.0);
+            Assert.assertEquals(1000, DDSketch.quantile(mem, a, 1), 0.0);
+            Assert.assertEquals(-1000, DDSketch.quantile(mem, b, 0), 0.0);
+            Assert.assertEquals(99.9, DDSketch.quantile(mem, b, 1), 0.0);
+            Assert.assertEquals(495.5, DDSketch.quantile(mem, a, 0.5), 496 * DDSketch.RELATIVE_ACCURACY);
+            Assert.assertEquals(-748, DDSketch.quantile(mem, b, 0.25), 748 * DDSketch.RELATIVE_ACCURACY);
+        }
+    }
+
+    @Test
+    public void testWideRange() {
+        try (MemoryCARW mem = Vm.getCARWInstance(4096, Integer.MAX_VALUE, MemoryTag.NATIVE_DEFAULT)) {
+            final long a = DDSketch.create(mem);
+            // values span more buckets than the store can have, lowest buckets are collapsed
+            for (int i = 0; i < 1000; i++) {
+                DDSketch.add(mem, a, Math.pow(10, i / 100.0));
+            }
+            Assert.assertEquals(1, DDSketch.quantile(mem, a, 0), 0.0);
+            Assert.assertEquals(Math.pow(10, 9.99), DDSketch.quantile(mem, a, 1), 0.0);
+            Assert.assertEquals(Math.pow(10, 8.99), DDSketch.quantile(mem, a, 0.9), Math.pow(10, 8.99) * DDSketch.RELATIVE_ACCURACY);
+        }
+    }
+}
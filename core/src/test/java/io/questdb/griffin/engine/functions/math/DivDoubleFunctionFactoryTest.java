@@ -30,6 +30,24 @@ import io.questdb.griffin.engine.AbstractFunctionFactoryTest;
 import org.junit.Test;
 
 public class DivDoubleFunctionFactoryTest extends AbstractFunctionFactoryTest {
+    @Test
+    public void testColumns() throws Exception {
+        assertQuery(
+                "a\tb\tcol_col\tcol_const\tconst_col\n" +
+                        "10.0\t4.0\t2.5\t5.0\t0.25\n" +
+                        "NaN\t2.0\tNaN\tNaN\t0.5\n" +
+                        "3.0\t0.0\tInfinity\t1.5\tInfinity\n",
+                "select a, b, a / b col_col, a / 2 col_const, 1 / b const_col from x",
+                "create table x as (select * from (select 10.0 a, 4.0 b) union all (select cast(null as double) a, 2.0 b) union all (select 3.0 a, 0.0 b))",
+                null,
+                null,
+                null,
+                true,
+                true,
+                true
+        );
+    }
+
     @Test
     public void testDivByZero() throws SqlException {
         call(10d, 0d).andAssert(Double.POSITIVE_INFINITY, 0.000001);
@@ -0,0 +1,90 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.math;
+
+import io.questdb.cairo.sql.Function;
+import io.questdb.griffin.FunctionFactory;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.AbstractFunctionFactoryTest;
+import io.questdb.griffin.engine.functions.BinaryFunction;
+import io.questdb.griffin.engine.functions.columns.DoubleColumn;
+import io.questdb.griffin.engine.functions.constants.DoubleConstant;
+import io.questdb.std.IntList;
+import io.questdb.std.ObjList;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MulDoubleFunctionFactoryTest extends AbstractFunctionFactoryTest {
+
+    @Test
+    public void testColumns() throws Exception {
+        assertQuery(
+                "a\tb\tcol_col\tcol_const\tconst_col\n" +
+                        "1.5\t4.0\t6.0\t3.0\t12.0\n" +
+                        "NaN\t2.0\tNaN\tNaN\t6.0\n" +
+                        "-3.0\tNaN\tNaN\t-6.0\tNaN\n",
+                "select a, b, a * b col_col, a * 2 col_const, 3 * b const_col from x",
+                "create table x as (select * from (select 1.5 a, 4.0 b) union all (select cast(null as double) a, 2.0 b) union all (select -3.0 a, cast(null as double) b))",
+                null,
+                null,
+                null,
+                true,
+                true,
+                true
+        );
+    }
+
+    @Test
+    public void testConstantLeftKeepsOperandOrder() throws SqlException {
+        final Function constant = new DoubleConstant(3);
+        final Function column = DoubleColumn.newInstance(0);
+        final ObjList<Function> args = new ObjList<>();
+        args.add(constant);
+        args.add(column);
+        final Function function = getFunctionFactory().newInstance(0, args, new IntList(), configuration, sqlExecutionContext);
+        Assert.assertSame(constant, ((BinaryFunction) function).getLeft());
+        Assert.assertSame(column, ((BinaryFunction) function).getRight());
+    }
+
+    @Test
+    public void testLeftNull() throws SqlException {
+        call(Double.NaN, 10d).andAssert(Double.NaN, 0);
+    }
+
+    @Test
+    public void testRightNull() throws SqlException {
+        call(4d, Double.NaN).andAssert(Double.NaN, 0);
+    }
+
+    @Test
+    public void testSimple() throws SqlException {
+        call(2.5d, 4d).andAssert(10d, 0.000001);
+    }
+
+    @Override
+    protected FunctionFactory getFunctionFactory() {
+        return new MulDoubleFunctionFactory();
+    }
+}
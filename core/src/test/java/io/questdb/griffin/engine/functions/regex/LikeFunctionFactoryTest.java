@@ -235,6 +235,26 @@ public class LikeFunctionFactoryTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testLikeSymbol() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (" +
+                    "select cast(case when x % 4 = 0 then 'BTC-USD' when x % 4 = 1 then 'ETH-USD' when x % 4 = 2 then 'BTC-EUR' end as symbol) s" +
+                    " from long_sequence(1000))");
+            assertSql("select count() from x where s like 'BTC%'", "count\n500\n");
+            assertSql("select count() from x where s ilike 'btc-u%'", "count\n250\n");
+            assertSql("select count() from x where s not like '%USD'", "count\n500\n");
+
+            // pattern changes between executions, outcomes cached by symbol key must not be reused
+            try (RecordCursorFactory factory = compiler.compile("select count() from x where s like $1", sqlExecutionContext).getRecordCursorFactory()) {
+                bindVariableService.setStr(0, "ETH%");
+                assertCursor("count\n250\n", factory, false, false, true);
+                bindVariableService.setStr(0, "%USD");
+                assertCursor("count\n500\n", factory, false, false, true);
+            }
+        });
+    }
+
     @Test
     public void testNonConstantExpression() throws Exception {
         assertMemoryLeak(() -> {
@@ -0,0 +1,99 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.regex;
+
+import io.questdb.std.Rnd;
+import io.questdb.std.str.StringSink;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class LikeMatcherTest {
+    private static final String ALPHABET = "abAB%_.\n";
+
+    @Test
+    public void testMatchesJavaRegex() {
+        final String[] patterns = {
+                "a",
+                "%",
+                "_",
+                "a%",
+                "%a",
+                "%a%",
+                "a_b",
+                "%a_%b%",
+                "_%_",
+                "a%%b",
+                "%.%",
+                "é%",
+                "%😀_",
+        };
+
+        final Rnd rnd = new Rnd();
+        final StringSink sink = new StringSink();
+        for (String pattern : patterns) {
+            for (boolean caseInsensitive : new boolean[]{false, true}) {
+                final Matcher matcher = toRegex(pattern, caseInsensitive);
+                final LikeMatcher likeMatcher = new LikeMatcher(pattern, caseInsensitive);
+                for (int i = 0; i < 2000; i++) {
+                    sink.clear();
+                    final int len = rnd.nextInt(8);
+                    for (int j = 0; j < len; j++) {
+                        final int n = rnd.nextInt(ALPHABET.length() + 3);
+                        if (n < ALPHABET.length()) {
+                            sink.put(ALPHABET.charAt(n));
+                        } else if (n == ALPHABET.length()) {
+                            sink.put('é');
+                        } else if (n == ALPHABET.length() + 1) {
+                            sink.put('É');
+                        } else {
+                            sink.put('\uD83D').put('\uDE00');
+                        }
+                    }
+                    Assert.assertEquals(pattern + " like " + sink, matcher.reset(sink).matches(), likeMatcher.matches(sink));
+                }
+            }
+        }
+    }
+
+    private static Matcher toRegex(String pattern, boolean caseInsensitive) {
+        final StringBuilder regex = new StringBuilder();
+        for (int i = 0, n = pattern.length(); i < n; i++) {
+            final char c = pattern.charAt(i);
+            if (c == '_') {
+                regex.append('.');
+            } else if (c == '%') {
+                regex.append(".*?");
+            } else if ("[](){}.*+?$^|#\\".indexOf(c) != -1) {
+                regex.append('\\').append(c);
+            } else {
+                regex.append(c);
+            }
+        }
+        return Pattern.compile(regex.toString(), caseInsensitive ? Pattern.DOTALL | Pattern.CASE_INSENSITIVE : Pattern.DOTALL).matcher("");
+    }
+}
@@ -62,6 +62,17 @@ public class MatchStrFunctionFactoryTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testMatchSymbol() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (" +
+                    "select cast(case when x % 4 = 0 then 'BTC-USD' when x % 4 = 1 then 'ETH-USD' when x % 4 = 2 then 'BTC-EUR' end as symbol) s" +
+                    " from long_sequence(1000))");
+            assertSql("select count() from x where s ~ '^ETH'", "count\n250\n");
+            assertSql("select count() from x where s ~ '-(EUR|USD)$'", "count\n750\n");
+        });
+    }
+
     @Test
     public void testSimple() throws Exception {
         assertMemoryLeak(() -> {
@@ -60,6 +60,17 @@ public class NotMatchStrFunctionFactoryTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testNotMatchSymbol() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (" +
+                    "select cast(case when x % 4 = 0 then 'BTC-USD' when x % 4 = 1 then 'ETH-USD' when x % 4 = 2 then 'BTC-EUR' end as symbol) s" +
+                    " from long_sequence(1000))");
+            // null symbols do not match the pattern
+            assertSql("select count() from x where s !~ 'USD'", "count\n500\n");
+        });
+    }
+
     @Test
     public void testSimple() throws Exception {
         assertMemoryLeak(() -> {
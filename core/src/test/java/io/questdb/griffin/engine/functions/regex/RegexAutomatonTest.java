@@ -0,0 +1,144 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.functions.regex;
+
+import io.questdb.std.Rnd;
+import io.questdb.std.str.StringSink;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class RegexAutomatonTest {
+    private static final String ALPHABET = "abcxyzABC019 _-.$^[]\t\r\n\u0085 é";
+
+    @Test
+    public void testMatchesJavaRegex() {
+        final String[] patterns = {
+                "",
+                "^",
+                "$",
+                "^$",
+                "abc",
+                "^abc",
+                "abc$",
+                "^abc$",
+                "a.c",
+                "a.*c",
+                "a.*?c",
+                "^a*$",
+                "^(ab|c)+$",
+                "x(ab|c)?y",
+                "(a|b|)z",
+                "a|bc|",
+                "((a|b)c)*x",
+                "[abc]+",
+                "[^abc]",
+                "^[a-c0-9]+$",
+                "[-a]",
+                "[a-]",
+                "[\\d\\s]",
+                "[\\]\\[.]",
+                "\\d+\\.\\d*",
+                "\\D\\W\\S",
+                "\\w+\\s\\w+",
+                "\\$",
+                "\\^a",
+                "\\\\",
+                "\\t|\\n|\\r",
+                "^.$",
+                ".$",
+                "\\n$",
+                "a?b?c?$",
+                "é+",
+                "(a|b)*abb",
+        };
+
+        final Rnd rnd = new Rnd();
+        final StringSink sink = new StringSink();
+        for (String pattern : patterns) {
+            final Matcher matcher = Pattern.compile(pattern).matcher("");
+            final RegexAutomaton automaton = RegexAutomaton.compile(pattern, new JavaRegexFinder(Pattern.compile(pattern).matcher("")));
+            Assert.assertNotNull(pattern, automaton);
+            for (int i = 0; i < 2000; i++) {
+                sink.clear();
+                final int len = rnd.nextInt(8);
+                for (int j = 0; j < len; j++) {
+                    if (rnd.nextInt(50) == 0) {
+                        // surrogate pair
+                        sink.put('\uD83D').put('\uDE00');
+                    } else {
+                        sink.put(ALPHABET.charAt(rnd.nextInt(ALPHABET.length())));
+                    }
+                }
+                Assert.assertEquals(pattern + " ~ " + sink, matcher.reset(sink).find(), automaton.find(sink));
+            }
+        }
+    }
+
+    @Test
+    public void testNoBacktracking() {
+        // exponential for backtracking matcher
+        final RegexAutomaton automaton = RegexAutomaton.compile("^(a|aa)*b$", null);
+        Assert.assertNotNull(automaton);
+        final StringSink sink = new StringSink();
+        for (int i = 0; i < 10_000; i++) {
+            sink.put('a');
+        }
+        Assert.assertFalse(automaton.find(sink));
+        sink.put('b');
+        Assert.assertTrue(automaton.find(sink));
+    }
+
+    @Test
+    public void testUnsupported() {
+        final String[] patterns = {
+                "(a)\\1",
+                "a{2}",
+                "(?i)abc",
+                "(?:ab)+",
+                "a(?=b)",
+                "\\bword",
+                "\\Qa.b\\E",
+                "\\p{Alpha}",
+                "^a|b",
+                "a|b$",
+                "a$b",
+                "a++",
+                "[a&&b]",
+                "[a[b]]",
+                "[a-c-e]",
+                "[\\D]",
+                "😀",
+                // too many positions
+                "abcdefghijklmnopqrstuvwxyz0123456789abcdefghijklmnopqrstuvwxyz0123456789",
+        };
+        for (String pattern : patterns) {
+            Pattern.compile(pattern);
+            Assert.assertNull(pattern, RegexAutomaton.compile(pattern, null));
+        }
+    }
+}
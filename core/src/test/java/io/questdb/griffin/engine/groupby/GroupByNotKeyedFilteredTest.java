@@ -0,0 +1,169 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.griffin.engine.groupby;
+
+import io.questdb.cairo.SqlJitMode;
+import io.questdb.cairo.sql.RecordCursorFactory;
+import io.questdb.griffin.AbstractGriffinTest;
+import io.questdb.griffin.SqlException;
+import io.questdb.griffin.engine.groupby.vect.GroupByNotKeyedVectorRecordCursorFactory;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class GroupByNotKeyedFilteredTest extends AbstractGriffinTest {
+
+    private static final String ALL_AGGREGATES = "select count() c," +
+            " sum(i) si, min(i) mni, max(i) mxi, avg(i) ai," +
+            " sum(l) sl, min(l) mnl, max(l) mxl, avg(l) al," +
+            " sum(d) sd, min(d) mnd, max(d) mxd, avg(d) ad" +
+            " from x";
+
+    @Before
+    public void setUp2() {
+        // make sure filter runs over several page frames
+        pageFrameMaxRows = 100;
+        sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_ENABLED);
+    }
+
+    @Test
+    public void testColumnTops() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (" +
+                    "select x k, case when x % 2 = 0 then 'B' else 'S' end::symbol s, timestamp_sequence(0, 1000000) ts" +
+                    " from long_sequence(250)" +
+                    ") timestamp(ts) partition by NONE");
+            compile("alter table x add column d double");
+            compile("insert into x select x + 250 k, case when x % 2 = 0 then 'B' else 'S' end::symbol s," +
+                    " timestamp_sequence(250000000, 1000000) ts, x * 1.0 d from long_sequence(250)");
+
+            final String query = "select count() c, sum(d) sd, min(d) mnd, max(d) mxd from x where s = 'B' and k > 100";
+            assertVectorized(query, true);
+            assertSql(query, "c\tsd\tmnd\tmxd\n" +
+                    "200\t15750.0\t2.0\t250.0\n");
+        });
+    }
+
+    @Test
+    public void testEmptyResult() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String query = ALL_AGGREGATES + " where s = 'B' and k < 0";
+            assertVectorized(query, true);
+            assertSql(query, "c\tsi\tmni\tmxi\tai\tsl\tmnl\tmxl\tal\tsd\tmnd\tmxd\tad\n" +
+                    "0\tNaN\tNaN\tNaN\tNaN\tNaN\tNaN\tNaN\tNaN\tNaN\tNaN\tNaN\tNaN\n");
+        });
+    }
+
+    @Test
+    public void testJavaFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+            final String query = ALL_AGGREGATES + " where s = 'B' and k > 100";
+            assertVectorized(query, false);
+            assertSql(query, "c\tsi\tmni\tmxi\tai\tsl\tmnl\tmxl\tal\tsd\tmnd\tmxd\tad\n" +
+                    "450\t198000\t102\t998\t550.0\t198000\t102\t998\t550.0\t99000.0\t51.0\t499.0\t275.0\n");
+        });
+    }
+
+    @Test
+    public void testJitFilter() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String query = ALL_AGGREGATES + " where s = 'B' and k > 100";
+            assertVectorized(query, true);
+            assertSql(query, "c\tsi\tmni\tmxi\tai\tsl\tmnl\tmxl\tal\tsd\tmnd\tmxd\tad\n" +
+                    "450\t198000\t102\t998\t550.0\t198000\t102\t998\t550.0\t99000.0\t51.0\t499.0\t275.0\n");
+        });
+    }
+
+    @Test
+    public void testKeyedIsNotVectorized() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String query = "select s, count() c, sum(d) sd from x where k > 100 order by s";
+            try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertFalse(factory instanceof GroupByNotKeyedVectorRecordCursorFactory);
+            }
+            assertSql(query, "s\tc\tsd\n" +
+                    "B\t450\t99000.0\n" +
+                    "S\t450\t123750.0\n");
+        });
+    }
+
+    @Test
+    public void testLimitIsNotVectorized() throws Exception {
+        assertMemoryLeak(() -> {
+            createTable();
+            final String query = "select count() c, sum(l) sl from (x where s = 'B' limit 5)";
+            try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+                Assert.assertFalse(factory instanceof GroupByNotKeyedVectorRecordCursorFactory);
+            }
+            assertSql(query, "c\tsl\n" +
+                    "5\t20\n");
+        });
+    }
+
+    @Test
+    public void testTemporalAndCompensatedAggregates() throws Exception {
+        assertMemoryLeak(() -> {
+            compile("create table x as (" +
+                    "select x k," +
+                    " case when x % 10 = 0 then NaN else x / 2.0 end d," +
+                    " cast((x - 1) * 1000 as date) dt," +
+                    " x::long256 h," +
+                    " case when x % 2 = 0 then 'B' else 'S' end::symbol s," +
+                    " timestamp_sequence(0, 1000000) ts" +
+                    " from long_sequence(1000)" +
+                    ") timestamp(ts) partition by HOUR");
+            final String query = "select ksum(d) ks, nsum(d) ns, min(ts) mnts, max(ts) mxts, min(dt) mndt, max(dt) mxdt, sum(h) sh" +
+                    " from x where s = 'B' and k > 100";
+            assertVectorized(query, true);
+            assertSql(query, "ks\tns\tmnts\tmxts\tmndt\tmxdt\tsh\n" +
+                    "99000.0\t99000.0\t1970-01-01T00:01:41.000000Z\t1970-01-01T00:16:39.000000Z\t1970-01-01T00:01:41.000Z\t1970-01-01T00:16:39.000Z\t0x03c88e\n");
+        });
+    }
+
+    private void assertVectorized(String query, boolean usesCompiledFilter) throws SqlException {
+        try (RecordCursorFactory factory = compiler.compile(query, sqlExecutionContext).getRecordCursorFactory()) {
+            Assert.assertTrue(factory instanceof GroupByNotKeyedVectorRecordCursorFactory);
+            Assert.assertEquals(usesCompiledFilter, factory.usesCompiledFilter());
+        }
+    }
+
+    private void createTable() throws SqlException {
+        // every 10th value is null
+        compile("create table x as (" +
+                "select x k," +
+                " case when x % 10 = 0 then null else x::int end i," +
+                " case when x % 10 = 0 then null else x end l," +
+                " case when x % 10 = 0 then NaN else x / 2.0 end d," +
+                " case when x % 2 = 0 then 'B' else 'S' end::symbol s," +
+                " timestamp_sequence(0, 1000000) ts" +
+                " from long_sequence(1000)" +
+                ") timestamp(ts) partition by HOUR");
+    }
+}
@@ -33,6 +33,7 @@ import io.questdb.griffin.*;
 import io.questdb.griffin.engine.analytic.AnalyticContext;
 import io.questdb.jit.JitUtil;
 import io.questdb.mp.*;
+import io.questdb.std.Chars;
 import io.questdb.std.Misc;
 import io.questdb.std.Rnd;
 import io.questdb.std.str.StringSink;
@@ -46,6 +47,7 @@ import org.junit.Assume;
 import org.junit.BeforeClass;
 import org.junit.Test;
 
+import java.util.concurrent.CyclicBarrier;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static io.questdb.cairo.sql.DataFrameCursorFactory.ORDER_ANY;
@@ -65,6 +67,69 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractGriffinTest {
         AbstractGriffinTest.setUpStatic();
     }
 
+    @Test
+    public void testCachedFactorySharedBetweenThreads() throws Exception {
+        final int pageFrameRows = 100;
+        pageFrameMaxRows = pageFrameRows;
+
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            sqlExecutionContext.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+            compiler.compile("create table x as (" +
+                    "  select rnd_double() a," +
+                    "  timestamp_sequence(0, 100000) t from long_sequence(" + (10 * pageFrameRows * QUEUE_CAPACITY) + ")" +
+                    ") timestamp(t) partition by hour", sqlExecutionContext);
+
+            final String sql = "select * from x where a > 0.5";
+            final QueryFactoryCache cache = engine.getQueryFactoryCache();
+            final long expectedCount;
+            // the compiler is gone by the time the cached factory runs
+            try (SqlCompiler ownerCompiler = new SqlCompiler(engine)) {
+                final RecordCursorFactory factory = ownerCompiler.compile(sql, sqlExecutionContext).getRecordCursorFactory();
+                Assert.assertEquals(AsyncFilteredRecordCursorFactory.class, factory.getClass());
+                expectedCount = countRows(factory, sqlExecutionContext);
+                cache.checkIn(sql, factory, null, null);
+            }
+
+            final int threadCount = 2;
+            final int iterations = 50;
+            final CyclicBarrier barrier = new CyclicBarrier(threadCount);
+            final AtomicInteger errors = new AtomicInteger();
+            final Thread[] threads = new Thread[threadCount];
+            for (int t = 0; t < threadCount; t++) {
+                threads[t] = new Thread(() -> {
+                    final SqlExecutionContextImpl context = new SqlExecutionContextImpl(engine, 1, 4);
+                    context.setJitMode(SqlJitMode.JIT_MODE_DISABLED);
+                    try (SqlCompiler threadCompiler = new SqlCompiler(engine)) {
+                        barrier.await();
+                        for (int i = 0; i < iterations; i++) {
+                            RecordCursorFactory factory = cache.checkOut(sql, null);
+                            if (factory == null) {
+                                // the other thread runs the cached factory, compile our own
+                                factory = threadCompiler.compile(sql, context).getRecordCursorFactory();
+                            }
+                            try {
+                                if (countRows(factory, context) != expectedCount) {
+                                    errors.incrementAndGet();
+                                }
+                            } finally {
+                                cache.checkIn(sql, factory, null, null);
+                            }
+                        }
+                    } catch (Throwable e) {
+                        e.printStackTrace();
+                        errors.incrementAndGet();
+                    }
+                });
+                threads[t].start();
+            }
+            for (int t = 0; t < threadCount; t++) {
+                threads[t].join();
+            }
+            cache.clear();
+            Assert.assertEquals(0, errors.get());
+        });
+    }
+
     @Test
     public void testDeferredSymbolInFilter() throws Exception {
         withPool((engine, compiler, sqlExecutionContext) -> {
@@ -382,6 +447,18 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractGriffinTest {
         testPageFrameSequence(SqlJitMode.JIT_MODE_DISABLED, AsyncFilteredRecordCursorFactory.class);
     }
 
+    @Test
+    public void testPlan() throws Exception {
+        testPlan(SqlJitMode.JIT_MODE_DISABLED, "AsyncFilter");
+    }
+
+    @Test
+    public void testPlanJit() throws Exception {
+        // Disable the test on ARM64.
+        Assume.assumeTrue(JitUtil.isJitSupported());
+        testPlan(SqlJitMode.JIT_MODE_ENABLED, "AsyncJitFilter");
+    }
+
     @Test
     public void testPositiveLimit() throws Exception {
         withPool((engine, compiler, sqlExecutionContext) -> {
@@ -455,6 +532,18 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractGriffinTest {
         });
     }
 
+    @Test
+    public void testPreTouchSkipsFilterColumns() throws Exception {
+        testPreTouchSkipsFilterColumns(SqlJitMode.JIT_MODE_DISABLED);
+    }
+
+    @Test
+    public void testPreTouchSkipsFilterColumnsJit() throws Exception {
+        // Disable the test on ARM64.
+        Assume.assumeTrue(JitUtil.isJitSupported());
+        testPreTouchSkipsFilterColumns(SqlJitMode.JIT_MODE_ENABLED);
+    }
+
     @Test
     public void testSymbolEqualsBindVariableFilter() throws Exception {
         testSymbolEqualsBindVariableFilter(SqlJitMode.JIT_MODE_DISABLED, AsyncFilteredRecordCursorFactory.class);
@@ -506,6 +595,16 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractGriffinTest {
         });
     }
 
+    private static long countRows(RecordCursorFactory factory, SqlExecutionContext sqlExecutionContext) throws SqlException {
+        long count = 0;
+        try (RecordCursor cursor = factory.getCursor(sqlExecutionContext)) {
+            while (cursor.hasNext()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
     private void resetTaskCapacities() {
         // Tests that involve LIMIT clause may lead to only a fraction of the page frames being
         // reduced and/or collected before the factory gets closed. When that happens, row id and
@@ -670,6 +769,51 @@ public class AsyncFilteredRecordCursorFactoryTest extends AbstractGriffinTest {
         });
     }
 
+    private void testPlan(int jitMode, String type) throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            sqlExecutionContext.setJitMode(jitMode);
+            compiler.compile("create table x as (select rnd_double() a, timestamp_sequence(0, 100000) t from long_sequence(100)) timestamp(t) partition by hour", sqlExecutionContext);
+            try (RecordCursorFactory factory = compiler.compile("x where a > 0.5", sqlExecutionContext).getRecordCursorFactory()) {
+                final PlanSink sink = new PlanSink();
+                factory.toPlan(sink);
+                final CharSequence plan = sink.getText();
+                Assert.assertTrue(Chars.startsWith(plan, type + "\n  filter="));
+                TestUtils.assertContains(
+                        plan,
+                        "  configuredPageFrameMinRows=" + configuration.getSqlPageFrameMinRows() + "\n" +
+                                "  configuredPageFrameMaxRows=" + configuration.getSqlPageFrameMaxRows() + "\n" +
+                                "    DataFrameRecordCursorFactory\n" +
+                                "        FullFwdDataFrame\n" +
+                                "          tableName=x"
+                );
+            }
+        });
+    }
+
+    private void testPreTouchSkipsFilterColumns(int jitMode) throws Exception {
+        withPool((engine, compiler, sqlExecutionContext) -> {
+            enableColumnPreTouch = true;
+            sqlExecutionContext.setJitMode(jitMode);
+
+            compiler.compile("create table x as (select x k, 1L v from long_sequence(1000))", sqlExecutionContext);
+
+            AsyncFilterAtom.PRE_TOUCH_BLACKHOLE.reset();
+            long count = 0;
+            try (
+                    RecordCursorFactory factory = compiler.compile("select v from x where k > 990", sqlExecutionContext).getRecordCursorFactory();
+                    RecordCursor cursor = factory.getCursor(sqlExecutionContext)
+            ) {
+                final Record record = cursor.getRecord();
+                while (cursor.hasNext()) {
+                    count += record.getLong(0);
+                }
+            }
+            Assert.assertEquals(10, count);
+            // only the projected column is pre-touched, filter column k is hot already
+            Assert.assertEquals(10, AsyncFilterAtom.PRE_TOUCH_BLACKHOLE.sum());
+        });
+    }
+
     private void testSymbolEqualsBindVariableFilter(int jitMode, Class<?> expectedFactoryClass) throws Exception {
         withPool((engine, compiler, sqlExecutionContext) -> {
             sqlExecutionContext.setJitMode(jitMode);
@@ -171,6 +171,23 @@ public class DataFrameRecordCursorFactoryTest extends AbstractCairoTest {
         testFwdPageFrameCursor(63, 64, 61);
     }
 
+    @Test
+    public void testPageFrameRowLimit() {
+        // small data frame is not split
+        Assert.assertEquals(100, FwdTableReaderPageFrameCursor.computePageFrameRowLimit(50, 4, 100, 1000));
+        Assert.assertEquals(100, FwdTableReaderPageFrameCursor.computePageFrameRowLimit(100, 4, 100, 1000));
+        // data frame is split between workers
+        Assert.assertEquals(250, FwdTableReaderPageFrameCursor.computePageFrameRowLimit(1000, 4, 100, 1000));
+        Assert.assertEquals(201, FwdTableReaderPageFrameCursor.computePageFrameRowLimit(1001, 4, 100, 1000));
+        // data frame doesn't end with a short tail frame
+        Assert.assertEquals(550, FwdTableReaderPageFrameCursor.computePageFrameRowLimit(1100, 1, 100, 1000));
+        Assert.assertEquals(917, FwdTableReaderPageFrameCursor.computePageFrameRowLimit(11_001, 1, 100, 1000));
+        Assert.assertEquals(1000, FwdTableReaderPageFrameCursor.computePageFrameRowLimit(100_000, 4, 100, 1000));
+        // evened out limit doesn't go below min rows
+        Assert.assertEquals(50, FwdTableReaderPageFrameCursor.computePageFrameRowLimit(120, 4, 50, 1000));
+        Assert.assertEquals(100, FwdTableReaderPageFrameCursor.computePageFrameRowLimit(1050, 1, 100, 100));
+    }
+
     private void populateColumnTypes(RecordMetadata metadata, IntList columnIndexes, IntList columnSizes) {
         for (int i = 0, n = metadata.getColumnCount(); i < n; i++) {
             columnIndexes.add(i);
@@ -38,6 +38,7 @@ import io.questdb.griffin.model.ExpressionNode;
 import io.questdb.std.MemoryTag;
 import io.questdb.std.Numbers;
 import io.questdb.std.ObjList;
+import io.questdb.std.str.StringSink;
 import org.junit.*;
 
 import java.util.HashMap;
@@ -273,6 +274,25 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
         }
     }
 
+    @Test
+    public void testInList() throws Exception {
+        serialize("anint in (1, 2, 3)");
+        assertIR("(i32 3L)(i32 anint)(=)(i32 2L)(i32 anint)(=)(||)(i32 1L)(i32 anint)(=)(||)(ret)");
+    }
+
+    @Test
+    public void testInListSingleValue() throws Exception {
+        serialize("along in (42)");
+        assertIR("(i64 42L)(i64 along)(=)(ret)");
+    }
+
+    @Test
+    public void testInListSymbol() throws Exception {
+        serialize("not asymbol in ('" + KNOWN_SYMBOL_1 + "', '" + UNKNOWN_SYMBOL + "')");
+        assertIR("(i32 :0)(i32 asymbol)(=)(i32 0L)(i32 asymbol)(=)(||)(!)(ret)");
+        Assert.assertEquals(1, bindVarFunctions.size());
+    }
+
     @Test
     public void testKnownSymbolConstant() throws Exception {
         serialize("asymbol = '" + KNOWN_SYMBOL_1 + "' or anothersymbol = '" + KNOWN_SYMBOL_2 + "'");
@@ -563,6 +583,20 @@ public class CompiledFilterIRSerializerTest extends BaseFunctionFactoryTest {
         serialize("ageolong = ##11211");
     }
 
+    @Test(expected = SqlException.class)
+    public void testUnsupportedInListTimestamp() throws Exception {
+        serialize("atimestamp in ('2020-01-01')");
+    }
+
+    @Test(expected = SqlException.class)
+    public void testUnsupportedInListTooLong() throws Exception {
+        final StringSink values = new StringSink();
+        for (int i = 0; i < IN_LIST_MAX_SIZE; i++) {
+            values.put(i).put(',');
+        }
+        serialize("anint in (" + values + "42)");
+    }
+
     @Test(expected = SqlException.class)
     public void testUnsupportedLong256Constant() throws Exception {
         serialize("along = 0x123");
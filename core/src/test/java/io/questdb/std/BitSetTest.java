@@ -0,0 +1,67 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BitSetTest {
+
+    @Test
+    public void testClear() {
+        BitSet set = new BitSet();
+        for (int i = 0; i < 1000; i += 3) {
+            set.set(i);
+        }
+        set.clear();
+        for (int i = 0; i < 1000; i++) {
+            Assert.assertFalse(set.get(i));
+        }
+    }
+
+    @Test
+    public void testGetBeyondCapacity() {
+        BitSet set = new BitSet(64);
+        Assert.assertEquals(64, set.capacity());
+        Assert.assertFalse(set.get(64));
+        Assert.assertFalse(set.get(100_000));
+    }
+
+    @Test
+    public void testSetAndGet() {
+        BitSet set = new BitSet(64);
+        Rnd rnd = new Rnd();
+        IntHashSet expected = new IntHashSet();
+        for (int i = 0; i < 1000; i++) {
+            int value = rnd.nextInt(10_000);
+            set.set(value);
+            expected.add(value);
+        }
+        Assert.assertTrue(set.capacity() >= 10_000);
+        for (int i = 0; i < 10_000; i++) {
+            Assert.assertEquals(expected.contains(i), set.get(i));
+        }
+    }
+}
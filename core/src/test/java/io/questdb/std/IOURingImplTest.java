@@ -25,6 +25,7 @@
 package io.questdb.std;
 
 import io.questdb.cairo.CairoException;
+import io.questdb.network.Net;
 import io.questdb.std.str.DirectByteCharSequence;
 import io.questdb.std.str.Path;
 import io.questdb.std.str.StringSink;
@@ -43,6 +44,66 @@ public class IOURingImplTest {
     @ClassRule
     public static TemporaryFolder temp = new TemporaryFolder();
 
+    @Test
+    public void testAcceptAndPoll() throws Exception {
+        Assume.assumeTrue(rf.isAvailable());
+
+        TestUtils.assertMemoryLeak(() -> {
+            final long serverFd = Net.socketTcp(true);
+            Assert.assertTrue(Net.bindTcp(serverFd, 0, 0));
+            Net.listen(serverFd, 4);
+            final int port = Net.resolvePort(serverFd);
+
+            final long clientFd = Net.socketTcp(true);
+            final long sockAddr = Net.sockaddr("127.0.0.1", port);
+            final long buf = Unsafe.malloc(1, MemoryTag.NATIVE_DEFAULT);
+            long acceptedFd = -1;
+            try (IOURing ring = rf.newInstance(4)) {
+                long acceptId = ring.enqueueAccept(serverFd, false);
+                Assert.assertTrue(acceptId > -1);
+                Assert.assertEquals(1, ring.submit());
+
+                Assert.assertEquals(0, Net.connect(clientFd, sockAddr));
+                awaitCqe(ring);
+                Assert.assertEquals(acceptId, ring.getCqeId());
+                acceptedFd = Files.bumpFileCount(ring.getCqeRes());
+                Assert.assertTrue(acceptedFd > -1);
+                Assert.assertEquals(0, ring.getCqeFlags() & IOURing.CQE_F_MORE);
+
+                // nothing to read yet, poll stays in flight until removed
+                long pollId = ring.enqueuePoll(acceptedFd, IOURing.POLLIN);
+                Assert.assertTrue(pollId > -1);
+                Assert.assertEquals(1, ring.submit());
+                Assert.assertFalse(ring.nextCqe());
+                long removeId = ring.enqueuePollRemove(pollId);
+                Assert.assertEquals(1, ring.submit());
+                LongList ids = new LongList();
+                for (int i = 0; i < 2; i++) {
+                    awaitCqe(ring);
+                    ids.add(ring.getCqeId());
+                }
+                ids.sort();
+                TestUtils.assertEquals(new LongList(new long[]{pollId, removeId}), ids);
+
+                pollId = ring.enqueuePoll(acceptedFd, IOURing.POLLIN);
+                Assert.assertEquals(1, ring.submit());
+                Unsafe.getUnsafe().putByte(buf, (byte) 'x');
+                Assert.assertEquals(1, Net.send(clientFd, buf, 1));
+                awaitCqe(ring);
+                Assert.assertEquals(pollId, ring.getCqeId());
+                Assert.assertTrue((ring.getCqeRes() & IOURing.POLLIN) != 0);
+            } finally {
+                Unsafe.free(buf, 1, MemoryTag.NATIVE_DEFAULT);
+                Net.freeSockAddr(sockAddr);
+                Net.close(clientFd);
+                if (acceptedFd > -1) {
+                    Net.close(acceptedFd);
+                }
+                Net.close(serverFd);
+            }
+        });
+    }
+
     @Test(expected = CairoException.class)
     public void testFailsToInit() {
         final IOURingFacade rf = new IOURingFacadeImpl() {
@@ -202,4 +263,10 @@ public class IOURingImplTest {
             }
         });
     }
+
+    private static void awaitCqe(IOURing ring) {
+        while (!ring.nextCqe()) {
+            Os.pause();
+        }
+    }
 }
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ *     ___                  _   ____  ____
+ *    / _ \ _   _  ___  ___| |_|  _ \| __ )
+ *   | | | | | | |/ _ \/ __| __| | | |  _ \
+ *   | |_| | |_| |  __/\__ \ |_| |_| | |_) |
+ *    \__\_\\__,_|\___||___/\__|____/|____/
+ *
+ *  Copyright (c) 2014-2019 Appsicle
+ *  Copyright (c) 2019-2022 QuestDB
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ *
+ ******************************************************************************/
+
+package io.questdb.std;
+
+import io.questdb.test.tools.TestUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class UnsafeTest {
+
+    @Test
+    public void testHugePageAdvice() throws Exception {
+        TestUtils.assertMemoryLeak(() -> {
+            final IntList tags = new IntList();
+            tags.add(MemoryTag.NATIVE_FAST_MAP);
+            Unsafe.setHugePageMemoryTags(tags);
+            try {
+                // tags are not set where advice is not supported
+                final boolean supported = Unsafe.isHugePageAdviceSupported();
+                Assert.assertEquals(supported, Unsafe.isHugePageTag(MemoryTag.NATIVE_FAST_MAP));
+                Assert.assertFalse(Unsafe.isHugePageTag(MemoryTag.NATIVE_DEFAULT));
+
+                final long adviseCount = Unsafe.getHugePageAdviseCount();
+                final long advisedMem = Unsafe.getHugePageAdvisedMem();
+
+                // allocations below huge page size or with other tags are not advised
+                long small = Unsafe.malloc(Unsafe.HUGE_PAGE_SIZE / 2, MemoryTag.NATIVE_FAST_MAP);
+                long other = Unsafe.malloc(4 * Unsafe.HUGE_PAGE_SIZE, MemoryTag.NATIVE_DEFAULT);
+                Assert.assertEquals(adviseCount, Unsafe.getHugePageAdviseCount());
+                Unsafe.free(small, Unsafe.HUGE_PAGE_SIZE / 2, MemoryTag.NATIVE_FAST_MAP);
+                Unsafe.free(other, 4 * Unsafe.HUGE_PAGE_SIZE, MemoryTag.NATIVE_DEFAULT);
+
+                final long size = 4 * Unsafe.HUGE_PAGE_SIZE;
+                long ptr = Unsafe.malloc(size, MemoryTag.NATIVE_FAST_MAP);
+                final long advised = Unsafe.getHugePageAdvisedMem() - advisedMem;
+                if (supported) {
+                    Assert.assertEquals(adviseCount + 1, Unsafe.getHugePageAdviseCount());
+                    // only the 2MB aligned part of the allocation is advised
+                    Assert.assertTrue(advised >= size - Unsafe.HUGE_PAGE_SIZE && advised <= size);
+                    Assert.assertEquals(0, advised % Unsafe.HUGE_PAGE_SIZE);
+                } else {
+                    Assert.assertEquals(adviseCount, Unsafe.getHugePageAdviseCount());
+                    Assert.assertEquals(0, advised);
+                }
+
+                // realloc accounts for the new block only
+                ptr = Unsafe.realloc(ptr, size, 2 * size, MemoryTag.NATIVE_FAST_MAP);
+                final long reallocAdvised = Unsafe.getHugePageAdvisedMem() - advisedMem;
+                Assert.assertTrue(reallocAdvised <= 2 * size);
+                if (advised > 0) {
+                    Assert.assertTrue(reallocAdvised >= 2 * size - Unsafe.HUGE_PAGE_SIZE);
+                }
+                // memory must remain usable
+                Vect.memset(ptr, 2 * size, 1);
+                Assert.assertEquals(1, Unsafe.getUnsafe().getByte(ptr + 2 * size - 1));
+                Unsafe.free(ptr, 2 * size, MemoryTag.NATIVE_FAST_MAP);
+                Assert.assertEquals(advisedMem, Unsafe.getHugePageAdvisedMem());
+            } finally {
+                Unsafe.setHugePageMemoryTags(new IntList());
+            }
+        });
+    }
+
+    @Test
+    public void testMemoryTagOf() {
+        Assert.assertEquals(MemoryTag.NATIVE_FAST_MAP, MemoryTag.tagOf("NATIVE_FAST_MAP"));
+        Assert.assertEquals(MemoryTag.NATIVE_RECORD_CHAIN, MemoryTag.tagOf("native_record_chain"));
+        Assert.assertEquals(-1, MemoryTag.tagOf("NOT_A_TAG"));
+    }
+}